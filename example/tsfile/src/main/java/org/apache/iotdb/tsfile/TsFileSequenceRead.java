@@ -91,6 +91,25 @@ public class TsFileSequenceRead {
             }
           }
           break;
+        case MetaMarker.TIME_CHUNK_HEADER:
+        case MetaMarker.VALUE_CHUNK_HEADER:
+          // the chunks of an aligned device, whose value chunks share one time chunk
+          System.out.println("\t[Aligned Chunk]");
+          System.out.println("\tposition: " + reader.position());
+          ChunkHeader alignedHeader = reader.readChunkHeader(marker);
+          if (marker == MetaMarker.TIME_CHUNK_HEADER) {
+            System.out.println("\tTime column");
+          } else {
+            System.out.println("\tMeasurement: " + alignedHeader.getMeasurementID());
+            System.out.println("\tTime chunk position: " + alignedHeader.getTimeChunkOffset());
+          }
+          for (int j = 0; j < alignedHeader.getNumOfPages(); j++) {
+            System.out.println("\t\t[Page]\n \t\tPage head position: " + reader.position());
+            PageHeader pageHeader = reader.readPageHeader(alignedHeader.getDataType());
+            System.out.println("\t\tpoints in the page: " + pageHeader.getNumOfValues());
+            reader.skipPageData(pageHeader);
+          }
+          break;
         case MetaMarker.CHUNK_GROUP_FOOTER:
           System.out.println("Chunk Group Footer position: " + reader.position());
           ChunkGroupFooter chunkGroupFooter = reader.readChunkGroupFooter();
@@ -101,6 +101,12 @@ selectElements
 
 functionCall
     : functionName LR_BRACKET suffixPath RR_BRACKET
+    | PERCENTILE LR_BRACKET suffixPath (COMMA rank=percentileRank)? RR_BRACKET
+    ;
+
+percentileRank
+    : realLiteral
+    | INT
     ;
 
 functionName
@@ -113,6 +119,7 @@ functionName
     | FIRST_VALUE
     | SUM
     | LAST_VALUE
+    | APPROX_COUNT_DISTINCT
     ;
 
 lastClause
@@ -157,11 +164,31 @@ whereClause
     ;
 
 showWhereClause
-    : WHERE (property | containsExpression)
+    : WHERE tagOrExpression
+    ;
+tagOrExpression
+    : tagAndExpression (OPERATOR_OR tagAndExpression)*
+    ;
+tagAndExpression
+    : tagPredicate (OPERATOR_AND tagPredicate)*
+    ;
+tagPredicate
+    : property
+    | notEqualExpression
+    | containsExpression
+    | startsWithExpression
+    | OPERATOR_NOT tagPredicate
+    | LR_BRACKET tagOrExpression RR_BRACKET
+    ;
+notEqualExpression
+    : name=ID OPERATOR_NEQ value=propertyValue
     ;
 containsExpression
     : name=ID OPERATOR_CONTAINS value=propertyValue
     ;
+startsWithExpression
+    : name=ID OPERATOR_STARTSWITH value=propertyValue
+    ;
 
 orExpression
     : andExpression (OPERATOR_OR andExpression)*
@@ -381,7 +408,7 @@ dateExpression
     ;
 
 encoding
-    : PLAIN | PLAIN_DICTIONARY | RLE | DIFF | TS_2DIFF | GORILLA | REGULAR
+    : PLAIN | PLAIN_DICTIONARY | RLE | DIFF | TS_2DIFF | GORILLA | REGULAR | AUTO | CHIMP | ELF | TS_REGULAR
     ;
 
 realLiteral
@@ -603,6 +630,22 @@ REGULAR
     : R E G U L A R
     ;
 
+AUTO
+    : A U T O
+    ;
+
+CHIMP
+    : C H I M P
+    ;
+
+ELF
+    : E L F
+    ;
+
+TS_REGULAR
+    : T S '_' R E G U L A R
+    ;
+
 BITMAP
     : B I T M A P
     ;
@@ -787,6 +830,14 @@ LAST_VALUE
     : L A S T UNDERLINE V A L U E
     ;
 
+PERCENTILE
+    : P E R C E N T I L E
+    ;
+
+APPROX_COUNT_DISTINCT
+    : A P P R O X UNDERLINE C O U N T UNDERLINE D I S T I N C T
+    ;
+
 LAST
     : L A S T
     ;
@@ -863,6 +914,10 @@ OPERATOR_CONTAINS
     : C O N T A I N S
     ;
 
+OPERATOR_STARTSWITH
+    : S T A R T S W I T H
+    ;
+
 MINUS : '-';
 
 PLUS : '+';
@@ -223,6 +223,18 @@ public class IoTDBConfig {
    */
   private int concurrentQueryThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many non-overlapped chunks of a series can be decoded ahead by the query threads while a
+   * raw data query reads it. When <= 0, the chunks are decoded one by one by the reading thread.
+   */
+  private int prefetchedChunkNumPerSeries = 0;
+
+  /**
+   * How many threads can concurrently recover the time partitions of storage groups at start up.
+   * When <= 0, use CPU core number.
+   */
+  private int tsFileRecoverThreadNum = Runtime.getRuntime().availableProcessors();
+
   private ZoneId zoneID = ZoneId.systemDefault();
 
   /**
@@ -235,6 +247,13 @@ public class IoTDBConfig {
    */
   private long memtableSizeThreshold = 128 * 1024 * 1024L;
 
+  /**
+   * The tablets inserted through insertTablet with no less measurements than this are stored as
+   * aligned devices, whose measurements share one time column in memtable and TsFile. Disabled
+   * if it is not positive.
+   */
+  private int alignedTabletMinMeasurements = 0;
+
   /**
    * whether to cache meta data(ChunkMetaData and TsFileMetaData) or not.
    */
@@ -255,6 +274,18 @@ public class IoTDBConfig {
    */
   private long allocateMemoryForChunkCache = allocateMemoryForRead * 5 / 39;
 
+  /**
+   * Memory allocated for the data read ahead and the result buffers of the running queries, which
+   * is the free memory of read process left by the caches
+   */
+  private long allocateMemoryForQuery = allocateMemoryForRead * 19 / 39;
+
+  /**
+   * Memory a single query can use, beyond which its read ahead data is spilled to the query dir.
+   * When <= 0, a query can use 1/10 of allocateMemoryForQuery.
+   */
+  private long memoryBudgetPerQuery = 0;
+
   /**
    * The statMonitor writes statistics info into IoTDB every backLoopPeriodSec secs. The default
    * value is 5s.
@@ -279,6 +310,11 @@ public class IoTDBConfig {
    */
   private int mManagerCacheSize = 400000;
 
+  /**
+   * Cache size of the resolved paths with wildcards in {@link MManager}.
+   */
+  private int wildcardPathCacheSize = 1000;
+
   /**
    * Is external sort enable.
    */
@@ -398,6 +434,12 @@ public class IoTDBConfig {
    */
   private long mergeMemoryBudget = (long) (Runtime.getRuntime().maxMemory() * 0.2);
 
+  /**
+   * How much memory (in byte) can be used by the device time indexes of sealed TsFiles, indexes of
+   * the oldest time partitions are evicted and reloaded on demand beyond it.
+   */
+  private long timeIndexMemoryBudget = (long) (Runtime.getRuntime().maxMemory() * 0.1);
+
   /**
    * How many threads will be set up to perform upgrade tasks.
    */
@@ -426,6 +468,12 @@ public class IoTDBConfig {
    */
   private boolean continueMergeAfterReboot = true;
 
+  /**
+   * While queries, flushes or WAL are using the disk, a merge waits at each of its checkpoints for
+   * at most such time before going on. Unit: millisecond, 0 means merges never yield.
+   */
+  private long maxMergePauseUnderLoadMs = 0;
+
   /**
    * A global merge will be performed each such interval, that is, each storage group will be merged
    * (if proper merge candidates can be found). Unit: second.
@@ -446,6 +494,59 @@ public class IoTDBConfig {
    */
   private int chunkMergePointThreshold = 20480;
 
+  /**
+   * A global compaction of sequence files will be performed each such interval. Unit: second.
+   */
+  private long seqCompactionIntervalSec = 600L;
+
+  /**
+   * How many adjacent sequence files of the same level are compacted into one file of the next
+   * level.
+   */
+  private int seqCompactionFileNum = 10;
+
+  /**
+   * Sequence files reaching this level are no longer compacted.
+   */
+  private int maxSeqCompactionLevel = 3;
+
+  /**
+   * The max bytes written by the compaction of sequence files per second. Unit: MB.
+   */
+  private int seqCompactionWriteThroughputMbPerSec = 16;
+
+  /**
+   * The max disk throughput of flushing memtables. Unit: MB per second, 0 means unlimited.
+   */
+  private int flushIOThroughputMbPerSec = 0;
+
+  /**
+   * The max disk throughput of writing WAL. Unit: MB per second, 0 means unlimited.
+   */
+  private int walIOThroughputMbPerSec = 0;
+
+  /**
+   * The max disk throughput of reading chunks in queries. Unit: MB per second, 0 means unlimited.
+   */
+  private int queryIOThroughputMbPerSec = 0;
+
+  /**
+   * The max disk throughput of merges. Unit: MB per second, 0 means unlimited.
+   */
+  private int mergeIOThroughputMbPerSec = 64;
+
+  /**
+   * The max disk throughput of sending files to the sync receiver. Unit: MB per second, 0 means
+   * unlimited.
+   */
+  private int syncIOThroughputMbPerSec = 0;
+
+  /**
+   * While queries, flushes or WAL are using the disk, background I/O (merge, compaction and sync)
+   * only gets this ratio of its throughput.
+   */
+  private double backgroundIORatioUnderLoad = 0.25;
+
   private MergeFileStrategy mergeFileStrategy = MergeFileStrategy.MAX_SERIES_NUM;
 
   /**
@@ -831,6 +932,22 @@ public class IoTDBConfig {
     this.concurrentQueryThread = concurrentQueryThread;
   }
 
+  public int getPrefetchedChunkNumPerSeries() {
+    return prefetchedChunkNumPerSeries;
+  }
+
+  public void setPrefetchedChunkNumPerSeries(int prefetchedChunkNumPerSeries) {
+    this.prefetchedChunkNumPerSeries = prefetchedChunkNumPerSeries;
+  }
+
+  public int getTsFileRecoverThreadNum() {
+    return tsFileRecoverThreadNum;
+  }
+
+  void setTsFileRecoverThreadNum(int tsFileRecoverThreadNum) {
+    this.tsFileRecoverThreadNum = tsFileRecoverThreadNum;
+  }
+
   public long getTsFileSizeThreshold() {
     return tsFileSizeThreshold;
   }
@@ -887,6 +1004,14 @@ public class IoTDBConfig {
     this.mManagerCacheSize = mManagerCacheSize;
   }
 
+  public int getWildcardPathCacheSize() {
+    return wildcardPathCacheSize;
+  }
+
+  void setWildcardPathCacheSize(int wildcardPathCacheSize) {
+    this.wildcardPathCacheSize = wildcardPathCacheSize;
+  }
+
   public boolean isSyncEnable() {
     return isSyncEnable;
   }
@@ -975,6 +1100,14 @@ public class IoTDBConfig {
     this.mergeMemoryBudget = mergeMemoryBudget;
   }
 
+  public long getTimeIndexMemoryBudget() {
+    return timeIndexMemoryBudget;
+  }
+
+  void setTimeIndexMemoryBudget(long timeIndexMemoryBudget) {
+    this.timeIndexMemoryBudget = timeIndexMemoryBudget;
+  }
+
   public int getMergeThreadNum() {
     return mergeThreadNum;
   }
@@ -991,6 +1124,14 @@ public class IoTDBConfig {
     this.continueMergeAfterReboot = continueMergeAfterReboot;
   }
 
+  public long getMaxMergePauseUnderLoadMs() {
+    return maxMergePauseUnderLoadMs;
+  }
+
+  void setMaxMergePauseUnderLoadMs(long maxMergePauseUnderLoadMs) {
+    this.maxMergePauseUnderLoadMs = maxMergePauseUnderLoadMs;
+  }
+
   public long getMergeIntervalSec() {
     return mergeIntervalSec;
   }
@@ -999,6 +1140,86 @@ public class IoTDBConfig {
     this.mergeIntervalSec = mergeIntervalSec;
   }
 
+  public long getSeqCompactionIntervalSec() {
+    return seqCompactionIntervalSec;
+  }
+
+  void setSeqCompactionIntervalSec(long seqCompactionIntervalSec) {
+    this.seqCompactionIntervalSec = seqCompactionIntervalSec;
+  }
+
+  public int getSeqCompactionFileNum() {
+    return seqCompactionFileNum;
+  }
+
+  public void setSeqCompactionFileNum(int seqCompactionFileNum) {
+    this.seqCompactionFileNum = seqCompactionFileNum;
+  }
+
+  public int getMaxSeqCompactionLevel() {
+    return maxSeqCompactionLevel;
+  }
+
+  public void setMaxSeqCompactionLevel(int maxSeqCompactionLevel) {
+    this.maxSeqCompactionLevel = maxSeqCompactionLevel;
+  }
+
+  public int getSeqCompactionWriteThroughputMbPerSec() {
+    return seqCompactionWriteThroughputMbPerSec;
+  }
+
+  public void setSeqCompactionWriteThroughputMbPerSec(int seqCompactionWriteThroughputMbPerSec) {
+    this.seqCompactionWriteThroughputMbPerSec = seqCompactionWriteThroughputMbPerSec;
+  }
+
+  public int getFlushIOThroughputMbPerSec() {
+    return flushIOThroughputMbPerSec;
+  }
+
+  void setFlushIOThroughputMbPerSec(int flushIOThroughputMbPerSec) {
+    this.flushIOThroughputMbPerSec = flushIOThroughputMbPerSec;
+  }
+
+  public int getWalIOThroughputMbPerSec() {
+    return walIOThroughputMbPerSec;
+  }
+
+  void setWalIOThroughputMbPerSec(int walIOThroughputMbPerSec) {
+    this.walIOThroughputMbPerSec = walIOThroughputMbPerSec;
+  }
+
+  public int getQueryIOThroughputMbPerSec() {
+    return queryIOThroughputMbPerSec;
+  }
+
+  void setQueryIOThroughputMbPerSec(int queryIOThroughputMbPerSec) {
+    this.queryIOThroughputMbPerSec = queryIOThroughputMbPerSec;
+  }
+
+  public int getMergeIOThroughputMbPerSec() {
+    return mergeIOThroughputMbPerSec;
+  }
+
+  void setMergeIOThroughputMbPerSec(int mergeIOThroughputMbPerSec) {
+    this.mergeIOThroughputMbPerSec = mergeIOThroughputMbPerSec;
+  }
+
+  public int getSyncIOThroughputMbPerSec() {
+    return syncIOThroughputMbPerSec;
+  }
+
+  void setSyncIOThroughputMbPerSec(int syncIOThroughputMbPerSec) {
+    this.syncIOThroughputMbPerSec = syncIOThroughputMbPerSec;
+  }
+
+  public double getBackgroundIORatioUnderLoad() {
+    return backgroundIORatioUnderLoad;
+  }
+
+  void setBackgroundIORatioUnderLoad(double backgroundIORatioUnderLoad) {
+    this.backgroundIORatioUnderLoad = backgroundIORatioUnderLoad;
+  }
+
   public boolean isEnableParameterAdapter() {
     return enableParameterAdapter;
   }
@@ -1087,6 +1308,14 @@ public class IoTDBConfig {
     this.memtableSizeThreshold = memtableSizeThreshold;
   }
 
+  public int getAlignedTabletMinMeasurements() {
+    return alignedTabletMinMeasurements;
+  }
+
+  public void setAlignedTabletMinMeasurements(int alignedTabletMinMeasurements) {
+    this.alignedTabletMinMeasurements = alignedTabletMinMeasurements;
+  }
+
   public MergeFileStrategy getMergeFileStrategy() {
     return mergeFileStrategy;
   }
@@ -1152,6 +1381,22 @@ public class IoTDBConfig {
     this.allocateMemoryForChunkCache = allocateMemoryForChunkCache;
   }
 
+  public long getAllocateMemoryForQuery() {
+    return allocateMemoryForQuery;
+  }
+
+  public void setAllocateMemoryForQuery(long allocateMemoryForQuery) {
+    this.allocateMemoryForQuery = allocateMemoryForQuery;
+  }
+
+  public long getMemoryBudgetPerQuery() {
+    return memoryBudgetPerQuery;
+  }
+
+  public void setMemoryBudgetPerQuery(long memoryBudgetPerQuery) {
+    this.memoryBudgetPerQuery = memoryBudgetPerQuery;
+  }
+
   public boolean isEnableWatermark() {
     return enableWatermark;
   }
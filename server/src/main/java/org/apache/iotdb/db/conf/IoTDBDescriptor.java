@@ -240,6 +240,10 @@ public class IoTDBDescriptor {
         conf.setMemtableSizeThreshold(memTableSizeThreshold);
       }
 
+      conf.setAlignedTabletMinMeasurements(Integer.parseInt(properties
+          .getProperty("aligned_tablet_min_measurements",
+              Integer.toString(conf.getAlignedTabletMinMeasurements())).trim()));
+
       conf.setSyncEnable(Boolean
           .parseBoolean(properties.getProperty("is_sync_enable",
               Boolean.toString(conf.isSyncEnable()))));
@@ -266,9 +270,28 @@ public class IoTDBDescriptor {
         conf.setConcurrentQueryThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setPrefetchedChunkNumPerSeries(Integer
+          .parseInt(properties.getProperty("prefetched_chunk_num_per_series",
+              Integer.toString(conf.getPrefetchedChunkNumPerSeries()))));
+
+      conf.setMemoryBudgetPerQuery(Long
+          .parseLong(properties.getProperty("memory_budget_per_query",
+              Long.toString(conf.getMemoryBudgetPerQuery()))));
+
+      conf.setTsFileRecoverThreadNum(Integer
+          .parseInt(properties.getProperty("tsfile_recover_thread_num",
+              Integer.toString(conf.getTsFileRecoverThreadNum()))));
+
+      if (conf.getTsFileRecoverThreadNum() <= 0) {
+        conf.setTsFileRecoverThreadNum(Runtime.getRuntime().availableProcessors());
+      }
+
       conf.setmManagerCacheSize(Integer
           .parseInt(properties.getProperty("metadata_node_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
+      conf.setWildcardPathCacheSize(Integer
+          .parseInt(properties.getProperty("wildcard_path_cache_size",
+              Integer.toString(conf.getWildcardPathCacheSize())).trim()));
 
       conf.setLanguageVersion(properties.getProperty("language_version",
           conf.getLanguageVersion()).trim());
@@ -290,6 +313,8 @@ public class IoTDBDescriptor {
           Integer.toString(conf.getUpgradeThreadNum()))));
       conf.setMergeMemoryBudget(Long.parseLong(properties.getProperty("merge_memory_budget",
           Long.toString(conf.getMergeMemoryBudget()))));
+      conf.setTimeIndexMemoryBudget(Long.parseLong(properties.getProperty(
+          "time_index_memory_budget", Long.toString(conf.getTimeIndexMemoryBudget()))));
       conf.setMergeThreadNum(Integer.parseInt(properties.getProperty("merge_thread_num",
           Integer.toString(conf.getMergeThreadNum()))));
       conf.setMergeChunkSubThreadNum(Integer.parseInt(properties.getProperty
@@ -297,6 +322,8 @@ public class IoTDBDescriptor {
               Integer.toString(conf.getMergeChunkSubThreadNum()))));
       conf.setContinueMergeAfterReboot(Boolean.parseBoolean(properties.getProperty(
           "continue_merge_after_reboot", Boolean.toString(conf.isContinueMergeAfterReboot()))));
+      conf.setMaxMergePauseUnderLoadMs(Long.parseLong(properties.getProperty(
+          "max_merge_pause_under_load_ms", Long.toString(conf.getMaxMergePauseUnderLoadMs()))));
       conf.setMergeFileSelectionTimeBudget(Long.parseLong(properties.getProperty
           ("merge_fileSelection_time_budget",
               Long.toString(conf.getMergeFileSelectionTimeBudget()))));
@@ -306,6 +333,31 @@ public class IoTDBDescriptor {
           Boolean.toString(conf.isForceFullMerge()))));
       conf.setChunkMergePointThreshold(Integer.parseInt(properties.getProperty(
           "chunk_merge_point_threshold", Integer.toString(conf.getChunkMergePointThreshold()))));
+      conf.setSeqCompactionIntervalSec(Long.parseLong(properties.getProperty(
+          "seq_compaction_interval_sec", Long.toString(conf.getSeqCompactionIntervalSec()))));
+      conf.setSeqCompactionFileNum(Integer.parseInt(properties.getProperty(
+          "seq_compaction_file_num", Integer.toString(conf.getSeqCompactionFileNum()))));
+      conf.setMaxSeqCompactionLevel(Integer.parseInt(properties.getProperty(
+          "max_seq_compaction_level", Integer.toString(conf.getMaxSeqCompactionLevel()))));
+      conf.setSeqCompactionWriteThroughputMbPerSec(Integer.parseInt(properties.getProperty(
+          "seq_compaction_write_throughput_mb_per_sec",
+          Integer.toString(conf.getSeqCompactionWriteThroughputMbPerSec()))));
+      conf.setFlushIOThroughputMbPerSec(Integer.parseInt(properties.getProperty(
+          "flush_io_throughput_mb_per_sec",
+          Integer.toString(conf.getFlushIOThroughputMbPerSec()))));
+      conf.setWalIOThroughputMbPerSec(Integer.parseInt(properties.getProperty(
+          "wal_io_throughput_mb_per_sec", Integer.toString(conf.getWalIOThroughputMbPerSec()))));
+      conf.setQueryIOThroughputMbPerSec(Integer.parseInt(properties.getProperty(
+          "query_io_throughput_mb_per_sec",
+          Integer.toString(conf.getQueryIOThroughputMbPerSec()))));
+      conf.setMergeIOThroughputMbPerSec(Integer.parseInt(properties.getProperty(
+          "merge_io_throughput_mb_per_sec",
+          Integer.toString(conf.getMergeIOThroughputMbPerSec()))));
+      conf.setSyncIOThroughputMbPerSec(Integer.parseInt(properties.getProperty(
+          "sync_io_throughput_mb_per_sec", Integer.toString(conf.getSyncIOThroughputMbPerSec()))));
+      conf.setBackgroundIORatioUnderLoad(Double.parseDouble(properties.getProperty(
+          "background_io_ratio_under_load",
+          Double.toString(conf.getBackgroundIORatioUnderLoad()))));
 
       conf.setEnablePerformanceStat(Boolean
           .parseBoolean(properties.getProperty("enable_performance_stat",
@@ -516,6 +568,9 @@ public class IoTDBDescriptor {
     TSFileDescriptor.getInstance().getConfig().setMaxStringLength(Integer
         .parseInt(properties.getProperty("max_string_length",
             Integer.toString(TSFileDescriptor.getInstance().getConfig().getMaxStringLength()))));
+    TSFileDescriptor.getInstance().getConfig().setMaxDictionarySizeInByte(Integer
+        .parseInt(properties.getProperty("max_dictionary_size_in_byte", Integer.toString(
+            TSFileDescriptor.getInstance().getConfig().getMaxDictionarySizeInByte()))));
     TSFileDescriptor.getInstance().getConfig().setBloomFilterErrorRate(Double
         .parseDouble(properties.getProperty("bloom_filter_error_rate",
             Double.toString(
@@ -536,6 +591,18 @@ public class IoTDBDescriptor {
     TSFileDescriptor.getInstance().getConfig().setMaxDegreeOfIndexNode(Integer.parseInt(properties
         .getProperty("max_degree_of_index_node", Integer
             .toString(TSFileDescriptor.getInstance().getConfig().getMaxDegreeOfIndexNode()))));
+    TSFileDescriptor.getInstance().getConfig().setMaxMappedMetadataNum(Integer.parseInt(properties
+        .getProperty("max_mapped_metadata_num", Integer
+            .toString(TSFileDescriptor.getInstance().getConfig().getMaxMappedMetadataNum()))));
+    TSFileDescriptor.getInstance().getConfig().setEnableSketchStatistics(Boolean.parseBoolean(
+        properties.getProperty("enable_sketch_statistics", Boolean
+            .toString(TSFileDescriptor.getInstance().getConfig().isEnableSketchStatistics()))));
+    TSFileDescriptor.getInstance().getConfig().setQuantileSketchSize(Integer.parseInt(properties
+        .getProperty("quantile_sketch_size", Integer
+            .toString(TSFileDescriptor.getInstance().getConfig().getQuantileSketchSize()))));
+    TSFileDescriptor.getInstance().getConfig().setDistinctSketchPrecision(Integer.parseInt(
+        properties.getProperty("distinct_sketch_precision", Integer
+            .toString(TSFileDescriptor.getInstance().getConfig().getDistinctSketchPrecision()))));
   }
 
   public void loadHotModifiedProps() throws QueryProcessException {
@@ -617,6 +684,8 @@ public class IoTDBDescriptor {
     logger.info("allocateMemoryForWrite = " + conf.getAllocateMemoryForWrite());
 
     if (!conf.isMetaDataCacheEnable()) {
+      // no memory is taken by the caches
+      conf.setAllocateMemoryForQuery(conf.getAllocateMemoryForRead());
       return;
     }
 
@@ -636,6 +705,10 @@ public class IoTDBDescriptor {
             maxMemoryAvailable * Integer.parseInt(proportions[1].trim()) / proportionSum);
         conf.setAllocateMemoryForTimeSeriesMetaDataCache(
             maxMemoryAvailable * Integer.parseInt(proportions[2].trim()) / proportionSum);
+        if (proportions.length > 3) {
+          conf.setAllocateMemoryForQuery(
+              maxMemoryAvailable * Integer.parseInt(proportions[3].trim()) / proportionSum);
+        }
       } catch (Exception e) {
         throw new RuntimeException(
             "Each subsection of configuration item chunkmeta_chunk_timeseriesmeta_free_memory_proportion"
@@ -227,7 +227,7 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
   }
 
   @Override
-  public void addOrDeleteStorageGroup(int diff) throws ConfigAdjusterException {
+  public synchronized void addOrDeleteStorageGroup(int diff) throws ConfigAdjusterException {
     totalStorageGroup += diff;
     maxMemTableNum +=
         MEMTABLE_NUM_FOR_EACH_PARTITION * IoTDBDescriptor.getInstance().getConfig().getConcurrentWritingTimePartition() * diff
@@ -247,7 +247,7 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
   }
 
   @Override
-  public void addOrDeleteTimeSeries(int diff) throws ConfigAdjusterException {
+  public synchronized void addOrDeleteTimeSeries(int diff) throws ConfigAdjusterException {
     if (!CONFIG.isEnableParameterAdapter()) {
       return;
     }
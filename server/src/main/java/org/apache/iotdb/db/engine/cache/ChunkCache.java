@@ -21,6 +21,8 @@ package org.apache.iotdb.db.engine.cache;
 
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
@@ -29,7 +31,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -83,7 +84,8 @@ public class ChunkCache {
   public Chunk get(ChunkMetadata chunkMetaData, TsFileSequenceReader reader) throws IOException {
     if (!cacheEnable) {
       Chunk chunk = reader.readMemChunk(chunkMetaData);
-      return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
+      IOScheduler.getInstance().acquire(IOType.QUERY, chunk.getData().remaining());
+      return chunk.duplicate();
     }
 
     cacheRequestNum.incrementAndGet();
@@ -94,38 +96,33 @@ public class ChunkCache {
         cacheHitNum.incrementAndGet();
         printCacheLog(true);
         Chunk chunk = lruCache.get(chunkMetaData);
-        return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
+        return chunk.duplicate();
       }
     } finally {
       lock.readLock().unlock();
     }
 
-    Lock cacheLock = lock.writeLock();
+    printCacheLog(false);
+    Chunk chunk;
     try {
-      cacheLock.lock();
-      if (lruCache.containsKey(chunkMetaData)) {
-        try {
-          cacheLock = lock.readLock();
-          cacheLock.lock();
-        } finally {
-          lock.writeLock().unlock();
-        }
-        cacheHitNum.incrementAndGet();
-        printCacheLog(true);
-        Chunk chunk = lruCache.get(chunkMetaData);
-        return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
-      }
-      printCacheLog(false);
-      Chunk chunk = reader.readMemChunk(chunkMetaData);
-      lruCache.put(chunkMetaData, chunk);
-      return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
+      chunk = reader.readMemChunk(chunkMetaData);
     } catch (IOException e) {
       logger.error("something wrong happened while reading {}", reader.getFileName());
       throw e;
-    } finally {
-      cacheLock.unlock();
     }
+    // throttled outside the lock, so that the cache hits of other queries are not blocked
+    IOScheduler.getInstance().acquire(IOType.QUERY, chunk.getData().remaining());
 
+    lock.writeLock().lock();
+    try {
+      // the same chunk may have been cached by a concurrent miss meanwhile
+      if (!lruCache.containsKey(chunkMetaData)) {
+        lruCache.put(chunkMetaData, chunk);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return chunk.duplicate();
   }
 
   private void printCacheLog(boolean isHit) {
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CompactionManager runs the compactions of sequence files one by one in its own thread and
+ * manages a Timer to periodically issue a global compaction.
+ */
+public class CompactionManager implements IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(CompactionManager.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private ExecutorService compactionTaskPool;
+  private ScheduledExecutorService timedCompactionThreadPool;
+
+  private CompactionManager() {
+  }
+
+  public static CompactionManager getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  public Future<Void> submitTask(SeqCompactionTask task) {
+    return compactionTaskPool.submit(task);
+  }
+
+  @Override
+  public void start() {
+    if (compactionTaskPool == null) {
+      compactionTaskPool = Executors
+          .newSingleThreadExecutor(r -> new Thread(r, "SeqCompactionThread"));
+      long interval = config.getSeqCompactionIntervalSec();
+      if (interval > 0) {
+        timedCompactionThreadPool = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r,
+            "TimedSeqCompactionThread"));
+        timedCompactionThreadPool.scheduleAtFixedRate(this::compactAll, interval, interval,
+            TimeUnit.SECONDS);
+      }
+      logger.info("CompactionManager started");
+    }
+  }
+
+  @Override
+  public void stop() {
+    waitAndStop(0);
+  }
+
+  @Override
+  public void waitAndStop(long milliseconds) {
+    if (compactionTaskPool != null) {
+      if (timedCompactionThreadPool != null) {
+        awaitTermination(timedCompactionThreadPool, milliseconds);
+        timedCompactionThreadPool = null;
+      }
+      awaitTermination(compactionTaskPool, milliseconds);
+      compactionTaskPool = null;
+      logger.info("CompactionManager stopped");
+    }
+  }
+
+  private void awaitTermination(ExecutorService service, long milliseconds) {
+    try {
+      service.shutdown();
+      if (!service.awaitTermination(milliseconds, TimeUnit.MILLISECONDS)) {
+        service.shutdownNow();
+        // an interrupted compaction aborts and cleans up its target file
+        service.awaitTermination(1, TimeUnit.MINUTES);
+      }
+    } catch (InterruptedException e) {
+      logger.warn("Compaction thread pool can not be closed in {} ms", milliseconds);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.COMPACTION_SERVICE;
+  }
+
+  private void compactAll() {
+    try {
+      StorageEngine.getInstance().compactAll();
+    } catch (Exception e) {
+      logger.error("Cannot perform a global compaction of sequence files", e);
+    }
+  }
+
+  private static class InstanceHolder {
+
+    private static final CompactionManager INSTANCE = new CompactionManager();
+
+    private InstanceHolder() {
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction;
+
+import static org.apache.iotdb.db.engine.compaction.SeqCompactionLogger.STR_END;
+import static org.apache.iotdb.db.engine.compaction.SeqCompactionLogger.STR_SOURCE;
+import static org.apache.iotdb.db.engine.compaction.SeqCompactionLogger.STR_TARGET;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * RecoverSeqCompactionTask finishes or rolls back a compaction of sequence files interrupted by a
+ * crash, before the files of the storage group are loaded. If the target file was not completed,
+ * it is removed and the source files remain. Otherwise, the modifications of the remaining source
+ * files are appended to the target file and the source files are removed.
+ */
+public class RecoverSeqCompactionTask {
+
+  private static final Logger logger = LoggerFactory.getLogger(RecoverSeqCompactionTask.class);
+  private static final FSFactory fsFactory = FSFactoryProducer.getFSFactory();
+
+  private File logFile;
+  private List<File> sourceFiles = new ArrayList<>();
+  private File targetFile;
+  private boolean ended;
+
+  public RecoverSeqCompactionTask(File logFile) {
+    this.logFile = logFile;
+  }
+
+  public void recover() throws IOException {
+    if (!logFile.exists()) {
+      return;
+    }
+    analyzeLog();
+    if (targetFile == null) {
+      logger.info("No compaction target is found in {}", logFile);
+    } else if (!ended) {
+      logger.info("Compaction into {} is not finished, removing it", targetFile);
+      SeqCompactionTask.cleanUp(targetFile, logFile);
+      return;
+    } else {
+      logger.info("Compaction into {} is finished, removing its {} source files", targetFile,
+          sourceFiles.size());
+      removeSourceFiles();
+    }
+    if (!logFile.delete()) {
+      logger.warn("Cannot delete compaction log {}", logFile);
+    }
+  }
+
+  private void analyzeLog() throws IOException {
+    try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(STR_SOURCE + " ")) {
+          sourceFiles.add(fsFactory.getFile(line.substring(STR_SOURCE.length() + 1)));
+        } else if (line.startsWith(STR_TARGET + " ")) {
+          targetFile = fsFactory.getFile(line.substring(STR_TARGET.length() + 1));
+        } else if (line.equals(STR_END)) {
+          ended = true;
+        }
+      }
+    }
+  }
+
+  private void removeSourceFiles() throws IOException {
+    try (ModificationFile targetModFile = new ModificationFile(
+        targetFile.getPath() + ModificationFile.FILE_SUFFIX)) {
+      for (File sourceFile : sourceFiles) {
+        File sourceModFile = fsFactory.getFile(sourceFile.getPath() + ModificationFile.FILE_SUFFIX);
+        if (sourceModFile.exists()) {
+          try (ModificationFile modificationFile = new ModificationFile(sourceModFile.getPath())) {
+            for (Modification modification : modificationFile.getModifications()) {
+              targetModFile.write(modification);
+            }
+          }
+        }
+        new TsFileResource(sourceFile).remove();
+      }
+      targetModFile.compact();
+    }
+  }
+}
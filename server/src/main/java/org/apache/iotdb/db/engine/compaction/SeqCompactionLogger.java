@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * SeqCompactionLogger records a compaction of sequence files in file "seq_compaction.log" as text
+ * lines: the source files, the target file, and "end" once the target file is complete.
+ */
+public class SeqCompactionLogger implements AutoCloseable {
+
+  public static final String COMPACTION_LOG_NAME = "seq_compaction.log";
+
+  static final String STR_SOURCE = "source";
+  static final String STR_TARGET = "target";
+  static final String STR_END = "end";
+
+  private BufferedWriter logStream;
+
+  public SeqCompactionLogger(File logFile) throws IOException {
+    logStream = new BufferedWriter(new FileWriter(logFile, true));
+  }
+
+  @Override
+  public void close() throws IOException {
+    logStream.close();
+  }
+
+  public void logSource(File file) throws IOException {
+    logFile(STR_SOURCE, file);
+  }
+
+  public void logTarget(File file) throws IOException {
+    logFile(STR_TARGET, file);
+  }
+
+  public void logEnd() throws IOException {
+    logStream.write(STR_END);
+    logStream.newLine();
+    logStream.flush();
+  }
+
+  private void logFile(String type, File file) throws IOException {
+    logStream.write(type + " " + file.getAbsolutePath());
+    logStream.newLine();
+    logStream.flush();
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction;
+
+import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * SeqCompactionSelector chooses which sequence files are compacted next. The level of a file is the
+ * merge count in its name ("{time}-{version}-{mergeCnt}.tsfile"), which is 0 for flushed files and
+ * increased by each compaction or merge rewriting the file. The selector walks the files in order
+ * and returns the first run of adjacent files in one time partition that share a level below the
+ * max level and has reached the configured file number.
+ */
+public class SeqCompactionSelector {
+
+  private int fileNum;
+  private int maxLevel;
+
+  public SeqCompactionSelector(int fileNum, int maxLevel) {
+    // compacting a single file is useless
+    this.fileNum = Math.max(fileNum, 2);
+    this.maxLevel = maxLevel;
+  }
+
+  /**
+   * @param seqFiles sequence files of a storage group, in the order of the storage group
+   * @return the files to be compacted into one file, or an empty list if no run is found
+   */
+  public List<TsFileResource> select(Collection<TsFileResource> seqFiles) {
+    List<TsFileResource> candidates = new ArrayList<>();
+    String partition = null;
+    int level = -1;
+    for (TsFileResource seqFile : seqFiles) {
+      String filePartition = seqFile.getFile().getParentFile().getName();
+      int fileLevel = getLevel(seqFile);
+      if (!isCandidate(seqFile, fileLevel)) {
+        candidates.clear();
+        continue;
+      }
+      if (!filePartition.equals(partition) || fileLevel != level) {
+        candidates.clear();
+        partition = filePartition;
+        level = fileLevel;
+      }
+      candidates.add(seqFile);
+      if (candidates.size() == fileNum) {
+        return candidates;
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  private boolean isCandidate(TsFileResource seqFile, int level) {
+    return level < maxLevel && seqFile.isClosed() && !seqFile.isDeleted() && !seqFile.isMerging();
+  }
+
+  public static int getLevel(TsFileResource resource) {
+    String[] items = resource.getFile().getName().replace(TSFILE_SUFFIX, "")
+        .split(IoTDBConstant.TSFILE_NAME_SEPARATOR);
+    return items.length < 3 ? Integer.MAX_VALUE : Integer.parseInt(items[2]);
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.compaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SeqCompactionTask compacts adjacent sequence files into one file. As the time ranges of the
+ * devices in sequence files do not overlap, the chunks are copied into the target file as they are,
+ * without being decoded. The chunks of a device in a source file are grouped by their versions, so
+ * that the modifications of the source files, which are appended to the target file once the
+ * compaction ends, still apply to the same chunks.
+ */
+public class SeqCompactionTask implements Callable<Void> {
+
+  private static final Logger logger = LoggerFactory.getLogger(SeqCompactionTask.class);
+
+  private List<TsFileResource> sourceFiles;
+  private TsFileResource targetFile;
+  private File logFile;
+  private SeqCompactionCallback callback;
+  private String taskName;
+
+  public SeqCompactionTask(List<TsFileResource> sourceFiles, TsFileResource targetFile,
+      File logFile, SeqCompactionCallback callback, String taskName) {
+    this.sourceFiles = sourceFiles;
+    this.targetFile = targetFile;
+    this.logFile = logFile;
+    this.callback = callback;
+    this.taskName = taskName;
+  }
+
+  @Override
+  public Void call() {
+    long startTime = System.currentTimeMillis();
+    try {
+      compact();
+    } catch (Exception e) {
+      logger.error("{} compaction of {} failed", taskName, sourceFiles, e);
+      cleanUp(targetFile.getFile(), logFile);
+      callback.call(sourceFiles, null, logFile);
+      return null;
+    }
+    callback.call(sourceFiles, targetFile, logFile);
+    if (logger.isInfoEnabled()) {
+      logger.info("{} compacts {} files into {}, time consumption: {}ms", taskName,
+          sourceFiles.size(), targetFile, System.currentTimeMillis() - startTime);
+    }
+    return null;
+  }
+
+  private void compact() throws IOException {
+    try (SeqCompactionLogger compactionLogger = new SeqCompactionLogger(logFile)) {
+      for (TsFileResource sourceFile : sourceFiles) {
+        compactionLogger.logSource(sourceFile.getFile());
+      }
+      compactionLogger.logTarget(targetFile.getFile());
+      writeTargetFile();
+      compactionLogger.logEnd();
+    }
+  }
+
+  private void writeTargetFile() throws IOException {
+    List<TsFileSequenceReader> readers = new ArrayList<>();
+    TsFileIOWriter writer = new TsFileIOWriter(targetFile.getFile());
+    try {
+      Set<String> devices = new TreeSet<>();
+      for (TsFileResource sourceFile : sourceFiles) {
+        TsFileSequenceReader reader = new TsFileSequenceReader(sourceFile.getPath());
+        readers.add(reader);
+        if (TSFileConfig.OLD_VERSION.equals(reader.readVersionNumber())) {
+          throw new IOException(sourceFile + " should be upgraded before compaction");
+        }
+        devices.addAll(sourceFile.getStartTimeMap().keySet());
+      }
+
+      for (String device : devices) {
+        for (int i = 0; i < sourceFiles.size(); i++) {
+          if (sourceFiles.get(i).getStartTimeMap().containsKey(device)) {
+            copyChunks(device, readers.get(i), writer);
+          }
+        }
+      }
+      writer.endFile();
+
+      Set<Long> historicalVersions = new HashSet<>();
+      for (TsFileResource sourceFile : sourceFiles) {
+        for (Entry<String, Long> entry : sourceFile.getStartTimeMap().entrySet()) {
+          targetFile.updateStartTime(entry.getKey(), entry.getValue());
+        }
+        for (Entry<String, Long> entry : sourceFile.getEndTimeMap().entrySet()) {
+          targetFile.updateEndTime(entry.getKey(), entry.getValue());
+        }
+        historicalVersions.addAll(sourceFile.getHistoricalVersions());
+      }
+      targetFile.setHistoricalVersions(historicalVersions);
+      targetFile.setSeriesFilter(writer.buildBloomFilter());
+      targetFile.serialize();
+      targetFile.close();
+    } finally {
+      if (writer.canWrite()) {
+        writer.close();
+      }
+      for (TsFileSequenceReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  private void copyChunks(String device, TsFileSequenceReader reader, TsFileIOWriter writer)
+      throws IOException {
+    Map<String, List<ChunkMetadata>> seriesChunks = reader.readChunkMetadataInDevice(device);
+    Map<Long, List<ChunkMetadata>> versionChunks = new TreeMap<>();
+    for (List<ChunkMetadata> chunkMetadataList : seriesChunks.values()) {
+      for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+        versionChunks.computeIfAbsent(chunkMetadata.getVersion(), v -> new ArrayList<>())
+            .add(chunkMetadata);
+      }
+    }
+
+    for (Entry<Long, List<ChunkMetadata>> entry : versionChunks.entrySet()) {
+      writer.startChunkGroup(device);
+      for (ChunkMetadata chunkMetadata : entry.getValue()) {
+        long chunkSize = writer.copyChunk(reader, chunkMetadata);
+        IOScheduler.getInstance().acquire(IOType.COMPACTION, chunkSize);
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedIOException(taskName + " is interrupted");
+        }
+      }
+      writer.endChunkGroup();
+      writer.writeVersion(entry.getKey());
+    }
+  }
+
+  /**
+   * Remove the target file of an unfinished compaction and the log.
+   */
+  public static void cleanUp(File targetFile, File logFile) {
+    deleteFile(targetFile);
+    deleteFile(FSFactoryProducer.getFSFactory()
+        .getFile(targetFile.getPath() + TsFileResource.RESOURCE_SUFFIX));
+    deleteFile(FSFactoryProducer.getFSFactory()
+        .getFile(targetFile.getPath() + ModificationFile.FILE_SUFFIX));
+    deleteFile(logFile);
+  }
+
+  private static void deleteFile(File file) {
+    if (file.exists() && !file.delete()) {
+      logger.warn("Cannot delete {}", file);
+    }
+  }
+}
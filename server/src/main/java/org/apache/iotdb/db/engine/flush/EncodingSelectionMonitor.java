@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.flush;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.tsfile.encoding.encoder.EncodingSelector;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * EncodingSelectionMonitor exposes the encodings chosen for the chunks of the series with AUTO
+ * encoding by flush, merge and compaction, and the space they save compared to PLAIN.
+ */
+public class EncodingSelectionMonitor implements EncodingSelectionMonitorMXBean, IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(EncodingSelectionMonitor.class);
+
+  private EncodingSelectionMonitor() {
+  }
+
+  public static EncodingSelectionMonitor getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  @Override
+  public Map<String, Long> getSelectedChunkNums() {
+    Map<String, Long> result = new TreeMap<>();
+    for (Map.Entry<TSEncoding, Long> entry : EncodingSelector.getSelectedChunkNums().entrySet()) {
+      result.put(entry.getKey().name(), entry.getValue());
+    }
+    return result;
+  }
+
+  @Override
+  public long getSampledPlainSize() {
+    return EncodingSelector.getSampledPlainSize();
+  }
+
+  @Override
+  public long getSampledSelectedSize() {
+    return EncodingSelector.getSampledSelectedSize();
+  }
+
+  @Override
+  public double getSampledSizeRatio() {
+    long plainSize = getSampledPlainSize();
+    return plainSize == 0 ? 1 : (double) getSampledSelectedSize() / plainSize;
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(getInstance(), ServiceType.ENCODING_SELECTION_SERVICE.getJmxName());
+    } catch (Exception e) {
+      throw new StartupException(this.getID().getName(), e.getMessage());
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(ServiceType.ENCODING_SELECTION_SERVICE.getJmxName());
+    logger.info("{}: stop {}...", IoTDBConstant.GLOBAL_DB_NAME, this.getID().getName());
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.ENCODING_SELECTION_SERVICE;
+  }
+
+  private static class InstanceHolder {
+
+    private static final EncodingSelectionMonitor INSTANCE = new EncodingSelectionMonitor();
+
+    private InstanceHolder() {
+      // allowed to do nothing
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.flush;
+
+import java.util.Map;
+
+public interface EncodingSelectionMonitorMXBean {
+
+  /**
+   * @return encoding -> number of chunks of the series with AUTO encoding that have chosen it
+   */
+  Map<String, Long> getSelectedChunkNums();
+
+  /**
+   * @return total size in bytes of the sampled points encoded with PLAIN
+   */
+  long getSampledPlainSize();
+
+  /**
+   * @return total size in bytes of the sampled points encoded with the chosen encodings
+   */
+  long getSampledSelectedSize();
+
+  /**
+   * @return sampled size with the chosen encodings / sampled size with PLAIN, 1 if nothing has
+   * been sampled
+   */
+  double getSampledSizeRatio();
+}
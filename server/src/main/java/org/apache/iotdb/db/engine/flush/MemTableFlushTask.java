@@ -19,18 +19,23 @@
 package org.apache.iotdb.db.engine.flush;
 
 import java.io.IOException;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
+import org.apache.iotdb.db.engine.memtable.AlignedWritableMemChunkGroup;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.IWritableMemChunk;
 import org.apache.iotdb.db.exception.runtime.FlushRunTimeException;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.chunk.AlignedChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -89,6 +94,19 @@ public class MemTableFlushTask {
       }
       encodingTaskQueue.add(new EndChunkGroupIoTask());
     }
+    for (Entry<String, AlignedWritableMemChunkGroup> entry : memTable.getAlignedMemTableMap()
+        .entrySet()) {
+      // the rows are sorted in the encoding task
+      encodingTaskQueue.add(new StartFlushGroupIOTask(entry.getKey()));
+      encodingTaskQueue.add(entry.getValue());
+      encodingTaskQueue.add(new EndChunkGroupIoTask());
+      if (IoTDBDescriptor.getInstance().getConfig().isEnableParameterAdapter()) {
+        for (MeasurementSchema schema : entry.getValue().getSchemas()) {
+          ActiveTimeSeriesCounter.getInstance()
+              .offer(storageGroup, entry.getKey(), schema.getMeasurementId());
+        }
+      }
+    }
     if (IoTDBDescriptor.getInstance().getConfig().isEnableParameterAdapter()) {
       ActiveTimeSeriesCounter.getInstance().updateActiveRatio(storageGroup);
     }
@@ -187,6 +205,18 @@ public class MemTableFlushTask {
             ioTaskQueue.add(task);
           } else if (task instanceof EndChunkGroupIoTask) {
             ioTaskQueue.add(task);
+          } else if (task instanceof AlignedWritableMemChunkGroup) {
+            long starTime = System.currentTimeMillis();
+            AlignedWritableMemChunkGroup alignedGroup = (AlignedWritableMemChunkGroup) task;
+            AlignedChunkWriterImpl alignedChunkWriter = new AlignedChunkWriterImpl(
+                alignedGroup.getSchemas());
+            try {
+              alignedGroup.writeTo(alignedChunkWriter);
+            } catch (IOException e) {
+              throw new FlushRunTimeException(e);
+            }
+            ioTaskQueue.add(alignedChunkWriter);
+            memSerializeTime += System.currentTimeMillis() - starTime;
           } else {
             long starTime = System.currentTimeMillis();
             Pair<TVList, MeasurementSchema> encodingMessage = (Pair<TVList, MeasurementSchema>) task;
@@ -229,14 +259,18 @@ public class MemTableFlushTask {
       } else {
         long starTime = System.currentTimeMillis();
         try {
+          long startPos = writer.getPos();
           if (ioMessage instanceof StartFlushGroupIOTask) {
             writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
+          } else if (ioMessage instanceof AlignedChunkWriterImpl) {
+            ((AlignedChunkWriterImpl) ioMessage).writeToFileWriter(MemTableFlushTask.this.writer);
           } else if (ioMessage instanceof IChunkWriter) {
             ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
             chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
           } else {
             writer.endChunkGroup();
           }
+          IOScheduler.getInstance().acquire(IOType.FLUSH, writer.getPos() - startPos);
         } catch (IOException e) {
           logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
               memTable.getVersion(), e);
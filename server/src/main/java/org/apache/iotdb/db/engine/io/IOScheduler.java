@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.io;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.db.utils.IORateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * IOScheduler gives each {@link IOType} its own token bucket of disk throughput. Callers acquire
+ * the bytes they have read or written and are blocked when their budget is used up. While any
+ * foreground I/O has happened in the last second, background I/O only gets a ratio of its budget,
+ * so that queries and flushes are less disturbed by merges and compactions.
+ *
+ * <p>The scheduler works without being started, starting it only exposes it through JMX.
+ */
+public class IOScheduler implements IOSchedulerMXBean, IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(IOScheduler.class);
+  private static final long FOREGROUND_BUSY_WINDOW_MS = 1000;
+  private static final long BYTES_PER_MB = 1024L * 1024L;
+
+  private final Map<IOType, IORateLimiter> limiters = new EnumMap<>(IOType.class);
+  private volatile double backgroundRatioUnderLoad;
+  private volatile long lastForegroundIOTime = Long.MIN_VALUE;
+
+  // used to calculate the throughput between two calls of getThroughputBytesPerSec()
+  private final Map<IOType, Long> lastSampledBytes = new EnumMap<>(IOType.class);
+  private long lastSampleTime = System.nanoTime();
+
+  private IOScheduler() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    limiters.put(IOType.FLUSH, newLimiter(config.getFlushIOThroughputMbPerSec()));
+    limiters.put(IOType.WAL, newLimiter(config.getWalIOThroughputMbPerSec()));
+    limiters.put(IOType.QUERY, newLimiter(config.getQueryIOThroughputMbPerSec()));
+    limiters.put(IOType.MERGE, newLimiter(config.getMergeIOThroughputMbPerSec()));
+    limiters.put(IOType.COMPACTION,
+        newLimiter(config.getSeqCompactionWriteThroughputMbPerSec()));
+    limiters.put(IOType.SYNC, newLimiter(config.getSyncIOThroughputMbPerSec()));
+    backgroundRatioUnderLoad = config.getBackgroundIORatioUnderLoad();
+    for (IOType type : IOType.values()) {
+      lastSampledBytes.put(type, 0L);
+    }
+  }
+
+  public static IOScheduler getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  private static IORateLimiter newLimiter(long mbPerSec) {
+    return new IORateLimiter(mbPerSec * BYTES_PER_MB);
+  }
+
+  /**
+   * Account the bytes of an I/O and block until they are within the budget of its type.
+   */
+  public void acquire(IOType type, long bytes) {
+    if (bytes <= 0) {
+      return;
+    }
+    IORateLimiter limiter = limiters.get(type);
+    if (type.isForeground()) {
+      lastForegroundIOTime = System.currentTimeMillis();
+      limiter.acquire(bytes);
+    } else if (isForegroundBusy() && backgroundRatioUnderLoad > 0) {
+      limiter.acquire(bytes, Math.min(backgroundRatioUnderLoad, 1.0));
+    } else {
+      limiter.acquire(bytes);
+    }
+  }
+
+  @Override
+  public boolean isForegroundBusy() {
+    return System.currentTimeMillis() - lastForegroundIOTime < FOREGROUND_BUSY_WINDOW_MS;
+  }
+
+  @Override
+  public Map<String, Long> getBudgetBytesPerSec() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    limiters.forEach((type, limiter) -> result.put(type.name(), limiter.getBytesPerSecond()));
+    return result;
+  }
+
+  @Override
+  public void setBudgetMbPerSec(String ioType, long mbPerSec) {
+    IOType type = IOType.valueOf(ioType.toUpperCase());
+    limiters.get(type).setBytesPerSecond(mbPerSec * BYTES_PER_MB);
+    logger.info("The I/O budget of {} is set to {}MB/s", type, mbPerSec);
+  }
+
+  @Override
+  public synchronized Map<String, Long> getThroughputBytesPerSec() {
+    long now = System.nanoTime();
+    double seconds = (double) (now - lastSampleTime) / TimeUnit.SECONDS.toNanos(1);
+    lastSampleTime = now;
+    Map<String, Long> result = new LinkedHashMap<>();
+    limiters.forEach((type, limiter) -> {
+      long totalBytes = limiter.getTotalBytes();
+      long bytes = totalBytes - lastSampledBytes.put(type, totalBytes);
+      result.put(type.name(), seconds > 0 ? (long) (bytes / seconds) : 0);
+    });
+    return result;
+  }
+
+  @Override
+  public Map<String, Long> getTotalBytes() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    limiters.forEach((type, limiter) -> result.put(type.name(), limiter.getTotalBytes()));
+    return result;
+  }
+
+  @Override
+  public Map<String, Long> getThrottledMillis() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    limiters.forEach((type, limiter) -> result
+        .put(type.name(), TimeUnit.NANOSECONDS.toMillis(limiter.getThrottledTime())));
+    return result;
+  }
+
+  @Override
+  public double getBackgroundRatioUnderLoad() {
+    return backgroundRatioUnderLoad;
+  }
+
+  @Override
+  public void setBackgroundRatioUnderLoad(double ratio) {
+    this.backgroundRatioUnderLoad = ratio;
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(getInstance(), ServiceType.IO_SCHEDULER_SERVICE.getJmxName());
+    } catch (Exception e) {
+      throw new StartupException(this.getID().getName(), e.getMessage());
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(ServiceType.IO_SCHEDULER_SERVICE.getJmxName());
+    logger.info("{}: stop {}...", IoTDBConstant.GLOBAL_DB_NAME, this.getID().getName());
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.IO_SCHEDULER_SERVICE;
+  }
+
+  private static class InstanceHolder {
+
+    private static final IOScheduler INSTANCE = new IOScheduler();
+
+    private InstanceHolder() {
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.io;
+
+import java.util.Map;
+
+public interface IOSchedulerMXBean {
+
+  /**
+   * @return io type -> budget of throughput in bytes per second, 0 means unlimited
+   */
+  Map<String, Long> getBudgetBytesPerSec();
+
+  void setBudgetMbPerSec(String ioType, long mbPerSec);
+
+  /**
+   * @return io type -> average throughput in bytes per second since the previous call
+   */
+  Map<String, Long> getThroughputBytesPerSec();
+
+  /**
+   * @return io type -> total bytes since started
+   */
+  Map<String, Long> getTotalBytes();
+
+  /**
+   * @return io type -> total time the I/O has been throttled in milliseconds
+   */
+  Map<String, Long> getThrottledMillis();
+
+  boolean isForegroundBusy();
+
+  double getBackgroundRatioUnderLoad();
+
+  void setBackgroundRatioUnderLoad(double ratio);
+}
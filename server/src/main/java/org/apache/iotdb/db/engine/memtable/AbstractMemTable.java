@@ -47,14 +47,22 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private final Map<String, Map<String, IWritableMemChunk>> memTableMap;
 
+  /**
+   * data of the aligned devices, a device is either in it or in memTableMap
+   */
+  private final Map<String, AlignedWritableMemChunkGroup> alignedMemTableMap;
+
   private long memSize = 0;
 
   public AbstractMemTable() {
     this.memTableMap = new HashMap<>();
+    this.alignedMemTableMap = new HashMap<>();
   }
 
-  public AbstractMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap) {
+  public AbstractMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap,
+      Map<String, AlignedWritableMemChunkGroup> alignedMemTableMap) {
     this.memTableMap = memTableMap;
+    this.alignedMemTableMap = alignedMemTableMap;
   }
 
   @Override
@@ -62,6 +70,11 @@ public abstract class AbstractMemTable implements IMemTable {
     return memTableMap;
   }
 
+  @Override
+  public Map<String, AlignedWritableMemChunkGroup> getAlignedMemTableMap() {
+    return alignedMemTableMap;
+  }
+
   /**
    * check whether the given seriesPath is within this memtable.
    *
@@ -87,6 +100,11 @@ public abstract class AbstractMemTable implements IMemTable {
 
   @Override
   public void insert(InsertPlan insertPlan) throws WriteProcessException {
+    AlignedWritableMemChunkGroup alignedGroup = alignedMemTableMap.get(insertPlan.getDeviceId());
+    if (alignedGroup != null) {
+      insertAlignedRow(alignedGroup, insertPlan);
+      return;
+    }
     try {
       for (int i = 0; i < insertPlan.getValues().length; i++) {
 
@@ -103,6 +121,24 @@ public abstract class AbstractMemTable implements IMemTable {
     }
   }
 
+  /**
+   * insert a row into an aligned device, the measurements not in the row are null.
+   */
+  private void insertAlignedRow(AlignedWritableMemChunkGroup alignedGroup, InsertPlan insertPlan)
+      throws WriteProcessException {
+    try {
+      Object[] values = new Object[insertPlan.getValues().length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = CommonUtils.parseValue(insertPlan.getSchemas()[i].getType(),
+            insertPlan.getValues()[i]);
+        memSize += MemUtils.getRecordSize(insertPlan.getSchemas()[i].getType(), values[i]);
+      }
+      alignedGroup.write(insertPlan.getTime(), insertPlan.getSchemas(), values);
+    } catch (QueryProcessException e) {
+      throw new WriteProcessException(e.getMessage());
+    }
+  }
+
   @Override
   public void insertTablet(InsertTabletPlan insertTabletPlan, int start, int end)
       throws WriteProcessException {
@@ -119,12 +155,29 @@ public abstract class AbstractMemTable implements IMemTable {
   @Override
   public void write(String deviceId, String measurement, MeasurementSchema schema, long insertTime,
       Object objectValue) {
+    AlignedWritableMemChunkGroup alignedGroup = alignedMemTableMap.get(deviceId);
+    if (alignedGroup != null) {
+      alignedGroup.write(insertTime, new MeasurementSchema[]{schema}, new Object[]{objectValue});
+      return;
+    }
     IWritableMemChunk memSeries = createIfNotExistAndGet(deviceId, measurement, schema);
     memSeries.write(insertTime, objectValue);
   }
 
   @Override
   public void write(InsertTabletPlan insertTabletPlan, int start, int end) {
+    String deviceId = insertTabletPlan.getDeviceId();
+    AlignedWritableMemChunkGroup alignedGroup = alignedMemTableMap.get(deviceId);
+    // a device that is already in memTableMap stays unaligned in this memtable
+    if (alignedGroup == null && insertTabletPlan.isAligned() && !memTableMap
+        .containsKey(deviceId)) {
+      alignedGroup = new AlignedWritableMemChunkGroup();
+      alignedMemTableMap.put(deviceId, alignedGroup);
+    }
+    if (alignedGroup != null) {
+      alignedGroup.write(insertTabletPlan, start, end);
+      return;
+    }
     for (int i = 0; i < insertTabletPlan.getMeasurements().length; i++) {
       IWritableMemChunk memSeries = createIfNotExistAndGet(insertTabletPlan.getDeviceId(),
           insertTabletPlan.getMeasurements()[i], insertTabletPlan.getSchemas()[i]);
@@ -142,6 +195,9 @@ public abstract class AbstractMemTable implements IMemTable {
         sum += writableMemChunk.count();
       }
     }
+    for (AlignedWritableMemChunkGroup alignedGroup : alignedMemTableMap.values()) {
+      sum += alignedGroup.count();
+    }
     return sum;
   }
 
@@ -153,54 +209,93 @@ public abstract class AbstractMemTable implements IMemTable {
   @Override
   public void clear() {
     memTableMap.clear();
+    alignedMemTableMap.clear();
     modifications.clear();
     memSize = 0;
   }
 
   @Override
   public boolean isEmpty() {
-    return memTableMap.isEmpty();
+    return memTableMap.isEmpty() && alignedMemTableMap.isEmpty();
   }
 
   @Override
   public ReadOnlyMemChunk query(String deviceId, String measurement, TSDataType dataType,
       TSEncoding encoding, Map<String, String> props, long timeLowerBound)
       throws IOException, QueryProcessException {
-    if (!checkPath(deviceId, measurement)) {
+    TVList chunkCopy;
+    AlignedWritableMemChunkGroup alignedGroup = alignedMemTableMap.get(deviceId);
+    if (alignedGroup != null && alignedGroup.containsMeasurement(measurement)) {
+      // the non-null values of the column are copied
+      chunkCopy = alignedGroup.getTVList(measurement);
+    } else if (checkPath(deviceId, measurement)) {
+      chunkCopy = memTableMap.get(deviceId).get(measurement).getTVList().clone();
+    } else {
       return null;
     }
     long undeletedTime = findUndeletedTime(deviceId, measurement, timeLowerBound);
-    IWritableMemChunk memChunk = memTableMap.get(deviceId).get(measurement);
-    TVList chunkCopy = memChunk.getTVList().clone();
 
     chunkCopy.setTimeOffset(undeletedTime);
+    // deletions of a range in the middle are applied to the copy, as this MemTable is immutable
+    for (Deletion deletion : findRangeDeletions(deviceId, measurement, undeletedTime)) {
+      chunkCopy.delete(deletion.getStartTime(), deletion.getEndTime());
+    }
     return new ReadOnlyMemChunk(measurement, dataType, encoding, chunkCopy, props, getVersion());
   }
 
-
+  /**
+   * @return the minimum timestamp that is not deleted by deletions starting from Long.MIN_VALUE
+   * and is no less than timeLowerBound
+   */
   private long findUndeletedTime(String deviceId, String measurement, long timeLowerBound) {
     long undeletedTime = Long.MIN_VALUE;
     for (Modification modification : modifications) {
       if (modification instanceof Deletion) {
         Deletion deletion = (Deletion) modification;
         if (deletion.getDevice().equals(deviceId) && deletion.getMeasurement().equals(measurement)
-            && deletion.getTimestamp() > undeletedTime) {
-          undeletedTime = deletion.getTimestamp();
+            && deletion.getStartTime() == Long.MIN_VALUE
+            && deletion.getEndTime() > undeletedTime) {
+          undeletedTime = deletion.getEndTime();
         }
       }
     }
     return Math.max(undeletedTime + 1, timeLowerBound);
   }
 
+  /**
+   * @return the deletions of the timeseries that delete some data after undeletedTime and do not
+   * start from Long.MIN_VALUE
+   */
+  private List<Deletion> findRangeDeletions(String deviceId, String measurement,
+      long undeletedTime) {
+    List<Deletion> deletions = new ArrayList<>();
+    for (Modification modification : modifications) {
+      if (modification instanceof Deletion) {
+        Deletion deletion = (Deletion) modification;
+        if (deletion.getDevice().equals(deviceId) && deletion.getMeasurement().equals(measurement)
+            && deletion.getStartTime() != Long.MIN_VALUE
+            && deletion.getEndTime() >= undeletedTime) {
+          deletions.add(deletion);
+        }
+      }
+    }
+    return deletions;
+  }
+
   @Override
-  public void delete(String deviceId, String measurementId, long timestamp) {
+  public void delete(String deviceId, String measurementId, long startTime, long endTime) {
+    AlignedWritableMemChunkGroup alignedGroup = alignedMemTableMap.get(deviceId);
+    if (alignedGroup != null) {
+      alignedGroup.delete(measurementId, startTime, endTime);
+      return;
+    }
     Map<String, IWritableMemChunk> deviceMap = memTableMap.get(deviceId);
     if (deviceMap != null) {
       IWritableMemChunk chunk = deviceMap.get(measurementId);
       if (chunk == null) {
         return;
       }
-      chunk.delete(timestamp);
+      chunk.delete(startTime, endTime);
     }
   }
 
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.memtable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.chunk.AlignedChunkWriterImpl;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * AlignedWritableMemChunkGroup holds the data of an aligned device in a memtable, whose
+ * measurements share one time array. Each measurement is a column of primitive values with a
+ * bitmap of its non-null rows, so a row missing some measurements has nulls in those columns.
+ */
+public class AlignedWritableMemChunkGroup {
+
+  private static final int INITIAL_CAPACITY = 32;
+
+  private List<MeasurementSchema> schemas = new ArrayList<>();
+
+  /**
+   * measurement -> index of its column
+   */
+  private Map<String, Integer> columnIndexes = new HashMap<>();
+
+  private long[] times = new long[INITIAL_CAPACITY];
+
+  /**
+   * each object is a primitive type array of a column
+   */
+  private List<Object> columns = new ArrayList<>();
+
+  /**
+   * bit i of a column is set if row i of the column is not null
+   */
+  private List<BitSet> notNulls = new ArrayList<>();
+
+  private int rowCount;
+
+  /**
+   * number of non-null values
+   */
+  private long pointCount;
+
+  private boolean sorted = true;
+
+  public boolean containsMeasurement(String measurement) {
+    return columnIndexes.containsKey(measurement);
+  }
+
+  private int getOrCreateColumn(MeasurementSchema schema) {
+    Integer index = columnIndexes.get(schema.getMeasurementId());
+    if (index == null) {
+      index = schemas.size();
+      schemas.add(schema);
+      columnIndexes.put(schema.getMeasurementId(), index);
+      columns.add(newColumn(schema.getType(), times.length));
+      notNulls.add(new BitSet());
+    }
+    return index;
+  }
+
+  /**
+   * write a row, the measurements not given are null.
+   *
+   * @param values values parsed by the data types of the schemas
+   */
+  public void write(long time, MeasurementSchema[] rowSchemas, Object[] values) {
+    int row = appendTime(time);
+    for (int i = 0; i < rowSchemas.length; i++) {
+      int column = getOrCreateColumn(rowSchemas[i]);
+      setValue(column, row, values[i]);
+    }
+  }
+
+  /**
+   * write the rows of the tablet in [start, end).
+   */
+  public void write(InsertTabletPlan insertTabletPlan, int start, int end) {
+    int firstRow = rowCount;
+    for (int i = start; i < end; i++) {
+      appendTime(insertTabletPlan.getTimes()[i]);
+    }
+    for (int i = 0; i < insertTabletPlan.getMeasurements().length; i++) {
+      int column = getOrCreateColumn(insertTabletPlan.getSchemas()[i]);
+      Object columnValues = columns.get(column);
+      Object tabletValues = insertTabletPlan.getColumns()[i];
+      System.arraycopy(tabletValues, start, columnValues, firstRow, end - start);
+      notNulls.get(column).set(firstRow, firstRow + end - start);
+      pointCount += end - start;
+    }
+  }
+
+  private int appendTime(long time) {
+    if (rowCount == times.length) {
+      int newCapacity = times.length * 2;
+      times = Arrays.copyOf(times, newCapacity);
+      for (int i = 0; i < columns.size(); i++) {
+        Object newColumn = newColumn(schemas.get(i).getType(), newCapacity);
+        System.arraycopy(columns.get(i), 0, newColumn, 0, rowCount);
+        columns.set(i, newColumn);
+      }
+    }
+    if (rowCount > 0 && time < times[rowCount - 1]) {
+      sorted = false;
+    }
+    times[rowCount] = time;
+    return rowCount++;
+  }
+
+  private void setValue(int column, int row, Object value) {
+    Object columnValues = columns.get(column);
+    switch (schemas.get(column).getType()) {
+      case BOOLEAN:
+        ((boolean[]) columnValues)[row] = (boolean) value;
+        break;
+      case INT32:
+        ((int[]) columnValues)[row] = (int) value;
+        break;
+      case INT64:
+        ((long[]) columnValues)[row] = (long) value;
+        break;
+      case FLOAT:
+        ((float[]) columnValues)[row] = (float) value;
+        break;
+      case DOUBLE:
+        ((double[]) columnValues)[row] = (double) value;
+        break;
+      case TEXT:
+        ((Binary[]) columnValues)[row] = (Binary) value;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            "Unsupported data type:" + schemas.get(column).getType());
+    }
+    notNulls.get(column).set(row);
+    pointCount++;
+  }
+
+  private static Object newColumn(TSDataType dataType, int capacity) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[capacity];
+      case INT32:
+        return new int[capacity];
+      case INT64:
+        return new long[capacity];
+      case FLOAT:
+        return new float[capacity];
+      case DOUBLE:
+        return new double[capacity];
+      case TEXT:
+        return new Binary[capacity];
+      default:
+        throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+    }
+  }
+
+  /**
+   * @return a TVList of the non-null values of the measurement in the order they are written, or
+   * null if the measurement is not in this group
+   */
+  public TVList getTVList(String measurement) {
+    Integer column = columnIndexes.get(measurement);
+    if (column == null) {
+      return null;
+    }
+    TSDataType dataType = schemas.get(column).getType();
+    TVList list = TVList.newList(dataType);
+    Object columnValues = columns.get(column);
+    BitSet notNull = notNulls.get(column);
+    for (int row = notNull.nextSetBit(0); row >= 0 && row < rowCount;
+        row = notNull.nextSetBit(row + 1)) {
+      switch (dataType) {
+        case BOOLEAN:
+          list.putBoolean(times[row], ((boolean[]) columnValues)[row]);
+          break;
+        case INT32:
+          list.putInt(times[row], ((int[]) columnValues)[row]);
+          break;
+        case INT64:
+          list.putLong(times[row], ((long[]) columnValues)[row]);
+          break;
+        case FLOAT:
+          list.putFloat(times[row], ((float[]) columnValues)[row]);
+          break;
+        case DOUBLE:
+          list.putDouble(times[row], ((double[]) columnValues)[row]);
+          break;
+        case TEXT:
+          list.putBinary(times[row], ((Binary[]) columnValues)[row]);
+          break;
+        default:
+          throw new UnSupportedDataTypeException("Unsupported data type:" + dataType);
+      }
+    }
+    return list;
+  }
+
+  public MeasurementSchema getSchema(String measurement) {
+    Integer column = columnIndexes.get(measurement);
+    return column == null ? null : schemas.get(column);
+  }
+
+  /**
+   * null out the values of the measurement in [startTime, endTime].
+   */
+  public void delete(String measurement, long startTime, long endTime) {
+    Integer column = columnIndexes.get(measurement);
+    if (column == null) {
+      return;
+    }
+    BitSet notNull = notNulls.get(column);
+    for (int row = notNull.nextSetBit(0); row >= 0 && row < rowCount;
+        row = notNull.nextSetBit(row + 1)) {
+      if (times[row] >= startTime && times[row] <= endTime) {
+        notNull.clear(row);
+        pointCount--;
+      }
+    }
+  }
+
+  /**
+   * write the rows sorted by time into the chunk writer, whose value columns are the schemas of
+   * this group in order. For the rows of the same timestamp, the last non-null value of each
+   * column is written.
+   */
+  public void writeTo(AlignedChunkWriterImpl chunkWriter) throws IOException {
+    int[] order = getSortedRows();
+    int runStart = 0;
+    while (runStart < order.length) {
+      long time = times[order[runStart]];
+      int runEnd = runStart + 1;
+      while (runEnd < order.length && times[order[runEnd]] == time) {
+        runEnd++;
+      }
+      for (int column = 0; column < schemas.size(); column++) {
+        writeLastNotNull(chunkWriter, column, time, order, runStart, runEnd);
+      }
+      chunkWriter.write(time);
+      runStart = runEnd;
+    }
+  }
+
+  private void writeLastNotNull(AlignedChunkWriterImpl chunkWriter, int column, long time,
+      int[] order, int runStart, int runEnd) {
+    BitSet notNull = notNulls.get(column);
+    for (int i = runEnd - 1; i >= runStart; i--) {
+      int row = order[i];
+      if (notNull.get(row)) {
+        Object columnValues = columns.get(column);
+        switch (schemas.get(column).getType()) {
+          case BOOLEAN:
+            chunkWriter.write(column, time, ((boolean[]) columnValues)[row]);
+            break;
+          case INT32:
+            chunkWriter.write(column, time, ((int[]) columnValues)[row]);
+            break;
+          case INT64:
+            chunkWriter.write(column, time, ((long[]) columnValues)[row]);
+            break;
+          case FLOAT:
+            chunkWriter.write(column, time, ((float[]) columnValues)[row]);
+            break;
+          case DOUBLE:
+            chunkWriter.write(column, time, ((double[]) columnValues)[row]);
+            break;
+          case TEXT:
+            chunkWriter.write(column, time, ((Binary[]) columnValues)[row]);
+            break;
+          default:
+            throw new UnSupportedDataTypeException(
+                "Unsupported data type:" + schemas.get(column).getType());
+        }
+        return;
+      }
+    }
+    chunkWriter.writeNull(column);
+  }
+
+  /**
+   * @return the rows sorted by time, the rows of the same timestamp are in the order they are
+   * written
+   */
+  private int[] getSortedRows() {
+    int[] order = new int[rowCount];
+    if (sorted) {
+      for (int i = 0; i < rowCount; i++) {
+        order[i] = i;
+      }
+      return order;
+    }
+    Integer[] boxedOrder = new Integer[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      boxedOrder[i] = i;
+    }
+    // the sort is stable
+    Arrays.sort(boxedOrder, (a, b) -> Long.compare(times[a], times[b]));
+    for (int i = 0; i < rowCount; i++) {
+      order[i] = boxedOrder[i];
+    }
+    return order;
+  }
+
+  public List<MeasurementSchema> getSchemas() {
+    return schemas;
+  }
+
+  public long count() {
+    return pointCount;
+  }
+}
@@ -41,6 +41,12 @@ public interface IMemTable {
 
   Map<String, Map<String, IWritableMemChunk>> getMemTableMap();
 
+  /**
+   * @return the data of the aligned devices, whose measurements share one time array. A device is
+   * either in it or in getMemTableMap()
+   */
+  Map<String, AlignedWritableMemChunkGroup> getAlignedMemTableMap();
+
   void write(String deviceId, String measurement, MeasurementSchema schema,
       long insertTime, Object objectValue);
 
@@ -76,17 +82,18 @@ public interface IMemTable {
   boolean isEmpty();
 
   /**
-   * Delete data in it whose timestamp <= 'timestamp' and belonging to timeseries
+   * Delete data in it whose timestamp is in [startTime, endTime] and belonging to timeseries
    * deviceId.measurementId. Only called for non-flushing MemTable.
    *
    * @param deviceId the deviceId of the timeseries to be deleted.
    * @param measurementId the measurementId of the timeseries to be deleted.
-   * @param timestamp the upper-bound of deletion time.
+   * @param startTime the lower-bound of deletion time.
+   * @param endTime the upper-bound of deletion time.
    */
-  void delete(String deviceId, String measurementId, long timestamp);
+  void delete(String deviceId, String measurementId, long startTime, long endTime);
 
   /**
-   * Delete data in it whose timestamp <= 'timestamp' and belonging to timeseries
+   * Delete data in it whose timestamp is in the range of the deletion and belonging to timeseries
    * deviceId.measurementId. Only called for flushing MemTable.
    *
    * @param deletion and object representing this deletion
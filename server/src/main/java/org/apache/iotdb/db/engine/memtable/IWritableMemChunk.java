@@ -98,5 +98,8 @@ public interface IWritableMemChunk {
     return Long.MIN_VALUE;
   }
 
-  void delete(long upperBound);
+  /**
+   * delete the data whose timestamp is in [lowerBound, upperBound]
+   */
+  void delete(long lowerBound, long upperBound);
 }
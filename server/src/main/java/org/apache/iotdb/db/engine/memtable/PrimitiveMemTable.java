@@ -30,8 +30,9 @@ public class PrimitiveMemTable extends AbstractMemTable {
   public PrimitiveMemTable() {
   }
 
-  public PrimitiveMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap) {
-    super(memTableMap);
+  public PrimitiveMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap,
+      Map<String, AlignedWritableMemChunkGroup> alignedMemTableMap) {
+    super(memTableMap, alignedMemTableMap);
   }
 
   @Override
@@ -43,7 +44,7 @@ public class PrimitiveMemTable extends AbstractMemTable {
   public IMemTable copy() {
     Map<String, Map<String, IWritableMemChunk>> newMap = new HashMap<>(getMemTableMap());
 
-    return new PrimitiveMemTable(newMap);
+    return new PrimitiveMemTable(newMap, new HashMap<>(getAlignedMemTableMap()));
   }
 
   @Override
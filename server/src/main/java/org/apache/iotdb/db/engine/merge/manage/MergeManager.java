@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.engine.merge.manage;
 
+import java.io.InterruptedIOException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -29,26 +30,31 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.io.IOScheduler;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * MergeManager provides a ThreadPool to queue and run all merge tasks to restrain the total
- * resources occupied by merge and manages a Timer to periodically issue a global merge.
+ * resources occupied by merge and manages a Timer to periodically issue a global merge. Merges
+ * can be paused between their units of work, either manually or while the foreground is busy.
  */
-public class MergeManager implements IService {
+public class MergeManager implements MergeManagerMBean, IService {
 
   private static final Logger logger = LoggerFactory.getLogger(MergeManager.class);
   private static final MergeManager INSTANCE = new MergeManager();
+  private static final long PAUSE_CHECK_INTERVAL_MS = 100;
 
   private AtomicInteger threadCnt = new AtomicInteger();
   private ThreadPoolExecutor mergeTaskPool;
   private ThreadPoolExecutor mergeChunkSubTaskPool;
   private ScheduledExecutorService timedMergeThreadPool;
+  private volatile boolean paused;
 
   private MergeManager() {
   }
@@ -91,6 +97,7 @@ public class MergeManager implements IService {
         timedMergeThreadPool.scheduleAtFixedRate(this::mergeAll, mergeInterval,
             mergeInterval, TimeUnit.SECONDS);
       }
+      JMXService.registerMBean(this, ServiceType.MERGE_SERVICE.getJmxName());
       logger.info("MergeManager started");
     }
   }
@@ -102,6 +109,7 @@ public class MergeManager implements IService {
         timedMergeThreadPool.shutdownNow();
         timedMergeThreadPool = null;
       }
+      // interrupted merges keep their progress in merge.log and are resumed after reboot
       mergeTaskPool.shutdownNow();
       mergeChunkSubTaskPool.shutdownNow();
       logger.info("Waiting for task pool to shut down");
@@ -114,6 +122,7 @@ public class MergeManager implements IService {
         }
       }
       mergeTaskPool = null;
+      JMXService.deregisterMBean(ServiceType.MERGE_SERVICE.getJmxName());
       logger.info("MergeManager stopped");
     }
   }
@@ -137,6 +146,7 @@ public class MergeManager implements IService {
         }
       }
       mergeTaskPool = null;
+      JMXService.deregisterMBean(ServiceType.MERGE_SERVICE.getJmxName());
       logger.info("MergeManager stopped");
     }
   }
@@ -152,6 +162,66 @@ public class MergeManager implements IService {
     service.shutdownNow();
   }
 
+  /**
+   * Called by merge tasks at their checkpoints, i.e., between two batches of series or two files.
+   * Blocks while merges are paused, and for at most max_merge_pause_under_load_ms while any
+   * foreground I/O is going on.
+   *
+   * @throws InterruptedIOException if the task is interrupted, which means the server is stopping
+   */
+  public void waitIfPaused(String taskName) throws InterruptedIOException {
+    long maxPauseUnderLoad = IoTDBDescriptor.getInstance().getConfig()
+        .getMaxMergePauseUnderLoadMs();
+    long startTime = System.currentTimeMillis();
+    boolean waited = false;
+    try {
+      while (paused || System.currentTimeMillis() - startTime < maxPauseUnderLoad
+          && IOScheduler.getInstance().isForegroundBusy()) {
+        if (!waited) {
+          logger.debug("{} is paused", taskName);
+          waited = true;
+        }
+        Thread.sleep(PAUSE_CHECK_INTERVAL_MS);
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(taskName + " is interrupted");
+    }
+    if (waited) {
+      logger.debug("{} is resumed after {}ms", taskName, System.currentTimeMillis() - startTime);
+    }
+  }
+
+  @Override
+  public void pauseMerge() {
+    paused = true;
+    logger.info("Merges are paused");
+  }
+
+  @Override
+  public void resumeMerge() {
+    paused = false;
+    logger.info("Merges are resumed");
+  }
+
+  @Override
+  public boolean isMergePaused() {
+    return paused;
+  }
+
+  @Override
+  public int getNumberOfWorkingTasks() {
+    return mergeTaskPool == null ? 0 : mergeTaskPool.getActiveCount();
+  }
+
+  @Override
+  public int getNumberOfPendingTasks() {
+    return mergeTaskPool == null ? 0 : mergeTaskPool.getQueue().size();
+  }
+
   @Override
   public ServiceType getID() {
     return ServiceType.MERGE_SERVICE;
@@ -148,7 +148,8 @@ public class LogAnalyzer {
     long startTime = System.currentTimeMillis();
     List<TsFileResource> mergeUnseqFiles = new ArrayList<>();
     while ((currLine = bufferedReader.readLine()) != null) {
-      if (currLine.equals(STR_TIMESERIES)) {
+      // the timeseries are no longer logged, the unseq files end at "merge start"
+      if (STR_TIMESERIES.equals(currLine) || STR_MERGE_START.equals(currLine)) {
         break;
       }
       Iterator<TsFileResource> iterator = resource.getUnseqFiles().iterator();
@@ -186,14 +187,15 @@ public class LogAnalyzer {
       if (STR_ALL_TS_END.equals(currLine)) {
         break;
       }
-      if (currLine.contains(STR_START)) {
+      // series and file paths may contain "start" or "end", so keywords are matched exactly
+      if (currLine.startsWith(STR_START + " ")) {
         // a TS starts to merge
         String[] splits = currLine.split(" ");
         for (int i = 1; i < splits.length; i ++) {
           currTSList.add(new Path(splits[i]));
         }
         tempFileLastPositions.clear();
-      } else if (!currLine.contains(STR_END)) {
+      } else if (!STR_END.equals(currLine)) {
         // file position
         String[] splits = currLine.split(" ");
         File file = SystemFileFactory.INSTANCE.getFile(splits[0]);
@@ -231,7 +233,7 @@ public class LogAnalyzer {
         status = Status.MERGE_END;
         break;
       }
-      if (!currLine.contains(STR_END)) {
+      if (!STR_END.equals(currLine)) {
         String[] splits = currLine.split(" ");
         currFile = SystemFileFactory.INSTANCE.getFile(splits[0]);
         Long lastPost = Long.parseLong(splits[1]);
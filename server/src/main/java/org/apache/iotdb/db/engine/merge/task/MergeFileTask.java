@@ -30,7 +30,10 @@ import java.util.Map.Entry;
 import java.util.Set;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.engine.cache.ChunkMetadataCache;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
 import org.apache.iotdb.db.engine.merge.manage.MergeContext;
+import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
@@ -40,7 +43,6 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
-import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.write.writer.ForceAppendTsFileWriter;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
@@ -83,6 +85,7 @@ class MergeFileTask {
     long startTime = System.currentTimeMillis();
     int cnt = 0;
     for (TsFileResource seqFile : unmergedFiles) {
+      MergeManager.getINSTANCE().waitIfPaused(taskName);
       int mergedChunkNum = context.getMergedChunkCnt().getOrDefault(seqFile, 0);
       int unmergedChunkNum = context.getUnmergedChunkCnt().getOrDefault(seqFile, 0);
       if (mergedChunkNum >= unmergedChunkNum) {
@@ -161,6 +164,7 @@ class MergeFileTask {
       oldFileWriter.endFile();
 
       updateHistoricalVersions(seqFile);
+      seqFile.setSeriesFilter(oldFileWriter.buildBloomFilter());
       seqFile.serialize();
       mergeLogger.logFileMergeEnd();
       logger.debug("{} moved merged chunks of {} to the old file", taskName, seqFile);
@@ -175,6 +179,8 @@ class MergeFileTask {
               .getFile(nextMergeVersionFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX));
       seqFile.setFile(nextMergeVersionFile);
     } catch (Exception e) {
+      // the file may contain part of the merged series now
+      seqFile.setSeriesFilter(null);
       RestorableTsFileIOWriter oldFileRecoverWriter = new RestorableTsFileIOWriter(
           seqFile.getFile());
       if (oldFileRecoverWriter.hasCrashed() && oldFileRecoverWriter.canWrite()) {
@@ -208,8 +214,8 @@ class MergeFileTask {
     fileWriter.startChunkGroup(device);
     long maxVersion = 0;
     for (ChunkMetadata chunkMetaData : chunkMetadataList) {
-      Chunk chunk = reader.readMemChunk(chunkMetaData);
-      fileWriter.writeChunk(chunk, chunkMetaData);
+      long copiedBytes = fileWriter.copyChunk(reader, chunkMetaData);
+      IOScheduler.getInstance().acquire(IOType.MERGE, copiedBytes);
       maxVersion =
           chunkMetaData.getVersion() > maxVersion ? chunkMetaData.getVersion() : maxVersion;
       context.incTotalPointWritten(chunkMetaData.getNumOfPoints());
@@ -253,6 +259,7 @@ class MergeFileTask {
     fileWriter.endFile();
 
     updateHistoricalVersions(seqFile);
+    seqFile.setSeriesFilter(fileWriter.buildBloomFilter());
     seqFile.serialize();
     mergeLogger.logFileMergeEnd();
     logger.debug("{} moved unmerged chunks of {} to the new file", taskName, seqFile);
@@ -296,8 +303,8 @@ class MergeFileTask {
       for (; chunkIdx < chunkMetadataList.size(); chunkIdx++) {
         ChunkMetadata metaData = chunkMetadataList.get(chunkIdx);
         if (metaData.getStartTime() == startTime) {
-          Chunk chunk = reader.readMemChunk(metaData);
-          fileWriter.writeChunk(chunk, metaData);
+          long copiedBytes = fileWriter.copyChunk(reader, metaData);
+          IOScheduler.getInstance().acquire(IOType.MERGE, copiedBytes);
           maxVersion = metaData.getVersion() > maxVersion ? metaData.getVersion() : maxVersion;
           context.incTotalPointWritten(metaData.getNumOfPoints());
           break;
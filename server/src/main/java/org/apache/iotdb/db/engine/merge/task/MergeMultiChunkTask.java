@@ -24,6 +24,7 @@ import static org.apache.iotdb.db.utils.MergeUtils.writeTVPair;
 import static org.apache.iotdb.db.utils.QueryUtils.modifyChunkMetaData;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -32,6 +33,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
 import org.apache.iotdb.db.engine.merge.manage.MergeContext;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
@@ -107,6 +110,9 @@ class MergeMultiChunkTask {
       // TODO: use statistics of queries to better rearrange series
       IMergePathSelector pathSelector = new NaivePathSelector(pathList, concurrentMergeSeriesNum);
       while (pathSelector.hasNext()) {
+        // each batch of series is a unit of work that is logged once finished, so the merge can
+        // be paused or interrupted here without losing progress
+        MergeManager.getINSTANCE().waitIfPaused(taskName);
         currMergingPaths = pathSelector.next();
         mergePaths();
         mergedSeriesCnt += currMergingPaths.size();
@@ -197,7 +203,7 @@ class MergeMultiChunkTask {
       mergeFileWriter.writeVersion(0L);
       mergeFileWriter.endChunkGroup();
       mergeLogger.logFilePosition(mergeFileWriter.getFile());
-      currTsFile.getStartTimeMap().put(deviceId, currDeviceMinTime);
+      currTsFile.updateStartTime(deviceId, currDeviceMinTime);
     }
   }
 
@@ -255,7 +261,10 @@ class MergeMultiChunkTask {
     for (int i = 0; i < mergeChunkSubTaskNum; i++) {
       try {
         futures.get(i).get();
-      } catch (InterruptedException | ExecutionException e) {
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(taskName + " is interrupted");
+      } catch (ExecutionException e) {
         throw new IOException(e);
       }
     }
@@ -287,11 +296,7 @@ class MergeMultiChunkTask {
       boolean chunkTooSmall = MergeUtils
           .isChunkTooSmall(ptWrittens[pathIdx], currMeta, isLastChunk, minChunkPointNum);
 
-      Chunk chunk;
-      synchronized (reader) {
-        chunk = reader.readMemChunk(currMeta);
-      }
-      ptWrittens[pathIdx] = mergeChunkV2(currMeta, chunkOverflowed, chunkTooSmall, chunk,
+      ptWrittens[pathIdx] = mergeChunkV2(currMeta, chunkOverflowed, chunkTooSmall, reader,
           ptWrittens[pathIdx], pathIdx, mergeFileWriter, unseqReaders[pathIdx], chunkWriter,
           currFile);
 
@@ -309,9 +314,7 @@ class MergeMultiChunkTask {
         }
         // the last merged chunk may still be smaller than the threshold, flush it anyway
         if (ptWrittens[pathIdx] > 0) {
-          synchronized (mergeFileWriter) {
-            chunkWriter.writeToFileWriter(mergeFileWriter);
-          }
+          writeChunkToFile(chunkWriter, mergeFileWriter);
         }
       }
     }
@@ -324,19 +327,22 @@ class MergeMultiChunkTask {
    * chunk before & SK is big enough & SK isn't overflowed & SK isn't modified
    * <p>
    * <p>
-   * 2. write SK to .merge.file without compressing when: is full merge & there isn't unclosed chunk
-   * before & SK is big enough & SK isn't overflowed & SK isn't modified
+   * 2. copy SK to .merge.file byte by byte without reading it into memory when: is full merge &
+   * there isn't unclosed chunk before & SK is big enough & SK isn't overflowed & SK isn't modified
    * <p>
    * 3. other cases: need to unCompress the chunk and write 3.1 SK isn't overflowed 3.2 SK is
    * overflowed
+   * <p>
+   * SK is only read from the file in case 3.
    */
   private int mergeChunkV2(ChunkMetadata currMeta, boolean chunkOverflowed,
-      boolean chunkTooSmall, Chunk chunk, int lastUnclosedChunkPoint, int pathIdx,
+      boolean chunkTooSmall, TsFileSequenceReader reader, int lastUnclosedChunkPoint, int pathIdx,
       TsFileIOWriter mergeFileWriter, IPointReader unseqReader,
       IChunkWriter chunkWriter, TsFileResource currFile) throws IOException {
 
     int unclosedChunkPoint = lastUnclosedChunkPoint;
-    boolean chunkModified = currMeta.getDeletedAt() > Long.MIN_VALUE;
+    boolean chunkModified = currMeta.getDeleteIntervalList() != null
+        && !currMeta.getDeleteIntervalList().isEmpty();
 
     // no need to write the chunk to .merge file
     if (!fullMerge && lastUnclosedChunkPoint == 0 && !chunkTooSmall && !chunkOverflowed
@@ -347,18 +353,27 @@ class MergeMultiChunkTask {
       return 0;
     }
 
-    // write SK to .merge.file without compressing
+    // copy SK to .merge.file without compressing
     if (fullMerge && lastUnclosedChunkPoint == 0 && !chunkTooSmall && !chunkOverflowed
         && !chunkModified) {
+      long copiedBytes;
       synchronized (mergeFileWriter) {
-        mergeFileWriter.writeChunk(chunk, currMeta);
+        synchronized (reader) {
+          copiedBytes = mergeFileWriter.copyChunk(reader, currMeta);
+        }
       }
+      IOScheduler.getInstance().acquire(IOType.MERGE, copiedBytes);
       mergeContext.incTotalPointWritten(currMeta.getNumOfPoints());
       mergeContext.incTotalChunkWritten();
       mergedChunkNum.incrementAndGet();
       return 0;
     }
 
+    Chunk chunk;
+    synchronized (reader) {
+      chunk = reader.readMemChunk(currMeta);
+    }
+    IOScheduler.getInstance().acquire(IOType.MERGE, chunk.getData().remaining());
     // 3.1 SK isn't overflowed, just uncompress and write sequence chunk
     if (!chunkOverflowed) {
       unclosedChunkPoint += MergeUtils.writeChunkWithoutUnseq(chunk, chunkWriter);
@@ -375,14 +390,23 @@ class MergeMultiChunkTask {
     if (minChunkPointNum > 0 && unclosedChunkPoint >= minChunkPointNum
         || unclosedChunkPoint > 0 && minChunkPointNum < 0) {
       // the new chunk's size is large enough and it should be flushed
-      synchronized (mergeFileWriter) {
-        chunkWriter.writeToFileWriter(mergeFileWriter);
-      }
+      writeChunkToFile(chunkWriter, mergeFileWriter);
       unclosedChunkPoint = 0;
     }
     return unclosedChunkPoint;
   }
 
+  private void writeChunkToFile(IChunkWriter chunkWriter, TsFileIOWriter mergeFileWriter)
+      throws IOException {
+    long writtenBytes;
+    synchronized (mergeFileWriter) {
+      long startPos = mergeFileWriter.getPos();
+      chunkWriter.writeToFileWriter(mergeFileWriter);
+      writtenBytes = mergeFileWriter.getPos() - startPos;
+    }
+    IOScheduler.getInstance().acquire(IOType.MERGE, writtenBytes);
+  }
+
   private int writeRemainingUnseq(IChunkWriter chunkWriter,
       IPointReader unseqReader, long timeLimit, int pathIdx) throws IOException {
     int ptWritten = 0;
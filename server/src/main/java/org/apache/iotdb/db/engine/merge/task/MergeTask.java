@@ -21,6 +21,8 @@ package org.apache.iotdb.db.engine.merge.task;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -95,6 +97,14 @@ public class MergeTask implements Callable<Void> {
     try  {
       doMerge();
     } catch (Exception e) {
+      if (isInterrupted(e)) {
+        logger.warn("{} is interrupted, it will be continued from the last merged series after "
+            + "reboot", taskName);
+        abort();
+        callback.call(Collections.emptyList(), Collections.emptyList(),
+            new File(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME));
+        throw e;
+      }
       logger.error("Runtime exception in merge {}", taskName, e);
       cleanUp(false);
       // call the callback to make sure the StorageGroup exit merging status, but passing 2
@@ -117,18 +127,7 @@ public class MergeTask implements Callable<Void> {
 
     mergeLogger.logFiles(resource);
 
-    Set<String> devices = MManager.getInstance().getDevices(storageGroupName);
-    Map<Path, MeasurementSchema> measurementSchemaMap = new HashMap<>();
-    List<Path> unmergedSeries = new ArrayList<>();
-    for (String device : devices) {
-      InternalMNode deviceNode = (InternalMNode) MManager.getInstance().getNodeByPath(device);
-      for (Entry<String, MNode> entry : deviceNode.getChildren().entrySet()) {
-        Path path = new Path(device, entry.getKey());
-        measurementSchemaMap.put(path, ((LeafMNode) entry.getValue()).getSchema());
-        unmergedSeries.add(path);
-      }
-    }
-    resource.setMeasurementSchemaMap(measurementSchemaMap);
+    List<Path> unmergedSeries = loadSchemas();
 
     mergeLogger.logMergeStart();
 
@@ -155,6 +154,55 @@ public class MergeTask implements Callable<Void> {
     }
   }
 
+  /**
+   * Put the schemas of all timeseries in the storage group into the resource.
+   *
+   * @return all timeseries in the storage group
+   */
+  List<Path> loadSchemas() throws MetadataException {
+    Set<String> devices = MManager.getInstance().getDevices(storageGroupName);
+    Map<Path, MeasurementSchema> measurementSchemaMap = new HashMap<>();
+    List<Path> allSeries = new ArrayList<>();
+    for (String device : devices) {
+      InternalMNode deviceNode = (InternalMNode) MManager.getInstance().getNodeByPath(device);
+      for (Entry<String, MNode> entry : deviceNode.getChildren().entrySet()) {
+        Path path = new Path(device, entry.getKey());
+        measurementSchemaMap.put(path, ((LeafMNode) entry.getValue()).getSchema());
+        allSeries.add(path);
+      }
+    }
+    resource.setMeasurementSchemaMap(measurementSchemaMap);
+    return allSeries;
+  }
+
+  private boolean isInterrupted(Exception e) {
+    return Thread.currentThread().isInterrupted() || e instanceof InterruptedIOException
+        || e instanceof ClosedByInterruptException;
+  }
+
+  /**
+   * Release the files of an interrupted merge but keep merge.log and the temp merge files, so that
+   * RecoverMergeTask can truncate the temp files to the last logged positions and go on from the
+   * first series that has not been merged.
+   */
+  private void abort() {
+    try {
+      resource.clear();
+      if (mergeLogger != null) {
+        mergeLogger.close();
+      }
+    } catch (IOException e) {
+      logger.warn("{} cannot release its files after being interrupted", taskName, e);
+    }
+    mergeContext.clear();
+    for (TsFileResource seqFile : resource.getSeqFiles()) {
+      seqFile.setMerging(false);
+    }
+    for (TsFileResource unseqFile : resource.getUnseqFiles()) {
+      unseqFile.setMerging(false);
+    }
+  }
+
   void cleanUp(boolean executeCallback) throws IOException {
     logger.info("{} is cleaning up", taskName);
 
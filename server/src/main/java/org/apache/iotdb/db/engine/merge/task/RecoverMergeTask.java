@@ -94,8 +94,10 @@ public class RecoverMergeTask extends MergeTask {
     }
   }
 
-  private void resumeAfterFilesLogged(boolean continueMerge) throws IOException {
+  private void resumeAfterFilesLogged(boolean continueMerge)
+      throws IOException, MetadataException {
     if (continueMerge) {
+      loadSchemas();
       resumeMergeProgress();
       calculateConcurrentSeriesNum();
       if (concurrentMergeSeriesNum == 0) {
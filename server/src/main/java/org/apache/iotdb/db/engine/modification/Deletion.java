@@ -23,26 +23,55 @@ import java.util.Objects;
 import org.apache.iotdb.tsfile.read.common.Path;
 
 /**
- * Deletion is a delete operation on a timeseries.
+ * Deletion is a delete operation on a timeseries, which deletes the data whose timestamp is in
+ * [startTime, endTime].
  */
 public class Deletion extends Modification {
 
+  private long startTime;
+  private long endTime;
+
   /**
-   * data whose timestamp <= this field are to be deleted.
+   * constructor of a deletion that deletes all data whose timestamp <= endTime.
    */
-  private long timestamp;
+  public Deletion(Path path, long versionNum, long endTime) {
+    this(path, versionNum, Long.MIN_VALUE, endTime);
+  }
 
-  public Deletion(Path path, long versionNum, long timestamp) {
+  public Deletion(Path path, long versionNum, long startTime, long endTime) {
     super(Type.DELETION, path, versionNum);
-    this.timestamp = timestamp;
+    this.startTime = startTime;
+    this.endTime = endTime;
   }
 
-  public long getTimestamp() {
-    return timestamp;
+  public long getStartTime() {
+    return startTime;
   }
 
-  public void setTimestamp(long timestamp) {
-    this.timestamp = timestamp;
+  public void setStartTime(long startTime) {
+    this.startTime = startTime;
+  }
+
+  public long getEndTime() {
+    return endTime;
+  }
+
+  public void setEndTime(long endTime) {
+    this.endTime = endTime;
+  }
+
+  /**
+   * @return true if some data in [startTime, endTime] are deleted by this deletion
+   */
+  public boolean overlaps(long startTime, long endTime) {
+    return this.startTime <= endTime && this.endTime >= startTime;
+  }
+
+  /**
+   * @return true if all data in [startTime, endTime] are deleted by this deletion
+   */
+  public boolean covers(long startTime, long endTime) {
+    return this.startTime <= startTime && this.endTime >= endTime;
   }
 
   @Override
@@ -54,11 +83,17 @@ public class Deletion extends Modification {
       return false;
     }
     Deletion del = (Deletion) obj;
-    return super.equals(obj) && del.timestamp == this.timestamp;
+    return super.equals(obj) && del.startTime == this.startTime && del.endTime == this.endTime;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), timestamp);
+    return Objects.hash(super.hashCode(), startTime, endTime);
+  }
+
+  @Override
+  public String toString() {
+    return "Deletion{" + getPathString() + ", version=" + versionNum + ", [" + startTime + ", "
+        + endTime + "]}";
   }
 }
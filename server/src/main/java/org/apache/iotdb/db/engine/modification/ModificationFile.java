@@ -19,11 +19,17 @@
 
 package org.apache.iotdb.db.engine.modification;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.ModificationReader;
 import org.apache.iotdb.db.engine.modification.io.ModificationWriter;
@@ -32,12 +38,21 @@ import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 /**
  * ModificationFile stores the Modifications of a TsFile or unseq file in another file in the same
  * directory. Methods in this class are highly synchronized for concurrency safety.
+ *
+ * <p>New files are written in the binary format of {@link LocalBinaryModificationAccessor}, while
+ * files written in the text format by older versions are still readable and are converted to the
+ * binary format by {@link #compact()}. Once read, the modifications are cached in memory and
+ * indexed by path until the file is closed or removed, so that a query only visits the
+ * modifications of the paths it reads.
  */
 public class ModificationFile implements AutoCloseable {
 
   public static final String FILE_SUFFIX = ".mods";
+  private static final String COMPACTING_SUFFIX = ".compacting";
 
   private List<Modification> modifications;
+  // path -> modifications of the path, in the order they are written
+  private Map<String, List<Modification>> pathModifications;
   private ModificationWriter writer;
   private ModificationReader reader;
   private String filePath;
@@ -48,15 +63,30 @@ public class ModificationFile implements AutoCloseable {
    * @param filePath the path of the storage file.
    */
   public ModificationFile(String filePath) {
-    LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
-    this.writer = accessor;
-    this.reader = accessor;
     this.filePath = filePath;
+    initAccessor();
+  }
+
+  private void initAccessor() {
+    if (LocalBinaryModificationAccessor.isBinaryOrEmpty(filePath)) {
+      LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    } else {
+      LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    }
   }
 
   private void init() {
     synchronized (this) {
       modifications = (List<Modification>) reader.read();
+      pathModifications = new HashMap<>();
+      for (Modification modification : modifications) {
+        pathModifications.computeIfAbsent(modification.getPathString(), p -> new ArrayList<>())
+            .add(modification);
+      }
     }
   }
 
@@ -73,14 +103,20 @@ public class ModificationFile implements AutoCloseable {
     synchronized (this) {
       writer.close();
       modifications = null;
+      pathModifications = null;
     }
   }
 
   public void abort() throws IOException {
     synchronized (this) {
-      if (!modifications.isEmpty()) {
+      if (modifications != null && !modifications.isEmpty()) {
         writer.abort();
-        modifications.remove(modifications.size() - 1);
+        Modification removed = modifications.remove(modifications.size() - 1);
+        List<Modification> mods = pathModifications.get(removed.getPathString());
+        mods.remove(mods.size() - 1);
+        if (mods.isEmpty()) {
+          pathModifications.remove(removed.getPathString());
+        }
       }
     }
   }
@@ -97,6 +133,7 @@ public class ModificationFile implements AutoCloseable {
       checkInit();
       writer.write(mod);
       modifications.add(mod);
+      pathModifications.computeIfAbsent(mod.getPathString(), p -> new ArrayList<>()).add(mod);
     }
   }
 
@@ -112,6 +149,81 @@ public class ModificationFile implements AutoCloseable {
     }
   }
 
+  /**
+   * Get the modifications of a timeseries stored in this file.
+   *
+   * @param path the full path of the timeseries
+   * @return an ArrayList of modifications, in the order they are written
+   */
+  public List<Modification> getModifications(String path) {
+    synchronized (this) {
+      checkInit();
+      List<Modification> mods = pathModifications.get(path);
+      return mods == null ? new ArrayList<>() : new ArrayList<>(mods);
+    }
+  }
+
+  /**
+   * Rewrite this file in the binary format with the modifications sorted by path, dropping aborted
+   * modifications and the deletions that are covered by a deletion of the same path with a version
+   * no smaller than theirs.
+   *
+   * @throws IOException if the file cannot be rewritten, in which case the original file remains
+   */
+  public void compact() throws IOException {
+    synchronized (this) {
+      checkInit();
+      if (modifications.isEmpty() && !FSFactoryProducer.getFSFactory().getFile(filePath)
+          .exists()) {
+        return;
+      }
+      List<Modification> compacted = new ArrayList<>();
+      for (List<Modification> mods : new TreeMap<>(pathModifications).values()) {
+        for (int i = 0; i < mods.size(); i++) {
+          if (!isCovered(i, mods)) {
+            compacted.add(mods.get(i));
+          }
+        }
+      }
+
+      writer.close();
+      File compactingFile = FSFactoryProducer.getFSFactory().getFile(filePath + COMPACTING_SUFFIX);
+      Files.deleteIfExists(compactingFile.toPath());
+      try (LocalBinaryModificationAccessor compactingAccessor = new LocalBinaryModificationAccessor(
+          compactingFile.getPath())) {
+        compactingAccessor.writeAll(compacted);
+      }
+      Files.move(compactingFile.toPath(),
+          FSFactoryProducer.getFSFactory().getFile(filePath).toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+      initAccessor();
+      init();
+    }
+  }
+
+  /**
+   * @return true if the index-th modification is a deletion covered by another deletion with a
+   * larger or equal version, or by an identical deletion written before it
+   */
+  private boolean isCovered(int index, List<Modification> pathMods) {
+    if (!(pathMods.get(index) instanceof Deletion)) {
+      return false;
+    }
+    Deletion deletion = (Deletion) pathMods.get(index);
+    for (int i = 0; i < pathMods.size(); i++) {
+      if (i == index || !(pathMods.get(i) instanceof Deletion)) {
+        continue;
+      }
+      Deletion other = (Deletion) pathMods.get(i);
+      if (other.getVersionNum() >= deletion.getVersionNum()
+          && other.covers(deletion.getStartTime(), deletion.getEndTime())
+          && (i < index || !other.equals(deletion))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public String getFilePath() {
     return filePath;
   }
@@ -121,8 +233,10 @@ public class ModificationFile implements AutoCloseable {
   }
 
   public void remove() throws IOException {
-    close();
-    FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+    synchronized (this) {
+      close();
+      FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+    }
   }
 
 }
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.modification.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LocalBinaryModificationAccessor uses a file on local file system to store the modifications in
+ * binary format, and writes modifications by appending to the tail of the file. The file starts
+ * with a magic string, followed by records, each of which is the length of its body and the body:
+ * <ul>
+ *   <li>a deletion: type(1 byte), path length(int), path(UTF-8), version(long), start time(long),
+ *   end time(long)</li>
+ *   <li>an abort mark: ABORT_MARK(1 byte), which cancels the previous record</li>
+ * </ul>
+ * A record that is partially written, e.g., because of a crash, is discarded and truncated when
+ * the file is read.
+ */
+public class LocalBinaryModificationAccessor implements ModificationReader, ModificationWriter,
+    AutoCloseable {
+
+  private static final Logger logger = LoggerFactory
+      .getLogger(LocalBinaryModificationAccessor.class);
+  static final byte[] MAGIC_STRING = "IoTDBMods".getBytes(StandardCharsets.UTF_8);
+  private static final byte ABORT_MARK = -1;
+
+  private String filePath;
+  private DataOutputStream writer;
+
+  /**
+   * Construct a LocalBinaryModificationAccessor using a file specified by filePath.
+   *
+   * @param filePath the path of the file that is used for storing modifications.
+   */
+  public LocalBinaryModificationAccessor(String filePath) {
+    this.filePath = filePath;
+  }
+
+  /**
+   * @return true if the file does not exist, is empty or is written in the binary format
+   */
+  public static boolean isBinaryOrEmpty(String filePath) {
+    File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (!file.exists() || file.length() == 0) {
+      return true;
+    }
+    byte[] magic = new byte[MAGIC_STRING.length];
+    try (DataInputStream input = new DataInputStream(
+        FSFactoryProducer.getFSFactory().getBufferedInputStream(filePath))) {
+      input.readFully(magic);
+    } catch (IOException e) {
+      return false;
+    }
+    return Arrays.equals(magic, MAGIC_STRING);
+  }
+
+  @Override
+  public Collection<Modification> read() {
+    File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (!file.exists()) {
+      logger.debug("No modification has been written to this file");
+      return new ArrayList<>();
+    }
+
+    List<Modification> modificationList = new ArrayList<>();
+    long fileLength = file.length();
+    long validLength = 0;
+    try (DataInputStream input = new DataInputStream(
+        FSFactoryProducer.getFSFactory().getBufferedInputStream(filePath))) {
+      byte[] magic = new byte[MAGIC_STRING.length];
+      input.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC_STRING)) {
+        throw new IOException("Not a binary modification file");
+      }
+      validLength = MAGIC_STRING.length;
+      while (validLength < fileLength) {
+        if (fileLength - validLength < Integer.BYTES) {
+          throw new EOFException("Incomplete length of a modification");
+        }
+        int length = input.readInt();
+        if (length <= 0) {
+          throw new EOFException("Illegal length of a modification: " + length);
+        }
+        if (length > fileLength - validLength - Integer.BYTES) {
+          throw new EOFException("Incomplete modification of length " + length);
+        }
+        byte[] body = new byte[length];
+        input.readFully(body);
+        if (body.length == 1 && body[0] == ABORT_MARK) {
+          if (!modificationList.isEmpty()) {
+            modificationList.remove(modificationList.size() - 1);
+          }
+        } else {
+          modificationList.add(decodeModification(body));
+        }
+        validLength += Integer.BYTES + length;
+      }
+    } catch (EOFException e) {
+      logger.warn("The last modification in {} is incomplete and discarded: {}", filePath,
+          e.getMessage());
+      truncate(file, validLength);
+    } catch (IOException e) {
+      logger.error("An error occurred when reading modifications, and the remaining modifications "
+          + "were ignored.", e);
+    }
+    return modificationList;
+  }
+
+  private void truncate(File file, long length) {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(length);
+    } catch (IOException e) {
+      logger.error("Cannot truncate the incomplete modification in {}", filePath, e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+  }
+
+  @Override
+  public void abort() throws IOException {
+    checkWriter();
+    writer.writeInt(1);
+    writer.writeByte(ABORT_MARK);
+    writer.flush();
+  }
+
+  @Override
+  public void write(Modification mod) throws IOException {
+    checkWriter();
+    byte[] body = encodeModification(mod);
+    writer.writeInt(body.length);
+    writer.write(body);
+    writer.flush();
+  }
+
+  /**
+   * Write the modifications in a batch, which is faster than writing them one by one.
+   */
+  public void writeAll(Collection<Modification> mods) throws IOException {
+    checkWriter();
+    for (Modification mod : mods) {
+      byte[] body = encodeModification(mod);
+      writer.writeInt(body.length);
+      writer.write(body);
+    }
+    writer.flush();
+  }
+
+  private void checkWriter() throws IOException {
+    if (writer == null) {
+      File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+      boolean isNew = !file.exists() || file.length() == 0;
+      writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+      if (isNew) {
+        writer.write(MAGIC_STRING);
+      }
+    }
+  }
+
+  private static byte[] encodeModification(Modification mod) throws IOException {
+    if (mod instanceof Deletion) {
+      return encodeDeletion((Deletion) mod);
+    }
+    throw new IOException("Unknown modification type: " + mod.getType());
+  }
+
+  private static Modification decodeModification(byte[] body) throws IOException {
+    if (body[0] == Modification.Type.DELETION.ordinal()) {
+      return decodeDeletion(body);
+    }
+    throw new IOException("Unknown modification type: " + body[0]);
+  }
+
+  private static byte[] encodeDeletion(Deletion del) {
+    byte[] path = del.getPathString().getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer
+        .allocate(Byte.BYTES + Integer.BYTES + path.length + 3 * Long.BYTES);
+    buffer.put((byte) del.getType().ordinal());
+    buffer.putInt(path.length);
+    buffer.put(path);
+    buffer.putLong(del.getVersionNum());
+    buffer.putLong(del.getStartTime());
+    buffer.putLong(del.getEndTime());
+    return buffer.array();
+  }
+
+  private static Deletion decodeDeletion(byte[] body) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(body);
+    buffer.get();
+    int pathLength = buffer.getInt();
+    if (pathLength < 0 || buffer.remaining() != pathLength + 3 * Long.BYTES) {
+      throw new IOException("Incorrect deletion length: " + body.length);
+    }
+    String path = new String(body, buffer.position(), pathLength, StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + pathLength);
+    long versionNum = buffer.getLong();
+    long startTime = buffer.getLong();
+    long endTime = buffer.getLong();
+    return new Deletion(new Path(path), versionNum, startTime, endTime);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary shared by all TsFileResources that gives each device a dense integer id, so that
+ * the device time index of a TsFile stores ints instead of device names. Ids are never released as
+ * the number of devices is far smaller than the number of TsFiles.
+ */
+public class DeviceIdDictionary {
+
+  private final Map<String, Integer> deviceToId = new ConcurrentHashMap<>();
+  private volatile String[] idToDevice = new String[1024];
+  private int size = 0;
+
+  private DeviceIdDictionary() {
+  }
+
+  public static DeviceIdDictionary getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * @return the id of the device, a new id is allocated if it is absent
+   */
+  public int getOrAllocateId(String device) {
+    Integer id = deviceToId.get(device);
+    if (id != null) {
+      return id;
+    }
+    synchronized (this) {
+      id = deviceToId.get(device);
+      if (id != null) {
+        return id;
+      }
+      String[] devices = idToDevice;
+      if (size == devices.length) {
+        devices = Arrays.copyOf(devices, size << 1);
+      }
+      devices[size] = device;
+      idToDevice = devices;
+      deviceToId.put(device, size);
+      return size++;
+    }
+  }
+
+  /**
+   * @return the id of the device, or -1 if it is absent
+   */
+  public int getId(String device) {
+    Integer id = deviceToId.get(device);
+    return id == null ? -1 : id;
+  }
+
+  public String getDevice(int id) {
+    return idToDevice[id];
+  }
+
+  private static class InstanceHolder {
+
+    private static final DeviceIdDictionary INSTANCE = new DeviceIdDictionary();
+
+    private InstanceHolder() {
+      // allowed to do nothing
+    }
+  }
+}
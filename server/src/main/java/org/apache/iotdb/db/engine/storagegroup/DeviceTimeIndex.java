@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact, read-mostly form of the start and end times of the devices in a sealed TsFile. Devices
+ * are stored as sorted ids of the {@link DeviceIdDictionary} and the times as primitive arrays, which
+ * costs about 20 bytes per device instead of two HashMap entries with boxed values.
+ *
+ * <p>The times of existing devices can be changed in place; adding a device is not supported and
+ * the owner should convert the index back to maps in that case.
+ */
+class DeviceTimeIndex {
+
+  // the start (end) time of a device which has no start (end) time in the original maps
+  private static final long ABSENT_START_TIME = Long.MAX_VALUE;
+  private static final long ABSENT_END_TIME = Long.MIN_VALUE;
+
+  // object headers, array headers and the two views
+  private static final long BASE_MEMORY_COST = 128;
+  private static final long MEMORY_COST_PER_DEVICE = Integer.BYTES + 2L * Long.BYTES;
+
+  private final int[] deviceIds;
+  private final long[] startTimes;
+  private final long[] endTimes;
+  private int startTimeNum;
+  private int endTimeNum;
+
+  private final Map<String, Long> startTimeView = new TimeView(true);
+  private final Map<String, Long> endTimeView = new TimeView(false);
+
+  DeviceTimeIndex(Map<String, Long> startTimeMap, Map<String, Long> endTimeMap) {
+    DeviceIdDictionary dictionary = DeviceIdDictionary.getInstance();
+    int[] ids = new int[startTimeMap.size() + endTimeMap.size()];
+    int idNum = 0;
+    for (String device : startTimeMap.keySet()) {
+      ids[idNum++] = dictionary.getOrAllocateId(device);
+    }
+    for (String device : endTimeMap.keySet()) {
+      if (!startTimeMap.containsKey(device)) {
+        ids[idNum++] = dictionary.getOrAllocateId(device);
+      }
+    }
+    Arrays.sort(ids, 0, idNum);
+    this.deviceIds = Arrays.copyOf(ids, idNum);
+    this.startTimes = new long[idNum];
+    this.endTimes = new long[idNum];
+    for (int i = 0; i < idNum; i++) {
+      String device = dictionary.getDevice(deviceIds[i]);
+      Long startTime = startTimeMap.get(device);
+      Long endTime = endTimeMap.get(device);
+      startTimes[i] = startTime == null ? ABSENT_START_TIME : startTime;
+      endTimes[i] = endTime == null ? ABSENT_END_TIME : endTime;
+    }
+    this.startTimeNum = startTimeMap.size();
+    this.endTimeNum = endTimeMap.size();
+  }
+
+  Map<String, Long> getStartTimeView() {
+    return startTimeView;
+  }
+
+  Map<String, Long> getEndTimeView() {
+    return endTimeView;
+  }
+
+  /**
+   * @return false if the device is not in this index
+   */
+  synchronized boolean setStartTime(String device, long time) {
+    int index = indexOf(device);
+    if (index < 0) {
+      return false;
+    }
+    if (startTimes[index] == ABSENT_START_TIME) {
+      startTimeNum++;
+    }
+    startTimes[index] = time;
+    return true;
+  }
+
+  /**
+   * @return false if the device is not in this index
+   */
+  synchronized boolean setEndTime(String device, long time) {
+    int index = indexOf(device);
+    if (index < 0) {
+      return false;
+    }
+    if (endTimes[index] == ABSENT_END_TIME) {
+      endTimeNum++;
+    }
+    endTimes[index] = time;
+    return true;
+  }
+
+  long getMinStartTime() {
+    long minStartTime = ABSENT_START_TIME;
+    for (long startTime : startTimes) {
+      minStartTime = Math.min(minStartTime, startTime);
+    }
+    return minStartTime;
+  }
+
+  long getMaxEndTime() {
+    long maxEndTime = ABSENT_END_TIME;
+    for (long endTime : endTimes) {
+      maxEndTime = Math.max(maxEndTime, endTime);
+    }
+    return maxEndTime;
+  }
+
+  long getMemoryCost() {
+    return BASE_MEMORY_COST + deviceIds.length * MEMORY_COST_PER_DEVICE;
+  }
+
+  private int indexOf(Object device) {
+    if (!(device instanceof String)) {
+      return -1;
+    }
+    int id = DeviceIdDictionary.getInstance().getId((String) device);
+    return id < 0 ? -1 : Arrays.binarySearch(deviceIds, id);
+  }
+
+  /**
+   * A read-only map view of the start or end times.
+   */
+  private class TimeView extends AbstractMap<String, Long> {
+
+    private final boolean isStartTime;
+
+    private TimeView(boolean isStartTime) {
+      this.isStartTime = isStartTime;
+    }
+
+    private long[] times() {
+      return isStartTime ? startTimes : endTimes;
+    }
+
+    private boolean isAbsent(long time) {
+      return time == (isStartTime ? ABSENT_START_TIME : ABSENT_END_TIME);
+    }
+
+    @Override
+    public Long get(Object key) {
+      int index = indexOf(key);
+      if (index < 0) {
+        return null;
+      }
+      long time = times()[index];
+      return isAbsent(time) ? null : time;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+      return isStartTime ? startTimeNum : endTimeNum;
+    }
+
+    @Override
+    public Set<Entry<String, Long>> entrySet() {
+      return new AbstractSet<Entry<String, Long>>() {
+        @Override
+        public Iterator<Entry<String, Long>> iterator() {
+          return new TimeIterator();
+        }
+
+        @Override
+        public int size() {
+          return TimeView.this.size();
+        }
+      };
+    }
+
+    private class TimeIterator implements Iterator<Entry<String, Long>> {
+
+      private int next = advance(0);
+
+      private int advance(int from) {
+        long[] times = times();
+        int index = from;
+        while (index < times.length && isAbsent(times[index])) {
+          index++;
+        }
+        return index;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next < deviceIds.length;
+      }
+
+      @Override
+      public Entry<String, Long> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Entry<String, Long> entry = new SimpleImmutableEntry<>(
+            DeviceIdDictionary.getInstance().getDevice(deviceIds[next]), times()[next]);
+        next = advance(next + 1);
+        return entry;
+      }
+    }
+  }
+}
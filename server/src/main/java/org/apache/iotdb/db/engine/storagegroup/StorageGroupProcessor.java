@@ -37,6 +37,9 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
@@ -44,10 +47,16 @@ import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.compaction.CompactionManager;
+import org.apache.iotdb.db.engine.compaction.RecoverSeqCompactionTask;
+import org.apache.iotdb.db.engine.compaction.SeqCompactionLogger;
+import org.apache.iotdb.db.engine.compaction.SeqCompactionSelector;
+import org.apache.iotdb.db.engine.compaction.SeqCompactionTask;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
 import org.apache.iotdb.db.engine.flush.TsFileFlushPolicy;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
 import org.apache.iotdb.db.engine.merge.selector.IMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.MaxFileMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.MaxSeriesMergeFileSelector;
@@ -78,10 +87,12 @@ import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.control.QueryFileManager;
 import org.apache.iotdb.db.utils.CopyOnReadLinkedList;
 import org.apache.iotdb.db.utils.UpgradeUtils;
 import org.apache.iotdb.db.writelog.recover.TsFileRecoverPerformer;
+import org.apache.iotdb.db.writelog.recover.TsFileRecoverPoolManager;
 import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.rpc.TSStatusCode;
 import org.apache.iotdb.service.rpc.thrift.TSStatus;
@@ -90,6 +101,7 @@ import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
@@ -205,6 +217,7 @@ public class StorageGroupProcessor {
    */
   private ModificationFile mergingModification;
   private volatile boolean isMerging = false;
+  private volatile boolean isCompacting = false;
   private long mergeStartTime;
   /**
    * when the data in a storage group is older than dataTTL, it is considered invalid and will be
@@ -256,14 +269,20 @@ public class StorageGroupProcessor {
     logger.info("recover Storage Group  {}", storageGroupName);
 
     try {
+      // finish or roll back the compaction interrupted by the last crash before loading files
+      new RecoverSeqCompactionTask(SystemFileFactory.INSTANCE.getFile(storageGroupSysDir,
+          SeqCompactionLogger.COMPACTION_LOG_NAME)).recover();
+
       // collect candidate TsFiles from sequential and unsequential data directory
       List<TsFileResource> tmpSeqTsFiles = getAllFiles(
           DirectoryManager.getInstance().getAllSequenceFileFolders());
       List<TsFileResource> tmpUnseqTsFiles =
           getAllFiles(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
 
-      recoverSeqFiles(tmpSeqTsFiles);
-      recoverUnseqFiles(tmpUnseqTsFiles);
+      Map<TsFileResource, RestorableTsFileIOWriter> writers = recoverFilesByPartition(
+          tmpSeqTsFiles, tmpUnseqTsFiles);
+      recoverSeqFiles(tmpSeqTsFiles, writers);
+      recoverUnseqFiles(tmpUnseqTsFiles, writers);
 
       for (TsFileResource resource : sequenceFileTreeSet) {
         long partitionNum = resource.getTimePartition();
@@ -381,20 +400,79 @@ public class StorageGroupProcessor {
     }
   }
 
-  private void recoverSeqFiles(List<TsFileResource> tsFiles) {
+  /**
+   * Recover the TsFiles of each time partition as a task of TsFileRecoverPoolManager, so that time
+   * partitions are recovered in parallel. The files of one partition share a VersionController, so
+   * they are recovered in order, sequential files first.
+   *
+   * @return the writers of the recovered files, files failed to recover are absent
+   */
+  private Map<TsFileResource, RestorableTsFileIOWriter> recoverFilesByPartition(
+      List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles)
+      throws StorageGroupProcessorException {
+    Map<Long, List<Pair<TsFileResource, TsFileRecoverPerformer>>> partitionPerformers =
+        new TreeMap<>();
+    // version controllers are created here as timePartitionIdVersionControllerMap is not thread-safe
+    addRecoverPerformers(seqFiles, false, partitionPerformers);
+    addRecoverPerformers(unseqFiles, true, partitionPerformers);
+
+    TsFileRecoverPoolManager recoverPoolManager = TsFileRecoverPoolManager.getInstance();
+    recoverPoolManager.addTotalFiles((long) seqFiles.size() + unseqFiles.size());
+    Map<TsFileResource, RestorableTsFileIOWriter> writers = new ConcurrentHashMap<>();
+    List<Future<?>> futures = new ArrayList<>();
+    for (List<Pair<TsFileResource, TsFileRecoverPerformer>> performers :
+        partitionPerformers.values()) {
+      futures.add(recoverPoolManager.submit(() -> {
+        for (Pair<TsFileResource, TsFileRecoverPerformer> performer : performers) {
+          try {
+            RestorableTsFileIOWriter writer = performer.right.recover();
+            if (writer != null) {
+              writers.put(performer.left, writer);
+            }
+          } catch (StorageGroupProcessorException e) {
+            logger.warn("Skip TsFile: {} because of error in recover: ", performer.left.getPath(),
+                e);
+          } finally {
+            recoverPoolManager.fileRecovered();
+          }
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new StorageGroupProcessorException(e);
+      } catch (ExecutionException e) {
+        throw new StorageGroupProcessorException(e);
+      }
+    }
+    return writers;
+  }
+
+  private void addRecoverPerformers(List<TsFileResource> tsFiles, boolean isUnseq,
+      Map<Long, List<Pair<TsFileResource, TsFileRecoverPerformer>>> partitionPerformers) {
     for (int i = 0; i < tsFiles.size(); i++) {
       TsFileResource tsFileResource = tsFiles.get(i);
       long timePartitionId = tsFileResource.getTimePartition();
-
       TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-",
-          getVersionControllerByTimePartitionId(timePartitionId), tsFileResource, false,
+          getVersionControllerByTimePartitionId(timePartitionId), tsFileResource, isUnseq,
           i == tsFiles.size() - 1);
+      partitionPerformers.computeIfAbsent(timePartitionId, p -> new ArrayList<>())
+          .add(new Pair<>(tsFileResource, recoverPerformer));
+    }
+  }
 
-      RestorableTsFileIOWriter writer;
-      try {
-        writer = recoverPerformer.recover();
-      } catch (StorageGroupProcessorException e) {
-        logger.warn("Skip TsFile: {} because of error in recover: ", tsFileResource.getPath(), e);
+  private void recoverSeqFiles(List<TsFileResource> tsFiles,
+      Map<TsFileResource, RestorableTsFileIOWriter> writers) {
+    for (int i = 0; i < tsFiles.size(); i++) {
+      TsFileResource tsFileResource = tsFiles.get(i);
+      long timePartitionId = tsFileResource.getTimePartition();
+
+      RestorableTsFileIOWriter writer = writers.get(tsFileResource);
+      if (writer == null) {
+        // the file failed to recover and has been skipped
         continue;
       }
       if (i != tsFiles.size() - 1 || !writer.canWrite()) {
@@ -416,19 +494,15 @@ public class StorageGroupProcessor {
     }
   }
 
-  private void recoverUnseqFiles(List<TsFileResource> tsFiles) {
+  private void recoverUnseqFiles(List<TsFileResource> tsFiles,
+      Map<TsFileResource, RestorableTsFileIOWriter> writers) {
     for (int i = 0; i < tsFiles.size(); i++) {
       TsFileResource tsFileResource = tsFiles.get(i);
       long timePartitionId = tsFileResource.getTimePartition();
 
-      TsFileRecoverPerformer recoverPerformer = new TsFileRecoverPerformer(storageGroupName + "-",
-          getVersionControllerByTimePartitionId(timePartitionId), tsFileResource, true,
-          i == tsFiles.size() - 1);
-      RestorableTsFileIOWriter writer;
-      try {
-        writer = recoverPerformer.recover();
-      } catch (StorageGroupProcessorException e) {
-        logger.warn("Skip TsFile: {} because of error in recover: ", tsFileResource.getPath(), e);
+      RestorableTsFileIOWriter writer = writers.get(tsFileResource);
+      if (writer == null) {
+        // the file failed to recover and has been skipped
         continue;
       }
       if (i != tsFiles.size() - 1 || !writer.canWrite()) {
@@ -913,6 +987,12 @@ public class StorageGroupProcessor {
 
       this.workSequenceTsFileProcessors.clear();
       this.workUnsequenceTsFileProcessors.clear();
+      for (TsFileResource resource : sequenceFileTreeSet) {
+        TimeIndexManager.getInstance().release(resource);
+      }
+      for (TsFileResource resource : unSequenceFileList) {
+        TimeIndexManager.getInstance().release(resource);
+      }
       this.sequenceFileTreeSet.clear();
       this.unSequenceFileList.clear();
       this.partitionLatestFlushedTimeForEachDevice.clear();
@@ -1094,9 +1174,11 @@ public class StorageGroupProcessor {
     long timeLowerBound = dataTTL != Long.MAX_VALUE ? System.currentTimeMillis() - dataTTL : Long
         .MIN_VALUE;
     context.setQueryTimeLowerBound(timeLowerBound);
+    // hash the series once for the bloom filters of all files
+    int[] seriesHashes = BloomFilter.hash(deviceId + IoTDBConstant.PATH_SEPARATOR + measurementId);
 
     for (TsFileResource tsFileResource : tsFileResources) {
-      if (!isTsFileResourceSatisfied(tsFileResource, deviceId, timeFilter)) {
+      if (!isTsFileResourceSatisfied(tsFileResource, deviceId, seriesHashes, timeFilter)) {
         continue;
       }
       closeQueryLock.readLock().lock();
@@ -1125,10 +1207,14 @@ public class StorageGroupProcessor {
   }
 
   /**
-   * @return true if the device is contained in the TsFile and it lives beyond TTL
+   * @return true if the series is contained in the TsFile and it lives beyond TTL
    */
   private boolean isTsFileResourceSatisfied(TsFileResource tsFileResource, String deviceId,
-      Filter timeFilter) {
+      int[] seriesHashes, Filter timeFilter) {
+    // the bloom filter is always in memory, check it before the time index which may be evicted
+    if (!tsFileResource.mayContainSeries(seriesHashes)) {
+      return false;
+    }
     if (!tsFileResource.containsDevice(deviceId)) {
       return false;
     }
@@ -1155,6 +1241,20 @@ public class StorageGroupProcessor {
    * @param timestamp the delete range is (0, timestamp].
    */
   public void delete(String deviceId, String measurementId, long timestamp) throws IOException {
+    delete(deviceId, measurementId, Long.MIN_VALUE, timestamp);
+  }
+
+  /**
+   * Delete data whose timestamp is in [startTime, endTime] and belongs to the time series
+   * deviceId.measurementId.
+   *
+   * @param deviceId the deviceId of the timeseries to be deleted.
+   * @param measurementId the measurementId of the timeseries to be deleted.
+   * @param startTime the lower bound of the delete range.
+   * @param endTime the upper bound of the delete range.
+   */
+  public void delete(String deviceId, String measurementId, long startTime, long endTime)
+      throws IOException {
     // TODO: how to avoid partial deletion?
     //FIXME: notice that if we may remove a SGProcessor out of memory, we need to close all opened
     //mod files in mergingModification, sequenceFileList, and unsequenceFileList
@@ -1180,13 +1280,15 @@ public class StorageGroupProcessor {
       }
 
       // time partition to divide storage group
-      long timePartitionId = StorageEngine.getTimePartition(timestamp);
+      // no data is after lastUpdateTime, so the deletion does not reach later partitions
+      long timePartitionId = StorageEngine.getTimePartition(Math.min(endTime, lastUpdateTime));
       // write log to impacted working TsFileProcessors
-      logDeletion(timestamp, deviceId, measurementId, timePartitionId);
+      logDeletion(startTime, endTime, deviceId, measurementId, timePartitionId);
 
       Path fullPath = new Path(deviceId, measurementId);
       Deletion deletion = new Deletion(fullPath,
-          getVersionControllerByTimePartitionId(timePartitionId).nextVersion(), timestamp);
+          getVersionControllerByTimePartitionId(timePartitionId).nextVersion(), startTime,
+          endTime);
       if (mergingModification != null) {
         mergingModification.write(deletion);
         updatedModFiles.add(mergingModification);
@@ -1207,10 +1309,11 @@ public class StorageGroupProcessor {
     }
   }
 
-  private void logDeletion(long timestamp, String deviceId, String measurementId, long timePartitionId)
-      throws IOException {
+  private void logDeletion(long startTime, long endTime, String deviceId, String measurementId,
+      long timePartitionId) throws IOException {
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
-      DeletePlan deletionPlan = new DeletePlan(timestamp, new Path(deviceId, measurementId));
+      DeletePlan deletionPlan = new DeletePlan(startTime, endTime,
+          Collections.singletonList(new Path(deviceId, measurementId)));
       for (Map.Entry<Long, TsFileProcessor> entry : workSequenceTsFileProcessors.entrySet()) {
         if (entry.getKey() <= timePartitionId) {
           entry.getValue().getLogNode().write(deletionPlan);
@@ -1232,7 +1335,9 @@ public class StorageGroupProcessor {
     String deviceId = deletion.getDevice();
     for (TsFileResource tsFileResource : tsFileResourceList) {
       if (!tsFileResource.containsDevice(deviceId) ||
-          deletion.getTimestamp() < tsFileResource.getStartTimeMap().get(deviceId)) {
+          deletion.getEndTime() < tsFileResource.getStartTimeMap().get(deviceId) ||
+          (tsFileResource.isClosed() && deletion.getStartTime() > tsFileResource
+              .getEndTimeMap().getOrDefault(deviceId, Long.MAX_VALUE))) {
         continue;
       }
 
@@ -1360,6 +1465,17 @@ public class StorageGroupProcessor {
         }
         return;
       }
+      if (isCompacting) {
+        logger.info("{} a compaction of sequence files is ongoing, skip merging", storageGroupName);
+        return;
+      }
+      if (SystemFileFactory.INSTANCE.getFile(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME)
+          .exists()) {
+        // the progress of an interrupted merge is kept in the log until it is continued by reboot
+        logger.info("{} an interrupted merge has not been continued, skip merging",
+            storageGroupName);
+        return;
+      }
       logger.info("{} will close all files for starting a merge (fullmerge = {})", storageGroupName,
           fullMerge);
 
@@ -1416,6 +1532,119 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * Compact a run of small adjacent sequence files of the same level into one file of the next
+   * level, if such a run can be found. Compactions and merges of a storage group do not run at the
+   * same time, as both of them rewrite sequence files.
+   */
+  public void compactSeqFiles() {
+    writeLock();
+    try {
+      if (isCompacting || isMerging) {
+        return;
+      }
+      SeqCompactionSelector selector = new SeqCompactionSelector(
+          IoTDBDescriptor.getInstance().getConfig().getSeqCompactionFileNum(),
+          IoTDBDescriptor.getInstance().getConfig().getMaxSeqCompactionLevel());
+      List<TsFileResource> sourceFiles = selector.select(sequenceFileTreeSet);
+      if (sourceFiles.isEmpty()) {
+        return;
+      }
+
+      // the target file takes the place of the first source file in the order of files
+      File firstFile = sourceFiles.get(0).getFile();
+      String[] items = firstFile.getName().replace(TSFILE_SUFFIX, "")
+          .split(IoTDBConstant.TSFILE_NAME_SEPARATOR);
+      File targetFile = fsFactory.getFile(firstFile.getParentFile(),
+          getNewTsFileName(Long.parseLong(items[0]), Long.parseLong(items[1]),
+              SeqCompactionSelector.getLevel(sourceFiles.get(0)) + 1));
+      for (TsFileResource sourceFile : sourceFiles) {
+        sourceFile.setMerging(true);
+      }
+
+      String taskName = storageGroupName + "-" + System.currentTimeMillis();
+      SeqCompactionTask task = new SeqCompactionTask(sourceFiles, new TsFileResource(targetFile),
+          SystemFileFactory.INSTANCE.getFile(storageGroupSysDir,
+              SeqCompactionLogger.COMPACTION_LOG_NAME), this::seqCompactionEndAction, taskName);
+      isCompacting = true;
+      CompactionManager.getInstance().submitTask(task);
+      logger.info("{} submits a compaction task {}, compacting {} seqFiles into {}",
+          storageGroupName, taskName, sourceFiles.size(), targetFile);
+    } finally {
+      writeUnlock();
+    }
+  }
+
+  protected void seqCompactionEndAction(List<TsFileResource> sourceFiles, TsFileResource targetFile,
+      File compactionLog) {
+    if (targetFile == null) {
+      writeLock();
+      try {
+        for (TsFileResource sourceFile : sourceFiles) {
+          sourceFile.setMerging(false);
+        }
+        isCompacting = false;
+      } finally {
+        writeUnlock();
+      }
+      logger.info("{} a compaction task abnormally ends", storageGroupName);
+      return;
+    }
+
+    writeLock();
+    mergeLock.writeLock().lock();
+    try {
+      if (!sequenceFileTreeSet.containsAll(sourceFiles)) {
+        // the files have been removed, e.g., the storage group is deleted
+        SeqCompactionTask.cleanUp(targetFile.getFile(), compactionLog);
+        isCompacting = false;
+        return;
+      }
+      // deletions during the compaction are written to the source files
+      for (TsFileResource sourceFile : sourceFiles) {
+        for (Modification modification : sourceFile.getModFile().getModifications()) {
+          targetFile.getModFile().write(modification);
+        }
+      }
+      // drop the deletions overlapped by the others among the source files
+      targetFile.getModFile().compact();
+      targetFile.getModFile().close();
+      sequenceFileTreeSet.removeAll(sourceFiles);
+      sequenceFileTreeSet.add(targetFile);
+    } catch (IOException e) {
+      // nothing is replaced yet, so just give up the target file
+      logger.error("{} cannot append the modifications of {} to {}", storageGroupName,
+          sourceFiles, targetFile, e);
+      SeqCompactionTask.cleanUp(targetFile.getFile(), compactionLog);
+      for (TsFileResource sourceFile : sourceFiles) {
+        sourceFile.setMerging(false);
+      }
+      isCompacting = false;
+      return;
+    } finally {
+      mergeLock.writeLock().unlock();
+      writeUnlock();
+    }
+
+    // wait for the queries on the source files to end
+    for (TsFileResource sourceFile : sourceFiles) {
+      sourceFile.getWriteQueryLock().writeLock().lock();
+      try {
+        FileReaderManager.getInstance().closeFileAndRemoveReader(sourceFile.getPath());
+        sourceFile.remove();
+      } catch (IOException e) {
+        logger.error("{} cannot close the reader of {}", storageGroupName, sourceFile, e);
+      } finally {
+        sourceFile.getWriteQueryLock().writeLock().unlock();
+      }
+    }
+    if (!compactionLog.delete()) {
+      logger.warn("{} cannot delete compaction log {}", storageGroupName, compactionLog);
+    }
+    isCompacting = false;
+    logger.info("{} a compaction task ends", storageGroupName);
+  }
+
   private IMergeFileSelector getMergeFileSelector(long budget, MergeResource resource) {
     MergeFileStrategy strategy = IoTDBDescriptor.getInstance().getConfig().getMergeFileStrategy();
     switch (strategy) {
@@ -1456,6 +1685,7 @@ public class StorageGroupProcessor {
           seqFile.getModFile().write(modification);
         }
         try {
+          seqFile.getModFile().compact();
           seqFile.getModFile().close();
         } catch (IOException e) {
           logger
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TimeIndexManager tracks the memory of the compact device time indexes of sealed TsFiles. When the
+ * total memory exceeds time_index_memory_budget, the indexes of the files with the oldest data, i.e.,
+ * the files of the coldest time partitions, are evicted, leaving only the file-level time range in
+ * memory. An evicted index
+ * is reloaded from the .resource file when it is accessed again.
+ */
+public class TimeIndexManager {
+
+  private static final Logger logger = LoggerFactory.getLogger(TimeIndexManager.class);
+
+  private long memoryBudget = IoTDBDescriptor.getInstance().getConfig().getTimeIndexMemoryBudget();
+  private final AtomicLong memoryCost = new AtomicLong();
+
+  // min start time of the file -> resources whose time indexes are in memory
+  private final TreeMap<Long, Set<TsFileResource>> startTimeResources = new TreeMap<>();
+  // resource -> {min start time, memory cost}, resources are compared by identity as copies of a
+  // resource share its time index
+  private final Map<TsFileResource, long[]> registeredResources = new IdentityHashMap<>();
+
+  private TimeIndexManager() {
+  }
+
+  public static TimeIndexManager getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  synchronized void register(TsFileResource resource, long minStartTime, long cost) {
+    if (registeredResources.containsKey(resource)) {
+      return;
+    }
+    registeredResources.put(resource, new long[]{minStartTime, cost});
+    startTimeResources.computeIfAbsent(minStartTime,
+        p -> Collections.newSetFromMap(new IdentityHashMap<>())).add(resource);
+    memoryCost.addAndGet(cost);
+  }
+
+  synchronized void release(TsFileResource resource) {
+    long[] startTimeAndCost = registeredResources.remove(resource);
+    if (startTimeAndCost == null) {
+      return;
+    }
+    Set<TsFileResource> resources = startTimeResources.get(startTimeAndCost[0]);
+    resources.remove(resource);
+    if (resources.isEmpty()) {
+      startTimeResources.remove(startTimeAndCost[0]);
+    }
+    memoryCost.addAndGet(-startTimeAndCost[1]);
+  }
+
+  /**
+   * Evict the time indexes of the files with the oldest data until the memory cost is under the
+   * budget. The candidates are chosen under the lock of the manager but evicted outside it, and a
+   * resource whose index is being used by others is skipped, so no deadlock is possible.
+   *
+   * @param exclude a resource that has just been loaded and should not be evicted at once
+   */
+  void evictIfNeeded(TsFileResource exclude) {
+    long excess = memoryCost.get() - memoryBudget;
+    if (excess <= 0) {
+      return;
+    }
+    List<TsFileResource> candidates = new ArrayList<>();
+    synchronized (this) {
+      long candidateCost = 0;
+      Iterator<Entry<Long, Set<TsFileResource>>> iterator = startTimeResources.entrySet()
+          .iterator();
+      while (iterator.hasNext() && candidateCost < excess) {
+        for (TsFileResource resource : iterator.next().getValue()) {
+          if (resource != exclude) {
+            candidates.add(resource);
+            candidateCost += registeredResources.get(resource)[1];
+            if (candidateCost >= excess) {
+              break;
+            }
+          }
+        }
+      }
+    }
+    int evictedNum = 0;
+    for (TsFileResource candidate : candidates) {
+      if (candidate.evictTimeIndex()) {
+        evictedNum++;
+      }
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug("Evicted {} of {} candidate time indexes, memory cost of time indexes: {}",
+          evictedNum, candidates.size(), memoryCost.get());
+    }
+  }
+
+  public long getMemoryCost() {
+    return memoryCost.get();
+  }
+
+  public synchronized int getIndexNum() {
+    return registeredResources.size();
+  }
+
+  public void setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+  }
+
+  public synchronized void clear() {
+    startTimeResources.clear();
+    registeredResources.clear();
+    memoryCost.set(0);
+  }
+
+  private static class InstanceHolder {
+
+    private static final TimeIndexManager INSTANCE = new TimeIndexManager();
+
+    private InstanceHolder() {
+      // allowed to do nothing
+    }
+  }
+}
@@ -227,7 +227,7 @@ public class TsFileProcessor {
 
   /**
    * Delete data which belongs to the timeseries `deviceId.measurementId` and the timestamp of which
-   * <= 'timestamp' in the deletion. <br/>
+   * is in the range of the deletion. <br/>
    * <p>
    * Delete data in both working MemTable and flushing MemTables.
    */
@@ -238,8 +238,8 @@ public class TsFileProcessor {
     }
     try {
       if (workMemTable != null) {
-        workMemTable
-            .delete(deletion.getDevice(), deletion.getMeasurement(), deletion.getTimestamp());
+        workMemTable.delete(deletion.getDevice(), deletion.getMeasurement(),
+            deletion.getStartTime(), deletion.getEndTime());
       }
       // flushing memTables are immutable, only record this deletion in these memTables for query
       for (IMemTable memTable : flushingMemTables) {
@@ -624,6 +624,7 @@ public class TsFileProcessor {
 
   private void endFile() throws IOException, TsFileProcessorException {
     long closeStartTime = System.currentTimeMillis();
+    tsFileResource.setSeriesFilter(writer.buildBloomFilter());
     tsFileResource.serialize();
     writer.endFile();
     tsFileResource.cleanCloseFlag();
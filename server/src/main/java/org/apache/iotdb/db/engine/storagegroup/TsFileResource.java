@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -32,6 +33,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.engine.StorageEngine;
@@ -48,6 +50,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,14 +67,42 @@ public class TsFileResource {
   private static final String CLOSING_SUFFIX = ".closing";
 
   /**
-   * device -> start time
+   * device -> start time. For a sealed tsfile it is a view of timeIndex, and null if timeIndex is
+   * evicted, so use getStartTimeMap() instead of reading it directly.
    */
-  protected Map<String, Long> startTimeMap;
+  protected volatile Map<String, Long> startTimeMap;
 
   /**
    * device -> end time. It is null if it's an unsealed sequence tsfile
    */
-  protected Map<String, Long> endTimeMap;
+  protected volatile Map<String, Long> endTimeMap;
+
+  /**
+   * compact form of startTimeMap and endTimeMap of a sealed tsfile, null if the maps are not
+   * compacted or evicted by TimeIndexManager
+   */
+  private volatile DeviceTimeIndex timeIndex;
+
+  /**
+   * file-level time range, only valid when the time index is evicted
+   */
+  private long minStartTime = Long.MAX_VALUE;
+  private long maxEndTime = Long.MIN_VALUE;
+
+  /**
+   * whether startTimeMap and endTimeMap have been modified since the last serialization or
+   * deserialization, an index can only be evicted when it is consistent with the .resource file
+   */
+  private volatile boolean timeIndexDirty = true;
+
+  private final ReentrantLock timeIndexLock = new ReentrantLock();
+
+  /**
+   * bloom filter of the full paths of all series in a sealed tsfile. Unlike the time index it is
+   * never evicted, so a query can skip the files without its series before touching the time index
+   * or the file. It is null if the file is unsealed or its .resource file is of an old version.
+   */
+  private volatile BloomFilter seriesFilter;
 
   public TsFileProcessor getProcessor() {
     return processor;
@@ -117,8 +148,10 @@ public class TsFileResource {
 
   public TsFileResource(TsFileResource other) throws IOException {
     this.file = other.file;
-    this.startTimeMap = other.startTimeMap;
-    this.endTimeMap = other.endTimeMap;
+    this.startTimeMap = other.getStartTimeMap();
+    this.endTimeMap = other.getEndTimeMap();
+    this.timeIndex = other.timeIndex;
+    this.seriesFilter = other.seriesFilter;
     this.processor = other.processor;
     this.modFile = other.modFile;
     this.closed = other.closed;
@@ -203,15 +236,32 @@ public class TsFileResource {
   }
 
   public void serialize() throws IOException {
+    Map<String, Long> startTimes = getStartTimeMap();
+    Map<String, Long> endTimes = getEndTimeMap();
+    // modifications from now on make the index dirty again
+    timeIndexDirty = false;
+    try {
+      writeResourceFile(startTimes, endTimes);
+    } catch (IOException e) {
+      markTimeIndexDirty();
+      throw e;
+    }
+    if (closed) {
+      compactTimeIndex();
+    }
+  }
+
+  private void writeResourceFile(Map<String, Long> startTimes, Map<String, Long> endTimes)
+      throws IOException {
     try (OutputStream outputStream = fsFactory.getBufferedOutputStream(
         file + RESOURCE_SUFFIX + TEMP_SUFFIX)) {
-      ReadWriteIOUtils.write(this.startTimeMap.size(), outputStream);
-      for (Entry<String, Long> entry : this.startTimeMap.entrySet()) {
+      ReadWriteIOUtils.write(startTimes.size(), outputStream);
+      for (Entry<String, Long> entry : startTimes.entrySet()) {
         ReadWriteIOUtils.write(entry.getKey(), outputStream);
         ReadWriteIOUtils.write(entry.getValue(), outputStream);
       }
-      ReadWriteIOUtils.write(this.endTimeMap.size(), outputStream);
-      for (Entry<String, Long> entry : this.endTimeMap.entrySet()) {
+      ReadWriteIOUtils.write(endTimes.size(), outputStream);
+      for (Entry<String, Long> entry : endTimes.entrySet()) {
         ReadWriteIOUtils.write(entry.getKey(), outputStream);
         ReadWriteIOUtils.write(entry.getValue(), outputStream);
       }
@@ -221,6 +271,15 @@ public class TsFileResource {
         for (Long historicalVersion : historicalVersions) {
           ReadWriteIOUtils.write(historicalVersion, outputStream);
         }
+        // the filter is optional and can only be located after the historical versions
+        BloomFilter filter = seriesFilter;
+        if (filter != null) {
+          byte[] bytes = filter.serialize();
+          ReadWriteIOUtils.write(bytes.length, outputStream);
+          outputStream.write(bytes);
+          ReadWriteIOUtils.write(filter.getSize(), outputStream);
+          ReadWriteIOUtils.write(filter.getHashFunctionSize(), outputStream);
+        }
       }
     }
     File src = fsFactory.getFile(file + RESOURCE_SUFFIX + TEMP_SUFFIX);
@@ -232,22 +291,18 @@ public class TsFileResource {
   public void deserialize() throws IOException {
     try (InputStream inputStream = fsFactory.getBufferedInputStream(
         file + RESOURCE_SUFFIX)) {
-      int size = ReadWriteIOUtils.readInt(inputStream);
-      Map<String, Long> startTimes = new HashMap<>();
-      for (int i = 0; i < size; i++) {
-        String path = ReadWriteIOUtils.readString(inputStream);
-        long time = ReadWriteIOUtils.readLong(inputStream);
-        startTimes.put(path, time);
-      }
-      size = ReadWriteIOUtils.readInt(inputStream);
-      Map<String, Long> endTimes = new HashMap<>();
-      for (int i = 0; i < size; i++) {
-        String path = ReadWriteIOUtils.readString(inputStream);
-        long time = ReadWriteIOUtils.readLong(inputStream);
-        endTimes.put(path, time);
+      Map<String, Long> startTimes = readTimeMap(inputStream);
+      Map<String, Long> endTimes = readTimeMap(inputStream);
+      timeIndexLock.lock();
+      try {
+        this.timeIndex = null;
+        this.startTimeMap = startTimes;
+        this.endTimeMap = endTimes;
+        this.timeIndexDirty = false;
+      } finally {
+        timeIndexLock.unlock();
       }
-      this.startTimeMap = startTimes;
-      this.endTimeMap = endTimes;
+      TimeIndexManager.getInstance().release(this);
 
       if (inputStream.available() > 0) {
         int versionSize = ReadWriteIOUtils.readInt(inputStream);
@@ -255,34 +310,217 @@ public class TsFileResource {
         for (int i = 0; i < versionSize; i++) {
           historicalVersions.add(ReadWriteIOUtils.readLong(inputStream));
         }
+        if (inputStream.available() > 0) {
+          byte[] bytes = ReadWriteIOUtils.readBytesWithSelfDescriptionLength(inputStream);
+          int filterSize = ReadWriteIOUtils.readInt(inputStream);
+          int hashFunctionSize = ReadWriteIOUtils.readInt(inputStream);
+          seriesFilter = BloomFilter.buildBloomFilter(bytes, filterSize, hashFunctionSize);
+        }
       } else {
         // use the version in file name as the historical version for files of old versions
         long version = Long.parseLong(file.getName().split(IoTDBConstant.TSFILE_NAME_SEPARATOR)[1]);
         historicalVersions = Collections.singleton(version);
       }
     }
+    // a deserialized resource is always sealed
+    compactTimeIndex();
+  }
+
+  private static Map<String, Long> readTimeMap(InputStream inputStream) throws IOException {
+    int size = ReadWriteIOUtils.readInt(inputStream);
+    Map<String, Long> times = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      String path = ReadWriteIOUtils.readString(inputStream);
+      long time = ReadWriteIOUtils.readLong(inputStream);
+      times.put(path, time);
+    }
+    return times;
   }
 
   public void updateStartTime(String device, long time) {
-    long startTime = startTimeMap.getOrDefault(device, Long.MAX_VALUE);
+    long startTime = getStartTimeMap().getOrDefault(device, Long.MAX_VALUE);
     if (time < startTime) {
-      startTimeMap.put(device, time);
+      putStartTime(device, time);
     }
   }
 
   public void updateEndTime(String device, long time) {
-    long endTime = endTimeMap.getOrDefault(device, Long.MIN_VALUE);
+    long endTime = getEndTimeMap().getOrDefault(device, Long.MIN_VALUE);
     if (time > endTime) {
-      endTimeMap.put(device, time);
+      putEndTime(device, time);
     }
   }
 
+  private void putStartTime(String device, long time) {
+    markTimeIndexDirty();
+    DeviceTimeIndex index = timeIndex;
+    if (index != null && index.setStartTime(device, time)) {
+      return;
+    }
+    inflateTimeIndex();
+    getStartTimeMap().put(device, time);
+  }
+
+  private void putEndTime(String device, long time) {
+    markTimeIndexDirty();
+    DeviceTimeIndex index = timeIndex;
+    if (index != null && index.setEndTime(device, time)) {
+      return;
+    }
+    inflateTimeIndex();
+    getEndTimeMap().put(device, time);
+  }
+
+  private void markTimeIndexDirty() {
+    if (!timeIndexDirty) {
+      timeIndexDirty = true;
+    }
+  }
+
+  /**
+   * Replace the maps of a sealed file with a DeviceTimeIndex and let TimeIndexManager track it.
+   */
+  private void compactTimeIndex() {
+    DeviceTimeIndex index;
+    timeIndexLock.lock();
+    try {
+      if (timeIndex != null || startTimeMap == null || endTimeMap == null) {
+        return;
+      }
+      index = new DeviceTimeIndex(startTimeMap, endTimeMap);
+      timeIndex = index;
+      startTimeMap = index.getStartTimeView();
+      endTimeMap = index.getEndTimeView();
+    } finally {
+      timeIndexLock.unlock();
+    }
+    TimeIndexManager.getInstance().register(this, index.getMinStartTime(),
+        index.getMemoryCost());
+    TimeIndexManager.getInstance().evictIfNeeded(this);
+  }
+
+  /**
+   * Convert the DeviceTimeIndex back to maps so that new devices can be added.
+   */
+  private void inflateTimeIndex() {
+    timeIndexLock.lock();
+    try {
+      loadTimeIndexIfEvicted();
+      if (timeIndex == null) {
+        return;
+      }
+      startTimeMap = new ConcurrentHashMap<>(timeIndex.getStartTimeView());
+      endTimeMap = new ConcurrentHashMap<>(timeIndex.getEndTimeView());
+      timeIndex = null;
+    } finally {
+      timeIndexLock.unlock();
+    }
+    TimeIndexManager.getInstance().release(this);
+  }
+
+  /**
+   * Called by TimeIndexManager to drop the time index from memory, only the file-level time range
+   * is kept.
+   *
+   * @return false if the index cannot be evicted now
+   */
+  boolean evictTimeIndex() {
+    if (!timeIndexLock.tryLock()) {
+      return false;
+    }
+    try {
+      DeviceTimeIndex index = timeIndex;
+      if (index == null || timeIndexDirty || !closed || deleted || isMerging) {
+        return false;
+      }
+      minStartTime = index.getMinStartTime();
+      maxEndTime = index.getMaxEndTime();
+      startTimeMap = null;
+      endTimeMap = null;
+      timeIndex = null;
+    } finally {
+      timeIndexLock.unlock();
+    }
+    TimeIndexManager.getInstance().release(this);
+    return true;
+  }
+
+  boolean isTimeIndexEvicted() {
+    return startTimeMap == null;
+  }
+
+  /**
+   * Reload an evicted time index from the .resource file, should be called with timeIndexLock
+   * held. The caller should register the reloaded index by registerTimeIndex().
+   *
+   * @return the reloaded index, or null if the index is not evicted
+   * @throws UncheckedIOException if the .resource file cannot be read, in which case the index
+   * remains evicted
+   */
+  private DeviceTimeIndex loadTimeIndexIfEvicted() {
+    if (startTimeMap != null) {
+      return null;
+    }
+    DeviceTimeIndex index;
+    try (InputStream inputStream = fsFactory.getBufferedInputStream(
+        file + RESOURCE_SUFFIX)) {
+      Map<String, Long> startTimes = readTimeMap(inputStream);
+      Map<String, Long> endTimes = readTimeMap(inputStream);
+      index = new DeviceTimeIndex(startTimes, endTimes);
+    } catch (IOException e) {
+      logger.error("Cannot reload the time index of {}", file, e);
+      throw new UncheckedIOException(e);
+    }
+    timeIndex = index;
+    endTimeMap = index.getEndTimeView();
+    startTimeMap = index.getStartTimeView();
+    return index;
+  }
+
+  private void registerTimeIndex(DeviceTimeIndex index) {
+    if (index == null) {
+      return;
+    }
+    TimeIndexManager.getInstance().register(this, index.getMinStartTime(),
+        index.getMemoryCost());
+    TimeIndexManager.getInstance().evictIfNeeded(this);
+  }
+
+  private void loadTimeIndex() {
+    DeviceTimeIndex index;
+    timeIndexLock.lock();
+    try {
+      index = loadTimeIndexIfEvicted();
+    } finally {
+      timeIndexLock.unlock();
+    }
+    registerTimeIndex(index);
+  }
+
+  /**
+   * Reload an evicted time index before the .resource file is removed or moved, so that the
+   * queries still holding this resource can read it. The index is not tracked by TimeIndexManager
+   * after this, thus it will not be evicted again.
+   */
+  private void pinTimeIndex() {
+    timeIndexLock.lock();
+    try {
+      loadTimeIndexIfEvicted();
+    } catch (UncheckedIOException e) {
+      // already logged, the index remains evicted and its readers will fail
+    } finally {
+      timeIndexLock.unlock();
+    }
+    TimeIndexManager.getInstance().release(this);
+  }
+
   public boolean fileExists() {
     return fsFactory.getFile(file + RESOURCE_SUFFIX).exists();
   }
 
   void forceUpdateEndTime(String device, long time) {
-    endTimeMap.put(device, time);
+    getEndTimeMap();
+    putEndTime(device, time);
   }
 
   public List<ChunkMetadata> getChunkMetadataList() {
@@ -305,7 +543,20 @@ public class TsFileResource {
   }
 
   boolean containsDevice(String deviceId) {
-    return startTimeMap.containsKey(deviceId);
+    return getStartTimeMap().containsKey(deviceId);
+  }
+
+  /**
+   * @param seriesHashes hashes of the full path of a series, see {@link BloomFilter#hash(String)}
+   * @return false if the file surely does not contain the series, this never reads any file
+   */
+  public boolean mayContainSeries(int[] seriesHashes) {
+    BloomFilter filter = seriesFilter;
+    return filter == null || filter.contains(seriesHashes);
+  }
+
+  public void setSeriesFilter(BloomFilter seriesFilter) {
+    this.seriesFilter = seriesFilter;
   }
 
   public File getFile() {
@@ -321,11 +572,42 @@ public class TsFileResource {
   }
 
   public Map<String, Long> getStartTimeMap() {
-    return startTimeMap;
+    Map<String, Long> startTimes = startTimeMap;
+    if (startTimes == null) {
+      loadTimeIndex();
+      startTimes = startTimeMap;
+      if (startTimes == null) {
+        // evicted again by others, use the view of the index directly
+        return getTimeIndexView(true);
+      }
+    }
+    return startTimes;
   }
 
   public Map<String, Long> getEndTimeMap() {
-    return endTimeMap;
+    Map<String, Long> endTimes = endTimeMap;
+    if (endTimes == null) {
+      loadTimeIndex();
+      endTimes = endTimeMap;
+      if (endTimes == null) {
+        return getTimeIndexView(false);
+      }
+    }
+    return endTimes;
+  }
+
+  private Map<String, Long> getTimeIndexView(boolean isStartTime) {
+    DeviceTimeIndex index;
+    Map<String, Long> view;
+    timeIndexLock.lock();
+    try {
+      index = loadTimeIndexIfEvicted();
+      view = isStartTime ? startTimeMap : endTimeMap;
+    } finally {
+      timeIndexLock.unlock();
+    }
+    registerTimeIndex(index);
+    return view;
   }
 
   public boolean isClosed() {
@@ -340,6 +622,9 @@ public class TsFileResource {
     }
     processor = null;
     chunkMetadataList = null;
+    if (!timeIndexDirty) {
+      compactTimeIndex();
+    }
   }
 
   TsFileProcessor getUnsealedFileProcessor() {
@@ -362,12 +647,14 @@ public class TsFileResource {
   }
 
   public void remove() {
+    pinTimeIndex();
     file.delete();
     fsFactory.getFile(file.getPath() + RESOURCE_SUFFIX).delete();
     fsFactory.getFile(file.getPath() + ModificationFile.FILE_SUFFIX).delete();
   }
 
   void moveTo(File targetDir) {
+    pinTimeIndex();
     fsFactory.moveFile(file, fsFactory.getFile(targetDir, file.getName()));
     fsFactory.moveFile(fsFactory.getFile(file.getPath() + RESOURCE_SUFFIX),
         fsFactory.getFile(targetDir, file.getName() + RESOURCE_SUFFIX));
@@ -398,6 +685,9 @@ public class TsFileResource {
 
   public void setClosed(boolean closed) {
     this.closed = closed;
+    if (closed && !timeIndexDirty) {
+      compactTimeIndex();
+    }
   }
 
   public boolean isDeleted() {
@@ -408,7 +698,7 @@ public class TsFileResource {
     this.deleted = deleted;
   }
 
-  boolean isMerging() {
+  public boolean isMerging() {
     return isMerging;
   }
 
@@ -423,7 +713,10 @@ public class TsFileResource {
     if (timeLowerBound == Long.MAX_VALUE) {
       return true;
     }
-    for (long endTime : endTimeMap.values()) {
+    if (isTimeIndexEvicted()) {
+      return maxEndTime >= timeLowerBound;
+    }
+    for (long endTime : getEndTimeMap().values()) {
       // the file cannot be deleted if any device still lives
       if (endTime >= timeLowerBound) {
         return true;
@@ -433,10 +726,14 @@ public class TsFileResource {
   }
 
   protected void setStartTimeMap(Map<String, Long> startTimeMap) {
+    inflateTimeIndex();
+    markTimeIndexDirty();
     this.startTimeMap = startTimeMap;
   }
 
   protected void setEndTimeMap(Map<String, Long> endTimeMap) {
+    inflateTimeIndex();
+    markTimeIndexDirty();
     this.endTimeMap = endTimeMap;
   }
 
@@ -488,8 +785,13 @@ public class TsFileResource {
    *           Or the path contains a partition folder
    */
   public long getTimePartition() {
-    if (startTimeMap != null && !startTimeMap.isEmpty()) {
-      return StorageEngine.getTimePartition(startTimeMap.values().iterator().next());
+    Map<String, Long> startTimes = startTimeMap;
+    if (startTimes == null && minStartTime != Long.MAX_VALUE) {
+      // the time index is evicted, use the file-level start time
+      return StorageEngine.getTimePartition(minStartTime);
+    }
+    if (startTimes != null && !startTimes.isEmpty()) {
+      return StorageEngine.getTimePartition(startTimes.values().iterator().next());
     }
     String[] splits = FilePathUtils.splitTsFilePath(this);
     return Long.parseLong(splits[splits.length - 2]);
@@ -503,7 +805,7 @@ public class TsFileResource {
    */
   public long getTimePartitionWithCheck() throws PartitionViolationException {
     long partitionId = -1;
-    for (Long startTime : startTimeMap.values()) {
+    for (Long startTime : getStartTimeMap().values()) {
       long p = StorageEngine.getTimePartition(startTime);
       if (partitionId == -1) {
         partitionId = p;
@@ -513,7 +815,7 @@ public class TsFileResource {
         }
       }
     }
-    for (Long endTime : endTimeMap.values()) {
+    for (Long endTime : getEndTimeMap().values()) {
       long p = StorageEngine.getTimePartition(endTime);
       if (partitionId == -1) {
         partitionId = p;
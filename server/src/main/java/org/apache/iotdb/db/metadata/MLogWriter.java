@@ -55,11 +55,11 @@ public class MLogWriter {
   }
 
 
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
     writer.close();
   }
 
-  public void createTimeseries(CreateTimeSeriesPlan plan, long offset) throws IOException {
+  public synchronized void createTimeseries(CreateTimeSeriesPlan plan, long offset) throws IOException {
     writer.write(String.format("%s,%s,%s,%s,%s", MetadataOperationType.CREATE_TIMESERIES,
         plan.getPath().getFullPath(), plan.getDataType().serialize(), plan.getEncoding().serialize(),
         plan.getCompressor().serialize()));
@@ -91,31 +91,31 @@ public class MLogWriter {
     writer.flush();
   }
 
-  public void deleteTimeseries(String path) throws IOException {
+  public synchronized void deleteTimeseries(String path) throws IOException {
     writer.write(MetadataOperationType.DELETE_TIMESERIES + "," + path);
     writer.newLine();
     writer.flush();
   }
 
-  public void setStorageGroup(String storageGroup) throws IOException {
+  public synchronized void setStorageGroup(String storageGroup) throws IOException {
     writer.write(MetadataOperationType.SET_STORAGE_GROUP + "," + storageGroup);
     writer.newLine();
     writer.flush();
   }
 
-  public void deleteStorageGroup(String storageGroup) throws IOException {
+  public synchronized void deleteStorageGroup(String storageGroup) throws IOException {
     writer.write(MetadataOperationType.DELETE_STORAGE_GROUP + "," + storageGroup);
     writer.newLine();
     writer.flush();
   }
 
-  public void setTTL(String storageGroup, long ttl) throws IOException {
+  public synchronized void setTTL(String storageGroup, long ttl) throws IOException {
     writer.write(String.format("%s,%s,%s", MetadataOperationType.SET_TTL, storageGroup, ttl));
     writer.newLine();
     writer.flush();
   }
 
-  public void changeOffset(String path, long offset) throws IOException {
+  public synchronized void changeOffset(String path, long offset) throws IOException {
     writer.write(String.format("%s,%s,%s", MetadataOperationType.CHANGE_OFFSET, path, offset));
     writer.newLine();
     writer.flush();
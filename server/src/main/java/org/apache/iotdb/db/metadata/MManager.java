@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.metadata;
 
 import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.conf.adapter.IoTDBConfigDynamicAdapter;
@@ -30,6 +31,8 @@ import org.apache.iotdb.db.metadata.mnode.InternalMNode;
 import org.apache.iotdb.db.metadata.mnode.LeafMNode;
 import org.apache.iotdb.db.metadata.mnode.MNode;
 import org.apache.iotdb.db.metadata.mnode.StorageGroupMNode;
+import org.apache.iotdb.db.metadata.tag.TagExpression;
+import org.apache.iotdb.db.metadata.tag.TagInvertedIndex;
 import org.apache.iotdb.db.monitor.MonitorConstants;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.qp.physical.sys.CreateTimeSeriesPlan;
@@ -52,6 +55,11 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -64,8 +72,13 @@ public class MManager {
   private static final Logger logger = LoggerFactory.getLogger(MManager.class);
   private static final String TIME_SERIES_TREE_HEADER = "===  Timeseries Tree  ===\n\n";
 
-  // the lock for read/insert
+  // the lock for read/insert. Its write lock guards the nodes above storage groups, operations
+  // inside a storage group hold its read lock together with the lock of that storage group
   private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // storage group name -> the lock guarding the sub tree of the storage group, so that schema
+  // changes in one storage group do not block the reads and writes in the others. The mlog and the
+  // tag file are still shared, whose writes are serialized by their own synchronization
+  private Map<String, ReadWriteLock> storageGroupLocks = new ConcurrentSkipListMap<>();
   // the log file seriesPath
   private String logFilePath;
   private MTree mtree;
@@ -75,12 +88,23 @@ public class MManager {
   // device -> DeviceMNode
   private RandomDeleteCache<String, MNode> mNodeCache;
 
-  // tag key -> tag value -> LeafMNode
-  private Map<String, Map<String, Set<LeafMNode>>> tagIndex = new HashMap<>();
+  // tag key -> tag value -> ids of LeafMNodes
+  private TagInvertedIndex tagIndex = new TagInvertedIndex();
+
+  // increased whenever a timeseries is created or deleted or a storage group is set, which stamps
+  // a unique version on the changed storage group
+  private AtomicLong schemaVersion = new AtomicLong();
+  // storage group name -> the schema version of its latest change
+  private Map<String, Long> storageGroupSchemaVersions = new ConcurrentSkipListMap<>();
+  // path with wildcards -> matched timeseries, stale if any storage group that the path reaches has
+  // changed since it is computed
+  private WildcardPathCache<List<Path>> timeseriesPathCache;
+  // path with wildcards -> matched devices
+  private WildcardPathCache<Set<String>> devicesCache;
 
   // storage group name -> the series number
-  private Map<String, Integer> seriesNumberInStorageGroups = new HashMap<>();
-  private long maxSeriesNumberAmongStorageGroup;
+  private Map<String, Integer> seriesNumberInStorageGroups = new ConcurrentHashMap<>();
+  private volatile long maxSeriesNumberAmongStorageGroup;
   private boolean initialized;
   private IoTDBConfig config;
 
@@ -116,15 +140,24 @@ public class MManager {
           @Override
           public MNode loadObjectByKey(String key) throws CacheException {
             lock.readLock().lock();
+            Lock storageGroupLock = null;
             try {
+              storageGroupLock = getStorageGroupLockByName(mtree.getStorageGroupName(key))
+                  .readLock();
+              storageGroupLock.lock();
               return mtree.getNodeByPathWithStorageGroupCheck(key);
             } catch (MetadataException e) {
               throw new CacheException(e);
             } finally {
+              if (storageGroupLock != null) {
+                storageGroupLock.unlock();
+              }
               lock.readLock().unlock();
             }
           }
         };
+    timeseriesPathCache = new WildcardPathCache<>(config.getWildcardPathCacheSize());
+    devicesCache = new WildcardPathCache<>(config.getWildcardPathCacheSize());
   }
 
   public static MManager getInstance() {
@@ -158,6 +191,8 @@ public class MManager {
       writeToLog = true;
     } catch (IOException | MetadataException e) {
       mtree = new MTree();
+      storageGroupLocks.clear();
+      storageGroupSchemaVersions.clear();
       logger.error("Cannot read MTree from file, using an empty new one", e);
     }
     initialized = true;
@@ -188,8 +223,12 @@ public class MManager {
     lock.writeLock().lock();
     try {
       this.mtree = new MTree();
+      this.storageGroupLocks.clear();
       this.mNodeCache.clear();
       this.tagIndex.clear();
+      this.storageGroupSchemaVersions.clear();
+      this.timeseriesPathCache.clear();
+      this.devicesCache.clear();
       this.seriesNumberInStorageGroups.clear();
       this.maxSeriesNumberAmongStorageGroup = 0;
       if (logWriter != null) {
@@ -273,23 +312,20 @@ public class MManager {
   }
 
   public void createTimeseries(CreateTimeSeriesPlan plan, long offset) throws MetadataException {
-    lock.writeLock().lock();
     String path = plan.getPath().getFullPath();
+    /*
+     * get the storage group with auto create schema
+     */
+    setStorageGroupIfAbsent(path, config.isAutoCreateSchemaEnabled(),
+        config.getDefaultStorageGroupLevel());
+
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
-      /*
-       * get the storage group with auto create schema
-       */
-      String storageGroupName;
-      try {
-        storageGroupName = mtree.getStorageGroupName(path);
-      } catch (StorageGroupNotSetException e) {
-        if (!config.isAutoCreateSchemaEnabled()) {
-          throw e;
-        }
-        storageGroupName =
-            MetaUtils.getStorageGroupNameByLevel(path, config.getDefaultStorageGroupLevel());
-        setStorageGroup(storageGroupName);
-      }
+      String storageGroupName = mtree.getStorageGroupName(path);
+      storageGroupLock = getStorageGroupLockByName(storageGroupName).writeLock();
+      storageGroupLock.lock();
+      increaseSchemaVersion(storageGroupName);
 
       // create time series in MTree
       LeafMNode leafMNode = mtree
@@ -307,18 +343,13 @@ public class MManager {
       if (plan.getTags() != null) {
         // tag key, tag value
         for (Entry<String, String> entry : plan.getTags().entrySet()) {
-          tagIndex.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
-              .computeIfAbsent(entry.getValue(), v -> new HashSet<>()).add(leafMNode);
+          tagIndex.addTag(entry.getKey(), entry.getValue(), leafMNode);
         }
       }
 
       // update statistics
       if (config.isEnableParameterAdapter()) {
-        int size = seriesNumberInStorageGroups.get(storageGroupName);
-        seriesNumberInStorageGroups.put(storageGroupName, size + 1);
-        if (size + 1 > maxSeriesNumberAmongStorageGroup) {
-          maxSeriesNumberAmongStorageGroup = size + 1;
-        }
+        updateSeriesNumber(storageGroupName, 1);
       }
 
       // write log
@@ -335,7 +366,135 @@ public class MManager {
     } catch (IOException | ConfigAdjusterException e) {
       throw new MetadataException(e.getMessage());
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Set the storage group of the path by the given level if no storage group covers the path yet.
+   * Setting a storage group needs the global write lock, so this must not be called when the
+   * current thread holds the global read lock.
+   *
+   * @param autoCreateSchema if false, throw StorageGroupNotSetException instead of setting it
+   */
+  private void setStorageGroupIfAbsent(String path, boolean autoCreateSchema, int sgLevel)
+      throws MetadataException {
+    lock.readLock().lock();
+    try {
+      mtree.getStorageGroupName(path);
+      return;
+    } catch (StorageGroupNotSetException e) {
+      if (!autoCreateSchema) {
+        throw e;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    String storageGroupName = MetaUtils.getStorageGroupNameByLevel(path, sgLevel);
+    try {
+      setStorageGroup(storageGroupName);
+    } catch (StorageGroupAlreadySetException e) {
+      // ignore set storage group concurrently
+      if (!isStorageGroup(storageGroupName)) {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Get the lock of the storage group that the path belongs to. Must be called with the global
+   * read lock held, so that the storage group will not be deleted meanwhile.
+   */
+  private ReadWriteLock getStorageGroupLock(String path) throws MetadataException {
+    try {
+      return getStorageGroupLockByName(mtree.getStorageGroupName(path));
+    } catch (StorageGroupNotSetException e) {
+      throw new PathNotExistException(path);
+    }
+  }
+
+  /**
+   * @throws StorageGroupNotSetException if the storage group has been deleted, e.g., by clear()
+   */
+  private ReadWriteLock getStorageGroupLockByName(String storageGroupName)
+      throws StorageGroupNotSetException {
+    ReadWriteLock storageGroupLock = storageGroupLocks.get(storageGroupName);
+    if (storageGroupLock == null) {
+      throw new StorageGroupNotSetException(storageGroupName);
+    }
+    return storageGroupLock;
+  }
+
+  /**
+   * Acquire the read locks of all storage groups that the path may reach, in the order of their
+   * names. Must be called with the global read lock held.
+   *
+   * @param path a prefix or a full path, may contain wildcards
+   * @return the acquired locks, which should be released by unlockStorageGroups()
+   */
+  private List<Lock> readLockStorageGroups(String path) {
+    List<Lock> locks = new ArrayList<>();
+    if (!path.contains(IoTDBConstant.PATH_WILDCARD)) {
+      // a path without wildcards inside a storage group can only reach that storage group
+      try {
+        Lock storageGroupLock = getStorageGroupLockByName(mtree.getStorageGroupName(path))
+            .readLock();
+        storageGroupLock.lock();
+        locks.add(storageGroupLock);
+        return locks;
+      } catch (MetadataException e) {
+        // the path is above storage groups or does not exist, check all storage groups
+      }
+    }
+    String[] nodes = MetaUtils.getNodeNames(path);
+    for (Entry<String, ReadWriteLock> entry : storageGroupLocks.entrySet()) {
+      if (mayReach(nodes, MetaUtils.getNodeNames(entry.getKey()))) {
+        Lock storageGroupLock = entry.getValue().readLock();
+        storageGroupLock.lock();
+        locks.add(storageGroupLock);
+      }
+    }
+    return locks;
+  }
+
+  private void unlockStorageGroups(List<Lock> locks) {
+    if (locks == null) {
+      return;
+    }
+    for (Lock storageGroupLock : locks) {
+      storageGroupLock.unlock();
+    }
+  }
+
+  /**
+   * whether the path may reach nodes inside the storage group, a node with wildcards is
+   * regarded as matching any node
+   */
+  private boolean mayReach(String[] pathNodes, String[] storageGroupNodes) {
+    int length = Math.min(pathNodes.length, storageGroupNodes.length);
+    for (int i = 0; i < length; i++) {
+      if (!pathNodes[i].contains(IoTDBConstant.PATH_WILDCARD)
+          && !pathNodes[i].equals(storageGroupNodes[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void updateSeriesNumber(String storageGroup, int diff) {
+    synchronized (seriesNumberInStorageGroups) {
+      int size = seriesNumberInStorageGroups.get(storageGroup);
+      seriesNumberInStorageGroups.put(storageGroup, size + diff);
+      if (size + diff > maxSeriesNumberAmongStorageGroup) {
+        maxSeriesNumberAmongStorageGroup = size + diff;
+      } else if (size == maxSeriesNumberAmongStorageGroup) {
+        seriesNumberInStorageGroups.values().stream().max(Integer::compareTo)
+            .ifPresent(val -> maxSeriesNumberAmongStorageGroup = val);
+      }
     }
   }
 
@@ -365,16 +524,18 @@ public class MManager {
    * deletion failed Timeseries
    */
   public Pair<Set<String>, String> deleteTimeseries(String prefixPath) throws MetadataException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
     if (isStorageGroup(prefixPath)) {
 
       if (config.isEnableParameterAdapter()) {
-        int size = seriesNumberInStorageGroups.get(prefixPath);
-        seriesNumberInStorageGroups.put(prefixPath, 0);
-        if (size == maxSeriesNumberAmongStorageGroup) {
-          seriesNumberInStorageGroups.values().stream()
-              .max(Integer::compareTo)
-              .ifPresent(val -> maxSeriesNumberAmongStorageGroup = val);
+        synchronized (seriesNumberInStorageGroups) {
+          int size = seriesNumberInStorageGroups.get(prefixPath);
+          seriesNumberInStorageGroups.put(prefixPath, 0);
+          if (size == maxSeriesNumberAmongStorageGroup) {
+            seriesNumberInStorageGroups.values().stream()
+                .max(Integer::compareTo)
+                .ifPresent(val -> maxSeriesNumberAmongStorageGroup = val);
+          }
         }
       }
 
@@ -383,7 +544,13 @@ public class MManager {
     try {
       Set<String> emptyStorageGroups = new HashSet<>();
 
-      List<String> allTimeseries = mtree.getAllTimeseriesName(prefixPath);
+      List<String> allTimeseries;
+      List<Lock> storageGroupLocksOfPath = readLockStorageGroups(prefixPath);
+      try {
+        allTimeseries = mtree.getAllTimeseriesName(prefixPath);
+      } finally {
+        unlockStorageGroups(storageGroupLocksOfPath);
+      }
       // Monitor storage group seriesPath is not allowed to be deleted
       allTimeseries.removeIf(p -> p.startsWith(MonitorConstants.STAT_STORAGE_GROUP_PREFIX));
 
@@ -396,13 +563,16 @@ public class MManager {
           }
         } catch (DeleteFailedException e) {
           failedNames.add(e.getName());
+        } catch (PathNotExistException e) {
+          // the storage group lock is released after listing, it may be deleted concurrently
+          logger.debug("Timeseries {} has been deleted concurrently", p);
         }
       }
       return new Pair<>(emptyStorageGroups, String.join(",", failedNames));
     } catch (IOException e) {
       throw new MetadataException(e.getMessage());
     } finally {
-      lock.writeLock().unlock();
+      lock.readLock().unlock();
     }
   }
 
@@ -419,15 +589,7 @@ public class MManager {
     Map<String, String> tagMap =
         tagLogFile.readTag(config.getTagAttributeTotalSize(), node.getOffset());
     if (tagMap != null) {
-      for (Entry<String, String> entry : tagMap.entrySet()) {
-        tagIndex.get(entry.getKey()).get(entry.getValue()).remove(node);
-        if (tagIndex.get(entry.getKey()).get(entry.getValue()).isEmpty()) {
-          tagIndex.get(entry.getKey()).remove(entry.getValue());
-          if (tagIndex.get(entry.getKey()).isEmpty()) {
-            tagIndex.remove(entry.getKey());
-          }
-        }
-      }
+      tagIndex.removeTags(tagMap, node);
     }
   }
 
@@ -437,8 +599,12 @@ public class MManager {
    */
   private String deleteOneTimeseriesAndUpdateStatisticsAndLog(String path)
       throws MetadataException, IOException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(path).writeLock();
+      storageGroupLock.lock();
+      increaseSchemaVersion(mtree.getStorageGroupName(path));
       Pair<String, LeafMNode> pair = mtree.deleteTimeseriesAndReturnEmptyStorageGroup(path);
       removeFromTagInvertedIndex(pair.right);
       String storageGroupName = pair.left;
@@ -452,13 +618,7 @@ public class MManager {
       }
 
       if (config.isEnableParameterAdapter()) {
-        String storageGroup = getStorageGroupName(path);
-        int size = seriesNumberInStorageGroups.get(storageGroup);
-        seriesNumberInStorageGroups.put(storageGroup, size - 1);
-        if (size == maxSeriesNumberAmongStorageGroup) {
-          seriesNumberInStorageGroups.values().stream().max(Integer::compareTo)
-              .ifPresent(val -> maxSeriesNumberAmongStorageGroup = val);
-        }
+        updateSeriesNumber(getStorageGroupName(path), -1);
       }
 
       if (writeToLog) {
@@ -466,7 +626,10 @@ public class MManager {
       }
       return storageGroupName;
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -479,6 +642,8 @@ public class MManager {
     lock.writeLock().lock();
     try {
       mtree.setStorageGroup(storageGroup);
+      storageGroupLocks.put(storageGroup, new ReentrantReadWriteLock());
+      increaseSchemaVersion(storageGroup);
       IoTDBConfigDynamicAdapter.getInstance().addOrDeleteStorageGroup(1);
 
       if (config.isEnableParameterAdapter()) {
@@ -492,6 +657,8 @@ public class MManager {
       throw new MetadataException(e.getMessage());
     } catch (ConfigAdjusterException e) {
       mtree.deleteStorageGroup(storageGroup);
+      storageGroupLocks.remove(storageGroup);
+      storageGroupSchemaVersions.remove(storageGroup);
       throw new MetadataException(e);
     } finally {
       lock.writeLock().unlock();
@@ -509,6 +676,8 @@ public class MManager {
       for (String storageGroup : storageGroups) {
         // try to delete storage group
         List<LeafMNode> leafMNodes = mtree.deleteStorageGroup(storageGroup);
+        storageGroupLocks.remove(storageGroup);
+        storageGroupSchemaVersions.remove(storageGroup);
         for (LeafMNode leafMNode : leafMNodes) {
           removeFromTagInvertedIndex(leafMNode);
         }
@@ -561,12 +730,15 @@ public class MManager {
    */
   public TSDataType getSeriesType(String path) throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(path);
       if (path.equals(SQLConstant.RESERVED_TIME)) {
         return TSDataType.INT64;
       }
       return mtree.getSchema(path).getType();
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -574,8 +746,10 @@ public class MManager {
   public MeasurementSchema[] getSchemas(String deviceId, String[] measurements)
       throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
-      MNode deviceNode = getNodeByPath(deviceId);
+      storageGroupLocksOfPath = readLockStorageGroups(deviceId);
+      MNode deviceNode = mtree.getNodeByPath(deviceId);
       MeasurementSchema[] measurementSchemas = new MeasurementSchema[measurements.length];
       for (int i = 0; i < measurementSchemas.length; i++) {
         if (!deviceNode.hasChild(measurements[i])) {
@@ -585,6 +759,7 @@ public class MManager {
       }
       return measurementSchemas;
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -598,9 +773,22 @@ public class MManager {
    */
   public Set<String> getDevices(String prefixPath) throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
-      return mtree.getDevices(prefixPath);
+      storageGroupLocksOfPath = readLockStorageGroups(prefixPath);
+      if (!prefixPath.contains(IoTDBConstant.PATH_WILDCARD)) {
+        return mtree.getDevices(prefixPath);
+      }
+      long[] versions = getSchemaVersions(prefixPath);
+      Set<String> devices = devicesCache.get(prefixPath, versions);
+      if (devices == null) {
+        devices = mtree.getDevices(prefixPath);
+        devicesCache.put(prefixPath, versions, devices);
+      }
+      // the cached set is shared, so return a copy that the caller is free to modify
+      return new TreeSet<>(devices);
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -616,9 +804,12 @@ public class MManager {
    */
   public List<String> getNodesList(String prefixPath, int nodeLevel) throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(prefixPath);
       return mtree.getNodesList(prefixPath, nodeLevel);
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -672,11 +863,22 @@ public class MManager {
    */
   public List<String> getAllTimeseriesName(String prefixPath) throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
-      return mtree.getAllTimeseriesName(prefixPath);
+      storageGroupLocksOfPath = readLockStorageGroups(prefixPath);
+      if (!prefixPath.contains(IoTDBConstant.PATH_WILDCARD)) {
+        return mtree.getAllTimeseriesName(prefixPath);
+      }
+      List<Path> paths = getAllTimeseriesPathWithCache(prefixPath);
+      List<String> names = new ArrayList<>(paths.size());
+      for (Path path : paths) {
+        names.add(path.getFullPath());
+      }
+      return names;
     } catch (MetadataException e) {
       throw new MetadataException(e);
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -686,42 +888,74 @@ public class MManager {
    */
   public List<Path> getAllTimeseriesPath(String prefixPath) throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
-      return mtree.getAllTimeseriesPath(prefixPath);
+      storageGroupLocksOfPath = readLockStorageGroups(prefixPath);
+      if (!prefixPath.contains(IoTDBConstant.PATH_WILDCARD)) {
+        return mtree.getAllTimeseriesPath(prefixPath);
+      }
+      return new ArrayList<>(getAllTimeseriesPathWithCache(prefixPath));
     } catch (MetadataException e) {
       throw new MetadataException(e);
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
 
+  /**
+   * Resolve a path with wildcards, reusing the result of the last resolution if the storage groups
+   * that the path reaches have not changed since then. Dashboards usually issue the same wildcard
+   * queries repeatedly, which would otherwise traverse the MTree each time. The caller must hold
+   * the read locks of the storage groups that the path reaches and must not modify the returned
+   * list.
+   */
+  private List<Path> getAllTimeseriesPathWithCache(String prefixPath) throws MetadataException {
+    long[] versions = getSchemaVersions(prefixPath);
+    List<Path> paths = timeseriesPathCache.get(prefixPath, versions);
+    if (paths == null) {
+      paths = mtree.getAllTimeseriesPath(prefixPath);
+      timeseriesPathCache.put(prefixPath, versions, paths);
+    }
+    return paths;
+  }
+
+  /**
+   * Stamp a new schema version on the storage group, so that the cached resolutions of the paths
+   * reaching it become stale. Must be called with the write lock of the storage group or the global
+   * write lock held.
+   */
+  private void increaseSchemaVersion(String storageGroup) {
+    storageGroupSchemaVersions.put(storageGroup, schemaVersion.incrementAndGet());
+  }
+
+  /**
+   * The versions of the storage groups that the path may reach, in the order of their names. They
+   * stay unchanged while the read locks of these storage groups are held. As every version is
+   * unique, setting or deleting a storage group that the path reaches changes them as well.
+   */
+  long[] getSchemaVersions(String path) {
+    String[] nodes = MetaUtils.getNodeNames(path);
+    List<Long> versions = new ArrayList<>();
+    for (Entry<String, Long> entry : storageGroupSchemaVersions.entrySet()) {
+      if (mayReach(nodes, MetaUtils.getNodeNames(entry.getKey()))) {
+        versions.add(entry.getValue());
+      }
+    }
+    long[] res = new long[versions.size()];
+    for (int i = 0; i < res.length; i++) {
+      res[i] = versions.get(i);
+    }
+    return res;
+  }
+
   public List<ShowTimeSeriesResult> getAllTimeseriesSchema(ShowTimeSeriesPlan plan)
       throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
-      if (!tagIndex.containsKey(plan.getKey())) {
-        throw new MetadataException("The key " + plan.getKey() + " is not a tag.");
-      }
-      Map<String, Set<LeafMNode>> value2Node = tagIndex.get(plan.getKey());
-      if (value2Node.isEmpty()) {
-        throw new MetadataException("The key " + plan.getKey() + " is not a tag.");
-      }
-      Set<LeafMNode> allMatchedNodes = new TreeSet<>(Comparator.comparing(MNode::getFullPath));
-      if (plan.isContains()) {
-        for (Entry<String, Set<LeafMNode>> entry : value2Node.entrySet()) {
-          String tagValue = entry.getKey();
-          if (tagValue.contains(plan.getValue())) {
-            allMatchedNodes.addAll(entry.getValue());
-          }
-        }
-      } else {
-        for (Entry<String, Set<LeafMNode>> entry : value2Node.entrySet()) {
-          String tagValue = entry.getKey();
-          if (plan.getValue().equals(tagValue)) {
-            allMatchedNodes.addAll(entry.getValue());
-          }
-        }
-      }
+      storageGroupLocksOfPath = readLockStorageGroups(plan.getPath().getFullPath());
+      List<LeafMNode> allMatchedNodes = getMatchedNodesByTags(plan.getTagExpression());
       List<ShowTimeSeriesResult> res = new LinkedList<>();
       String[] prefixNodes = MetaUtils.getNodeNames(plan.getPath().getFullPath());
       int curOffset = -1;
@@ -756,10 +990,35 @@ public class MManager {
       }
       return res;
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
 
+  /**
+   * evaluate the tag expression on the inverted index, must be called with the global read lock
+   * held
+   *
+   * @return the matched timeseries sorted by their full paths
+   */
+  private List<LeafMNode> getMatchedNodesByTags(TagExpression expression)
+      throws MetadataException {
+    Set<String> keys = new HashSet<>();
+    expression.collectKeys(keys);
+    List<LeafMNode> allMatchedNodes;
+    // the index is shared by all storage groups, keep it unchanged during the evaluation
+    synchronized (tagIndex) {
+      for (String key : keys) {
+        if (!tagIndex.containsKey(key)) {
+          throw new MetadataException("The key " + key + " is not a tag.");
+        }
+      }
+      allMatchedNodes = tagIndex.getNodes(expression.evaluate(tagIndex));
+    }
+    allMatchedNodes.sort(Comparator.comparing(MNode::getFullPath));
+    return allMatchedNodes;
+  }
+
   /**
    * whether the full path has the prefixNodes
    */
@@ -784,7 +1043,9 @@ public class MManager {
   public List<ShowTimeSeriesResult> showTimeseries(ShowTimeSeriesPlan plan)
       throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(plan.getPath().getFullPath());
       List<String[]> ans = mtree.getAllMeasurementSchema(plan);
       List<ShowTimeSeriesResult> res = new LinkedList<>();
       for (String[] ansString : ans) {
@@ -809,6 +1070,7 @@ public class MManager {
       }
       return res;
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -816,10 +1078,13 @@ public class MManager {
   public MeasurementSchema getSeriesSchema(String device, String measuremnet)
       throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(device);
       InternalMNode node = (InternalMNode) mtree.getNodeByPath(device);
       return ((LeafMNode) node.getChild(measuremnet)).getSchema();
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -834,9 +1099,12 @@ public class MManager {
    */
   public Set<String> getChildNodePathInNextLevel(String path) throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(path);
       return mtree.getChildNodePathInNextLevel(path);
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -848,9 +1116,12 @@ public class MManager {
    */
   public boolean isPathExist(String path) {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(path);
       return mtree.isPathExist(path);
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -860,9 +1131,12 @@ public class MManager {
    */
   public MNode getNodeByPath(String path) throws MetadataException {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(path);
       return mtree.getNodeByPath(path);
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -891,7 +1165,6 @@ public class MManager {
       String path, boolean autoCreateSchema, int sgLevel) throws MetadataException {
     lock.readLock().lock();
     MNode node = null;
-    boolean shouldSetStorageGroup;
     try {
       node = mNodeCache.get(path);
       return node;
@@ -906,30 +1179,29 @@ public class MManager {
       lock.readLock().unlock();
     }
 
-    lock.writeLock().lock();
+    setStorageGroupIfAbsent(path, true, sgLevel);
+
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(path).writeLock();
+      storageGroupLock.lock();
       try {
         node = mNodeCache.get(path);
         return node;
       } catch (CacheException e) {
-        shouldSetStorageGroup = e.getCause() instanceof StorageGroupNotSetException;
-      }
-
-      if (shouldSetStorageGroup) {
-        String storageGroupName = MetaUtils.getStorageGroupNameByLevel(path, sgLevel);
-        setStorageGroup(storageGroupName);
+        // the device does not exist, create it below
       }
       node = mtree.getDeviceNodeWithAutoCreating(path);
       return node;
-    } catch (StorageGroupAlreadySetException e) {
-      // ignore set storage group concurrently
-      node = mtree.getDeviceNodeWithAutoCreating(path);
-      return node;
     } finally {
       if (node != null) {
         ((InternalMNode) node).readLock();
       }
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -946,9 +1218,12 @@ public class MManager {
    */
   public String getMetadataInString() {
     lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
     try {
+      storageGroupLocksOfPath = readLockStorageGroups(IoTDBConstant.PATH_ROOT);
       return TIME_SERIES_TREE_HEADER + mtree.toString();
     } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
       lock.readLock().unlock();
     }
   }
@@ -981,11 +1256,17 @@ public class MManager {
    * @param offset offset in the tag file
    */
   public void changeOffset(String path, long offset) throws MetadataException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(path).writeLock();
+      storageGroupLock.lock();
       ((LeafMNode) mtree.getNodeByPath(path)).setOffset(offset);
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -1000,8 +1281,11 @@ public class MManager {
   public void upsertTagsAndAttributes(
       Map<String, String> tagsMap, Map<String, String> attributesMap, String fullPath)
       throws MetadataException, IOException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(fullPath).writeLock();
+      storageGroupLock.lock();
       MNode mNode = mtree.getNodeByPath(fullPath);
       if (!(mNode instanceof LeafMNode)) {
         throw new PathNotExistException(fullPath);
@@ -1014,8 +1298,7 @@ public class MManager {
         leafMNode.setOffset(offset);
         // update inverted Index map
         for (Entry<String, String> entry : tagsMap.entrySet()) {
-          tagIndex.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
-              .computeIfAbsent(entry.getValue(), v -> new HashSet<>()).add(leafMNode);
+          tagIndex.addTag(entry.getKey(), entry.getValue(), leafMNode);
         }
         return;
       }
@@ -1031,17 +1314,13 @@ public class MManager {
         // if the key has existed and the value is not equal to the new one
         // we should remove before key-value from inverted index map
         if (beforeValue != null && !beforeValue.equals(value)) {
-          tagIndex.get(key).get(beforeValue).remove(leafMNode);
-          if (tagIndex.get(key).get(beforeValue).isEmpty()) {
-            tagIndex.get(key).remove(beforeValue);
-          }
+          tagIndex.removeTag(key, beforeValue, leafMNode);
         }
 
         // if the key doesn't exist or the value is not equal to the new one
         // we should add a new key-value to inverted index map
         if (beforeValue == null || !beforeValue.equals(value)) {
-          tagIndex.computeIfAbsent(key, k -> new HashMap<>())
-              .computeIfAbsent(value, v -> new HashSet<>()).add(leafMNode);
+          tagIndex.addTag(key, value, leafMNode);
         }
       }
       pair.left.putAll(tagsMap);
@@ -1051,7 +1330,10 @@ public class MManager {
       tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
 
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -1063,8 +1345,11 @@ public class MManager {
    */
   public void addAttributes(Map<String, String> attributesMap, String fullPath)
       throws MetadataException, IOException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(fullPath).writeLock();
+      storageGroupLock.lock();
       MNode mNode = mtree.getNodeByPath(fullPath);
       if (!(mNode instanceof LeafMNode)) {
         throw new PathNotExistException(fullPath);
@@ -1094,7 +1379,10 @@ public class MManager {
       // persist the change to disk
       tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -1106,8 +1394,11 @@ public class MManager {
    */
   public void addTags(Map<String, String> tagsMap, String fullPath)
       throws MetadataException, IOException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(fullPath).writeLock();
+      storageGroupLock.lock();
       MNode mNode = mtree.getNodeByPath(fullPath);
       if (!(mNode instanceof LeafMNode)) {
         throw new PathNotExistException(fullPath);
@@ -1120,8 +1411,7 @@ public class MManager {
         leafMNode.setOffset(offset);
         // update inverted Index map
         for (Entry<String, String> entry : tagsMap.entrySet()) {
-          tagIndex.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
-              .computeIfAbsent(entry.getValue(), v -> new HashSet<>()).add(leafMNode);
+          tagIndex.addTag(entry.getKey(), entry.getValue(), leafMNode);
         }
         return;
       }
@@ -1143,11 +1433,13 @@ public class MManager {
       tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
 
       // update tag inverted map
-      tagsMap.forEach((key, value) -> tagIndex.computeIfAbsent(key, k -> new HashMap<>())
-          .computeIfAbsent(value, v -> new HashSet<>()).add(leafMNode));
+      tagsMap.forEach((key, value) -> tagIndex.addTag(key, value, leafMNode));
 
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -1159,8 +1451,11 @@ public class MManager {
    */
   public void dropTagsOrAttributes(Set<String> keySet, String fullPath)
       throws MetadataException, IOException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(fullPath).writeLock();
+      storageGroupLock.lock();
       MNode mNode = mtree.getNodeByPath(fullPath);
       if (!(mNode instanceof LeafMNode)) {
         throw new PathNotExistException(fullPath);
@@ -1187,20 +1482,13 @@ public class MManager {
       // persist the change to disk
       tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
 
-      for (Entry<String, String> entry : deleteTag.entrySet()) {
-        String key = entry.getKey();
-        String value = entry.getValue();
-        // change the tag inverted index map
-        tagIndex.get(key).get(value).remove(leafMNode);
-        if (tagIndex.get(key).get(value).isEmpty()) {
-          tagIndex.get(key).remove(value);
-          if (tagIndex.get(key).isEmpty()) {
-            tagIndex.remove(key);
-          }
-        }
-      }
+      // change the tag inverted index map
+      tagIndex.removeTags(deleteTag, leafMNode);
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -1212,8 +1500,11 @@ public class MManager {
    */
   public void setTagsOrAttributesValue(Map<String, String> alterMap, String fullPath)
       throws MetadataException, IOException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(fullPath).writeLock();
+      storageGroupLock.lock();
       MNode mNode = mtree.getNodeByPath(fullPath);
       if (!(mNode instanceof LeafMNode)) {
         throw new PathNotExistException(fullPath);
@@ -1255,12 +1546,14 @@ public class MManager {
         String beforeValue = entry.getValue();
         String currentValue = newTagValue.get(key);
         // change the tag inverted index map
-        tagIndex.get(key).get(beforeValue).remove(leafMNode);
-        tagIndex.computeIfAbsent(key, k -> new HashMap<>())
-            .computeIfAbsent(currentValue, k -> new HashSet<>()).add(leafMNode);
+        tagIndex.removeTag(key, beforeValue, leafMNode);
+        tagIndex.addTag(key, currentValue, leafMNode);
       }
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -1273,8 +1566,11 @@ public class MManager {
    */
   public void renameTagOrAttributeKey(String oldKey, String newKey, String fullPath)
       throws MetadataException, IOException {
-    lock.writeLock().lock();
+    lock.readLock().lock();
+    Lock storageGroupLock = null;
     try {
+      storageGroupLock = getStorageGroupLock(fullPath).writeLock();
+      storageGroupLock.lock();
       MNode mNode = mtree.getNodeByPath(fullPath);
       if (!(mNode instanceof LeafMNode)) {
         throw new PathNotExistException(fullPath);
@@ -1302,9 +1598,8 @@ public class MManager {
         // persist the change to disk
         tagLogFile.write(pair.left, pair.right, leafMNode.getOffset());
         // change the tag inverted index map
-        tagIndex.get(oldKey).get(value).remove(leafMNode);
-        tagIndex.computeIfAbsent(newKey, k -> new HashMap<>())
-            .computeIfAbsent(value, k -> new HashSet<>()).add(leafMNode);
+        tagIndex.removeTag(oldKey, value, leafMNode);
+        tagIndex.addTag(newKey, value, leafMNode);
       } else if (pair.right.containsKey(oldKey)) {
         // check attribute map
         pair.right.put(newKey, pair.right.remove(oldKey));
@@ -1315,7 +1610,10 @@ public class MManager {
             String.format("TimeSeries [%s] does not have tag/attribute [%s].", fullPath, oldKey));
       }
     } finally {
-      lock.writeLock().unlock();
+      if (storageGroupLock != null) {
+        storageGroupLock.unlock();
+      }
+      lock.readLock().unlock();
     }
   }
 
@@ -1349,6 +1647,36 @@ public class MManager {
   }
 
   public void collectSeries(MNode startingNode, Collection<MeasurementSchema> timeseriesSchemas) {
+    lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
+    try {
+      storageGroupLocksOfPath = readLockStorageGroups(startingNode.getFullPath());
+      collectSeriesUnderNode(startingNode, timeseriesSchemas);
+    } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
+      lock.readLock().unlock();
+    }
+  }
+
+  public void collectSeries(String startingPath, List<MeasurementSchema> timeseriesSchemas) {
+    lock.readLock().lock();
+    List<Lock> storageGroupLocksOfPath = null;
+    try {
+      storageGroupLocksOfPath = readLockStorageGroups(startingPath);
+      collectSeriesUnderNode(mtree.getNodeByPath(startingPath), timeseriesSchemas);
+    } catch (MetadataException e) {
+      // the path does not exist, no series is collected
+    } finally {
+      unlockStorageGroups(storageGroupLocksOfPath);
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * must be called with the read locks of the storage groups under the node held
+   */
+  private void collectSeriesUnderNode(MNode startingNode,
+      Collection<MeasurementSchema> timeseriesSchemas) {
     Deque<MNode> nodeDeque = new ArrayDeque<>();
     nodeDeque.addLast(startingNode);
     while (!nodeDeque.isEmpty()) {
@@ -1363,16 +1691,6 @@ public class MManager {
     }
   }
 
-  public void collectSeries(String startingPath, List<MeasurementSchema> timeseriesSchemas) {
-    MNode mNode;
-    try {
-      mNode = getNodeByPath(startingPath);
-    } catch (MetadataException e) {
-      return;
-    }
-    collectSeries(mNode, timeseriesSchemas);
-  }
-
   /**
    * For a path, infer all storage groups it may belong to. The path can have wildcards.
    *
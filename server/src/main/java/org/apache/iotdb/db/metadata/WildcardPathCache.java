@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of the results of resolving a path with wildcards against the MTree, e.g., root.sg.*.s1
+ * -> [root.sg.d1.s1, root.sg.d2.s1]. Every entry remembers the schema versions of the storage
+ * groups it was computed from, and an entry whose versions differ from the current ones is treated
+ * as missing, so that creating or deleting timeseries only invalidates the entries of the paths
+ * reaching that storage group.
+ *
+ * <p>The resolved value is shared by all callers and must not be modified.
+ */
+public class WildcardPathCache<V> {
+
+  private final Map<String, Entry<V>> cache;
+
+  public WildcardPathCache(int cacheSize) {
+    this.cache = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+
+  /**
+   * @return the resolved value of the path, or null if it is absent or stale
+   */
+  public synchronized V get(String path, long[] schemaVersions) {
+    Entry<V> entry = cache.get(path);
+    if (entry == null) {
+      return null;
+    }
+    if (!Arrays.equals(entry.schemaVersions, schemaVersions)) {
+      cache.remove(path);
+      return null;
+    }
+    return entry.value;
+  }
+
+  public synchronized void put(String path, long[] schemaVersions, V value) {
+    cache.put(path, new Entry<>(schemaVersions, value));
+  }
+
+  public synchronized void clear() {
+    cache.clear();
+  }
+
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  private static class Entry<V> {
+
+    private long[] schemaVersions;
+    private V value;
+
+    private Entry(long[] schemaVersions, V value) {
+      this.schemaVersions = schemaVersions;
+      this.value = value;
+    }
+  }
+}
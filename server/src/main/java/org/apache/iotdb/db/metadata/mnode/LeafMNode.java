@@ -38,6 +38,8 @@ public class LeafMNode extends MNode {
   private String alias;
   // tag/attribute's start offset in tag file
   private long offset = -1;
+  // id of this timeseries in the tag inverted index, -1 if it has no tag
+  private int tagIndexId = -1;
 
   private TimeValuePair cachedLastValuePair = null;
 
@@ -129,6 +131,14 @@ public class LeafMNode extends MNode {
     this.offset = offset;
   }
 
+  public int getTagIndexId() {
+    return tagIndexId;
+  }
+
+  public void setTagIndexId(int tagIndexId) {
+    this.tagIndexId = tagIndexId;
+  }
+
   public String getAlias() {
     return alias;
   }
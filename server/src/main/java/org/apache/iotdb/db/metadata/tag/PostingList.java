@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata.tag;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of series ids backed by a primitive int array. It is the value type of the tag
+ * inverted index: compared with a Set of MNodes it needs 4 bytes per entry and supports linear
+ * time intersection, union and difference, which are the building blocks of boolean tag queries.
+ */
+public class PostingList {
+
+  private static final int[] EMPTY = new int[0];
+
+  private int[] ids;
+  private int size;
+
+  public PostingList() {
+    this.ids = EMPTY;
+    this.size = 0;
+  }
+
+  private PostingList(int[] ids, int size) {
+    this.ids = ids;
+    this.size = size;
+  }
+
+  /**
+   * @return true if the id is newly added, false if it was already in the list
+   */
+  public boolean add(int id) {
+    int pos = Arrays.binarySearch(ids, 0, size, id);
+    if (pos >= 0) {
+      return false;
+    }
+    pos = -pos - 1;
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+    }
+    System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+    ids[pos] = id;
+    size++;
+    return true;
+  }
+
+  /**
+   * @return true if the id was in the list
+   */
+  public boolean remove(int id) {
+    int pos = Arrays.binarySearch(ids, 0, size, id);
+    if (pos < 0) {
+      return false;
+    }
+    System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+    size--;
+    // shrink the array when it is mostly empty so that deleted series release their memory
+    if (size > 0 && size < ids.length >> 2) {
+      ids = Arrays.copyOf(ids, size << 1);
+    } else if (size == 0) {
+      ids = EMPTY;
+    }
+    return true;
+  }
+
+  public boolean contains(int id) {
+    return Arrays.binarySearch(ids, 0, size, id) >= 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int get(int index) {
+    return ids[index];
+  }
+
+  /**
+   * @return a new list containing the ids in both this and the other list
+   */
+  public PostingList and(PostingList other) {
+    int[] result = new int[Math.min(size, other.size)];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < size && j < other.size) {
+      if (ids[i] < other.ids[j]) {
+        i++;
+      } else if (ids[i] > other.ids[j]) {
+        j++;
+      } else {
+        result[k++] = ids[i];
+        i++;
+        j++;
+      }
+    }
+    return new PostingList(result, k);
+  }
+
+  /**
+   * @return a new list containing the ids in this or the other list
+   */
+  public PostingList or(PostingList other) {
+    int[] result = new int[size + other.size];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < size && j < other.size) {
+      if (ids[i] < other.ids[j]) {
+        result[k++] = ids[i++];
+      } else if (ids[i] > other.ids[j]) {
+        result[k++] = other.ids[j++];
+      } else {
+        result[k++] = ids[i];
+        i++;
+        j++;
+      }
+    }
+    while (i < size) {
+      result[k++] = ids[i++];
+    }
+    while (j < other.size) {
+      result[k++] = other.ids[j++];
+    }
+    return new PostingList(result, k);
+  }
+
+  /**
+   * @return a new list containing the ids in this list but not in the other list
+   */
+  public PostingList andNot(PostingList other) {
+    int[] result = new int[size];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < size) {
+      if (j == other.size || ids[i] < other.ids[j]) {
+        result[k++] = ids[i++];
+      } else if (ids[i] > other.ids[j]) {
+        j++;
+      } else {
+        i++;
+        j++;
+      }
+    }
+    return new PostingList(result, k);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(ids, size));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata.tag;
+
+import java.util.Set;
+
+/**
+ * A boolean condition on the tags of timeseries, e.g., "region=eu AND type=temp AND NOT vendor=x".
+ * It is evaluated against a {@link TagInvertedIndex} and returns the ids of the matched timeseries.
+ * NOT is evaluated relative to the timeseries that have at least one tag.
+ */
+public abstract class TagExpression {
+
+  public abstract PostingList evaluate(TagInvertedIndex index);
+
+  /**
+   * collect all tag keys referred by this expression
+   */
+  public abstract void collectKeys(Set<String> keys);
+
+  public static TagExpression equal(String key, String value) {
+    return new Leaf(Operator.EQUAL, key, value);
+  }
+
+  public static TagExpression notEqual(String key, String value) {
+    return new Leaf(Operator.NOT_EQUAL, key, value);
+  }
+
+  public static TagExpression contains(String key, String value) {
+    return new Leaf(Operator.CONTAINS, key, value);
+  }
+
+  public static TagExpression startsWith(String key, String value) {
+    return new Leaf(Operator.STARTS_WITH, key, value);
+  }
+
+  public static TagExpression and(TagExpression left, TagExpression right) {
+    return new Binary(true, left, right);
+  }
+
+  public static TagExpression or(TagExpression left, TagExpression right) {
+    return new Binary(false, left, right);
+  }
+
+  public static TagExpression not(TagExpression child) {
+    return new Not(child);
+  }
+
+  private enum Operator {
+    EQUAL("="), NOT_EQUAL("!="), CONTAINS(" contains "), STARTS_WITH(" startswith ");
+
+    private String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+  }
+
+  private static class Leaf extends TagExpression {
+
+    private Operator operator;
+    private String key;
+    private String value;
+
+    private Leaf(Operator operator, String key, String value) {
+      this.operator = operator;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public PostingList evaluate(TagInvertedIndex index) {
+      switch (operator) {
+        case EQUAL:
+          return index.getSeries(key, value);
+        case NOT_EQUAL:
+          return index.getSeriesWithKey(key).andNot(index.getSeries(key, value));
+        case CONTAINS:
+          return index.getSeriesWithValueContaining(key, value);
+        case STARTS_WITH:
+          return index.getSeriesWithValuePrefix(key, value);
+        default:
+          throw new UnsupportedOperationException("Unsupported tag operator " + operator);
+      }
+    }
+
+    @Override
+    public void collectKeys(Set<String> keys) {
+      keys.add(key);
+    }
+
+    @Override
+    public String toString() {
+      return key + operator.symbol + value;
+    }
+  }
+
+  private static class Binary extends TagExpression {
+
+    private boolean isAnd;
+    private TagExpression left;
+    private TagExpression right;
+
+    private Binary(boolean isAnd, TagExpression left, TagExpression right) {
+      this.isAnd = isAnd;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public PostingList evaluate(TagInvertedIndex index) {
+      if (isAnd) {
+        // A AND NOT B can be answered by a difference without materializing NOT B
+        if (right instanceof Not) {
+          return left.evaluate(index).andNot(((Not) right).child.evaluate(index));
+        }
+        if (left instanceof Not) {
+          return right.evaluate(index).andNot(((Not) left).child.evaluate(index));
+        }
+        return left.evaluate(index).and(right.evaluate(index));
+      }
+      return left.evaluate(index).or(right.evaluate(index));
+    }
+
+    @Override
+    public void collectKeys(Set<String> keys) {
+      left.collectKeys(keys);
+      right.collectKeys(keys);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + (isAnd ? " AND " : " OR ") + right + ")";
+    }
+  }
+
+  private static class Not extends TagExpression {
+
+    private TagExpression child;
+
+    private Not(TagExpression child) {
+      this.child = child;
+    }
+
+    @Override
+    public PostingList evaluate(TagInvertedIndex index) {
+      return index.getAllSeries().andNot(child.evaluate(index));
+    }
+
+    @Override
+    public void collectKeys(Set<String> keys) {
+      child.collectKeys(keys);
+    }
+
+    @Override
+    public String toString() {
+      return "NOT " + child;
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata.tag;
+
+import org.apache.iotdb.db.metadata.mnode.LeafMNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from tag key-value pairs to timeseries. Every timeseries that carries at least one
+ * tag is given a dense integer id, and each tag value maps to a {@link PostingList} of such ids.
+ * Tag values of one key are kept sorted so that prefix queries are range scans.
+ *
+ * <p>The index is shared by all storage groups while MManager only locks the storage group being
+ * modified, so all methods are synchronized. A query that calls several methods should synchronize
+ * on the index itself.
+ */
+public class TagInvertedIndex {
+
+  // tag key -> tag value -> ids of the timeseries having this tag
+  private Map<String, TreeMap<String, PostingList>> index = new HashMap<>();
+
+  // id -> timeseries, null if the id is released
+  private List<LeafMNode> idToNode = new ArrayList<>();
+  // id -> number of tags of the timeseries in this index
+  private int[] tagNumbers = new int[16];
+  // ids released by deleted timeseries, reused before allocating new ones
+  private Deque<Integer> freeIds = new ArrayDeque<>();
+  // ids of all timeseries that have at least one tag, the universe of NOT queries
+  private PostingList allSeries = new PostingList();
+
+  public synchronized void addTag(String key, String value, LeafMNode node) {
+    int id = node.getTagIndexId();
+    if (id < 0) {
+      id = allocateId(node);
+    }
+    if (index.computeIfAbsent(key, k -> new TreeMap<>())
+        .computeIfAbsent(value, v -> new PostingList()).add(id)) {
+      tagNumbers[id]++;
+    }
+  }
+
+  public synchronized void removeTag(String key, String value, LeafMNode node) {
+    int id = node.getTagIndexId();
+    if (id < 0) {
+      return;
+    }
+    TreeMap<String, PostingList> valueToIds = index.get(key);
+    if (valueToIds == null) {
+      return;
+    }
+    PostingList ids = valueToIds.get(value);
+    if (ids == null || !ids.remove(id)) {
+      return;
+    }
+    if (ids.isEmpty()) {
+      valueToIds.remove(value);
+      if (valueToIds.isEmpty()) {
+        index.remove(key);
+      }
+    }
+    tagNumbers[id]--;
+    if (tagNumbers[id] == 0) {
+      releaseId(node);
+    }
+  }
+
+  public synchronized void removeTags(Map<String, String> tags, LeafMNode node) {
+    for (Entry<String, String> entry : tags.entrySet()) {
+      removeTag(entry.getKey(), entry.getValue(), node);
+    }
+  }
+
+  public synchronized boolean containsKey(String key) {
+    return index.containsKey(key);
+  }
+
+  /**
+   * @return ids of the timeseries whose tag "key" equals the value
+   */
+  public synchronized PostingList getSeries(String key, String value) {
+    TreeMap<String, PostingList> valueToIds = index.get(key);
+    if (valueToIds == null) {
+      return new PostingList();
+    }
+    PostingList ids = valueToIds.get(value);
+    return ids == null ? new PostingList() : ids;
+  }
+
+  /**
+   * @return ids of the timeseries having the tag "key" whatever its value is
+   */
+  public synchronized PostingList getSeriesWithKey(String key) {
+    TreeMap<String, PostingList> valueToIds = index.get(key);
+    if (valueToIds == null) {
+      return new PostingList();
+    }
+    return union(valueToIds.values());
+  }
+
+  /**
+   * @return ids of the timeseries whose tag "key" starts with the prefix
+   */
+  public synchronized PostingList getSeriesWithValuePrefix(String key, String prefix) {
+    TreeMap<String, PostingList> valueToIds = index.get(key);
+    if (valueToIds == null) {
+      return new PostingList();
+    }
+    // all strings starting with the prefix are in [prefix, prefix + Character.MAX_VALUE)
+    return union(valueToIds.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+  }
+
+  /**
+   * @return ids of the timeseries whose tag "key" contains the sub string
+   */
+  public synchronized PostingList getSeriesWithValueContaining(String key, String subString) {
+    TreeMap<String, PostingList> valueToIds = index.get(key);
+    if (valueToIds == null) {
+      return new PostingList();
+    }
+    List<PostingList> matched = new ArrayList<>();
+    for (Entry<String, PostingList> entry : valueToIds.entrySet()) {
+      if (entry.getKey().contains(subString)) {
+        matched.add(entry.getValue());
+      }
+    }
+    return union(matched);
+  }
+
+  /**
+   * @return ids of all timeseries having at least one tag
+   */
+  public synchronized PostingList getAllSeries() {
+    return allSeries;
+  }
+
+  public synchronized List<LeafMNode> getNodes(PostingList ids) {
+    List<LeafMNode> nodes = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      nodes.add(idToNode.get(ids.get(i)));
+    }
+    return nodes;
+  }
+
+  public synchronized void clear() {
+    for (LeafMNode node : idToNode) {
+      if (node != null) {
+        node.setTagIndexId(-1);
+      }
+    }
+    index.clear();
+    idToNode.clear();
+    tagNumbers = new int[16];
+    freeIds.clear();
+    allSeries = new PostingList();
+  }
+
+  private PostingList union(Iterable<PostingList> lists) {
+    PostingList result = new PostingList();
+    for (PostingList list : lists) {
+      result = result.or(list);
+    }
+    return result;
+  }
+
+  private int allocateId(LeafMNode node) {
+    int id;
+    if (!freeIds.isEmpty()) {
+      id = freeIds.pop();
+      idToNode.set(id, node);
+    } else {
+      id = idToNode.size();
+      idToNode.add(node);
+      if (id == tagNumbers.length) {
+        tagNumbers = Arrays.copyOf(tagNumbers, id << 1);
+      }
+    }
+    tagNumbers[id] = 0;
+    node.setTagIndexId(id);
+    allSeries.add(id);
+    return id;
+  }
+
+  private void releaseId(LeafMNode node) {
+    int id = node.getTagIndexId();
+    idToNode.set(id, null);
+    freeIds.push(id);
+    allSeries.remove(id);
+    node.setTagIndexId(-1);
+  }
+}
@@ -66,6 +66,9 @@ public class SQLConstant {
   public static final String AVG = "avg";
   public static final String SUM = "sum";
 
+  public static final String PERCENTILE = "percentile";
+  public static final String APPROX_COUNT_DISTINCT = "approx_count_distinct";
+
   public static final String ALL = "all";
 
   public static final int KW_AND = 1;
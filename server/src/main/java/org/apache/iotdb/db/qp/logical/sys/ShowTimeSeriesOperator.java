@@ -19,14 +19,13 @@
  */
 package org.apache.iotdb.db.qp.logical.sys;
 
+import org.apache.iotdb.db.metadata.tag.TagExpression;
 import org.apache.iotdb.tsfile.read.common.Path;
 
 public class ShowTimeSeriesOperator extends ShowOperator {
 
   private Path path;
-  private boolean isContains;
-  private String key;
-  private String value;
+  private TagExpression tagExpression;
   private int limit = 0;
   private int offset = 0;
 
@@ -39,28 +38,12 @@ public class ShowTimeSeriesOperator extends ShowOperator {
     return path;
   }
 
-  public boolean isContains() {
-    return isContains;
+  public TagExpression getTagExpression() {
+    return tagExpression;
   }
 
-  public void setContains(boolean contains) {
-    isContains = contains;
-  }
-
-  public String getKey() {
-    return key;
-  }
-
-  public void setKey(String key) {
-    this.key = key;
-  }
-
-  public String getValue() {
-    return value;
-  }
-
-  public void setValue(String value) {
-    this.value = value;
+  public void setTagExpression(TagExpression tagExpression) {
+    this.tagExpression = tagExpression;
   }
 
   public int getLimit() {
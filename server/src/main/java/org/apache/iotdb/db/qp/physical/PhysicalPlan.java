@@ -148,10 +148,22 @@ public abstract class PhysicalPlan {
           plan = new DeletePlan();
           plan.deserializeFrom(buffer);
           break;
+        case RANGE_DELETE:
+          DeletePlan rangeDeletePlan = new DeletePlan();
+          rangeDeletePlan.deserializeFrom(buffer);
+          rangeDeletePlan.deserializeStartTimeFrom(buffer);
+          plan = rangeDeletePlan;
+          break;
         case BATCHINSERT:
           plan = new InsertTabletPlan();
           plan.deserializeFrom(buffer);
           break;
+        case ALIGNED_BATCHINSERT:
+          InsertTabletPlan alignedPlan = new InsertTabletPlan();
+          alignedPlan.setAligned(true);
+          alignedPlan.deserializeFrom(buffer);
+          plan = alignedPlan;
+          break;
         case SET_STORAGE_GROUP:
           plan = new SetStorageGroupPlan();
           plan.deserializeFrom(buffer);
@@ -168,7 +180,8 @@ public abstract class PhysicalPlan {
   }
 
   public enum PhysicalPlanType {
-    INSERT, DELETE, BATCHINSERT, SET_STORAGE_GROUP, CREATE_TIMESERIES
+    INSERT, DELETE, BATCHINSERT, SET_STORAGE_GROUP, CREATE_TIMESERIES, ALIGNED_BATCHINSERT,
+    RANGE_DELETE
   }
 
 
@@ -30,6 +30,7 @@ import org.apache.iotdb.tsfile.read.common.Path;
 
 public class DeletePlan extends PhysicalPlan {
 
+  private long startTime = Long.MIN_VALUE;
   private long deleteTime;
   private List<Path> paths = new ArrayList<>();
 
@@ -56,11 +57,31 @@ public class DeletePlan extends PhysicalPlan {
    * @param paths time series paths in List structure
    */
   public DeletePlan(long deleteTime, List<Path> paths) {
+    this(Long.MIN_VALUE, deleteTime, paths);
+  }
+
+  /**
+   * constructor of DeletePlan with multiple paths.
+   *
+   * @param startTime the lower bound of the time of the data points to be deleted
+   * @param deleteTime the upper bound of the time of the data points to be deleted
+   * @param paths time series paths in List structure
+   */
+  public DeletePlan(long startTime, long deleteTime, List<Path> paths) {
     super(false, Operator.OperatorType.DELETE);
+    this.startTime = startTime;
     this.deleteTime = deleteTime;
     this.paths = paths;
   }
 
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public void setStartTime(long startTime) {
+    this.startTime = startTime;
+  }
+
   public long getDeleteTime() {
     return deleteTime;
   }
@@ -88,7 +109,7 @@ public class DeletePlan extends PhysicalPlan {
 
   @Override
   public int hashCode() {
-    return Objects.hash(deleteTime, paths);
+    return Objects.hash(startTime, deleteTime, paths);
   }
 
   @Override
@@ -100,23 +121,41 @@ public class DeletePlan extends PhysicalPlan {
       return false;
     }
     DeletePlan that = (DeletePlan) o;
-    return deleteTime == that.deleteTime && Objects.equals(paths, that.paths);
+    return startTime == that.startTime && deleteTime == that.deleteTime
+        && Objects.equals(paths, that.paths);
+  }
+
+  /**
+   * A deletion without a start time keeps the layout of DELETE, so that the logs written before
+   * range deletions are readable, and a range deletion is written as RANGE_DELETE, whose start time
+   * follows the layout of DELETE.
+   */
+  private boolean isRangeDeletion() {
+    return startTime != Long.MIN_VALUE;
   }
 
   @Override
   public void serializeTo(DataOutputStream stream) throws IOException {
-    int type = PhysicalPlanType.DELETE.ordinal();
+    int type = isRangeDeletion() ? PhysicalPlanType.RANGE_DELETE.ordinal()
+        : PhysicalPlanType.DELETE.ordinal();
     stream.writeByte((byte) type);
     stream.writeLong(deleteTime);
     putString(stream, paths.get(0).getFullPath());
+    if (isRangeDeletion()) {
+      stream.writeLong(startTime);
+    }
   }
 
   @Override
   public void serializeTo(ByteBuffer buffer) {
-    int type = PhysicalPlanType.DELETE.ordinal();
+    int type = isRangeDeletion() ? PhysicalPlanType.RANGE_DELETE.ordinal()
+        : PhysicalPlanType.DELETE.ordinal();
     buffer.put((byte) type);
     buffer.putLong(deleteTime);
     putString(buffer, paths.get(0).getFullPath());
+    if (isRangeDeletion()) {
+      buffer.putLong(startTime);
+    }
   }
 
   @Override
@@ -125,4 +164,11 @@ public class DeletePlan extends PhysicalPlan {
     this.paths = new ArrayList();
     this.paths.add(new Path(readString(buffer)));
   }
+
+  /**
+   * Read the start time of a RANGE_DELETE plan after deserializeFrom().
+   */
+  public void deserializeStartTimeFrom(ByteBuffer buffer) {
+    this.startTime = buffer.getLong();
+  }
 }
@@ -66,6 +66,8 @@ public class InsertTabletPlan extends PhysicalPlan {
   private List<Path> paths;
   private int start;
   private int end;
+  // whether the measurements of the device share one time column in memtable and TsFile
+  private boolean aligned;
 
   public InsertTabletPlan() {
     super(false, OperatorType.BATCHINSERT);
@@ -128,7 +130,8 @@ public class InsertTabletPlan extends PhysicalPlan {
 
   @Override
   public void serializeTo(DataOutputStream stream) throws IOException {
-    int type = PhysicalPlanType.BATCHINSERT.ordinal();
+    int type = aligned ? PhysicalPlanType.ALIGNED_BATCHINSERT.ordinal()
+        : PhysicalPlanType.BATCHINSERT.ordinal();
     stream.writeByte((byte) type);
 
     putString(stream, deviceId);
@@ -216,7 +219,8 @@ public class InsertTabletPlan extends PhysicalPlan {
 
   @Override
   public void serializeTo(ByteBuffer buffer) {
-    int type = PhysicalPlanType.BATCHINSERT.ordinal();
+    int type = aligned ? PhysicalPlanType.ALIGNED_BATCHINSERT.ordinal()
+        : PhysicalPlanType.BATCHINSERT.ordinal();
     buffer.put((byte) type);
 
     putString(buffer, deviceId);
@@ -339,6 +343,14 @@ public class InsertTabletPlan extends PhysicalPlan {
     return deviceId;
   }
 
+  public boolean isAligned() {
+    return aligned;
+  }
+
+  public void setAligned(boolean aligned) {
+    this.aligned = aligned;
+  }
+
   public void setDeviceId(String deviceId) {
     this.deviceId = deviceId;
   }
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.qp.physical.sys;
 
+import org.apache.iotdb.db.metadata.tag.TagExpression;
 import org.apache.iotdb.tsfile.read.common.Path;
 
 public class ShowTimeSeriesPlan extends ShowPlan {
@@ -25,9 +26,8 @@ public class ShowTimeSeriesPlan extends ShowPlan {
   // path can be root, root.*  root.*.*.a etc.. if the wildcard is not at the tail, then each
   // * wildcard can only match one level, otherwise it can match to the tail.
   private Path path;
-  private boolean isContains;
-  private String key;
-  private String value;
+  // condition on tags, null if there is no where clause
+  private TagExpression tagExpression;
   private int limit = 0;
   private int offset = 0;
 
@@ -36,13 +36,10 @@ public class ShowTimeSeriesPlan extends ShowPlan {
     this.path = path;
   }
 
-  public ShowTimeSeriesPlan(Path path, boolean isContains, String key, String value, int limit,
-      int offset) {
+  public ShowTimeSeriesPlan(Path path, TagExpression tagExpression, int limit, int offset) {
     super(ShowContentType.TIMESERIES);
     this.path = path;
-    this.isContains = isContains;
-    this.key = key;
-    this.value = value;
+    this.tagExpression = tagExpression;
     this.limit = limit;
     this.offset = offset;
   }
@@ -51,16 +48,8 @@ public class ShowTimeSeriesPlan extends ShowPlan {
     return this.path;
   }
 
-  public boolean isContains() {
-    return isContains;
-  }
-
-  public String getKey() {
-    return key;
-  }
-
-  public String getValue() {
-    return value;
+  public TagExpression getTagExpression() {
+    return tagExpression;
   }
 
   public int getLimit() {
@@ -22,6 +22,7 @@ import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.runtime.SQLParserException;
+import org.apache.iotdb.db.metadata.tag.TagExpression;
 import org.apache.iotdb.db.qp.constant.DatetimeUtils;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.qp.logical.RootOperator;
@@ -30,6 +31,7 @@ import org.apache.iotdb.db.qp.logical.sys.*;
 import org.apache.iotdb.db.qp.logical.sys.AlterTimeSeriesOperator.AlterType;
 import org.apache.iotdb.db.qp.logical.sys.AuthorOperator.AuthorType;
 import org.apache.iotdb.db.qp.strategy.SqlBaseParser.*;
+import org.apache.iotdb.db.query.aggregation.impl.PercentileAggrResult;
 import org.apache.iotdb.db.query.executor.fill.IFill;
 import org.apache.iotdb.db.query.executor.fill.LinearFill;
 import org.apache.iotdb.db.query.executor.fill.PreviousFill;
@@ -39,6 +41,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.utils.StringContainer;
 
 import java.io.File;
@@ -50,6 +53,9 @@ import java.util.*;
  */
 public class LogicalGenerator extends SqlBaseBaseListener {
 
+  private static final String DELETE_TIME_FILTER_ERROR = "For delete command, where clause must be "
+      + "like : time < XXX, time > XXX, time = XXX or time >= XXX and time <= XXX";
+
   private RootOperator initializedOperator = null;
   private ZoneId zoneId;
   private int operatorType;
@@ -1067,11 +1073,26 @@ public class LogicalGenerator extends SqlBaseBaseListener {
     List<FunctionCallContext> functionCallContextList = ctx.functionCall();
     for (FunctionCallContext functionCallContext : functionCallContextList) {
       Path path = parseSuffixPath(functionCallContext.suffixPath());
-      selectOp.addClusterPath(path, functionCallContext.functionName().getText());
+      selectOp.addClusterPath(path, parseAggregation(functionCallContext));
     }
     queryOp.setSelectOperator(selectOp);
   }
 
+  private String parseAggregation(FunctionCallContext ctx) {
+    if (ctx.PERCENTILE() == null) {
+      return ctx.functionName().getText();
+    }
+    if (ctx.rank == null) {
+      return SQLConstant.PERCENTILE;
+    }
+    String rank = ctx.rank.getText();
+    double value = Double.parseDouble(rank);
+    if (!(value >= 0 && value <= 1)) {
+      throw new SQLParserException("The rank of percentile should be in [0, 1]: " + rank);
+    }
+    return PercentileAggrResult.getAggregationName(rank);
+  }
+
   @Override
   public void enterSelectElement(SelectElementContext ctx) {
     super.enterSelectElement(ctx);
@@ -1160,8 +1181,9 @@ public class LogicalGenerator extends SqlBaseBaseListener {
     switch (operatorType) {
       case SQLConstant.TOK_DELETE:
         deleteDataOp.setFilterOperator(whereOp.getChildren().get(0));
-        long deleteTime = parseDeleteTimeFilter(deleteDataOp);
-        deleteDataOp.setTime(deleteTime);
+        Pair<Long, Long> timeInterval = parseDeleteTimeFilter(deleteDataOp);
+        deleteDataOp.setStartTime(timeInterval.left);
+        deleteDataOp.setTime(timeInterval.right);
         break;
       case SQLConstant.TOK_QUERY:
         queryOp.setFilterOperator(whereOp.getChildren().get(0));
@@ -1179,23 +1201,51 @@ public class LogicalGenerator extends SqlBaseBaseListener {
     super.enterShowWhereClause(ctx);
 
     ShowTimeSeriesOperator operator = (ShowTimeSeriesOperator) initializedOperator;
-    PropertyValueContext propertyValueContext;
-    if (ctx.containsExpression() != null) {
-      operator.setContains(true);
-      propertyValueContext = ctx.containsExpression().propertyValue();
-      operator.setKey(ctx.containsExpression().ID().getText());
+    operator.setTagExpression(parseTagOrExpression(ctx.tagOrExpression()));
+  }
+
+  private TagExpression parseTagOrExpression(TagOrExpressionContext ctx) {
+    TagExpression expression = parseTagAndExpression(ctx.tagAndExpression(0));
+    for (int i = 1; i < ctx.tagAndExpression().size(); i++) {
+      expression = TagExpression.or(expression, parseTagAndExpression(ctx.tagAndExpression(i)));
+    }
+    return expression;
+  }
+
+  private TagExpression parseTagAndExpression(TagAndExpressionContext ctx) {
+    TagExpression expression = parseTagPredicate(ctx.tagPredicate(0));
+    for (int i = 1; i < ctx.tagPredicate().size(); i++) {
+      expression = TagExpression.and(expression, parseTagPredicate(ctx.tagPredicate(i)));
+    }
+    return expression;
+  }
+
+  private TagExpression parseTagPredicate(TagPredicateContext ctx) {
+    if (ctx.OPERATOR_NOT() != null) {
+      return TagExpression.not(parseTagPredicate(ctx.tagPredicate()));
+    } else if (ctx.tagOrExpression() != null) {
+      return parseTagOrExpression(ctx.tagOrExpression());
+    } else if (ctx.property() != null) {
+      return TagExpression.equal(ctx.property().ID().getText(),
+          parsePropertyValue(ctx.property().propertyValue()));
+    } else if (ctx.notEqualExpression() != null) {
+      return TagExpression.notEqual(ctx.notEqualExpression().ID().getText(),
+          parsePropertyValue(ctx.notEqualExpression().propertyValue()));
+    } else if (ctx.containsExpression() != null) {
+      return TagExpression.contains(ctx.containsExpression().ID().getText(),
+          parsePropertyValue(ctx.containsExpression().propertyValue()));
     } else {
-      operator.setContains(false);
-      propertyValueContext = ctx.property().propertyValue();
-      operator.setKey(ctx.property().ID().getText());
+      return TagExpression.startsWith(ctx.startsWithExpression().ID().getText(),
+          parsePropertyValue(ctx.startsWithExpression().propertyValue()));
     }
-    String value;
-    if(propertyValueContext.STRING_LITERAL() != null) {
-      value = removeStringQuote(propertyValueContext.getText());
+  }
+
+  private String parsePropertyValue(PropertyValueContext propertyValueContext) {
+    if (propertyValueContext.STRING_LITERAL() != null) {
+      return removeStringQuote(propertyValueContext.getText());
     } else {
-      value = propertyValueContext.getText();
+      return propertyValueContext.getText();
     }
-    operator.setValue(value);
   }
 
   private FilterOperator parseOrExpression(OrExpressionContext ctx) {
@@ -1354,22 +1404,56 @@ public class LogicalGenerator extends SqlBaseBaseListener {
   }
 
   /**
-   * for delete command, time should only have an end time.
+   * for delete command, time should be like "time < XXX", "time > XXX", "time = XXX" or the
+   * conjunction of a lower bound and an upper bound like "time >= XXX and time <= XXX".
    *
    * @param operator delete logical plan
+   * @return the closed interval [startTime, endTime] of the data to be deleted
    */
-  private long parseDeleteTimeFilter(DeleteDataOperator operator) {
+  private Pair<Long, Long> parseDeleteTimeFilter(DeleteDataOperator operator) {
     FilterOperator filterOperator = operator.getFilterOperator();
-    if (filterOperator.getTokenIntType() != SQLConstant.LESSTHAN
-        && filterOperator.getTokenIntType() != SQLConstant.LESSTHANOREQUALTO) {
-      throw new SQLParserException(
-          "For delete command, where clause must be like : time < XXX or time <= XXX");
+    Pair<Long, Long> timeInterval = new Pair<>(Long.MIN_VALUE, Long.MAX_VALUE);
+    if (filterOperator.getTokenIntType() == SQLConstant.KW_AND
+        && filterOperator.getChildren().size() == 2) {
+      parseDeleteTimeBound(filterOperator.getChildren().get(0), timeInterval);
+      parseDeleteTimeBound(filterOperator.getChildren().get(1), timeInterval);
+    } else {
+      parseDeleteTimeBound(filterOperator, timeInterval);
+    }
+    if (timeInterval.left > timeInterval.right) {
+      throw new SQLParserException(String.format(
+          "For delete command, the lower bound of time %d is larger than the upper bound %d",
+          timeInterval.left, timeInterval.right));
+    }
+    return timeInterval;
+  }
+
+  private void parseDeleteTimeBound(FilterOperator filterOperator,
+      Pair<Long, Long> timeInterval) {
+    if (!(filterOperator instanceof BasicFunctionOperator)) {
+      throw new SQLParserException(DELETE_TIME_FILTER_ERROR);
     }
     long time = Long.parseLong(((BasicFunctionOperator) filterOperator).getValue());
-    if (filterOperator.getTokenIntType() == SQLConstant.LESSTHAN) {
-      time = time - 1;
+    switch (filterOperator.getTokenIntType()) {
+      case SQLConstant.LESSTHAN:
+        timeInterval.right = Math.min(timeInterval.right, time - 1);
+        break;
+      case SQLConstant.LESSTHANOREQUALTO:
+        timeInterval.right = Math.min(timeInterval.right, time);
+        break;
+      case SQLConstant.GREATERTHAN:
+        timeInterval.left = Math.max(timeInterval.left, time + 1);
+        break;
+      case SQLConstant.GREATERTHANOREQUALTO:
+        timeInterval.left = Math.max(timeInterval.left, time);
+        break;
+      case SQLConstant.EQUAL:
+        timeInterval.left = Math.max(timeInterval.left, time);
+        timeInterval.right = Math.min(timeInterval.right, time);
+        break;
+      default:
+        throw new SQLParserException(DELETE_TIME_FILTER_ERROR);
     }
-    return time;
   }
 
   private void checkMetadataArgs(String dataType, String encoding, String compressor) {
@@ -1405,6 +1489,10 @@ public class LogicalGenerator extends SqlBaseBaseListener {
   }
 
   private void checkDataTypeEncoding(TSDataType tsDataType, TSEncoding tsEncoding) {
+    if (tsEncoding.equals(TSEncoding.AUTO)) {
+      // the encoding of each chunk is chosen among the ones supporting the data type
+      return;
+    }
     boolean throwExp = false;
     switch (tsDataType) {
       case BOOLEAN:
@@ -1413,21 +1501,28 @@ public class LogicalGenerator extends SqlBaseBaseListener {
         }
         break;
       case INT32:
-      case INT64:
         if (!(tsEncoding.equals(TSEncoding.RLE) || tsEncoding.equals(TSEncoding.PLAIN)
             || tsEncoding.equals(TSEncoding.TS_2DIFF))) {
           throwExp = true;
         }
         break;
+      case INT64:
+        if (!(tsEncoding.equals(TSEncoding.RLE) || tsEncoding.equals(TSEncoding.PLAIN)
+            || tsEncoding.equals(TSEncoding.TS_2DIFF) || tsEncoding.equals(TSEncoding.TS_REGULAR))) {
+          throwExp = true;
+        }
+        break;
       case FLOAT:
       case DOUBLE:
         if (!(tsEncoding.equals(TSEncoding.RLE) || tsEncoding.equals(TSEncoding.PLAIN)
-            || tsEncoding.equals(TSEncoding.TS_2DIFF) || tsEncoding.equals(TSEncoding.GORILLA))) {
+            || tsEncoding.equals(TSEncoding.TS_2DIFF) || tsEncoding.equals(TSEncoding.GORILLA)
+            || tsEncoding.equals(TSEncoding.CHIMP) || tsEncoding.equals(TSEncoding.ELF))) {
           throwExp = true;
         }
         break;
       case TEXT:
-        if (!tsEncoding.equals(TSEncoding.PLAIN)) {
+        if (!(tsEncoding.equals(TSEncoding.PLAIN)
+            || tsEncoding.equals(TSEncoding.PLAIN_DICTIONARY))) {
           throwExp = true;
         }
         break;
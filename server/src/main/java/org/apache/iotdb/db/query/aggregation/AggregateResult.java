@@ -93,6 +93,22 @@ public abstract class AggregateResult {
   public abstract void updateResultUsingTimestamps(long[] timestamps, int length,
       IReaderByTimestamp dataReader) throws IOException;
 
+  /**
+   * @return true if the aggregation only uses the timestamps of the data, so the values of the
+   * pages need not be decoded
+   */
+  public boolean isTimeOnly() {
+    return false;
+  }
+
+  /**
+   * @return true if the aggregation can be calculated from the statistics, e.g., the statistics
+   * have the sketch the aggregation needs
+   */
+  public boolean canUpdateFromStatistics(Statistics statistics) {
+    return true;
+  }
+
   /**
    * Judge if aggregation results have been calculated. In other words, if the aggregated result
    * does not need to compute the remaining data, it returns true.
@@ -85,6 +85,11 @@ public class CountAggrResult extends AggregateResult {
     setLongValue(preValue);
   }
 
+  @Override
+  public boolean isTimeOnly() {
+    return true;
+  }
+
   @Override
   public boolean isCalculatedAggregationResult() {
     return false;
@@ -82,6 +82,11 @@ public class MaxTimeAggrResult extends AggregateResult {
     updateMaxTimeResult(time);
   }
 
+  @Override
+  public boolean isTimeOnly() {
+    return true;
+  }
+
   @Override
   public boolean isCalculatedAggregationResult() {
     return false;
@@ -80,6 +80,11 @@ public class MinTimeAggrResult extends AggregateResult {
     }
   }
 
+  @Override
+  public boolean isTimeOnly() {
+    return true;
+  }
+
   @Override
   public boolean isCalculatedAggregationResult() {
     return hasResult();
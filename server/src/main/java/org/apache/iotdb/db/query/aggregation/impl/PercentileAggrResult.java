@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.query.aggregation.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.db.qp.constant.SQLConstant;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * The approximate value at a rank in [0, 1] of a numeric series, e.g., 0.5 for the median. The
+ * rank is part of the aggregation name, e.g., "percentile_0.9", and the median is used if it is
+ * omitted.
+ */
+public class PercentileAggrResult extends SketchAggrResult {
+
+  private static final double DEFAULT_RANK = 0.5;
+
+  private double rank;
+
+  public PercentileAggrResult(TSDataType seriesDataType, double rank) {
+    super(TSDataType.DOUBLE, AggregationType.PERCENTILE, seriesDataType, true);
+    this.rank = rank;
+  }
+
+  public PercentileAggrResult(TSDataType seriesDataType) {
+    this(seriesDataType, DEFAULT_RANK);
+  }
+
+  public static String getAggregationName(String rank) {
+    return SQLConstant.PERCENTILE + "_" + rank;
+  }
+
+  /**
+   * @param aggregation the lower case aggregation name
+   * @return true if the aggregation is a percentile with or without a rank
+   */
+  public static boolean isPercentile(String aggregation) {
+    return aggregation.equals(SQLConstant.PERCENTILE)
+        || aggregation.startsWith(SQLConstant.PERCENTILE + "_");
+  }
+
+  /**
+   * @param aggregation the lower case aggregation name
+   */
+  public static double parseRank(String aggregation) {
+    if (aggregation.equals(SQLConstant.PERCENTILE)) {
+      return DEFAULT_RANK;
+    }
+    double rank = Double.parseDouble(aggregation.substring(SQLConstant.PERCENTILE.length() + 1));
+    if (!(rank >= 0 && rank <= 1)) {
+      throw new IllegalArgumentException("The rank of a percentile should be in [0, 1]: " + rank);
+    }
+    return rank;
+  }
+
+  @Override
+  public Double getResult() {
+    if (hasResult()) {
+      setDoubleValue(sketch.getQuantile(rank));
+    }
+    return hasResult() ? getDoubleValue() : null;
+  }
+
+  @Override
+  public boolean canUpdateFromStatistics(Statistics statistics) {
+    return super.canUpdateFromStatistics(statistics) && statistics.getSketch().hasQuantiles();
+  }
+
+  @Override
+  protected void deserializeSpecificFields(ByteBuffer buffer) {
+    super.deserializeSpecificFields(buffer);
+    this.rank = buffer.getDouble();
+  }
+
+  @Override
+  protected void serializeSpecificFields(OutputStream outputStream) throws IOException {
+    super.serializeSpecificFields(outputStream);
+    ReadWriteIOUtils.write(rank, outputStream);
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.query.aggregation.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.query.aggregation.AggregateResult;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.db.query.reader.series.IReaderByTimestamp;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * Base of the aggregations answered by a {@link ValueSketch}. The sketch is merged with the
+ * sketches of the chunks and the files, and the points of the pages are added to it one by one, so
+ * the statistics without sketches (e.g., page headers) cannot be used.
+ */
+public abstract class SketchAggrResult extends AggregateResult {
+
+  private TSDataType seriesDataType;
+  private final boolean needQuantiles;
+  protected ValueSketch sketch;
+  private long cnt = 0;
+
+  SketchAggrResult(TSDataType resultDataType, AggregationType aggregationType,
+      TSDataType seriesDataType, boolean needQuantiles) {
+    super(resultDataType, aggregationType);
+    this.seriesDataType = seriesDataType;
+    this.needQuantiles = needQuantiles;
+    reset();
+  }
+
+  private static ValueSketch createSketch(TSDataType seriesDataType) {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    return ValueSketch.create(seriesDataType, config.getQuantileSketchSize(),
+        config.getDistinctSketchPrecision());
+  }
+
+  @Override
+  protected boolean hasResult() {
+    return cnt > 0;
+  }
+
+  @Override
+  public boolean canUpdateFromStatistics(Statistics statistics) {
+    return statistics.hasSketch();
+  }
+
+  @Override
+  public void updateResultFromStatistics(Statistics statistics) throws QueryProcessException {
+    ValueSketch statisticsSketch = statistics.getSketch();
+    if (statisticsSketch == null) {
+      throw new QueryProcessException(String
+          .format("Aggregation %s needs the sketch of the statistics", getAggregationType()));
+    }
+    sketch.merge(statisticsSketch);
+    cnt += statistics.getCount();
+  }
+
+  @Override
+  public void updateResultFromPageData(BatchData dataInThisPage) throws IOException {
+    updateResultFromPageData(dataInThisPage, Long.MAX_VALUE);
+  }
+
+  @Override
+  public void updateResultFromPageData(BatchData dataInThisPage, long bound) throws IOException {
+    while (dataInThisPage.hasCurrent()) {
+      if (dataInThisPage.currentTime() >= bound) {
+        break;
+      }
+      updateSketch(dataInThisPage.currentValue());
+      dataInThisPage.next();
+    }
+  }
+
+  @Override
+  public void updateResultUsingTimestamps(long[] timestamps, int length,
+      IReaderByTimestamp dataReader) throws IOException {
+    for (int i = 0; i < length; i++) {
+      Object value = dataReader.getValueInTimestamp(timestamps[i]);
+      if (value != null) {
+        updateSketch(value);
+      }
+    }
+  }
+
+  private void updateSketch(Object value) throws IOException {
+    switch (seriesDataType) {
+      case INT32:
+        sketch.update((int) value);
+        break;
+      case INT64:
+        sketch.update((long) value);
+        break;
+      case FLOAT:
+        sketch.update((float) value);
+        break;
+      case DOUBLE:
+        sketch.update((double) value);
+        break;
+      case BOOLEAN:
+        if (needQuantiles) {
+          throw unsupportedDataType();
+        }
+        sketch.update((boolean) value);
+        break;
+      case TEXT:
+        if (needQuantiles) {
+          throw unsupportedDataType();
+        }
+        sketch.update((Binary) value);
+        break;
+      default:
+        throw unsupportedDataType();
+    }
+    cnt++;
+  }
+
+  private IOException unsupportedDataType() {
+    return new IOException(String.format("Unsupported data type in aggregation %s : %s",
+        getAggregationType(), seriesDataType));
+  }
+
+  @Override
+  public boolean isCalculatedAggregationResult() {
+    return false;
+  }
+
+  @Override
+  public void merge(AggregateResult another) {
+    SketchAggrResult anotherSketch = (SketchAggrResult) another;
+    if (anotherSketch.cnt == 0) {
+      return;
+    }
+    sketch.merge(anotherSketch.sketch);
+    cnt += anotherSketch.cnt;
+  }
+
+  @Override
+  protected void deserializeSpecificFields(ByteBuffer buffer) {
+    this.seriesDataType = TSDataType.deserialize(buffer.getShort());
+    this.cnt = buffer.getLong();
+    this.sketch = ValueSketch.deserialize(buffer);
+  }
+
+  @Override
+  protected void serializeSpecificFields(OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(seriesDataType, outputStream);
+    ReadWriteIOUtils.write(cnt, outputStream);
+    sketch.serialize(outputStream);
+  }
+
+  public long getCnt() {
+    return cnt;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    cnt = 0;
+    sketch = createSketch(seriesDataType);
+  }
+}
@@ -23,6 +23,7 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.UnClosedTsFileReader;
 import org.slf4j.Logger;
@@ -160,6 +161,10 @@ public class FileReaderManager implements IService {
 
       TsFileSequenceReader tsFileReader = !isClosed ? new UnClosedTsFileReader(filePath)
           : new TsFileSequenceReader(filePath);
+      if (isClosed && TSFileDescriptor.getInstance().getConfig().getMaxMappedMetadataNum() > 0) {
+        // the metadata of a sealed file never changes, so it can be read from a mapped buffer
+        tsFileReader.mapMetadata();
+      }
 
       readerMap.put(filePath, tsFileReader);
       return tsFileReader;
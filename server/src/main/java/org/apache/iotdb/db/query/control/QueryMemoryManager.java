@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.control;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.TestOnly;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+
+/**
+ * <p>
+ * QueryMemoryManager accounts the memory used by the data read ahead and the result buffers of
+ * each query, within the free memory used in query and the budget of a query. A query is admitted
+ * by register() only if a whole budget is free, and its memory is released by unregister() when it
+ * ends. The memory of the queries not registered (e.g., the internal ones) is not accounted.
+ * </p>
+ */
+public class QueryMemoryManager {
+
+  /**
+   * Estimated size of a TEXT value, as the sizes of the values are not known before reading them.
+   */
+  private static final int ESTIMATED_TEXT_SIZE = 32;
+
+  private final long totalMemory;
+  private long budgetPerQuery;
+  private long usedMemory = 0;
+
+  /**
+   * Map<queryId, used memory>
+   */
+  private final Map<Long, Long> queryUsedMemoryMap = new HashMap<>();
+
+  private QueryMemoryManager() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    this.totalMemory = config.getAllocateMemoryForQuery();
+    this.budgetPerQuery = config.getMemoryBudgetPerQuery() > 0
+        ? Math.min(config.getMemoryBudgetPerQuery(), totalMemory) : totalMemory / 10;
+  }
+
+  QueryMemoryManager(long totalMemory, long budgetPerQuery) {
+    this.totalMemory = totalMemory;
+    this.budgetPerQuery = budgetPerQuery;
+  }
+
+  public static QueryMemoryManager getInstance() {
+    return QueryMemoryManagerHolder.INSTANCE;
+  }
+
+  /**
+   * Admit a query if the free memory can hold its whole budget.
+   *
+   * @return false if the query is rejected
+   */
+  public synchronized boolean register(long queryId) {
+    if (totalMemory - usedMemory < budgetPerQuery) {
+      return false;
+    }
+    queryUsedMemoryMap.put(queryId, 0L);
+    return true;
+  }
+
+  /**
+   * Release all memory of a query, the later allocations of the query are not accounted.
+   */
+  public synchronized void unregister(long queryId) {
+    Long queryUsedMemory = queryUsedMemoryMap.remove(queryId);
+    if (queryUsedMemory != null) {
+      usedMemory -= queryUsedMemory;
+    }
+  }
+
+  public synchronized boolean isRegistered(long queryId) {
+    return queryUsedMemoryMap.containsKey(queryId);
+  }
+
+  /**
+   * @return false if the memory exceeds the budget of the query or the free memory, in which case
+   * nothing is allocated
+   */
+  public synchronized boolean tryAllocate(long queryId, long size) {
+    Long queryUsedMemory = queryUsedMemoryMap.get(queryId);
+    if (queryUsedMemory == null) {
+      return true;
+    }
+    if (queryUsedMemory + size > budgetPerQuery || usedMemory + size > totalMemory) {
+      return false;
+    }
+    queryUsedMemoryMap.put(queryId, queryUsedMemory + size);
+    usedMemory += size;
+    return true;
+  }
+
+  public synchronized void release(long queryId, long size) {
+    Long queryUsedMemory = queryUsedMemoryMap.get(queryId);
+    if (queryUsedMemory == null) {
+      return;
+    }
+    queryUsedMemoryMap.put(queryId, queryUsedMemory - size);
+    usedMemory -= size;
+  }
+
+  /**
+   * Allocate the memory of a result buffer, whose rows are reduced to fit the free memory of the
+   * query, but at least one row is allocated so that the query can always move on.
+   *
+   * @return the number of the allocated rows, whose memory should be released by
+   * release(queryId, rowNum * rowSize) once the buffer is sent
+   */
+  public synchronized int allocateRows(long queryId, int rowNum, long rowSize) {
+    Long queryUsedMemory = queryUsedMemoryMap.get(queryId);
+    if (queryUsedMemory == null) {
+      return rowNum;
+    }
+    long freeMemory = Math.min(budgetPerQuery - queryUsedMemory, totalMemory - usedMemory);
+    int allocatedRowNum = (int) Math.max(1, Math.min(rowNum, freeMemory / rowSize));
+    long size = allocatedRowNum * rowSize;
+    queryUsedMemoryMap.put(queryId, queryUsedMemory + size);
+    usedMemory += size;
+    return allocatedRowNum;
+  }
+
+  public synchronized long getUsedMemory(long queryId) {
+    return queryUsedMemoryMap.getOrDefault(queryId, 0L);
+  }
+
+  public synchronized long getUsedMemory() {
+    return usedMemory;
+  }
+
+  public synchronized long getBudgetPerQuery() {
+    return budgetPerQuery;
+  }
+
+  @TestOnly
+  public synchronized void setBudgetPerQuery(long budgetPerQuery) {
+    this.budgetPerQuery = budgetPerQuery;
+  }
+
+  public static long estimateSize(BatchData batchData) {
+    return batchData.length() * (Long.BYTES + estimateSize(batchData.getDataType()));
+  }
+
+  /**
+   * @return the estimated size of a row of the given columns, including its timestamp
+   */
+  public static long estimateRowSize(List<TSDataType> dataTypes) {
+    long rowSize = Long.BYTES;
+    for (TSDataType dataType : dataTypes) {
+      rowSize += estimateSize(dataType);
+    }
+    return rowSize;
+  }
+
+  private static int estimateSize(TSDataType dataType) {
+    if (dataType == null) {
+      return 0;
+    }
+    switch (dataType) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case FLOAT:
+        return Integer.BYTES;
+      case INT64:
+      case DOUBLE:
+        return Long.BYTES;
+      case TEXT:
+      default:
+        return ESTIMATED_TEXT_SIZE;
+    }
+  }
+
+  private static class QueryMemoryManagerHolder {
+
+    private static final QueryMemoryManager INSTANCE = new QueryMemoryManager();
+
+    private QueryMemoryManagerHolder() {
+    }
+  }
+}
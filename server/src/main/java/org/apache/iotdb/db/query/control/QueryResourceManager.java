@@ -30,6 +30,7 @@ import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -82,7 +83,36 @@ public class QueryResourceManager {
    */
   public void registerTempExternalSortFile(long queryId,
       IExternalSortFileDeserializer deserializer) {
-    externalSortFileMap.computeIfAbsent(queryId, x -> new ArrayList<>()).add(deserializer);
+    // the files may be registered by the read tasks of a query concurrently
+    externalSortFileMap.compute(queryId, (id, deserializers) -> {
+      List<IExternalSortFileDeserializer> list =
+          deserializers != null ? deserializers : Collections.synchronizedList(new ArrayList<>());
+      list.add(deserializer);
+      return list;
+    });
+  }
+
+  /**
+   * Register a temporary file of the data spilled by a query, unless the memory of the query is
+   * already released by endQuery(), in which case the file should be deleted by the caller.
+   *
+   * @return false if the query has ended
+   */
+  public boolean registerSpilledFile(long queryId, IExternalSortFileDeserializer deserializer) {
+    boolean[] registered = new boolean[1];
+    // endQuery() unregisters the query before removing its files, so a file registered here is
+    // either removed by endQuery() or rejected
+    externalSortFileMap.compute(queryId, (id, deserializers) -> {
+      if (!QueryMemoryManager.getInstance().isRegistered(queryId)) {
+        return deserializers;
+      }
+      List<IExternalSortFileDeserializer> list =
+          deserializers != null ? deserializers : Collections.synchronizedList(new ArrayList<>());
+      list.add(deserializer);
+      registered[0] = true;
+      return list;
+    });
+    return registered[0];
   }
 
 
@@ -99,16 +129,21 @@ public class QueryResourceManager {
    * query tokens created by this jdbc request must be cleared.
    */
   public void endQuery(long queryId) throws StorageEngineException {
+    // release the memory of the data read ahead and the result buffers, after which no more data
+    // of the query is spilled
+    QueryMemoryManager.getInstance().unregister(queryId);
     // close file stream of external sort files, and delete
-    if (externalSortFileMap.get(queryId) != null) {
-      for (IExternalSortFileDeserializer deserializer : externalSortFileMap.get(queryId)) {
-        try {
-          deserializer.close();
-        } catch (IOException e) {
-          throw new StorageEngineException(e);
+    List<IExternalSortFileDeserializer> deserializers = externalSortFileMap.remove(queryId);
+    if (deserializers != null) {
+      synchronized (deserializers) {
+        for (IExternalSortFileDeserializer deserializer : deserializers) {
+          try {
+            deserializer.close();
+          } catch (IOException e) {
+            throw new StorageEngineException(e);
+          }
         }
       }
-      externalSortFileMap.remove(queryId);
     }
     // remove usage of opened file paths of current thread
     filePathsManager.removeUsedFilesForQuery(queryId);
@@ -20,12 +20,20 @@
 package org.apache.iotdb.db.query.dataset;
 
 import org.apache.iotdb.db.concurrent.WrappedRunnable;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.query.control.QueryMemoryManager;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileDeserializer;
+import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileSerializer;
+import org.apache.iotdb.db.query.externalsort.serialize.impl.FixLengthIExternalSortFileDeserializer;
+import org.apache.iotdb.db.query.externalsort.serialize.impl.FixLengthTimeValuePairSerializer;
 import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.series.ManagedSeriesReader;
 import org.apache.iotdb.db.tools.watermark.WatermarkEncoder;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
 import org.apache.iotdb.tsfile.read.common.*;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
@@ -34,6 +42,7 @@ import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -41,6 +50,7 @@ import java.util.List;
 import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
 
@@ -49,12 +59,14 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
     private final ManagedSeriesReader reader;
     private final String pathName;
     private BlockingQueue<BatchData> blockingQueue;
+    private final long queryId;
 
     public ReadTask(ManagedSeriesReader reader,
-        BlockingQueue<BatchData> blockingQueue, String pathName) {
+        BlockingQueue<BatchData> blockingQueue, String pathName, long queryId) {
       this.reader = reader;
       this.blockingQueue = blockingQueue;
       this.pathName = pathName;
+      this.queryId = queryId;
     }
 
     @Override
@@ -70,6 +82,11 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
             if (batchData.isEmpty()) {
               continue;
             }
+            if (!MEMORY_MANAGER.tryAllocate(queryId, QueryMemoryManager.estimateSize(batchData))) {
+              // the read ahead data beyond the memory budget of the query is kept in a file, the
+              // allocation fails only if the query is still registered
+              batchData = spill(batchData);
+            }
             blockingQueue.put(batchData);
             // if the queue also has free space, just submit another itself
             if (blockingQueue.remainingCapacity() > 0) {
@@ -102,6 +119,32 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
       }
     }
 
+    private BatchData spill(BatchData batchData) throws IOException {
+      String tmpFilePath = IoTDBDescriptor.getInstance().getConfig().getQueryDir()
+          + File.separator + queryId + "_" + SPILL_FILE_ID.incrementAndGet();
+      IExternalSortFileSerializer serializer = new FixLengthTimeValuePairSerializer(tmpFilePath);
+      try {
+        while (batchData.hasCurrent()) {
+          serializer.write(
+              new TimeValuePair(batchData.currentTime(), batchData.currentTsPrimitiveType()));
+          batchData.next();
+        }
+      } finally {
+        serializer.close();
+      }
+      // the file is opened when it is loaded
+      IExternalSortFileDeserializer deserializer =
+          new FixLengthIExternalSortFileDeserializer(tmpFilePath);
+      // the file is deleted when the query ends if it is not read by then
+      if (!QueryResourceManager.getInstance().registerSpilledFile(queryId, deserializer)) {
+        // the query has ended while spilling, so the data will never be read
+        deserializer.close();
+        batchData.resetBatchData();
+        return batchData;
+      }
+      return new SpilledBatchData(batchData.getDataType(), deserializer);
+    }
+
     private void putExceptionBatchData(Exception e, String logMessage) {
       try {
         LOGGER.error(logMessage, e);
@@ -115,6 +158,38 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
 
   }
 
+  /**
+   * The read ahead data of a series, which is kept in a temporary file as it exceeds the memory
+   * budget of the query.
+   */
+  private static class SpilledBatchData extends BatchData {
+
+    private final transient IExternalSortFileDeserializer deserializer;
+
+    private SpilledBatchData(TSDataType dataType, IExternalSortFileDeserializer deserializer) {
+      super(dataType);
+      this.deserializer = deserializer;
+    }
+
+    /**
+     * Read the data back and delete the file.
+     */
+    private BatchData load() throws IOException {
+      BatchData batchData = new BatchData(getDataType());
+      try {
+        while (deserializer.hasNextTimeValuePair()) {
+          TimeValuePair timeValuePair = deserializer.nextTimeValuePair();
+          batchData.putAnObject(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue());
+        }
+      } finally {
+        deserializer.close();
+      }
+      return batchData;
+    }
+  }
+
+  private final long queryId;
+
   private List<ManagedSeriesReader> seriesReaderList;
 
   private TreeSet<Long> timeHeap;
@@ -139,6 +214,10 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
 
   private static final QueryTaskPoolManager TASK_POOL_MANAGER = QueryTaskPoolManager.getInstance();
 
+  private static final QueryMemoryManager MEMORY_MANAGER = QueryMemoryManager.getInstance();
+
+  private static final AtomicLong SPILL_FILE_ID = new AtomicLong();
+
   private static final Logger LOGGER = LoggerFactory
       .getLogger(RawQueryDataSetWithoutValueFilter.class);
 
@@ -149,10 +228,12 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
    * @param paths     paths in List structure
    * @param dataTypes time series data type
    * @param readers   readers in List(IPointReader) structure
+   * @param queryId   id of the query, whose memory budget limits the data read ahead
    */
   public RawQueryDataSetWithoutValueFilter(List<Path> paths, List<TSDataType> dataTypes,
-      List<ManagedSeriesReader> readers) throws IOException, InterruptedException {
+      List<ManagedSeriesReader> readers, long queryId) throws IOException, InterruptedException {
     super(paths, dataTypes);
+    this.queryId = queryId;
     this.seriesReaderList = readers;
     blockingQueueArray = new BlockingQueue[readers.size()];
     for (int i = 0; i < seriesReaderList.size(); i++) {
@@ -170,7 +251,7 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
       reader.setHasRemaining(true);
       reader.setManagedByQueryManager(true);
       TASK_POOL_MANAGER
-          .submit(new ReadTask(reader, blockingQueueArray[i], paths.get(i).getFullPath()));
+          .submit(new ReadTask(reader, blockingQueueArray[i], paths.get(i).getFullPath(), queryId));
     }
     for (int i = 0; i < seriesReaderList.size(); i++) {
       fillCache(i);
@@ -364,6 +445,11 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
       }
 
     } else {   // there are more batch data in this time series queue
+      if (batchData instanceof SpilledBatchData) {
+        batchData = ((SpilledBatchData) batchData).load();
+      } else {
+        MEMORY_MANAGER.release(queryId, QueryMemoryManager.estimateSize(batchData));
+      }
       cachedBatchDataArray[seriesIndex] = batchData;
 
       synchronized (seriesReaderList.get(seriesIndex)) {
@@ -376,7 +462,7 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
           if (!reader.isManagedByQueryManager() && reader.hasRemaining()) {
             reader.setManagedByQueryManager(true);
             TASK_POOL_MANAGER.submit(new ReadTask(reader, blockingQueueArray[seriesIndex],
-                paths.get(seriesIndex).getFullPath()));
+                paths.get(seriesIndex).getFullPath(), queryId));
           }
         }
       }
@@ -48,6 +48,8 @@ public class LocalGroupByExecutor implements GroupByExecutor {
   // Aggregate result buffer of this path
   private List<AggregateResult> results = new ArrayList<>();
   private TimeRange timeRange;
+  // if all the aggregations only use the timestamps, the values of the pages are not decoded
+  private boolean timeOnly = true;
 
   public LocalGroupByExecutor(Path path, Set<String> allSensors, TSDataType dataType,
       QueryContext context, Filter timeFilter, TsFileFilter fileFilter)
@@ -65,6 +67,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
   @Override
   public void addAggregateResult(AggregateResult aggrResult) {
     results.add(aggrResult);
+    timeOnly = timeOnly && aggrResult.isTimeOnly();
   }
 
   private boolean isEndCalc() {
@@ -111,6 +114,15 @@ public class LocalGroupByExecutor implements GroupByExecutor {
     }
   }
 
+  private boolean canUseStatistics(Statistics statistics) {
+    for (AggregateResult result : results) {
+      if (!result.isCalculatedAggregationResult() && !result.canUpdateFromStatistics(statistics)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void calcFromStatistics(Statistics pageStatistics) throws QueryProcessException {
     for (AggregateResult result : results) {
       // cacl is compile
@@ -152,7 +164,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
         return results;
       }
       // calc from fileMetaData
-      if (reader.canUseCurrentFileStatistics()
+      if (reader.canUseCurrentFileStatistics() && canUseStatistics(fileStatistics)
           && timeRange.contains(fileStatistics.getStartTime(), fileStatistics.getEndTime())) {
         calcFromStatistics(fileStatistics);
         reader.skipCurrentFile();
@@ -176,7 +188,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
         return true;
       }
       // calc from chunkMetaData
-      if (reader.canUseCurrentChunkStatistics()
+      if (reader.canUseCurrentChunkStatistics() && canUseStatistics(chunkStatistics)
           && timeRange.contains(chunkStatistics.getStartTime(), chunkStatistics.getEndTime())) {
         calcFromStatistics(chunkStatistics);
         reader.skipCurrentChunk();
@@ -200,7 +212,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
           return true;
         }
         // can use pageHeader
-        if (reader.canUseCurrentPageStatistics()
+        if (reader.canUseCurrentPageStatistics() && canUseStatistics(pageStatistics)
             && timeRange.contains(pageStatistics.getStartTime(), pageStatistics.getEndTime())) {
           calcFromStatistics(pageStatistics);
           reader.skipCurrentPage();
@@ -211,7 +223,7 @@ public class LocalGroupByExecutor implements GroupByExecutor {
         }
       }
       // calc from page data
-      BatchData batchData = reader.nextPage();
+      BatchData batchData = timeOnly ? reader.nextPageTimes() : reader.nextPage();
       if (batchData == null || !batchData.hasCurrent()) {
         continue;
       }
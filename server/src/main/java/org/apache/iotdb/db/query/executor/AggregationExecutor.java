@@ -152,7 +152,8 @@ public class AggregationExecutor {
 
     while (seriesReader.hasNextFile()) {
       // cal by file statistics
-      if (seriesReader.canUseCurrentFileStatistics()) {
+      if (seriesReader.canUseCurrentFileStatistics() && canUseStatistics(aggregateResultList,
+          isCalculatedArray, seriesReader.currentFileStatistics())) {
         Statistics fileStatistics = seriesReader.currentFileStatistics();
         remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
                 remainingToCalculate, fileStatistics);
@@ -165,7 +166,8 @@ public class AggregationExecutor {
 
       while (seriesReader.hasNextChunk()) {
         // cal by chunk statistics
-        if (seriesReader.canUseCurrentChunkStatistics()) {
+        if (seriesReader.canUseCurrentChunkStatistics() && canUseStatistics(aggregateResultList,
+            isCalculatedArray, seriesReader.currentChunkStatistics())) {
           Statistics chunkStatistics = seriesReader.currentChunkStatistics();
           remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
                   remainingToCalculate, chunkStatistics);
@@ -186,6 +188,20 @@ public class AggregationExecutor {
 
   }
 
+  /**
+   * @return true if all the aggregations that have not been calculated can use the statistics
+   */
+  private static boolean canUseStatistics(List<AggregateResult> aggregateResultList,
+      boolean[] isCalculatedArray, Statistics statistics) {
+    for (int i = 0; i < aggregateResultList.size(); i++) {
+      if (!isCalculatedArray[i] && !aggregateResultList.get(i)
+          .canUpdateFromStatistics(statistics)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Aggregate each result in the list with the statistics
    * @param aggregateResultList
@@ -220,7 +236,8 @@ public class AggregationExecutor {
       throws IOException, QueryProcessException {
     while (seriesReader.hasNextPage()) {
       //cal by page statistics
-      if (seriesReader.canUseCurrentPageStatistics()) {
+      if (seriesReader.canUseCurrentPageStatistics() && canUseStatistics(aggregateResultList,
+          isCalculatedArray, seriesReader.currentPageStatistics())) {
         Statistics pageStatistic = seriesReader.currentPageStatistics();
         remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
             remainingToCalculate, pageStatistic);
@@ -230,7 +247,10 @@ public class AggregationExecutor {
         seriesReader.skipCurrentPage();
         continue;
       }
-      BatchData nextOverlappedPageData = seriesReader.nextPage();
+      // count, min_time and max_time only need the timestamps of a partial page
+      BatchData nextOverlappedPageData =
+          isTimeOnly(aggregateResultList, isCalculatedArray) ? seriesReader.nextPageTimes()
+              : seriesReader.nextPage();
       for (int i = 0; i < aggregateResultList.size(); i++) {
         if (!isCalculatedArray[i]) {
           AggregateResult aggregateResult = aggregateResultList.get(i);
@@ -249,6 +269,19 @@ public class AggregationExecutor {
     return remainingToCalculate;
   }
 
+  /**
+   * @return true if all the aggregations that have not been calculated only use the timestamps
+   */
+  private static boolean isTimeOnly(List<AggregateResult> aggregateResultList,
+      boolean[] isCalculatedArray) {
+    for (int i = 0; i < aggregateResultList.size(); i++) {
+      if (!isCalculatedArray[i] && !aggregateResultList.get(i).isTimeOnly()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * execute aggregate function with value filter.
    *
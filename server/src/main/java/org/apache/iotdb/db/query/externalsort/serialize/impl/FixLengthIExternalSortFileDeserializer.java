@@ -44,8 +44,18 @@ public class FixLengthIExternalSortFileDeserializer implements IExternalSortFile
   private InputStream inputStream;
   private String tmpFilePath;
 
-  public FixLengthIExternalSortFileDeserializer(String tmpFilePath) throws IOException {
+  /**
+   * The file is opened when it is read for the first time, so that the files waiting to be read do
+   * not hold file descriptors.
+   */
+  public FixLengthIExternalSortFileDeserializer(String tmpFilePath) {
     this.tmpFilePath = tmpFilePath;
+  }
+
+  private void open() throws IOException {
+    if (inputStream != null) {
+      return;
+    }
     inputStream = new BufferedInputStream(new FileInputStream(tmpFilePath));
     TSDataType dataType = readHeader();
     setReader(dataType);
@@ -53,17 +63,21 @@ public class FixLengthIExternalSortFileDeserializer implements IExternalSortFile
 
   @Override
   public boolean hasNextTimeValuePair() throws IOException {
+    open();
     return inputStream.available() > 0;
   }
 
   @Override
   public TimeValuePair nextTimeValuePair() throws IOException {
+    open();
     return reader.read(inputStream);
   }
 
   @Override
   public void close() throws IOException {
-    inputStream.close();
+    if (inputStream != null) {
+      inputStream.close();
+    }
     File file = new File(tmpFilePath);
     if (!file.exists()) {
       return;
@@ -16,27 +16,76 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package org.apache.iotdb.db.query.reader.resource;
 
-import org.apache.iotdb.db.query.reader.chunk.ChunkDataIterator;
-import org.apache.iotdb.db.query.reader.universal.CachedPriorityMergeReader;
+import org.apache.iotdb.db.query.reader.universal.BatchPriorityMergeReader;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.reader.IPointReader;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
 
 import java.io.IOException;
 import java.util.List;
 
-public class CachedUnseqResourceMergeReader extends CachedPriorityMergeReader {
+/**
+ * Merges the unsequence chunks of a timeseries by a {@link BatchPriorityMergeReader}, the later
+ * chunks having higher priorities. The merged points are cached in batches, and the returned
+ * TimeValuePair is reused, so it is only valid until the next call.
+ */
+public class CachedUnseqResourceMergeReader implements IPointReader {
+
+  private static final int CACHE_SIZE = 1024;
+
+  private final TSDataType dataType;
+  private final BatchPriorityMergeReader mergeReader;
+  private BatchData cachedBatchData;
+  private final TimeValuePair currentTimeValuePair;
 
   public CachedUnseqResourceMergeReader(List<Chunk> chunks, TSDataType dataType)
       throws IOException {
-    super(dataType);
+    this.dataType = dataType;
+    this.mergeReader = new BatchPriorityMergeReader(dataType);
     int priorityValue = 1;
     for (Chunk chunk : chunks) {
-      ChunkReader chunkReader = new ChunkReader(chunk, null);
-      addReader(new ChunkDataIterator(chunkReader), priorityValue++);
+      mergeReader.addReader(new ChunkReader(chunk, null), priorityValue++);
+    }
+    this.currentTimeValuePair = TimeValuePairUtils.getEmptyTimeValuePair(dataType);
+  }
+
+  @Override
+  public boolean hasNextTimeValuePair() throws IOException {
+    if (cachedBatchData != null && cachedBatchData.hasCurrent()) {
+      return true;
+    }
+    if (!mergeReader.hasNext()) {
+      return false;
     }
+    cachedBatchData = new BatchData(dataType);
+    mergeReader.nextBatch(cachedBatchData, CACHE_SIZE);
+    return cachedBatchData.hasCurrent();
+  }
+
+  @Override
+  public TimeValuePair nextTimeValuePair() throws IOException {
+    TimeValuePair timeValuePair = currentTimeValuePair();
+    cachedBatchData.next();
+    return timeValuePair;
+  }
+
+  @Override
+  public TimeValuePair currentTimeValuePair() throws IOException {
+    if (!hasNextTimeValuePair()) {
+      throw new IOException("no next data");
+    }
+    TimeValuePairUtils.setCurrentTimeValuePair(cachedBatchData, currentTimeValuePair);
+    return currentTimeValuePair;
+  }
+
+  @Override
+  public void close() throws IOException {
+    mergeReader.close();
   }
 }
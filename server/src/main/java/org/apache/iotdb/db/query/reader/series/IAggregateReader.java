@@ -57,4 +57,10 @@ public interface IAggregateReader {
 
   BatchData nextPage() throws IOException;
 
+  /**
+   * Like {@link #nextPage()}, but the values of a non-overlapped page are not decoded, so only the
+   * timestamps of the returned BatchData can be read. Only be used without value filter.
+   */
+  BatchData nextPageTimes() throws IOException;
+
 }
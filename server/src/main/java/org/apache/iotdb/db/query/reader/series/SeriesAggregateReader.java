@@ -116,6 +116,11 @@ public class SeriesAggregateReader implements IAggregateReader {
     return seriesReader.nextPage();
   }
 
+  @Override
+  public BatchData nextPageTimes() throws IOException {
+    return seriesReader.nextPageTimes();
+  }
+
   private boolean containedByTimeFilter(Statistics statistics) {
     Filter timeFilter = seriesReader.getTimeFilter();
     return timeFilter == null
@@ -19,14 +19,23 @@
 package org.apache.iotdb.db.query.reader.series;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.utils.TestOnly;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -34,8 +43,22 @@ import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 public class SeriesRawDataBatchReader implements ManagedSeriesReader {
 
+  private static final QueryTaskPoolManager TASK_POOL_MANAGER = QueryTaskPoolManager.getInstance();
+
   private final SeriesReader seriesReader;
 
+  /*
+   * the non-overlapped chunks taken out of the series reader are decoded ahead by the query
+   * threads, their data are consumed in the order of the chunks before the data left in the series
+   * reader
+   */
+  private final int maxPrefetchedChunkNum =
+      IoTDBDescriptor.getInstance().getConfig().getPrefetchedChunkNumPerSeries();
+  private final Deque<FutureTask<List<BatchData>>> prefetchedChunks = new ArrayDeque<>();
+  private final Deque<BatchData> prefetchedBatchData = new ArrayDeque<>();
+  // the prefetching tasks not started yet do not touch the readers once the reader is closed
+  private volatile boolean closed = false;
+
   private boolean hasRemaining;
   private boolean managedByQueryManager;
 
@@ -76,7 +99,15 @@ public class SeriesRawDataBatchReader implements ManagedSeriesReader {
     }
 
     /*
-     * consume page data firstly
+     * consume prefetched chunk data firstly, they are before the pages of the series reader
+     */
+    if (readPrefetchedChunkData()) {
+      hasCachedBatchData = true;
+      return true;
+    }
+
+    /*
+     * consume page data secondly
      */
     if (readPageData()) {
       hasCachedBatchData = true;
@@ -84,7 +115,7 @@ public class SeriesRawDataBatchReader implements ManagedSeriesReader {
     }
 
     /*
-     * consume chunk data secondly
+     * consume chunk data thirdly
      */
     if (readChunkData()) {
       hasCachedBatchData = true;
@@ -115,7 +146,22 @@ public class SeriesRawDataBatchReader implements ManagedSeriesReader {
 
   @Override
   public void close() throws IOException {
-    //no resources need to close
+    closed = true;
+    // wait for the started tasks, as the file readers are released after the query is closed
+    for (FutureTask<List<BatchData>> prefetchedChunk : prefetchedChunks) {
+      // a task not started yet returns at once
+      prefetchedChunk.run();
+      try {
+        prefetchedChunk.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while closing the chunks decoded ahead");
+      } catch (ExecutionException e) {
+        // the data are dropped anyway
+      }
+    }
+    prefetchedChunks.clear();
+    prefetchedBatchData.clear();
   }
 
   @Override
@@ -140,13 +186,71 @@ public class SeriesRawDataBatchReader implements ManagedSeriesReader {
 
   private boolean readChunkData() throws IOException {
     while (seriesReader.hasNextChunk()) {
-      if (readPageData()) {
+      if (maxPrefetchedChunkNum > 0 && !seriesReader.isChunkOverlapped()) {
+        prefetchChunks();
+        if (readPrefetchedChunkData()) {
+          return true;
+        }
+      } else if (readPageData()) {
         return true;
       }
     }
     return false;
   }
 
+  /**
+   * Take the following non-overlapped chunks, including those of the next files, out of the series
+   * reader and submit their decoding, until an overlapped chunk or enough chunks are met. This
+   * should only be called when the series reader has no cached page.
+   */
+  private void prefetchChunks() throws IOException {
+    while (prefetchedChunks.size() < maxPrefetchedChunkNum) {
+      if (!seriesReader.hasNextChunk()) {
+        if (seriesReader.hasNextFile()) {
+          continue;
+        }
+        return;
+      }
+      if (seriesReader.isChunkOverlapped()) {
+        // left to the series reader, it is consumed after the prefetched chunks
+        return;
+      }
+      ChunkMetadata chunkMetadata = seriesReader.pollCurrentChunk();
+      FutureTask<List<BatchData>> prefetchedChunk = new FutureTask<>(
+          () -> closed ? Collections.emptyList() : seriesReader.readChunkData(chunkMetadata));
+      prefetchedChunks.add(prefetchedChunk);
+      TASK_POOL_MANAGER.submit(prefetchedChunk);
+    }
+  }
+
+  private boolean readPrefetchedChunkData() throws IOException {
+    while (prefetchedBatchData.isEmpty() && !prefetchedChunks.isEmpty()) {
+      prefetchedBatchData.addAll(getPrefetchedChunkData(prefetchedChunks.poll()));
+      // keep the query threads busy with the following chunks
+      prefetchChunks();
+    }
+    batchData = prefetchedBatchData.poll();
+    return batchData != null;
+  }
+
+  private List<BatchData> getPrefetchedChunkData(FutureTask<List<BatchData>> prefetchedChunk)
+      throws IOException {
+    // decode the chunk in this thread if no query thread has started it yet, as the query threads
+    // may be all busy with reading series, including this one
+    prefetchedChunk.run();
+    try {
+      return prefetchedChunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while decoding the chunks ahead");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
   private boolean readPageData() throws IOException {
     while (seriesReader.hasNextPage()) {
       batchData = seriesReader.nextPage();
@@ -22,7 +22,7 @@ import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
-import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
+import org.apache.iotdb.db.query.reader.universal.BatchPriorityMergeReader;
 import org.apache.iotdb.db.utils.FileLoaderUtils;
 import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.db.utils.TestOnly;
@@ -30,7 +30,6 @@ import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
-import org.apache.iotdb.tsfile.read.TimeValuePair;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
@@ -92,7 +91,7 @@ class SeriesReader {
   /*
    * point cache
    */
-  private PriorityMergeReader mergeReader = new PriorityMergeReader();
+  private final BatchPriorityMergeReader mergeReader;
 
   /*
    * result cache
@@ -111,6 +110,7 @@ class SeriesReader {
     this.unseqFileResource = sortUnSeqFileResources(dataSource.getUnseqResources());
     this.timeFilter = timeFilter;
     this.valueFilter = valueFilter;
+    this.mergeReader = new BatchPriorityMergeReader(dataType);
   }
 
   @TestOnly
@@ -125,20 +125,21 @@ class SeriesReader {
     this.unseqFileResource = sortUnSeqFileResources(unseqFileResource);
     this.timeFilter = timeFilter;
     this.valueFilter = valueFilter;
+    this.mergeReader = new BatchPriorityMergeReader(dataType);
   }
 
   boolean hasNextFile() throws IOException {
 
     if (!cachedPageReaders.isEmpty()
         || firstPageReader != null
-        || mergeReader.hasNextTimeValuePair()) {
+        || mergeReader.hasNext()) {
       throw new IOException(
           "all cached pages should be consumed first cachedPageReaders.isEmpty() is "
               + cachedPageReaders.isEmpty()
               + " firstPageReader != null is "
               + (firstPageReader != null)
-              + " mergeReader.hasNextTimeValuePair() = "
-              + mergeReader.hasNextTimeValuePair());
+              + " mergeReader.hasNext() = "
+              + mergeReader.hasNext());
     }
 
     if (firstChunkMetadata != null || !cachedChunkMetadata.isEmpty()) {
@@ -191,14 +192,14 @@ class SeriesReader {
   boolean hasNextChunk() throws IOException {
     if (!cachedPageReaders.isEmpty()
         || firstPageReader != null
-        || mergeReader.hasNextTimeValuePair()) {
+        || mergeReader.hasNext()) {
       throw new IOException(
           "all cached pages should be consumed first cachedPageReaders.isEmpty() is "
               + cachedPageReaders.isEmpty()
               + " firstPageReader != null is "
               + (firstPageReader != null)
-              + " mergeReader.hasNextTimeValuePair() = "
-              + mergeReader.hasNextTimeValuePair());
+              + " mergeReader.hasNext() = "
+              + mergeReader.hasNext());
     }
 
     if (firstChunkMetadata != null) {
@@ -282,6 +283,41 @@ class SeriesReader {
     firstChunkMetadata = null;
   }
 
+  /**
+   * Take the first chunk out of this reader like {@link #skipCurrentChunk()}, it should not be
+   * overlapped. Its data can then be read by {@link #readChunkData(ChunkMetadata)}.
+   */
+  ChunkMetadata pollCurrentChunk() throws IOException {
+    if (firstChunkMetadata == null) {
+      throw new IOException("no first chunk");
+    }
+    ChunkMetadata chunkMetadata = firstChunkMetadata;
+    firstChunkMetadata = null;
+    return chunkMetadata;
+  }
+
+  /**
+   * Read all satisfied data of a non-overlapped chunk taken by {@link #pollCurrentChunk()}, the
+   * value filter is pushed down as to a non-overlapped page. The state of this reader is not
+   * used, so it can be called by any thread.
+   *
+   * @return the non-empty data of the pages in the order of time
+   */
+  List<BatchData> readChunkData(ChunkMetadata chunkMetadata) throws IOException {
+    List<IPageReader> pageReaders = FileLoaderUtils.loadPageReaderList(chunkMetadata, timeFilter);
+    List<BatchData> batchDataList = new ArrayList<>(pageReaders.size());
+    for (IPageReader pageReader : pageReaders) {
+      if (valueFilter != null) {
+        pageReader.setFilter(valueFilter);
+      }
+      BatchData batchData = pageReader.getAllSatisfiedPageData();
+      if (batchData.hasCurrent()) {
+        batchDataList.add(batchData);
+      }
+    }
+    return batchDataList;
+  }
+
   /**
    * This method should be called after hasNextChunk() until no next page, make sure that all
    * overlapped pages are consumed
@@ -293,7 +329,7 @@ class SeriesReader {
      */
     if (hasCachedNextOverlappedPage) {
       return true;
-    } else if (mergeReader.hasNextTimeValuePair()) {
+    } else if (mergeReader.hasNext()) {
       if (hasNextOverlappedPage()) {
         cachedBatchData = nextOverlappedPage();
         if (cachedBatchData != null && cachedBatchData.hasCurrent()) {
@@ -399,7 +435,7 @@ class SeriesReader {
     /*
      * has a non-overlapped page in firstPageReader
      */
-    if (mergeReader.hasNextTimeValuePair()) {
+    if (mergeReader.hasNext()) {
       throw new IOException("overlapped data should be consumed first");
     }
 
@@ -452,6 +488,23 @@ class SeriesReader {
     }
   }
 
+  /**
+   * Like {@link #nextPage()}, but only the timestamps of a non-overlapped page are read, see {@link
+   * IPageReader#getAllSatisfiedPageTimes()}. An overlapped page is merged with its values, as the
+   * values of the overlapping points decide which of them is kept.
+   */
+  BatchData nextPageTimes() throws IOException {
+    if (!hasNextPage()) {
+      throw new IOException("no next page, neither non-overlapped nor overlapped");
+    }
+    if (hasCachedNextOverlappedPage || valueFilter != null) {
+      return nextPage();
+    }
+    BatchData batchData = firstPageReader.getAllSatisfiedPageTimes();
+    firstPageReader = null;
+    return batchData;
+  }
+
   /**
    * read overlapped data till currentLargestEndTime in mergeReader, if current batch does not
    * contain data, read till next currentLargestEndTime again
@@ -466,39 +519,33 @@ class SeriesReader {
 
     while (true) {
 
-      if (mergeReader.hasNextTimeValuePair()) {
+      if (mergeReader.hasNext()) {
 
         cachedBatchData = new BatchData(dataType);
         long currentPageEndTime = mergeReader.getCurrentLargestEndTime();
 
-        while (mergeReader.hasNextTimeValuePair()) {
+        while (mergeReader.hasNext()) {
 
           /*
-           * get current first point in mergeReader, this maybe overlapped latter
+           * get time of current first point in mergeReader, this maybe overlapped latter
            */
-          TimeValuePair timeValuePair = mergeReader.currentTimeValuePair();
+          long currentTime = mergeReader.currentTime();
 
-          if (timeValuePair.getTimestamp() > currentPageEndTime) {
+          if (currentTime > currentPageEndTime) {
             break;
           }
 
-          unpackAllOverlappedTsFilesToTimeSeriesMetadata(timeValuePair.getTimestamp());
-          unpackAllOverlappedTimeSeriesMetadataToCachedChunkMetadata(
-              timeValuePair.getTimestamp(), false);
-          unpackAllOverlappedChunkMetadataToCachedPageReaders(timeValuePair.getTimestamp(), false);
-          unpackAllOverlappedCachedPageReadersToMergeReader(timeValuePair.getTimestamp());
+          unpackAllOverlappedTsFilesToTimeSeriesMetadata(currentTime);
+          unpackAllOverlappedTimeSeriesMetadataToCachedChunkMetadata(currentTime, false);
+          unpackAllOverlappedChunkMetadataToCachedPageReaders(currentTime, false);
+          unpackAllOverlappedCachedPageReadersToMergeReader(currentTime);
 
           /*
-           * get the latest first point in mergeReader
+           * merge the points in mergeReader till the start of the data to be unpacked next, which
+           * may overlap them
            */
-          timeValuePair = mergeReader.nextTimeValuePair();
-
-          if (valueFilter == null
-              || valueFilter.satisfy(
-                  timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
-            cachedBatchData.putAnObject(
-                timeValuePair.getTimestamp(), timeValuePair.getValue().getValue());
-          }
+          mergeReader.nextBatch(cachedBatchData,
+              Math.min(currentPageEndTime, getNextUnpackedStartTime() - 1), valueFilter);
         }
         hasCachedNextOverlappedPage = cachedBatchData.hasCurrent();
         /*
@@ -530,7 +577,7 @@ class SeriesReader {
     }
 
     long currentPageEndTime;
-    if (mergeReader.hasNextTimeValuePair()) {
+    if (mergeReader.hasNext()) {
       currentPageEndTime = mergeReader.getCurrentLargestEndTime();
     } else {
       // put the first page into merge reader
@@ -555,12 +602,50 @@ class SeriesReader {
   }
 
   private void putPageReaderToMergeReader(VersionPageReader pageReader) throws IOException {
-    mergeReader.addReader(
-        pageReader.getAllSatisfiedPageData().getBatchDataIterator(),
+    mergeReader.addBatch(
+        pageReader.getAllSatisfiedPageData(),
         pageReader.version,
         pageReader.getEndTime());
   }
 
+  /**
+   * @return the smallest start time of the pages, chunks, TimeSeriesMetadata and files which are
+   * not put into mergeReader yet, or Long.MAX_VALUE if there is none
+   */
+  private long getNextUnpackedStartTime() {
+    long startTime = Long.MAX_VALUE;
+    if (firstPageReader != null) {
+      startTime = Math.min(startTime, firstPageReader.getStartTime());
+    }
+    if (!cachedPageReaders.isEmpty()) {
+      startTime = Math.min(startTime, cachedPageReaders.peek().getStartTime());
+    }
+    if (firstChunkMetadata != null) {
+      startTime = Math.min(startTime, firstChunkMetadata.getStartTime());
+    }
+    if (!cachedChunkMetadata.isEmpty()) {
+      startTime = Math.min(startTime, cachedChunkMetadata.peek().getStartTime());
+    }
+    if (firstTimeSeriesMetadata != null) {
+      startTime = Math.min(startTime, firstTimeSeriesMetadata.getStatistics().getStartTime());
+    }
+    if (!seqTimeSeriesMetadata.isEmpty()) {
+      startTime = Math.min(startTime, seqTimeSeriesMetadata.get(0).getStatistics().getStartTime());
+    }
+    if (!unSeqTimeSeriesMetadata.isEmpty()) {
+      startTime = Math.min(startTime, unSeqTimeSeriesMetadata.peek().getStatistics().getStartTime());
+    }
+    if (!seqFileResource.isEmpty()) {
+      startTime = Math.min(startTime,
+          seqFileResource.get(0).getStartTimeMap().get(seriesPath.getDevice()));
+    }
+    if (!unseqFileResource.isEmpty()) {
+      startTime = Math.min(startTime,
+          unseqFileResource.get(0).getStartTimeMap().get(seriesPath.getDevice()));
+    }
+    return startTime;
+  }
+
   private BatchData nextOverlappedPage() throws IOException {
     if (hasCachedNextOverlappedPage || hasNextOverlappedPage()) {
       hasCachedNextOverlappedPage = false;
@@ -718,6 +803,10 @@ class SeriesReader {
       return data.getAllSatisfiedPageData();
     }
 
+    BatchData getAllSatisfiedPageTimes() throws IOException {
+      return data.getAllSatisfiedPageTimes();
+    }
+
     void setFilter(Filter filter) {
       data.setFilter(filter);
     }
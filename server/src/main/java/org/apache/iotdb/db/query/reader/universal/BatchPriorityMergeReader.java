@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.universal;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.reader.IChunkReader;
+
+/**
+ * Like {@link PriorityMergeReader}, this class merges data sources with different priorities, of
+ * which only the point with the highest priority is kept at a timestamp. But the sources are
+ * batches, which are merged by a loser tree into a result batch without creating a TimeValuePair
+ * for each point, and the points of a source before the next point of any other source are copied
+ * at once.
+ */
+public class BatchPriorityMergeReader {
+
+  private final TSDataType dataType;
+
+  private Cursor[] cursors = new Cursor[4];
+  private int cursorNum = 0;
+
+  // tree[0] is the index of the winner cursor, tree[1, cursorNum) are the losers of the inner
+  // nodes, and the cursor i is the leaf cursorNum + i
+  private int[] tree = new int[4];
+
+  // largest end time of all added sources
+  private long currentLargestEndTime;
+
+  public BatchPriorityMergeReader(TSDataType dataType) {
+    this.dataType = dataType;
+  }
+
+  /**
+   * Add the unread points of a batch, which should be of the data type of this reader.
+   */
+  public void addBatch(BatchData batchData, long priority, long endTime) throws IOException {
+    addCursor(new Cursor(batchData, null, priority));
+    currentLargestEndTime = Math.max(currentLargestEndTime, endTime);
+  }
+
+  /**
+   * Add all satisfied pages of a chunk, they are read one by one while merging.
+   */
+  public void addReader(IChunkReader chunkReader, long priority) throws IOException {
+    addCursor(new Cursor(null, chunkReader, priority));
+  }
+
+  private void addCursor(Cursor cursor) throws IOException {
+    cursor.fetch();
+    if (cursor.exhausted) {
+      return;
+    }
+    // the exhausted cursors are removed when the tree is rebuilt
+    int newCursorNum = 0;
+    for (int i = 0; i < cursorNum; i++) {
+      if (!cursors[i].exhausted) {
+        cursors[newCursorNum++] = cursors[i];
+      }
+    }
+    Arrays.fill(cursors, newCursorNum, cursorNum, null);
+    if (newCursorNum == cursors.length) {
+      cursors = Arrays.copyOf(cursors, newCursorNum * 2);
+      tree = new int[newCursorNum * 2];
+    }
+    cursors[newCursorNum++] = cursor;
+    cursorNum = newCursorNum;
+    tree[0] = build(1);
+  }
+
+  /**
+   * @return the winner of the subtree of the node, whose loser is kept in the node
+   */
+  private int build(int node) {
+    if (node >= cursorNum) {
+      return node - cursorNum;
+    }
+    int left = build(node * 2);
+    int right = build(node * 2 + 1);
+    if (beats(left, right)) {
+      tree[node] = right;
+      return left;
+    }
+    tree[node] = left;
+    return right;
+  }
+
+  /**
+   * Update the tree after the winner cursor moves.
+   */
+  private void replay() {
+    int winner = tree[0];
+    for (int node = (winner + cursorNum) / 2; node > 0; node /= 2) {
+      if (beats(tree[node], winner)) {
+        int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  /**
+   * A cursor beats another one if its current point is earlier, or at the same time but of a
+   * higher priority.
+   */
+  private boolean beats(int a, int b) {
+    Cursor cursorA = cursors[a];
+    Cursor cursorB = cursors[b];
+    if (cursorA.exhausted || cursorB.exhausted) {
+      return cursorB.exhausted && !cursorA.exhausted;
+    }
+    return cursorA.time < cursorB.time
+        || cursorA.time == cursorB.time && cursorA.priority > cursorB.priority;
+  }
+
+  /**
+   * @return the best cursor except the winner, which is one of the losers on the path of the
+   * winner, or null if there is no other unexhausted cursor
+   */
+  private Cursor runnerUp() {
+    int runnerUp = -1;
+    for (int node = (tree[0] + cursorNum) / 2; node > 0; node /= 2) {
+      if (runnerUp == -1 || beats(tree[node], runnerUp)) {
+        runnerUp = tree[node];
+      }
+    }
+    return runnerUp == -1 || cursors[runnerUp].exhausted ? null : cursors[runnerUp];
+  }
+
+  public long getCurrentLargestEndTime() {
+    return currentLargestEndTime;
+  }
+
+  public boolean hasNext() {
+    return cursorNum > 0 && !cursors[tree[0]].exhausted;
+  }
+
+  /**
+   * @return the time of the next merged point, hasNext() should be true
+   */
+  public long currentTime() {
+    return cursors[tree[0]].time;
+  }
+
+  /**
+   * Merge the points until maxTime (inclusive) into the batch.
+   *
+   * @param valueFilter the filter of the merged points, null if all of them are kept
+   */
+  public void nextBatch(BatchData target, long maxTime, Filter valueFilter) throws IOException {
+    merge(target, maxTime, valueFilter, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Merge at most maxPointNum points into the batch.
+   */
+  public void nextBatch(BatchData target, int maxPointNum) throws IOException {
+    merge(target, Long.MAX_VALUE, null, maxPointNum);
+  }
+
+  private void merge(BatchData target, long maxTime, Filter valueFilter, int maxPointNum)
+      throws IOException {
+    int pointNum = 0;
+    while (pointNum < maxPointNum && hasNext()) {
+      Cursor winner = cursors[tree[0]];
+      if (winner.time > maxTime) {
+        return;
+      }
+      // the run of the winner ends before the next point of the others, or at it if the winner
+      // has the same timestamp and a higher priority
+      Cursor runnerUp = runnerUp();
+      long runEndTime = runnerUp == null ? maxTime
+          : Math.min(maxTime, Math.max(winner.time, runnerUp.time - 1));
+      pointNum += winner.copyRun(target, runEndTime, valueFilter, maxPointNum - pointNum);
+      long lastTime = winner.lastTime;
+      replay();
+      // skip the points overwritten by the copied ones
+      while (hasNext() && cursors[tree[0]].time <= lastTime) {
+        cursors[tree[0]].next();
+        replay();
+      }
+    }
+  }
+
+  public void close() throws IOException {
+    for (int i = 0; i < cursorNum; i++) {
+      if (!cursors[i].exhausted) {
+        cursors[i].close();
+      }
+    }
+    Arrays.fill(cursors, 0, cursorNum, null);
+    cursorNum = 0;
+  }
+
+  private class Cursor {
+
+    private BatchData batchData;
+    private final IChunkReader chunkReader;
+    private final long priority;
+
+    private boolean exhausted = false;
+    // time of the current point
+    private long time;
+    // time of the last point copied by copyRun()
+    private long lastTime;
+
+    private Cursor(BatchData batchData, IChunkReader chunkReader, long priority) {
+      this.batchData = batchData;
+      this.chunkReader = chunkReader;
+      this.priority = priority;
+    }
+
+    /**
+     * Move to the next page if the current one is consumed, and update the current time.
+     */
+    private void fetch() throws IOException {
+      while (batchData == null || !batchData.hasCurrent()) {
+        if (chunkReader == null || !chunkReader.hasNextSatisfiedPage()) {
+          exhausted = true;
+          close();
+          return;
+        }
+        batchData = chunkReader.nextPageData();
+      }
+      time = batchData.currentTime();
+    }
+
+    private void next() throws IOException {
+      batchData.next();
+      fetch();
+    }
+
+    /**
+     * Copy the points until runEndTime (inclusive), at least the current point is copied.
+     *
+     * @return the number of the copied points, including those not satisfying the filter
+     */
+    private int copyRun(BatchData target, long runEndTime, Filter valueFilter, int maxPointNum)
+        throws IOException {
+      int pointNum = 0;
+      while (!exhausted && pointNum < maxPointNum && time <= runEndTime) {
+        int limit = maxPointNum - pointNum;
+        int copied = valueFilter == null ? copyPage(target, runEndTime, limit)
+            : copyPage(target, runEndTime, valueFilter, limit);
+        pointNum += copied;
+        fetch();
+      }
+      return pointNum;
+    }
+
+    private int copyPage(BatchData target, long runEndTime, int limit) {
+      int pointNum = 0;
+      long currentTime;
+      switch (dataType) {
+        case BOOLEAN:
+          while (pointNum < limit && batchData.hasCurrent()
+              && (currentTime = batchData.currentTime()) <= runEndTime) {
+            target.putBoolean(currentTime, batchData.getBoolean());
+            lastTime = currentTime;
+            batchData.next();
+            pointNum++;
+          }
+          break;
+        case INT32:
+          while (pointNum < limit && batchData.hasCurrent()
+              && (currentTime = batchData.currentTime()) <= runEndTime) {
+            target.putInt(currentTime, batchData.getInt());
+            lastTime = currentTime;
+            batchData.next();
+            pointNum++;
+          }
+          break;
+        case INT64:
+          while (pointNum < limit && batchData.hasCurrent()
+              && (currentTime = batchData.currentTime()) <= runEndTime) {
+            target.putLong(currentTime, batchData.getLong());
+            lastTime = currentTime;
+            batchData.next();
+            pointNum++;
+          }
+          break;
+        case FLOAT:
+          while (pointNum < limit && batchData.hasCurrent()
+              && (currentTime = batchData.currentTime()) <= runEndTime) {
+            target.putFloat(currentTime, batchData.getFloat());
+            lastTime = currentTime;
+            batchData.next();
+            pointNum++;
+          }
+          break;
+        case DOUBLE:
+          while (pointNum < limit && batchData.hasCurrent()
+              && (currentTime = batchData.currentTime()) <= runEndTime) {
+            target.putDouble(currentTime, batchData.getDouble());
+            lastTime = currentTime;
+            batchData.next();
+            pointNum++;
+          }
+          break;
+        case TEXT:
+          while (pointNum < limit && batchData.hasCurrent()
+              && (currentTime = batchData.currentTime()) <= runEndTime) {
+            target.putBinary(currentTime, batchData.getBinary());
+            lastTime = currentTime;
+            batchData.next();
+            pointNum++;
+          }
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      }
+      return pointNum;
+    }
+
+    private int copyPage(BatchData target, long runEndTime, Filter valueFilter, int limit) {
+      int pointNum = 0;
+      long currentTime;
+      while (pointNum < limit && batchData.hasCurrent()
+          && (currentTime = batchData.currentTime()) <= runEndTime) {
+        Object value = batchData.currentValue();
+        if (valueFilter.satisfy(currentTime, value)) {
+          target.putAnObject(currentTime, value);
+        }
+        lastTime = currentTime;
+        batchData.next();
+        pointNum++;
+      }
+      return pointNum;
+    }
+
+    private void close() throws IOException {
+      if (chunkReader != null) {
+        chunkReader.close();
+      }
+    }
+  }
+}
@@ -36,7 +36,13 @@ public enum ServiceType {
   FILE_READER_MANAGER_SERVICE("File reader manager ServerService", ""),
   SYNC_SERVICE("SYNC ServerService", ""),
   UPGRADE_SERVICE("UPGRADE DataService", ""),
-  MERGE_SERVICE("Merge Manager", ""),
+  MERGE_SERVICE("Merge Manager",
+      generateJmxName(IoTDBConstant.IOTDB_PACKAGE, "Merge Manager")),
+  COMPACTION_SERVICE("Compaction Manager", ""),
+  IO_SCHEDULER_SERVICE("IO Scheduler",
+      generateJmxName(IoTDBConstant.IOTDB_PACKAGE, "IO Scheduler")),
+  ENCODING_SELECTION_SERVICE("Encoding Selection Monitor",
+      generateJmxName(IoTDBConstant.IOTDB_PACKAGE, "Encoding Selection")),
   PERFORMANCE_STATISTIC_SERVICE("PERFORMANCE_STATISTIC_SERVICE", "PERFORMANCE_STATISTIC_SERVICE"),
   MANAGE_DYNAMIC_PARAMETERS_SERVICE("Manage Dynamic Parameters", "Manage Dynamic Parameters"),
   TVLIST_ALLOCATOR_SERVICE("TVList Allocator", ""),
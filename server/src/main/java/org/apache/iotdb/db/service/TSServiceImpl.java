@@ -74,6 +74,7 @@ import org.apache.iotdb.db.qp.physical.sys.DeleteTimeSeriesPlan;
 import org.apache.iotdb.db.qp.physical.sys.SetStorageGroupPlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryMemoryManager;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.dataset.NonAlignEngineDataSet;
 import org.apache.iotdb.db.query.dataset.RawQueryDataSetWithoutValueFilter;
@@ -553,6 +554,11 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       resp.setOperationType(plan.getOperatorType().toString());
       // generate the queryId for the operation
       queryId = generateQueryId(true);
+      if (!QueryMemoryManager.getInstance().register(queryId)) {
+        releaseQueryResource(queryId);
+        return RpcUtils.getTSExecuteStatementResp(TSStatusCode.QUERY_NOT_ALLOWED,
+            "The memory for queries is used up by the running queries, please retry later");
+      }
       // put it into the corresponding Set
 
       statementId2QueryId.computeIfAbsent(statementId, k -> new HashSet<>()).add(queryId);
@@ -561,7 +567,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       QueryDataSet newDataSet = createQueryDataSet(queryId, plan);
       if (plan instanceof QueryPlan && !((QueryPlan) plan).isAlignByTime()
           && newDataSet instanceof NonAlignEngineDataSet) {
-        TSQueryNonAlignDataSet result = fillRpcNonAlignReturnData(fetchSize, newDataSet, username);
+        TSQueryNonAlignDataSet result = fillRpcNonAlignReturnData(queryId, fetchSize, newDataSet,
+            username);
         resp.setNonAlignQueryDataSet(result);
       } else {
         if (plan instanceof ShowPlan && ((ShowPlan) plan).getShowContentType() == TIMESERIES) {
@@ -570,7 +577,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
           resp.setDataTypeList(
               newDataSet.getDataTypes().stream().map(Enum::toString).collect(Collectors.toList()));
         }
-        TSQueryDataSet result = fillRpcReturnData(fetchSize, newDataSet, username);
+        TSQueryDataSet result = fillRpcReturnData(queryId, fetchSize, newDataSet, username);
         resp.setQueryDataSet(result);
       }
       resp.setQueryId(queryId);
@@ -807,7 +814,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       QueryDataSet queryDataSet = queryId2DataSet.get(req.queryId);
       if (req.isAlign) {
         TSQueryDataSet result =
-            fillRpcReturnData(req.fetchSize, queryDataSet, sessionIdUsernameMap.get(req.sessionId));
+            fillRpcReturnData(req.queryId, req.fetchSize, queryDataSet,
+                sessionIdUsernameMap.get(req.sessionId));
         boolean hasResultSet = result.bufferForTime().limit() != 0;
         if (!hasResultSet) {
           releaseQueryResource(req.queryId);
@@ -820,7 +828,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       } else {
         TSQueryNonAlignDataSet nonAlignResult =
             fillRpcNonAlignReturnData(
-                req.fetchSize, queryDataSet, sessionIdUsernameMap.get(req.sessionId));
+                req.queryId, req.fetchSize, queryDataSet, sessionIdUsernameMap.get(req.sessionId));
         boolean hasResultSet = false;
         for (ByteBuffer timeBuffer : nonAlignResult.getTimeList()) {
           if (timeBuffer.limit() != 0) {
@@ -848,8 +856,12 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
-  private TSQueryDataSet fillRpcReturnData(
-      int fetchSize, QueryDataSet queryDataSet, String userName)
+  /**
+   * The rows of the buffer are reduced to fit the free memory of the query, and its memory is
+   * released once it is filled, as it is sent right after.
+   */
+  private TSQueryDataSet fillRpcReturnData(long queryId, int fetchSize,
+      QueryDataSet queryDataSet, String userName)
       throws TException, AuthException, IOException, InterruptedException {
     IAuthorizer authorizer;
     try {
@@ -857,36 +869,43 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     } catch (AuthException e) {
       throw new TException(e);
     }
+    QueryMemoryManager memoryManager = QueryMemoryManager.getInstance();
+    long rowSize = QueryMemoryManager.estimateRowSize(queryDataSet.getDataTypes());
+    int rowNum = memoryManager.allocateRows(queryId, fetchSize, rowSize);
     TSQueryDataSet result;
 
-    if (config.isEnableWatermark() && authorizer.isUserUseWaterMark(userName)) {
-      WatermarkEncoder encoder;
-      if (config.getWatermarkMethodName().equals(IoTDBConfig.WATERMARK_GROUPED_LSB)) {
-        encoder = new GroupedLSBWatermarkEncoder(config);
-      } else {
-        throw new UnSupportedDataTypeException(
-            String.format(
-                "Watermark method is not supported yet: %s", config.getWatermarkMethodName()));
-      }
-      if (queryDataSet instanceof RawQueryDataSetWithoutValueFilter) {
-        // optimize for query without value filter
-        result = ((RawQueryDataSetWithoutValueFilter) queryDataSet).fillBuffer(fetchSize, encoder);
-      } else {
-        result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize, encoder);
-      }
-    } else {
-      if (queryDataSet instanceof RawQueryDataSetWithoutValueFilter) {
-        // optimize for query without value filter
-        result = ((RawQueryDataSetWithoutValueFilter) queryDataSet).fillBuffer(fetchSize, null);
+    try {
+      if (config.isEnableWatermark() && authorizer.isUserUseWaterMark(userName)) {
+        WatermarkEncoder encoder;
+        if (config.getWatermarkMethodName().equals(IoTDBConfig.WATERMARK_GROUPED_LSB)) {
+          encoder = new GroupedLSBWatermarkEncoder(config);
+        } else {
+          throw new UnSupportedDataTypeException(
+              String.format(
+                  "Watermark method is not supported yet: %s", config.getWatermarkMethodName()));
+        }
+        if (queryDataSet instanceof RawQueryDataSetWithoutValueFilter) {
+          // optimize for query without value filter
+          result = ((RawQueryDataSetWithoutValueFilter) queryDataSet).fillBuffer(rowNum, encoder);
+        } else {
+          result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, rowNum, encoder);
+        }
       } else {
-        result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
+        if (queryDataSet instanceof RawQueryDataSetWithoutValueFilter) {
+          // optimize for query without value filter
+          result = ((RawQueryDataSetWithoutValueFilter) queryDataSet).fillBuffer(rowNum, null);
+        } else {
+          result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, rowNum);
+        }
       }
+    } finally {
+      memoryManager.release(queryId, rowNum * rowSize);
     }
     return result;
   }
 
-  private TSQueryNonAlignDataSet fillRpcNonAlignReturnData(
-      int fetchSize, QueryDataSet queryDataSet, String userName)
+  private TSQueryNonAlignDataSet fillRpcNonAlignReturnData(long queryId, int fetchSize,
+      QueryDataSet queryDataSet, String userName)
       throws TException, AuthException, InterruptedException {
     IAuthorizer authorizer;
     try {
@@ -894,20 +913,30 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     } catch (AuthException e) {
       throw new TException(e);
     }
+    QueryMemoryManager memoryManager = QueryMemoryManager.getInstance();
+    // the rows of each series are buffered separately
+    List<TSDataType> dataTypes = queryDataSet.getDataTypes();
+    long rowSize = QueryMemoryManager.estimateRowSize(dataTypes)
+        + (long) Long.BYTES * Math.max(0, dataTypes.size() - 1);
+    int rowNum = memoryManager.allocateRows(queryId, fetchSize, rowSize);
     TSQueryNonAlignDataSet result;
 
-    if (config.isEnableWatermark() && authorizer.isUserUseWaterMark(userName)) {
-      WatermarkEncoder encoder;
-      if (config.getWatermarkMethodName().equals(IoTDBConfig.WATERMARK_GROUPED_LSB)) {
-        encoder = new GroupedLSBWatermarkEncoder(config);
+    try {
+      if (config.isEnableWatermark() && authorizer.isUserUseWaterMark(userName)) {
+        WatermarkEncoder encoder;
+        if (config.getWatermarkMethodName().equals(IoTDBConfig.WATERMARK_GROUPED_LSB)) {
+          encoder = new GroupedLSBWatermarkEncoder(config);
+        } else {
+          throw new UnSupportedDataTypeException(
+              String.format(
+                  "Watermark method is not supported yet: %s", config.getWatermarkMethodName()));
+        }
+        result = ((NonAlignEngineDataSet) queryDataSet).fillBuffer(rowNum, encoder);
       } else {
-        throw new UnSupportedDataTypeException(
-            String.format(
-                "Watermark method is not supported yet: %s", config.getWatermarkMethodName()));
+        result = ((NonAlignEngineDataSet) queryDataSet).fillBuffer(rowNum, null);
       }
-      result = ((NonAlignEngineDataSet) queryDataSet).fillBuffer(fetchSize, encoder);
-    } else {
-      result = ((NonAlignEngineDataSet) queryDataSet).fillBuffer(fetchSize, null);
+    } finally {
+      memoryManager.release(queryId, rowNum * rowSize);
     }
     return result;
   }
@@ -1146,6 +1175,15 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return new TSStatus(executePlan(plan));
   }
 
+  /**
+   * the rpc of tablets has no flag of alignment, so the tablets with enough measurements are taken
+   * as aligned devices
+   */
+  private boolean isAlignedTablet(int measurementNum) {
+    int minMeasurements = config.getAlignedTabletMinMeasurements();
+    return minMeasurements > 0 && measurementNum >= minMeasurements;
+  }
+
   @Override
   public TSExecuteBatchStatementResp insertTablet(TSInsertTabletReq req) {
     long t1 = System.currentTimeMillis();
@@ -1162,6 +1200,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
               req.values, req.types, req.measurements.size(), req.size));
       insertTabletPlan.setRowCount(req.size);
       insertTabletPlan.setDataTypes(req.types);
+      insertTabletPlan.setAligned(isAlignedTablet(req.measurements.size()));
 
       boolean isAllSuccessful = true;
       TSStatus status = checkAuthority(insertTabletPlan, req.getSessionId());
@@ -1216,6 +1255,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
                 req.sizeList.get(i)));
         insertTabletPlan.setRowCount(req.sizeList.get(i));
         insertTabletPlan.setDataTypes(req.typesList.get(i));
+        insertTabletPlan.setAligned(isAlignedTablet(req.measurementsList.get(i).size()));
 
         boolean isCurrentTabletSuccessful = true;
         TSStatus status = checkAuthority(insertTabletPlan, req.getSessionId());
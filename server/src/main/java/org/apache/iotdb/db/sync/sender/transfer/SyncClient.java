@@ -55,6 +55,8 @@ import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.SyncConnectionException;
 import org.apache.iotdb.db.exception.SyncDeviceOwnerConflictException;
@@ -603,6 +605,7 @@ public class SyncClient implements ISyncClient {
         try (FileInputStream fis = new FileInputStream(snapshotFile);
             ByteArrayOutputStream bos = new ByteArrayOutputStream(SyncConstant.DATA_CHUNK_SIZE)) {
           while ((dataLength = fis.read(buffer)) != -1) { // cut the file into pieces to send
+            IOScheduler.getInstance().acquire(IOType.SYNC, dataLength);
             bos.write(buffer, 0, dataLength);
             md.update(buffer, 0, dataLength);
             ByteBuffer buffToSend = ByteBuffer.wrap(bos.toByteArray());
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache;
+import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -55,6 +56,7 @@ public class FileLoaderUtils {
       try (TsFileSequenceReader reader = new TsFileSequenceReader(
           tsFileResource.getFile().getAbsolutePath())) {
         updateTsFileResource(reader, tsFileResource);
+        tsFileResource.setSeriesFilter(reader.readBloomFilter());
       }
       // write .resource file
       tsFileResource.serialize();
@@ -105,7 +107,7 @@ public class FileLoaderUtils {
     if (timeSeriesMetadata != null) {
       List<Modification> pathModifications =
           context.getPathModifications(resource.getModFile(), seriesPath.getFullPath());
-      timeSeriesMetadata.setModified(!pathModifications.isEmpty());
+      timeSeriesMetadata.setModified(isModified(timeSeriesMetadata, pathModifications));
       if (timeSeriesMetadata.getStatistics().getStartTime() > timeSeriesMetadata.getStatistics()
           .getEndTime()) {
         return null;
@@ -119,6 +121,22 @@ public class FileLoaderUtils {
     return timeSeriesMetadata;
   }
 
+  /**
+   * @return true if some data of the timeseries are deleted by the modifications
+   */
+  private static boolean isModified(TimeseriesMetadata timeSeriesMetadata,
+      List<Modification> pathModifications) {
+    long startTime = timeSeriesMetadata.getStatistics().getStartTime();
+    long endTime = timeSeriesMetadata.getStatistics().getEndTime();
+    for (Modification modification : pathModifications) {
+      if (!(modification instanceof Deletion)
+          || ((Deletion) modification).overlaps(startTime, endTime)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * load all chunk metadata of one time series in one file.
    *
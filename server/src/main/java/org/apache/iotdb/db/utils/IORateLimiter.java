@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that limits the throughput of some disk I/O in bytes per second. A caller
+ * acquires the bytes it is going to read or write and is blocked until the bucket can afford them.
+ * The bucket holds at most one second of tokens, so an idle period allows a burst of at most one
+ * second of I/O. A non-positive rate means unlimited.
+ */
+public class IORateLimiter {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private volatile long bytesPerSecond;
+  // may be negative when the previous callers have acquired more than the bucket held
+  private double storedBytes = 0;
+  private long lastRefillTime = System.nanoTime();
+
+  private AtomicLong totalBytes = new AtomicLong();
+  private AtomicLong throttledTime = new AtomicLong();
+
+  public IORateLimiter(long bytesPerSecond) {
+    this.bytesPerSecond = bytesPerSecond;
+  }
+
+  public long getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  /**
+   * Change the rate, the tokens stored under the old rate are dropped.
+   */
+  public synchronized void setBytesPerSecond(long bytesPerSecond) {
+    this.bytesPerSecond = bytesPerSecond;
+    this.storedBytes = 0;
+    this.lastRefillTime = System.nanoTime();
+  }
+
+  /**
+   * Block until the given bytes are within the rate. If the thread is interrupted while waiting,
+   * it returns at once with the interrupted status set.
+   */
+  public void acquire(long bytes) {
+    acquire(bytes, 1.0);
+  }
+
+  /**
+   * Like {@link #acquire(long)}, but the caller only gets the given ratio of the rate, e.g., 0.5
+   * means the bytes cost twice the tokens.
+   */
+  public void acquire(long bytes, double rateRatio) {
+    if (bytes <= 0) {
+      return;
+    }
+    totalBytes.addAndGet(bytes);
+    long rate = bytesPerSecond;
+    if (rate <= 0) {
+      return;
+    }
+    long waitTime;
+    synchronized (this) {
+      long now = System.nanoTime();
+      storedBytes = Math
+          .min(rate, storedBytes + (double) (now - lastRefillTime) * rate / NANOS_PER_SECOND);
+      lastRefillTime = now;
+      storedBytes -= bytes / rateRatio;
+      waitTime = storedBytes >= 0 ? 0 : (long) (-storedBytes * NANOS_PER_SECOND / rate);
+    }
+    if (waitTime > 0) {
+      throttledTime.addAndGet(waitTime);
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitTime);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * @return the bytes acquired since created
+   */
+  public long getTotalBytes() {
+    return totalBytes.get();
+  }
+
+  /**
+   * @return the total time the callers are blocked, in nanoseconds
+   */
+  public long getThrottledTime() {
+    return throttledTime.get();
+  }
+}
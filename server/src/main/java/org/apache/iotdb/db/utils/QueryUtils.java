@@ -25,6 +25,7 @@ import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 
 import java.util.List;
 
@@ -45,48 +46,34 @@ public class QueryUtils {
    */
   public static void modifyChunkMetaData(List<ChunkMetadata> chunkMetaData,
                                          List<Modification> modifications) {
-    int modIndex = 0;
-
-    for (int metaIndex = 0; metaIndex < chunkMetaData.size(); metaIndex++) {
-      ChunkMetadata metaData = chunkMetaData.get(metaIndex);
-      for (int j = modIndex; j < modifications.size(); j++) {
-        // iterate each modification to find the max deletion time
-        Modification modification = modifications.get(j);
-        if (modification.getVersionNum() > metaData.getVersion()) {
-          // this modification is after the Chunk, try modifying the chunk
-          // if this modification succeeds, update modIndex so in the next loop the previous
-          // modifications will not be examined
-          modIndex = doModifyChunkMetaData(modification, metaData)? j : modIndex;
-        } else {
-          // skip old modifications for next metadata
-          modIndex++;
+    for (ChunkMetadata metaData : chunkMetaData) {
+      for (Modification modification : modifications) {
+        // only the modifications after the chunk is written take effect on it
+        if (modification.getVersionNum() > metaData.getVersion()
+            && modification instanceof Deletion) {
+          Deletion deletion = (Deletion) modification;
+          if (deletion.overlaps(metaData.getStartTime(), metaData.getEndTime())) {
+            metaData.insertIntoSortedDeletions(deletion.getStartTime(), deletion.getEndTime());
+          }
         }
       }
     }
     // remove chunks that are completely deleted
     chunkMetaData.removeIf(metaData -> {
-      if (metaData.getDeletedAt() >= metaData.getEndTime()) {
-        return true;
-      } else {
-        if (metaData.getDeletedAt() >= metaData.getStartTime()) {
-          metaData.setModified(true);
+      if (metaData.getDeleteIntervalList() != null) {
+        for (TimeRange range : metaData.getDeleteIntervalList()) {
+          if (range.contains(metaData.getStartTime(), metaData.getEndTime())) {
+            return true;
+          } else if (range.getMin() <= metaData.getEndTime()
+              && range.getMax() >= metaData.getStartTime()) {
+            metaData.setModified(true);
+          }
         }
-        return false;
       }
+      return false;
     });
   }
 
-  private static boolean doModifyChunkMetaData(Modification modification, ChunkMetadata metaData) {
-    if (modification instanceof Deletion) {
-      Deletion deletion = (Deletion) modification;
-      if (metaData.getDeletedAt() < deletion.getTimestamp()) {
-        metaData.setDeletedAt(deletion.getTimestamp());
-        return true;
-      }
-    }
-    return false;
-  }
-
   // remove files that do not satisfy the filter
   public static void filterQueryDataSource(QueryDataSource queryDataSource, TsFileFilter fileFilter) {
     if (fileFilter == null) {
@@ -26,6 +26,7 @@ import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.metadata.PathAlreadyExistException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
+import org.apache.iotdb.db.query.aggregation.impl.PercentileAggrResult;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -122,10 +123,15 @@ public class SchemaUtils {
     if (aggregation == null) {
       return null;
     }
-    switch (aggregation.toLowerCase()) {
+    String lowerCaseName = aggregation.toLowerCase();
+    if (PercentileAggrResult.isPercentile(lowerCaseName)) {
+      return TSDataType.DOUBLE;
+    }
+    switch (lowerCaseName) {
       case SQLConstant.MIN_TIME:
       case SQLConstant.MAX_TIME:
       case SQLConstant.COUNT:
+      case SQLConstant.APPROX_COUNT_DISTINCT:
         return TSDataType.INT64;
       case SQLConstant.LAST_VALUE:
       case SQLConstant.FIRST_VALUE:
@@ -64,6 +64,36 @@ public class TimeValuePairUtils {
     }
   }
 
+  /**
+   * set given data's current (time,value) pair into a pair of the same data type, which is reused
+   * instead of creating a new one.
+   */
+  public static void setCurrentTimeValuePair(BatchData data, TimeValuePair to) {
+    to.setTimestamp(data.currentTime());
+    switch (data.getDataType()) {
+      case INT32:
+        to.getValue().setInt(data.getInt());
+        break;
+      case INT64:
+        to.getValue().setLong(data.getLong());
+        break;
+      case FLOAT:
+        to.getValue().setFloat(data.getFloat());
+        break;
+      case DOUBLE:
+        to.getValue().setDouble(data.getDouble());
+        break;
+      case TEXT:
+        to.getValue().setBinary(data.getBinary());
+        break;
+      case BOOLEAN:
+        to.getValue().setBoolean(data.getBoolean());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(data.getDataType()));
+    }
+  }
+
   public static void setTimeValuePair(TimeValuePair from, TimeValuePair to) {
     to.setTimestamp(from.getTimestamp());
     switch (from.getValue().getDataType()) {
@@ -183,7 +183,8 @@ public class DoubleTVList extends TVList {
   protected TimeValuePair getTimeValuePair(int index, long time, Integer floatPrecision,
       TSEncoding encoding) {
     double value = getDouble(index);
-    if (floatPrecision != null && !encoding.equals(TSEncoding.GORILLA)) {
+    if (floatPrecision != null && !encoding.equals(TSEncoding.GORILLA)
+        && !encoding.equals(TSEncoding.CHIMP) && !encoding.equals(TSEncoding.ELF)) {
       value = MathUtils.roundWithGivenPrecision(value, floatPrecision);
     }
     return new TimeValuePair(time, TsPrimitiveType.getByType(TSDataType.DOUBLE, value));
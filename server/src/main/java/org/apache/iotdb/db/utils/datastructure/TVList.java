@@ -203,11 +203,18 @@ public abstract class TVList {
   }
 
   public void delete(long upperBound) {
+    delete(Long.MIN_VALUE, upperBound);
+  }
+
+  /**
+   * delete the data whose timestamp is in [lowerBound, upperBound]
+   */
+  public void delete(long lowerBound, long upperBound) {
     int newSize = 0;
     minTime = Long.MAX_VALUE;
     for (int i = 0; i < size; i++) {
       long time = getTime(i);
-      if (time > upperBound) {
+      if (time < lowerBound || time > upperBound) {
         set(i, newSize++);
         minTime = time < minTime ? time : minTime;
       }
@@ -27,6 +27,8 @@ import java.util.zip.CRC32;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
 
 /**
  * LogWriter writes the binarized logs into a file using FileChannel together with check sums of
@@ -76,6 +78,7 @@ public class LogWriter implements ILogWriter {
     channel.write(lengthBuffer);
     channel.write(logBuffer);
     channel.write(checkSumBuffer);
+    IOScheduler.getInstance().acquire(IOType.WAL, logSize + 12L);
 
     if (config.getForceWalPeriodInMs() == 0) {
       channel.force(true);
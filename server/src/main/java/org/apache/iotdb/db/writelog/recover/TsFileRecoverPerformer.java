@@ -109,6 +109,7 @@ public class TsFileRecoverPerformer {
           try (TsFileSequenceReader reader = new TsFileSequenceReader(
               resource.getFile().getAbsolutePath())) {
             FileLoaderUtils.updateTsFileResource(reader, resource);
+            resource.setSeriesFilter(reader.readBloomFilter());
           }
           // write .resource file
           long fileVersion =
@@ -165,6 +166,7 @@ public class TsFileRecoverPerformer {
           resource.updateEndTime(entry.getKey(), timeseriesMetaData.getStatistics().getEndTime());
         }
       }
+      resource.setSeriesFilter(reader.readBloomFilter());
     }
     // write .resource file
     resource.serialize();
@@ -205,6 +207,7 @@ public class TsFileRecoverPerformer {
       if (!isLastFile || resource.isCloseFlagSet()) {
         // end the file if it is not the last file or it is closed before crush
         restorableTsFileIOWriter.endFile();
+        resource.setSeriesFilter(restorableTsFileIOWriter.buildBloomFilter());
         resource.cleanCloseFlag();
       }
       // otherwise this file is not closed before crush, do nothing so we can continue writing
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.recover;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.concurrent.IoTThreadFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.flush.pool.AbstractPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool shared by all storage groups to recover their TsFiles at start up. A storage group
+ * submits one task per time partition, so partitions of the same or different storage groups are
+ * recovered in parallel while the files of one partition are recovered in order. Idle threads exit
+ * after a while, so the pool costs nothing once the recovery is over.
+ */
+public class TsFileRecoverPoolManager extends AbstractPoolManager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TsFileRecoverPoolManager.class);
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+  private static final long PROGRESS_LOG_INTERVAL_MS = 10_000;
+
+  private AtomicLong totalFileNum = new AtomicLong();
+  private AtomicLong recoveredFileNum = new AtomicLong();
+  private AtomicLong lastProgressLogTime = new AtomicLong();
+
+  private TsFileRecoverPoolManager() {
+    this.pool = createPool();
+  }
+
+  public static TsFileRecoverPoolManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  private static ThreadPoolExecutor createPool() {
+    int threadNum = IoTDBDescriptor.getInstance().getConfig().getTsFileRecoverThreadNum();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threadNum, threadNum, KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        new IoTThreadFactory(ThreadName.TSFILE_RECOVER_SERVICE.getName()));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Register TsFiles that are going to be recovered, called before submitting their tasks.
+   */
+  public void addTotalFiles(long fileNum) {
+    totalFileNum.addAndGet(fileNum);
+  }
+
+  /**
+   * Called each time a TsFile is recovered (or skipped because of errors), logs the progress at
+   * most once every PROGRESS_LOG_INTERVAL_MS.
+   */
+  public void fileRecovered() {
+    long recovered = recoveredFileNum.incrementAndGet();
+    long now = System.currentTimeMillis();
+    long lastLogTime = lastProgressLogTime.get();
+    if (now - lastLogTime >= PROGRESS_LOG_INTERVAL_MS
+        && lastProgressLogTime.compareAndSet(lastLogTime, now)) {
+      LOGGER.info("{}/{} TsFiles are recovered, {} partition tasks are running, {} are waiting",
+          recovered, totalFileNum.get(), getWorkingTasksNumber(), getWaitingTasksNumber());
+    }
+  }
+
+  public long getTotalFileNum() {
+    return totalFileNum.get();
+  }
+
+  public long getRecoveredFileNum() {
+    return recoveredFileNum.get();
+  }
+
+  @Override
+  public Logger getLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public String getName() {
+    return "TsFile recover";
+  }
+
+  @Override
+  public synchronized void start() {
+    if (pool == null) {
+      this.pool = createPool();
+    }
+    LOGGER.info("TsFile recover manager started.");
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (pool != null) {
+      close();
+      pool = null;
+    }
+    LOGGER.info("TsFile recover manager stopped");
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+      //allowed to do nothing
+    }
+
+    private static TsFileRecoverPoolManager instance = new TsFileRecoverPoolManager();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.engine.io.IOScheduler;
+import org.apache.iotdb.db.engine.io.IOType;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkCacheTest {
+
+  private static final long MB = 1024L * 1024L;
+
+  private ChunkCache chunkCache = ChunkCache.getInstance();
+  private IOScheduler scheduler = IOScheduler.getInstance();
+  private long prevQueryBudget;
+
+  @Before
+  public void setUp() {
+    prevQueryBudget = scheduler.getBudgetBytesPerSec().get(IOType.QUERY.name());
+    chunkCache.clear();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.setBudgetMbPerSec(IOType.QUERY.name(), prevQueryBudget / MB);
+    chunkCache.clear();
+  }
+
+  @Test
+  public void testThrottledMissNotBlockingHits() throws Exception {
+    CountDownLatch missRead = new CountDownLatch(1);
+    TsFileSequenceReader reader = new ChunkReaderStub(missRead);
+    // the offset of a chunk stands for its size in the stub
+    ChunkMetadata cachedChunk = newChunkMetadata(1);
+    ChunkMetadata missedChunk = newChunkMetadata(2 * MB);
+    chunkCache.get(cachedChunk, reader);
+
+    // 2MB of query I/O takes about 2s at 1MB/s
+    scheduler.setBudgetMbPerSec(IOType.QUERY.name(), 1);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      Future<Pair<Chunk, Long>> missFuture = pool.submit(() -> {
+        long startTime = System.currentTimeMillis();
+        Chunk chunk = chunkCache.get(missedChunk, reader);
+        return new Pair<>(chunk, System.currentTimeMillis() - startTime);
+      });
+      missRead.await();
+      // let the miss enter the throttling
+      Thread.sleep(200);
+
+      long startTime = System.currentTimeMillis();
+      assertEquals(1, chunkCache.get(cachedChunk, reader).getData().remaining());
+      assertTrue(System.currentTimeMillis() - startTime < 500);
+
+      Pair<Chunk, Long> miss = missFuture.get();
+      assertEquals(2 * MB, miss.left.getData().remaining());
+      // make sure the miss was really throttled while the hit was served
+      assertTrue(miss.right >= 1000);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private ChunkMetadata newChunkMetadata(long offset) {
+    return new ChunkMetadata("s0", TSDataType.INT32, offset,
+        Statistics.getStatsByType(TSDataType.INT32));
+  }
+
+  private static class ChunkReaderStub extends TsFileSequenceReader {
+
+    private CountDownLatch missRead;
+
+    private ChunkReaderStub(CountDownLatch missRead) {
+      super(null, 0, 0);
+      this.missRead = missRead;
+    }
+
+    @Override
+    public Chunk readMemChunk(ChunkMetadata metaData) {
+      int size = (int) metaData.getOffsetOfChunkHeader();
+      if (size > 1) {
+        missRead.countDown();
+      }
+      ChunkHeader header = new ChunkHeader(metaData.getMeasurementUid(), size,
+          metaData.getDataType(), CompressionType.UNCOMPRESSED, TSEncoding.PLAIN, 1);
+      return new Chunk(header, ByteBuffer.allocate(size), null, null);
+    }
+  }
+}
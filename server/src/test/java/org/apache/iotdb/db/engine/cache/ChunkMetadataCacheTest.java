@@ -120,8 +120,15 @@ public class ChunkMetadataCacheTest {
   @Test
   public void test1() throws IOException, QueryProcessException {
     IoTDBDescriptor.getInstance().getConfig().setMetaDataCacheEnable(false);
+    // sealed files without the series are pruned by their bloom filters
     QueryDataSource queryDataSource = storageGroupProcessor
         .query(storageGroup, measurementId5, context, null, null);
+    Assert.assertEquals(0, queryDataSource.getSeqResources().size());
+    Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+    Assert.assertFalse(queryDataSource.getUnseqResources().get(0).isClosed());
+
+    queryDataSource = storageGroupProcessor
+        .query(storageGroup, measurementId0, context, null, null);
 
     List<TsFileResource> seqResources = queryDataSource.getSeqResources();
     List<TsFileResource> unseqResources = queryDataSource.getUnseqResources();
@@ -143,7 +150,7 @@ public class ChunkMetadataCacheTest {
   public void test2() throws IOException, QueryProcessException {
     IoTDBDescriptor.getInstance().getConfig().setMetaDataCacheEnable(true);
     QueryDataSource queryDataSource = storageGroupProcessor
-        .query(storageGroup, measurementId5, context, null, null);
+        .query(storageGroup, measurementId0, context, null, null);
 
     List<TsFileResource> seqResources = queryDataSource.getSeqResources();
     List<TsFileResource> unseqResources = queryDataSource.getUnseqResources();
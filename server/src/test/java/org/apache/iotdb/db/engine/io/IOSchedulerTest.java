@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.iotdb.db.utils.IORateLimiter;
+import org.junit.Test;
+
+public class IOSchedulerTest {
+
+  private static final long MB = 1024L * 1024L;
+
+  @Test
+  public void testRateLimiter() {
+    IORateLimiter limiter = new IORateLimiter(10 * MB);
+    long startTime = System.currentTimeMillis();
+    // the bucket is empty at first, 5MB takes about 0.5s
+    limiter.acquire(5 * MB);
+    assertTrue(System.currentTimeMillis() - startTime >= 400);
+    // at half of the rate, 2MB takes about 0.4s
+    startTime = System.currentTimeMillis();
+    limiter.acquire(2 * MB, 0.5);
+    assertTrue(System.currentTimeMillis() - startTime >= 300);
+    assertEquals(7 * MB, limiter.getTotalBytes());
+    assertTrue(limiter.getThrottledTime() > 0);
+
+    limiter.setBytesPerSecond(0);
+    startTime = System.currentTimeMillis();
+    limiter.acquire(100 * MB);
+    assertTrue(System.currentTimeMillis() - startTime < 100);
+  }
+
+  @Test
+  public void testBackgroundYields() {
+    IOScheduler scheduler = IOScheduler.getInstance();
+    long prevBudget = scheduler.getBudgetBytesPerSec().get(IOType.SYNC.name());
+    long prevTotalBytes = scheduler.getTotalBytes().get(IOType.SYNC.name());
+    double prevRatio = scheduler.getBackgroundRatioUnderLoad();
+    try {
+      scheduler.setBudgetMbPerSec("sync", 10);
+      scheduler.setBackgroundRatioUnderLoad(0.5);
+      assertEquals(10 * MB, (long) scheduler.getBudgetBytesPerSec().get(IOType.SYNC.name()));
+
+      scheduler.acquire(IOType.QUERY, 1);
+      assertTrue(scheduler.isForegroundBusy());
+      long startTime = System.currentTimeMillis();
+      // 2MB of background I/O takes about 0.4s at half of its budget
+      scheduler.acquire(IOType.SYNC, 2 * MB);
+      assertTrue(System.currentTimeMillis() - startTime >= 300);
+      assertEquals(prevTotalBytes + 2 * MB,
+          (long) scheduler.getTotalBytes().get(IOType.SYNC.name()));
+      assertTrue(scheduler.getThrottledMillis().get(IOType.SYNC.name()) > 0);
+      assertTrue(scheduler.getThroughputBytesPerSec().get(IOType.SYNC.name()) > 0);
+    } finally {
+      scheduler.setBudgetMbPerSec(IOType.SYNC.name(), prevBudget / MB);
+      scheduler.setBackgroundRatioUnderLoad(prevRatio);
+    }
+  }
+}
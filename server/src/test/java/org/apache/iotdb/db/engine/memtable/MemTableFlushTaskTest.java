@@ -27,8 +27,12 @@ import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
 import org.junit.Before;
@@ -82,4 +86,50 @@ public class MemTableFlushTaskTest {
     assertEquals(MemTableTestUtils.dataType0, chunkMetaData.getDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFlushAlignedMemTable() throws ExecutionException, InterruptedException {
+    String deviceId = "root.vehicle.d1";
+    MeasurementSchema[] schemas = new MeasurementSchema[]{
+        new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.RLE),
+        new MeasurementSchema("s1", TSDataType.DOUBLE, TSEncoding.GORILLA)};
+    int rowCount = (int) (endTime - startTime + 1);
+    long[] times = new long[rowCount];
+    long[] s0Values = new long[rowCount];
+    double[] s1Values = new double[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      times[i] = startTime + i;
+      s0Values[i] = i;
+      s1Values[i] = i * 0.5;
+    }
+    InsertTabletPlan plan = new InsertTabletPlan(deviceId, new String[]{"s0", "s1"});
+    plan.setDataTypes(new TSDataType[]{TSDataType.INT64, TSDataType.DOUBLE});
+    plan.setSchemas(schemas);
+    plan.setTimes(times);
+    plan.setColumns(new Object[]{s0Values, s1Values});
+    plan.setRowCount(rowCount);
+    plan.setAligned(true);
+    memTable.write(plan, 0, rowCount);
+    assertTrue(memTable.getMemTableMap().isEmpty());
+    assertEquals(1, memTable.getAlignedMemTableMap().size());
+
+    // a later point of s0 overwrites the one of the same time, s1 has no value at endTime + 1
+    memTable.write(deviceId, "s0", schemas[0], startTime, 100L);
+    memTable.write(deviceId, "s0", schemas[0], endTime + 1, 101L);
+    assertEquals(2L * rowCount + 2, memTable.size());
+
+    MemTableFlushTask memTableFlushTask = new MemTableFlushTask(memTable, writer, storageGroup);
+    memTableFlushTask.syncFlushMemTable();
+    writer.makeMetadataVisible();
+    ChunkMetadata s0Metadata = writer
+        .getVisibleMetadataList(deviceId, "s0", TSDataType.INT64).get(0);
+    assertEquals(startTime, s0Metadata.getStartTime());
+    assertEquals(endTime + 1, s0Metadata.getEndTime());
+    assertEquals(rowCount + 1, s0Metadata.getNumOfPoints());
+    assertEquals(101L, s0Metadata.getStatistics().getMaxValue());
+    ChunkMetadata s1Metadata = writer
+        .getVisibleMetadataList(deviceId, "s1", TSDataType.DOUBLE).get(0);
+    assertEquals(endTime, s1Metadata.getEndTime());
+    assertEquals(rowCount, s1Metadata.getNumOfPoints());
+  }
+}
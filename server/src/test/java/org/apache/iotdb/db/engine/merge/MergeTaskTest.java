@@ -23,7 +23,9 @@ import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
+import org.apache.iotdb.db.engine.merge.task.RecoverMergeTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
@@ -40,10 +42,14 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MergeTaskTest extends MergeTest {
 
@@ -85,6 +91,49 @@ public class MergeTaskTest extends MergeTest {
     tsFilesReader.close();
   }
 
+  @Test
+  public void testResumeInterruptedMerge() throws Exception {
+    MergeTask mergeTask =
+        new MergeTask(new MergeResource(seqResources, unseqResources), tempSGDir.getPath(), (k, v
+            , l) -> {
+        }, "test", false, 1, MERGE_TEST_SG);
+    // the merge is interrupted at its first checkpoint
+    Thread.currentThread().interrupt();
+    try {
+      mergeTask.call();
+      fail("The merge should be interrupted");
+    } catch (InterruptedIOException e) {
+      assertTrue(Thread.interrupted());
+    }
+    File logFile = new File(tempSGDir, MergeLogger.MERGE_LOG_NAME);
+    assertTrue(logFile.exists());
+    for (TsFileResource seqResource : seqResources) {
+      assertFalse(seqResource.isMerging());
+    }
+
+    RecoverMergeTask recoverMergeTask = new RecoverMergeTask(new ArrayList<>(seqResources),
+        new ArrayList<>(unseqResources), tempSGDir.getPath(), (k, v, l) -> {
+    }, "test", false, MERGE_TEST_SG);
+    recoverMergeTask.recoverMerge(true);
+
+    QueryContext context = new QueryContext();
+    Path path = new Path(deviceIds[0], measurementSchemas[0].getMeasurementId());
+    List<TsFileResource> list = new ArrayList<>();
+    list.add(seqResources.get(0));
+    IBatchReader tsFilesReader = new SeriesRawDataBatchReader(path, measurementSchemas[0].getType(), context,
+        list, new ArrayList<>(), null, null);
+    int cnt = 0;
+    while (tsFilesReader.hasNextBatch()) {
+      BatchData batchData = tsFilesReader.nextBatch();
+      for (int i = 0; i < batchData.length(); i++) {
+        assertEquals(batchData.getTimeByIndex(i) + 20000.0, batchData.getDoubleByIndex(i), 0.001);
+        cnt++;
+      }
+    }
+    tsFilesReader.close();
+    assertTrue(cnt > 0);
+  }
+
   @Test
   public void testFullMerge() throws Exception {
     MergeTask mergeTask =
@@ -20,13 +20,18 @@
 package org.apache.iotdb.db.engine.modification;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
+import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -98,4 +103,87 @@ public class ModificationFileTest {
       new File(tempFileName).delete();
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testIndexAndCompact() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    Deletion[] deletions = new Deletion[]{
+        new Deletion(new Path("d1", "s2"), 1, 10, 20),
+        new Deletion(new Path("d1", "s1"), 2, 0, 100),
+        // covered by the next one
+        new Deletion(new Path("d1", "s2"), 3, 12, 18),
+        new Deletion(new Path("d1", "s2"), 4, 5, 30),
+        // duplicated
+        new Deletion(new Path("d1", "s1"), 2, 0, 100),
+        // not covered as its version is larger
+        new Deletion(new Path("d1", "s1"), 5, 50, 60),
+    };
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      for (Deletion deletion : deletions) {
+        mFile.write(deletion);
+      }
+      assertEquals(3, mFile.getModifications("d1.s2").size());
+      assertEquals(0, mFile.getModifications("d1.s3").size());
+
+      mFile.compact();
+      List<Modification> modificationList = (List<Modification>) mFile.getModifications();
+      assertEquals(3, modificationList.size());
+      assertEquals(deletions[1], modificationList.get(0));
+      assertEquals(deletions[5], modificationList.get(1));
+      assertEquals(deletions[3], modificationList.get(2));
+    }
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      assertEquals(Collections.singletonList(deletions[3]), mFile.getModifications("d1.s2"));
+      mFile.write(deletions[0]);
+      assertEquals(4, mFile.getModifications().size());
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+
+  @Test
+  public void testCloseReleasesCache() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    Deletion[] deletions = new Deletion[]{
+        new Deletion(new Path("d1", "s1"), 1, 10),
+        new Deletion(new Path("d1", "s1"), 2, 5, 30),
+    };
+    ModificationFile mFile = new ModificationFile(tempFileName);
+    try {
+      mFile.write(deletions[0]);
+      mFile.close();
+      // written by another accessor after the cache is released
+      try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+          tempFileName)) {
+        accessor.write(deletions[1]);
+      }
+      assertEquals(Arrays.asList(deletions), mFile.getModifications("d1.s1"));
+    } finally {
+      mFile.remove();
+    }
+  }
+
+  @Test
+  public void testReadTextFile() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    Deletion[] deletions = new Deletion[]{
+        new Deletion(new Path("d1", "s1"), 1, 10),
+        new Deletion(new Path("d1", "s2"), 2, 5, 30),
+    };
+    try (LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(
+        tempFileName)) {
+      for (Deletion deletion : deletions) {
+        accessor.write(deletion);
+      }
+    }
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      assertEquals(Arrays.asList(deletions), mFile.getModifications());
+      // compaction converts the file into the binary format
+      mFile.compact();
+      assertTrue(LocalBinaryModificationAccessor.isBinaryOrEmpty(tempFileName));
+      assertEquals(Collections.singletonList(deletions[1]), mFile.getModifications("d1.s2"));
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.modification.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.Test;
+
+public class LocalBinaryModificationAccessorTest {
+
+  private static final String TEMP_FILE_NAME = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+
+  private Modification[] modifications = new Modification[]{
+      new Deletion(new Path("d1", "s1"), 1, 1),
+      new Deletion(new Path("d1", "s2"), 2, 2, 20),
+      new Deletion(new Path("d1", "s3"), 3, Long.MIN_VALUE, Long.MAX_VALUE),
+      new Deletion(new Path("d1", "s4"), 4, -4, 4),
+  };
+
+  @Test
+  public void readMyWrite() {
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        TEMP_FILE_NAME)) {
+      for (int i = 0; i < 2; i++) {
+        accessor.write(modifications[i]);
+      }
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(2, modificationList.size());
+      for (int i = 0; i < 2; i++) {
+        assertEquals(modifications[i], modificationList.get(i));
+      }
+
+      for (int i = 2; i < 4; i++) {
+        accessor.write(modifications[i]);
+      }
+      accessor.abort();
+      modificationList = (List<Modification>) accessor.read();
+      assertEquals(3, modificationList.size());
+      for (int i = 0; i < 3; i++) {
+        assertEquals(modifications[i], modificationList.get(i));
+      }
+    } catch (IOException e) {
+      fail(e.getMessage());
+    } finally {
+      new File(TEMP_FILE_NAME).delete();
+    }
+  }
+
+  @Test
+  public void readIncompleteFile() throws IOException {
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        TEMP_FILE_NAME)) {
+      for (Modification modification : modifications) {
+        accessor.write(modification);
+      }
+    }
+    try {
+      File file = new File(TEMP_FILE_NAME);
+      long completeLength = file.length();
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(completeLength - 3);
+      }
+      LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+          TEMP_FILE_NAME);
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(3, modificationList.size());
+
+      // the incomplete modification is truncated so that new modifications can be appended
+      accessor.write(modifications[3]);
+      accessor.close();
+      assertEquals(completeLength, file.length());
+      modificationList = (List<Modification>) accessor.read();
+      assertEquals(4, modificationList.size());
+      assertEquals(modifications[3], modificationList.get(3));
+    } finally {
+      new File(TEMP_FILE_NAME).delete();
+    }
+  }
+
+  @Test
+  public void readIncompleteLength() throws IOException {
+    // only 2 bytes of the length are written
+    readTornTail(new byte[]{0, 0});
+  }
+
+  @Test
+  public void readIllegalLength() throws IOException {
+    // a length larger than the remaining bytes
+    readTornTail(new byte[]{0, 0, 1, 0, 0});
+    // a negative length
+    readTornTail(new byte[]{-1, -1, -1, -2, 0});
+  }
+
+  /**
+   * Append the tail to a file of 3 complete modifications, which should be discarded and truncated
+   * when the file is read, so that new modifications can be appended.
+   */
+  private void readTornTail(byte[] tail) throws IOException {
+    try (LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+        TEMP_FILE_NAME)) {
+      for (int i = 0; i < 3; i++) {
+        accessor.write(modifications[i]);
+      }
+    }
+    try {
+      File file = new File(TEMP_FILE_NAME);
+      long completeLength = file.length();
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.seek(completeLength);
+        raf.write(tail);
+      }
+      LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(
+          TEMP_FILE_NAME);
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(3, modificationList.size());
+      assertEquals(completeLength, file.length());
+
+      accessor.write(modifications[3]);
+      accessor.close();
+      modificationList = (List<Modification>) accessor.read();
+      assertEquals(4, modificationList.size());
+      for (int i = 0; i < 4; i++) {
+        assertEquals(modifications[i], modificationList.get(i));
+      }
+    } finally {
+      new File(TEMP_FILE_NAME).delete();
+    }
+  }
+
+  @Test
+  public void readNull() {
+    LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(TEMP_FILE_NAME);
+    new File(TEMP_FILE_NAME).delete();
+    Collection<Modification> modificationList = accessor.read();
+    assertEquals(new ArrayList<>(), modificationList);
+  }
+}
@@ -18,9 +18,16 @@
  */
 package org.apache.iotdb.db.engine.storagegroup;
 
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.compaction.CompactionManager;
+import org.apache.iotdb.db.engine.compaction.SeqCompactionLogger;
+import org.apache.iotdb.db.engine.compaction.SeqCompactionSelector;
+import org.apache.iotdb.db.engine.compaction.SeqCompactionTask;
 import org.apache.iotdb.db.engine.flush.TsFileFlushPolicy;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
@@ -31,9 +38,14 @@ import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.reader.series.SeriesRawDataBatchReader;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.writelog.recover.TsFileRecoverPoolManager;
 import org.apache.iotdb.tsfile.read.reader.IPointReader;
 import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.reader.IBatchReader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -64,6 +76,7 @@ public class StorageGroupProcessorTest {
   private StorageGroupProcessor processor;
   private QueryContext context = EnvironmentUtils.TEST_QUERY_CONTEXT;
   private AtomicLong mergeLock;
+  private AtomicLong compactionCnt = new AtomicLong();
 
   @Before
   public void setUp() throws Exception {
@@ -283,6 +296,169 @@ public class StorageGroupProcessorTest {
     }
   }
 
+  @Test
+  public void testRecoverPartitionsInParallel()
+      throws WriteProcessException, QueryProcessException, StorageGroupProcessorException {
+    long partitionInterval = StorageEngine.getTimePartitionInterval();
+    for (int partition = 0; partition < 3; partition++) {
+      long baseTime = partition * partitionInterval;
+      for (int j = 21; j <= 25; j++) {
+        TSRecord record = new TSRecord(baseTime + j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.asyncCloseAllWorkingTsFileProcessors();
+      }
+      processor.syncCloseAllWorkingTsFileProcessors();
+      for (int j = 5; j >= 1; j--) {
+        TSRecord record = new TSRecord(baseTime + j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.asyncCloseAllWorkingTsFileProcessors();
+      }
+      processor.syncCloseAllWorkingTsFileProcessors();
+    }
+
+    TsFileRecoverPoolManager recoverPoolManager = TsFileRecoverPoolManager.getInstance();
+    long recoveredFileNum = recoverPoolManager.getRecoveredFileNum();
+    processor = new DummySGP(systemDir, storageGroup);
+    Assert.assertEquals(recoveredFileNum + 30, recoverPoolManager.getRecoveredFileNum());
+
+    QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+        null, null);
+    Assert.assertEquals(15, queryDataSource.getSeqResources().size());
+    Assert.assertEquals(15, queryDataSource.getUnseqResources().size());
+    long lastPartition = -1;
+    for (TsFileResource resource : queryDataSource.getSeqResources()) {
+      Assert.assertTrue(resource.isClosed());
+      Assert.assertTrue(resource.getTimePartition() >= lastPartition);
+      lastPartition = resource.getTimePartition();
+    }
+    Assert.assertEquals(2, lastPartition);
+    for (TsFileResource resource : queryDataSource.getUnseqResources()) {
+      Assert.assertTrue(resource.isClosed());
+    }
+  }
+
+  @Test
+  public void testCompactSeqFiles() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    int prevFileNum = config.getSeqCompactionFileNum();
+    config.setSeqCompactionFileNum(4);
+    CompactionManager.getInstance().start();
+    try {
+      for (int j = 1; j <= 10; j++) {
+        TSRecord record = new TSRecord(j, deviceId);
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+        processor.insert(new InsertPlan(record));
+        processor.asyncCloseAllWorkingTsFileProcessors();
+      }
+      processor.syncCloseAllWorkingTsFileProcessors();
+      processor.delete(deviceId, measurementId, 3);
+
+      compactAndWait(1);
+      Assert.assertEquals(7, processor.getSequenceFileTreeSet().size());
+      compactAndWait(2);
+      // the left files are [L1, L1, L0, L0], no more compaction can be done
+      processor.compactSeqFiles();
+      Assert.assertEquals(2, compactionCnt.get());
+
+      List<TsFileResource> seqResources = processor.query(deviceId, measurementId,
+          new QueryContext(), null, null).getSeqResources();
+      Assert.assertEquals(4, seqResources.size());
+      Assert.assertEquals(1, SeqCompactionSelector.getLevel(seqResources.get(0)));
+      Assert.assertEquals(1, SeqCompactionSelector.getLevel(seqResources.get(1)));
+      Assert.assertEquals(0, SeqCompactionSelector.getLevel(seqResources.get(2)));
+      Assert.assertEquals(5L, (long) seqResources.get(1).getStartTimeMap().get(deviceId));
+      Assert.assertEquals(8L, (long) seqResources.get(1).getEndTimeMap().get(deviceId));
+      // the deletion written to the source files still applies to the compacted file
+      checkSeqData(4, 10);
+    } finally {
+      CompactionManager.getInstance().stop();
+      config.setSeqCompactionFileNum(prevFileNum);
+    }
+  }
+
+  @Test
+  public void testRecoverSeqCompaction() throws Exception {
+    for (int j = 1; j <= 6; j++) {
+      TSRecord record = new TSRecord(j, deviceId);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+      processor.insert(new InsertPlan(record));
+      processor.asyncCloseAllWorkingTsFileProcessors();
+    }
+    processor.syncCloseAllWorkingTsFileProcessors();
+    processor.delete(deviceId, measurementId, 2);
+
+    // the compaction finishes writing the target file but the system crashes before the source
+    // files are replaced
+    List<TsFileResource> sourceFiles = processor.getSequenceFileTreeSet().subList(0, 3);
+    File firstFile = sourceFiles.get(0).getFile();
+    File targetFile = new File(firstFile.getParentFile(),
+        firstFile.getName().replace("-0.tsfile", "-1.tsfile"));
+    File logFile = new File(systemDir + File.separator + storageGroup,
+        SeqCompactionLogger.COMPACTION_LOG_NAME);
+    new SeqCompactionTask(sourceFiles, new TsFileResource(targetFile), logFile,
+        (s, t, l) -> { }, "test").call();
+    Assert.assertTrue(logFile.exists());
+
+    processor = new DummySGP(systemDir, storageGroup);
+    Assert.assertFalse(logFile.exists());
+    Assert.assertFalse(firstFile.exists());
+    List<TsFileResource> seqResources = processor.getSequenceFileTreeSet();
+    Assert.assertEquals(4, seqResources.size());
+    Assert.assertEquals(targetFile.getName(), seqResources.get(0).getFile().getName());
+    checkSeqData(3, 6);
+
+    // the compaction is interrupted before the target file is completed
+    sourceFiles = seqResources.subList(1, 4);
+    firstFile = sourceFiles.get(0).getFile();
+    targetFile = new File(firstFile.getParentFile(),
+        firstFile.getName().replace("-0.tsfile", "-1.tsfile"));
+    try (SeqCompactionLogger compactionLogger = new SeqCompactionLogger(logFile)) {
+      for (TsFileResource sourceFile : sourceFiles) {
+        compactionLogger.logSource(sourceFile.getFile());
+      }
+      compactionLogger.logTarget(targetFile);
+    }
+    Assert.assertTrue(targetFile.createNewFile());
+
+    processor = new DummySGP(systemDir, storageGroup);
+    Assert.assertFalse(logFile.exists());
+    Assert.assertFalse(targetFile.exists());
+    Assert.assertEquals(4, processor.getSequenceFileTreeSet().size());
+    checkSeqData(3, 6);
+  }
+
+  private void compactAndWait(long expectedCnt) throws InterruptedException {
+    processor.compactSeqFiles();
+    long startTime = System.currentTimeMillis();
+    while (compactionCnt.get() < expectedCnt) {
+      Assert.assertTrue(System.currentTimeMillis() - startTime < 60_000);
+      Thread.sleep(10);
+    }
+  }
+
+  private void checkSeqData(long startTime, long endTime)
+      throws IOException, QueryProcessException {
+    Path path = new Path(deviceId, measurementId);
+    IBatchReader reader = new SeriesRawDataBatchReader(path,
+        Collections.singleton(measurementId), TSDataType.INT32, new QueryContext(),
+        processor.query(deviceId, measurementId, new QueryContext(), null, null), null, null,
+        null);
+    long time = startTime;
+    while (reader.hasNextBatch()) {
+      BatchData batchData = reader.nextBatch();
+      while (batchData.hasCurrent()) {
+        Assert.assertEquals(time, batchData.currentTime());
+        Assert.assertEquals((int) time, batchData.getInt());
+        time++;
+        batchData.next();
+      }
+    }
+    reader.close();
+    Assert.assertEquals(endTime + 1, time);
+  }
+
   class DummySGP extends StorageGroupProcessor {
 
     DummySGP(String systemInfoDir, String storageGroupName) throws StorageGroupProcessorException {
@@ -296,5 +472,13 @@ public class StorageGroupProcessorTest {
       mergeLock.incrementAndGet();
       assertFalse(mergeLog.exists());
     }
+
+    @Override
+    protected void seqCompactionEndAction(List<TsFileResource> sourceFiles,
+        TsFileResource targetFile, File compactionLog) {
+      super.seqCompactionEndAction(sourceFiles, targetFile, compactionLog);
+      compactionCnt.incrementAndGet();
+      assertFalse(compactionLog.exists());
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TsFileResourceTest {
+
+  private static final int DEVICE_NUM = 10;
+
+  private File dir = new File(TestConstant.OUTPUT_DATA_DIR.concat("timeIndex"));
+  private TimeIndexManager manager = TimeIndexManager.getInstance();
+
+  @Before
+  public void setUp() {
+    dir.mkdirs();
+    manager.clear();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    manager.setMemoryBudget(IoTDBDescriptor.getInstance().getConfig().getTimeIndexMemoryBudget());
+    manager.clear();
+    EnvironmentUtils.cleanDir(dir.getPath());
+  }
+
+  @Test
+  public void testCompactAndUpdate() throws IOException {
+    TsFileResource resource = newSealedResource(1, 0);
+    assertEquals(1, manager.getIndexNum());
+    Map<String, Long> startTimes = resource.getStartTimeMap();
+    assertEquals(DEVICE_NUM, startTimes.size());
+    for (int i = 0; i < DEVICE_NUM; i++) {
+      assertEquals(i, (long) startTimes.get("root.sg.d" + i));
+      assertEquals(i + 100, (long) resource.getEndTimeMap().get("root.sg.d" + i));
+    }
+    assertNull(startTimes.get("root.sg.d" + DEVICE_NUM));
+
+    // existing devices are updated in place
+    resource.updateEndTime("root.sg.d0", 1000);
+    assertEquals(1000, (long) resource.getEndTimeMap().get("root.sg.d0"));
+    assertEquals(1, manager.getIndexNum());
+
+    // a new device converts the index back to maps
+    resource.updateStartTime("root.sg.d" + DEVICE_NUM, 5);
+    assertEquals(0, manager.getIndexNum());
+    assertEquals(DEVICE_NUM + 1, resource.getStartTimeMap().size());
+    assertEquals(5, (long) resource.getStartTimeMap().get("root.sg.d" + DEVICE_NUM));
+    assertEquals(1000, (long) resource.getEndTimeMap().get("root.sg.d0"));
+
+    resource.serialize();
+    assertEquals(1, manager.getIndexNum());
+    TsFileResource deserialized = new TsFileResource(resource.getFile());
+    deserialized.deserialize();
+    assertEquals(resource.getStartTimeMap(), deserialized.getStartTimeMap());
+    assertEquals(resource.getEndTimeMap(), deserialized.getEndTimeMap());
+  }
+
+  @Test
+  public void testEvictAndReload() throws IOException {
+    // enough for two indexes
+    manager.setMemoryBudget(700);
+    TsFileResource oldResource = newSealedResource(1, 0);
+    TsFileResource midResource = newSealedResource(2, 1000);
+    assertFalse(oldResource.isTimeIndexEvicted());
+    TsFileResource newResource = newSealedResource(3, 2000);
+    assertEquals(2, manager.getIndexNum());
+    assertTrue(oldResource.isTimeIndexEvicted());
+    assertFalse(midResource.isTimeIndexEvicted());
+    assertFalse(newResource.isTimeIndexEvicted());
+
+    // the file-level time range is kept
+    assertTrue(oldResource.stillLives(109));
+    assertFalse(oldResource.stillLives(110));
+
+    // reload the evicted index, which evicts the next oldest one
+    assertEquals(3, (long) oldResource.getStartTimeMap().get("root.sg.d3"));
+    assertFalse(oldResource.isTimeIndexEvicted());
+    assertTrue(midResource.isTimeIndexEvicted());
+    assertTrue(oldResource.containsDevice("root.sg.d9"));
+    assertEquals(2, manager.getIndexNum());
+
+    // a modified index cannot be evicted until it is serialized
+    oldResource.updateEndTime("root.sg.d0", 500);
+    manager.setMemoryBudget(0);
+    midResource.getStartTimeMap();
+    assertFalse(oldResource.isTimeIndexEvicted());
+    oldResource.serialize();
+    newResource.getStartTimeMap();
+    assertTrue(oldResource.isTimeIndexEvicted());
+    assertEquals(500, (long) oldResource.getEndTimeMap().get("root.sg.d0"));
+  }
+
+  @Test
+  public void testReloadFailure() throws IOException {
+    TsFileResource resource = newSealedResource(1, 0);
+    assertTrue(resource.evictTimeIndex());
+    assertTrue(new File(resource.getPath() + TsFileResource.RESOURCE_SUFFIX).delete());
+    try {
+      resource.getStartTimeMap();
+      fail();
+    } catch (UncheckedIOException e) {
+      // the data of the file must not be treated as empty
+    }
+    assertTrue(resource.isTimeIndexEvicted());
+    assertEquals(0, manager.getIndexNum());
+  }
+
+  @Test
+  public void testRemoveEvicted() throws IOException {
+    TsFileResource resource = newSealedResource(1, 0);
+    assertTrue(resource.evictTimeIndex());
+    // the queries holding the removed file can still read its index
+    resource.remove();
+    assertFalse(resource.isTimeIndexEvicted());
+    assertEquals(DEVICE_NUM, resource.getStartTimeMap().size());
+    assertEquals(0, manager.getIndexNum());
+  }
+
+  @Test
+  public void testSeriesFilter() throws IOException {
+    TsFileResource resource = new TsFileResource(new File(dir, "0-1-0.tsfile"));
+    resource.updateStartTime("root.sg.d0", 0);
+    resource.updateEndTime("root.sg.d0", 100);
+    resource.setHistoricalVersions(Collections.singleton(1L));
+    // an unsealed file may contain any series
+    assertTrue(resource.mayContainSeries(BloomFilter.hash("root.sg.d0.s1")));
+
+    BloomFilter filter = BloomFilter.getEmptyBloomFilter(0.01, 10);
+    for (int i = 0; i < 10; i++) {
+      filter.add("root.sg.d0.s" + i);
+    }
+    resource.setSeriesFilter(filter);
+    resource.serialize();
+    resource.setClosed(true);
+
+    TsFileResource deserialized = new TsFileResource(resource.getFile());
+    deserialized.deserialize();
+    deserialized.setClosed(true);
+    assertEquals(Collections.singleton(1L), deserialized.getHistoricalVersions());
+    assertTrue(deserialized.evictTimeIndex());
+    for (int i = 0; i < 10; i++) {
+      assertTrue(deserialized.mayContainSeries(BloomFilter.hash("root.sg.d0.s" + i)));
+    }
+    assertFalse(deserialized.mayContainSeries(BloomFilter.hash("root.sg.d1.s0")));
+    // checking the filter does not reload the evicted time index
+    assertTrue(deserialized.isTimeIndexEvicted());
+  }
+
+  private TsFileResource newSealedResource(int version, long baseTime) throws IOException {
+    TsFileResource resource = new TsFileResource(
+        new File(dir, baseTime + "-" + version + "-0.tsfile"));
+    for (int i = 0; i < DEVICE_NUM; i++) {
+      resource.updateStartTime("root.sg.d" + i, baseTime + i);
+      resource.updateEndTime("root.sg.d" + i, baseTime + i + 100);
+    }
+    resource.serialize();
+    resource.setClosed(true);
+    return resource;
+  }
+}
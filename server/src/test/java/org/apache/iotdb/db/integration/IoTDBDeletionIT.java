@@ -21,6 +21,7 @@ package org.apache.iotdb.db.integration;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -109,6 +110,44 @@ public class IoTDBDeletionIT {
     cleanData();
   }
 
+  @Test
+  public void testRangeDeletion() throws SQLException {
+    prepareData();
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root",
+            "root");
+        Statement statement = connection.createStatement()) {
+
+      statement.execute("DELETE FROM root.vehicle.d0.s0 WHERE time >= 151 and time <= 250");
+      statement.execute("DELETE FROM root.vehicle.d0.s1 WHERE time > 350");
+      statement.execute("DELETE FROM root.vehicle.d0.s2 WHERE time >= 320 and time < 330");
+      statement.execute("DELETE FROM root.vehicle.d0.s3 WHERE time = 10");
+
+      String[] expectedCounts = {"300", "350", "390", "399"};
+      for (int i = 0; i < 2; i++) {
+        try (ResultSet set = statement.executeQuery(
+            "SELECT count(s0), count(s1), count(s2), count(s3) FROM root.vehicle.d0")) {
+          assertTrue(set.next());
+          for (int j = 0; j < expectedCounts.length; j++) {
+            assertEquals(expectedCounts[j],
+                set.getString("count(root.vehicle.d0.s" + j + ")"));
+          }
+        }
+        try (ResultSet set = statement.executeQuery(
+            "SELECT s0 FROM root.vehicle.d0 WHERE time > 140 and time < 260")) {
+          int cnt = 0;
+          while (set.next()) {
+            cnt++;
+          }
+          assertEquals(19, cnt);
+        }
+        // the deletions are also applied to the flushed data
+        statement.execute("flush");
+      }
+    }
+    cleanData();
+  }
+
   @Test
   public void testMerge() throws SQLException {
     prepareMerge();
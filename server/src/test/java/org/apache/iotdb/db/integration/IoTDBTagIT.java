@@ -849,6 +849,53 @@ public class IoTDBTagIT {
     }
   }
 
+  @Test
+  public void queryWithBooleanTagExpressionTest() throws ClassNotFoundException {
+    String[] sqls = {
+        "create timeseries root.turbine.d0.s0 with datatype=FLOAT, encoding=RLE "
+            + "tags(region=eu_west, type=temp, vendor=x)",
+        "create timeseries root.turbine.d0.s1 with datatype=FLOAT, encoding=RLE "
+            + "tags(region=eu_east, type=temp, vendor=y)",
+        "create timeseries root.turbine.d1.s0 with datatype=FLOAT, encoding=RLE "
+            + "tags(region=us, type=temp, vendor=y)",
+        "create timeseries root.turbine.d1.s1 with datatype=FLOAT, encoding=RLE "
+            + "tags(region=eu_west, type=power)",
+    };
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      for (String sql : sqls) {
+        statement.execute(sql);
+      }
+
+      String[] queries = {
+          "show timeseries where region startswith eu and type=temp and not vendor=x",
+          "show timeseries where region=us or (type=power and region!=us)",
+          "show timeseries root.turbine.d0 where not (type=temp and vendor=y)",
+      };
+      String[][] expected = {
+          {"root.turbine.d0.s1"},
+          {"root.turbine.d1.s0", "root.turbine.d1.s1"},
+          {"root.turbine.d0.s0"},
+      };
+      for (int i = 0; i < queries.length; i++) {
+        boolean hasResult = statement.execute(queries[i]);
+        assertTrue(hasResult);
+        ResultSet resultSet = statement.getResultSet();
+        int count = 0;
+        while (resultSet.next()) {
+          assertEquals(expected[i][count], resultSet.getString("timeseries"));
+          count++;
+        }
+        assertEquals(expected[i].length, count);
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail();
+    }
+  }
+
   @Test
   public void deleteStorageGroupTest() throws ClassNotFoundException {
     String[] ret = {"root.turbine.d1.s1,temperature,root.turbine,FLOAT,RLE,SNAPPY,v1,v2,v1,v2"};
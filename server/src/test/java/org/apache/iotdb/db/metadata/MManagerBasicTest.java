@@ -18,16 +18,21 @@
  */
 package org.apache.iotdb.db.metadata;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.query.PathException;
@@ -412,4 +417,110 @@ public class MManagerBasicTest {
       fail(e.getMessage());
     }
   }
+
+  @Test
+  public void testWildcardPathCacheInvalidation() throws MetadataException {
+    MManager manager = MManager.getInstance();
+    manager.setStorageGroup("root.laptop");
+    manager.createTimeseries("root.laptop.d1.s1", TSDataType.INT32, TSEncoding.PLAIN,
+        CompressionType.GZIP, null);
+    manager.createTimeseries("root.laptop.d2.s1", TSDataType.INT32, TSEncoding.PLAIN,
+        CompressionType.GZIP, null);
+
+    assertEquals("[root.laptop.d1.s1, root.laptop.d2.s1]",
+        manager.getAllTimeseriesName("root.laptop.*.s1").toString());
+    // the cached result is not affected by modifications of the returned list
+    manager.getAllTimeseriesName("root.laptop.*.s1").clear();
+    assertEquals("[root.laptop.d1.s1, root.laptop.d2.s1]",
+        manager.getAllTimeseriesName("root.laptop.*.s1").toString());
+    assertEquals("[root.laptop.d1, root.laptop.d2]",
+        manager.getDevices("root.laptop.*").toString());
+
+    manager.createTimeseries("root.laptop.d3.s1", TSDataType.INT32, TSEncoding.PLAIN,
+        CompressionType.GZIP, null);
+    assertEquals("[root.laptop.d1.s1, root.laptop.d2.s1, root.laptop.d3.s1]",
+        manager.getAllTimeseriesName("root.laptop.*.s1").toString());
+    assertEquals(3, manager.getAllTimeseriesPath("root.laptop.*.s1").size());
+    assertEquals("[root.laptop.d1, root.laptop.d2, root.laptop.d3]",
+        manager.getDevices("root.laptop.*").toString());
+
+    manager.deleteTimeseries("root.laptop.d1.s1");
+    assertEquals("[root.laptop.d2.s1, root.laptop.d3.s1]",
+        manager.getAllTimeseriesName("root.laptop.*.s1").toString());
+    assertEquals("[root.laptop.d2, root.laptop.d3]",
+        manager.getDevices("root.laptop.*").toString());
+
+    manager.deleteStorageGroups(Collections.singletonList("root.laptop"));
+    assertTrue(manager.getAllTimeseriesName("root.laptop.*.s1").isEmpty());
+  }
+
+  @Test
+  public void testSchemaVersionsOfStorageGroups() throws MetadataException {
+    MManager manager = MManager.getInstance();
+    manager.setStorageGroup("root.laptop");
+    manager.setStorageGroup("root.vehicle");
+    long[] laptopVersions = manager.getSchemaVersions("root.laptop.*.s1");
+    long[] allVersions = manager.getSchemaVersions("root.*.*.s1");
+    assertEquals(1, laptopVersions.length);
+    assertEquals(2, allVersions.length);
+
+    // a schema change in another storage group keeps the cached resolutions of root.laptop
+    manager.createTimeseries("root.vehicle.d1.s1", TSDataType.INT32, TSEncoding.PLAIN,
+        CompressionType.GZIP, null);
+    assertArrayEquals(laptopVersions, manager.getSchemaVersions("root.laptop.*.s1"));
+    assertFalse(Arrays.equals(allVersions, manager.getSchemaVersions("root.*.*.s1")));
+
+    manager.createTimeseries("root.laptop.d1.s1", TSDataType.INT32, TSEncoding.PLAIN,
+        CompressionType.GZIP, null);
+    assertFalse(Arrays.equals(laptopVersions, manager.getSchemaVersions("root.laptop.*.s1")));
+
+    // replacing a storage group by another one is detected too
+    allVersions = manager.getSchemaVersions("root.*.*.s1");
+    manager.deleteStorageGroups(Collections.singletonList("root.vehicle"));
+    manager.setStorageGroup("root.car");
+    assertFalse(Arrays.equals(allVersions, manager.getSchemaVersions("root.*.*.s1")));
+  }
+
+  @Test
+  public void testConcurrentSchemaChangeInStorageGroups() throws Exception {
+    MManager manager = MManager.getInstance();
+    int storageGroupNum = 4;
+    int seriesNum = 100;
+    for (int i = 0; i < storageGroupNum; i++) {
+      manager.setStorageGroup("root.sg" + i);
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(storageGroupNum + 1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < storageGroupNum; i++) {
+      String storageGroup = "root.sg" + i;
+      futures.add(pool.submit(() -> {
+        for (int j = 0; j < seriesNum; j++) {
+          manager.createTimeseries(storageGroup + ".d" + j % 10 + ".s" + j, TSDataType.INT32,
+              TSEncoding.PLAIN, CompressionType.GZIP, null);
+        }
+        // delete the series of one device while the others are creating series
+        manager.deleteTimeseries(storageGroup + ".d0");
+        return null;
+      }));
+    }
+    futures.add(pool.submit(() -> {
+      for (int j = 0; j < seriesNum; j++) {
+        int size = manager.getAllTimeseriesName("root.*").size();
+        assertTrue(size <= storageGroupNum * seriesNum);
+      }
+      return null;
+    }));
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    assertEquals(storageGroupNum * (seriesNum - seriesNum / 10),
+        manager.getAllTimeseriesName("root.*").size());
+    for (int i = 0; i < storageGroupNum; i++) {
+      assertEquals(seriesNum - seriesNum / 10,
+          manager.getAllTimeseriesName("root.sg" + i + ".*").size());
+      assertFalse(manager.isPathExist("root.sg" + i + ".d0"));
+    }
+  }
 }
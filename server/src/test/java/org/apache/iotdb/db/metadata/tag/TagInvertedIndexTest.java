@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata.tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.metadata.mnode.LeafMNode;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TagInvertedIndexTest {
+
+  private TagInvertedIndex index;
+  private LeafMNode s0;
+  private LeafMNode s1;
+  private LeafMNode s2;
+  private LeafMNode s3;
+
+  @Before
+  public void setUp() {
+    index = new TagInvertedIndex();
+    s0 = newNode("s0");
+    s1 = newNode("s1");
+    s2 = newNode("s2");
+    s3 = newNode("s3");
+    index.addTag("region", "eu_west", s0);
+    index.addTag("type", "temp", s0);
+    index.addTag("vendor", "x", s0);
+    index.addTag("region", "eu_east", s1);
+    index.addTag("type", "temp", s1);
+    index.addTag("vendor", "y", s1);
+    index.addTag("region", "us", s2);
+    index.addTag("type", "temp", s2);
+    index.addTag("region", "eu_west", s3);
+    index.addTag("type", "power", s3);
+  }
+
+  @Test
+  public void testPostingList() {
+    PostingList list = new PostingList();
+    for (int i = 100; i > 0; i -= 3) {
+      assertTrue(list.add(i));
+    }
+    assertFalse(list.add(1));
+    assertEquals(34, list.size());
+    for (int i = 1; i < list.size(); i++) {
+      assertTrue(list.get(i - 1) < list.get(i));
+    }
+    PostingList other = new PostingList();
+    for (int i = 0; i <= 100; i += 2) {
+      other.add(i);
+    }
+    PostingList and = list.and(other);
+    PostingList or = list.or(other);
+    PostingList andNot = list.andNot(other);
+    for (int i = 0; i <= 100; i++) {
+      assertEquals(list.contains(i) && other.contains(i), and.contains(i));
+      assertEquals(list.contains(i) || other.contains(i), or.contains(i));
+      assertEquals(list.contains(i) && !other.contains(i), andNot.contains(i));
+    }
+    assertTrue(list.remove(4));
+    assertFalse(list.remove(4));
+    assertEquals(33, list.size());
+  }
+
+  @Test
+  public void testBooleanQuery() {
+    TagExpression expression = TagExpression.and(
+        TagExpression.and(TagExpression.startsWith("region", "eu"),
+            TagExpression.equal("type", "temp")),
+        TagExpression.not(TagExpression.equal("vendor", "x")));
+    assertEquals(Collections.singletonList(s1), query(expression));
+
+    expression = TagExpression.or(TagExpression.equal("region", "us"),
+        TagExpression.equal("type", "power"));
+    assertEquals(listOf(s2, s3), query(expression));
+
+    assertEquals(listOf(s2), query(TagExpression.not(TagExpression.contains("region", "eu_"))));
+    assertEquals(listOf(s1, s2), query(TagExpression.notEqual("region", "eu_west")));
+    // series without the tag "vendor" do not match vendor!=x
+    assertEquals(listOf(s1), query(TagExpression.notEqual("vendor", "x")));
+    assertEquals(listOf(s1, s2, s3), query(TagExpression.not(TagExpression.equal("vendor", "x"))));
+  }
+
+  @Test
+  public void testRemoveAndReuseId() {
+    int id = s2.getTagIndexId();
+    index.removeTag("region", "us", s2);
+    assertEquals(id, s2.getTagIndexId());
+    index.removeTag("type", "temp", s2);
+    assertEquals(-1, s2.getTagIndexId());
+    assertTrue(index.getSeries("region", "us").isEmpty());
+    assertEquals(3, index.getAllSeries().size());
+
+    LeafMNode s4 = newNode("s4");
+    index.addTag("region", "us", s4);
+    assertEquals(id, s4.getTagIndexId());
+    assertEquals(Collections.singletonList(s4), query(TagExpression.equal("region", "us")));
+
+    index.removeTag("type", "power", s3);
+    index.removeTag("region", "eu_west", s3);
+    index.removeTag("type", "temp", s0);
+    index.removeTag("type", "temp", s1);
+    assertFalse(index.containsKey("type"));
+  }
+
+  private List<LeafMNode> query(TagExpression expression) {
+    return index.getNodes(expression.evaluate(index));
+  }
+
+  private List<LeafMNode> listOf(LeafMNode... nodes) {
+    List<LeafMNode> list = new ArrayList<>();
+    Collections.addAll(list, nodes);
+    return list;
+  }
+
+  private LeafMNode newNode(String name) {
+    return new LeafMNode(null, name, null, TSDataType.FLOAT, TSEncoding.RLE,
+        CompressionType.UNCOMPRESSED, Collections.emptyMap());
+  }
+}
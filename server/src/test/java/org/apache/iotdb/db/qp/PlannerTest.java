@@ -23,6 +23,7 @@ import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -117,6 +118,11 @@ public class PlannerTest {
     PhysicalPlan plan6 = processor.parseSQLToPhysicalPlan(deleteStatement);
     assertEquals(OperatorType.DELETE, plan6.getOperatorType());
 
+    String rangeDeleteStatement = "DELETE FROM root.device0.sensor0 WHERE time > 1000 and time <= 5000";
+    DeletePlan rangeDeletePlan = (DeletePlan) processor.parseSQLToPhysicalPlan(rangeDeleteStatement);
+    assertEquals(1001, rangeDeletePlan.getStartTime());
+    assertEquals(5000, rangeDeletePlan.getDeleteTime());
+
     String queryStatement1 = "select * from root.vehicle where root.vehicle.device1.sensor1 > 50";
     PhysicalPlan plan7 = processor.parseSQLToPhysicalPlan(queryStatement1);
     assertEquals(OperatorType.QUERY, plan7.getOperatorType());
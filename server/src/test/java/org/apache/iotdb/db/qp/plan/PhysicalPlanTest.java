@@ -95,6 +95,14 @@ public class PhysicalPlanTest {
     assertEquals("seriesPath: root.vehicle.d1.s2, resultDataType: INT32, encoding: RLE, compression: SNAPPY", plan.toString());
   }
 
+  @Test
+  public void testAutoEncodingMetadata() throws QueryProcessException {
+    String metadata = "create timeseries root.vehicle.d1.s2 with datatype=text,encoding=auto";
+    Planner processor = new Planner();
+    CreateTimeSeriesPlan plan = (CreateTimeSeriesPlan) processor.parseSQLToPhysicalPlan(metadata);
+    assertEquals("seriesPath: root.vehicle.d1.s2, resultDataType: TEXT, encoding: AUTO, compression: SNAPPY", plan.toString());
+  }
+
   @Test
   public void testMetadata3() throws QueryProcessException {
     String metadata = "create timeseries root.vehicle.d1.s2(温度) with datatype=int32,encoding=rle, compression=SNAPPY tags(tag1=v1, tag2=v2) attributes(attr1=v1, attr2=v2)";
@@ -25,9 +25,13 @@ import java.nio.ByteBuffer;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.query.aggregation.impl.AvgAggrResult;
+import org.apache.iotdb.db.query.aggregation.impl.PercentileAggrResult;
 import org.apache.iotdb.db.query.factory.AggregateResultFactory;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -262,4 +266,69 @@ public class AggregateResultTest {
     Assert.assertEquals(2d, (double)result.getResult(), 0.01);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void percentileAggrResultTest() throws QueryProcessException, IOException {
+    AggregateResult percentileAggrResult1 = AggregateResultFactory
+        .getAggrResultByName(PercentileAggrResult.getAggregationName("0.9"), TSDataType.DOUBLE);
+    AggregateResult percentileAggrResult2 = AggregateResultFactory
+        .getAggrResultByName(PercentileAggrResult.getAggregationName("0.9"), TSDataType.DOUBLE);
+
+    Statistics statistics1 = Statistics.getStatsByType(TSDataType.DOUBLE);
+    ValueSketch sketch = ValueSketch.create(TSDataType.DOUBLE, 128, 10);
+    for (int i = 1; i <= 50; i++) {
+      statistics1.update(i, (double) i);
+      sketch.update((double) i);
+    }
+    // statistics without sketch cannot be used
+    Assert.assertFalse(percentileAggrResult1.canUpdateFromStatistics(statistics1));
+    statistics1.setSketch(sketch);
+    Assert.assertTrue(percentileAggrResult1.canUpdateFromStatistics(statistics1));
+    percentileAggrResult1.updateResultFromStatistics(statistics1);
+
+    BatchData batchData = new BatchData(TSDataType.DOUBLE);
+    for (int i = 51; i <= 100; i++) {
+      batchData.putDouble(i, i);
+    }
+    percentileAggrResult2.updateResultFromPageData(batchData);
+    percentileAggrResult1.merge(percentileAggrResult2);
+    Assert.assertEquals(90d, (double) percentileAggrResult1.getResult(), 0.01);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    percentileAggrResult1.serializeTo(outputStream);
+    ByteBuffer byteBuffer = ByteBuffer.wrap(outputStream.toByteArray());
+    AggregateResult result = AggregateResult.deserializeFrom(byteBuffer);
+    Assert.assertEquals(90d, (double) result.getResult(), 0.01);
+  }
+
+  @Test
+  public void approxCountDistinctAggrResultTest() throws QueryProcessException, IOException {
+    AggregateResult distinctAggrResult1 = AggregateResultFactory
+        .getAggrResultByName(SQLConstant.APPROX_COUNT_DISTINCT, TSDataType.TEXT);
+    AggregateResult distinctAggrResult2 = AggregateResultFactory
+        .getAggrResultByName(SQLConstant.APPROX_COUNT_DISTINCT, TSDataType.TEXT);
+    Assert.assertEquals(0L, (long) distinctAggrResult1.getResult());
+
+    Statistics statistics1 = Statistics.getStatsByType(TSDataType.TEXT);
+    ValueSketch sketch = ValueSketch.create(TSDataType.TEXT, 128, 10);
+    for (int i = 0; i < 100; i++) {
+      statistics1.update(i, new Binary("v" + i % 10));
+      sketch.update(new Binary("v" + i % 10));
+    }
+    statistics1.setSketch(sketch);
+    distinctAggrResult1.updateResultFromStatistics(statistics1);
+
+    BatchData batchData = new BatchData(TSDataType.TEXT);
+    for (int i = 100; i < 200; i++) {
+      batchData.putBinary(i, new Binary("v" + i % 20));
+    }
+    distinctAggrResult2.updateResultFromPageData(batchData);
+    distinctAggrResult1.merge(distinctAggrResult2);
+    Assert.assertEquals(20L, (long) distinctAggrResult1.getResult());
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    distinctAggrResult1.serializeTo(outputStream);
+    ByteBuffer byteBuffer = ByteBuffer.wrap(outputStream.toByteArray());
+    AggregateResult result = AggregateResult.deserializeFrom(byteBuffer);
+    Assert.assertEquals(20L, (long) result.getResult());
+  }
+}
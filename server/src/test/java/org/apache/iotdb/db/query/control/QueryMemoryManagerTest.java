@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.junit.Test;
+
+public class QueryMemoryManagerTest {
+
+  @Test
+  public void testAdmission() {
+    QueryMemoryManager memoryManager = new QueryMemoryManager(1000, 400);
+    assertTrue(memoryManager.register(1));
+    assertTrue(memoryManager.tryAllocate(1, 400));
+    assertTrue(memoryManager.register(2));
+    assertTrue(memoryManager.tryAllocate(2, 300));
+    // only 300 bytes are free, which can not hold a whole budget
+    assertFalse(memoryManager.register(3));
+
+    memoryManager.unregister(1);
+    assertEquals(300, memoryManager.getUsedMemory());
+    assertTrue(memoryManager.register(3));
+  }
+
+  @Test
+  public void testAllocate() {
+    QueryMemoryManager memoryManager = new QueryMemoryManager(1000, 400);
+    assertTrue(memoryManager.register(1));
+    assertTrue(memoryManager.register(2));
+    assertTrue(memoryManager.register(3));
+    assertTrue(memoryManager.tryAllocate(1, 300));
+    // beyond the budget of the query
+    assertFalse(memoryManager.tryAllocate(1, 101));
+    assertEquals(300, memoryManager.getUsedMemory(1));
+    assertTrue(memoryManager.tryAllocate(2, 400));
+    assertTrue(memoryManager.tryAllocate(3, 250));
+    // beyond the free memory
+    assertFalse(memoryManager.tryAllocate(3, 100));
+
+    memoryManager.release(1, 300);
+    assertEquals(0, memoryManager.getUsedMemory(1));
+    assertTrue(memoryManager.tryAllocate(3, 100));
+    assertEquals(750, memoryManager.getUsedMemory());
+
+    // the memory of the queries not registered is not accounted
+    assertTrue(memoryManager.tryAllocate(4, 10000));
+    memoryManager.release(4, 10000);
+    assertEquals(750, memoryManager.getUsedMemory());
+  }
+
+  @Test
+  public void testAllocateRows() {
+    QueryMemoryManager memoryManager = new QueryMemoryManager(1000, 400);
+    assertTrue(memoryManager.register(1));
+    assertEquals(10, memoryManager.allocateRows(1, 10, 16));
+    memoryManager.release(1, 10 * 16);
+    // the rows are reduced to fit the budget of the query
+    assertEquals(25, memoryManager.allocateRows(1, 1000, 16));
+    assertEquals(400, memoryManager.getUsedMemory(1));
+    // at least one row is allocated
+    assertEquals(1, memoryManager.allocateRows(1, 1000, 16));
+    memoryManager.release(1, 26 * 16);
+    assertEquals(0, memoryManager.getUsedMemory());
+
+    // the fetch size of the queries not registered is kept
+    assertEquals(1000, memoryManager.allocateRows(2, 1000, 16));
+  }
+
+  @Test
+  public void testEstimateSize() {
+    assertEquals(8 + 4 + 8 + 1,
+        QueryMemoryManager.estimateRowSize(
+            Arrays.asList(TSDataType.INT32, TSDataType.DOUBLE, TSDataType.BOOLEAN)));
+
+    BatchData batchData = new BatchData(TSDataType.INT64);
+    for (int i = 0; i < 100; i++) {
+      batchData.putLong(i, i);
+    }
+    assertEquals(100 * 16, QueryMemoryManager.estimateSize(batchData));
+  }
+}
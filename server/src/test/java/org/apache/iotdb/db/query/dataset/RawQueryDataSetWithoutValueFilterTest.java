@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.qp.Planner;
+import org.apache.iotdb.db.qp.executor.IPlanExecutor;
+import org.apache.iotdb.db.qp.executor.PlanExecutor;
+import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryMemoryManager;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RawQueryDataSetWithoutValueFilterTest {
+
+  private static final String QUERY = "select d0.s0, d0.s1 from root.vehicle";
+
+  private IPlanExecutor queryExecutor = new PlanExecutor();
+  private Planner processor = new Planner();
+  private long originBudgetPerQuery;
+
+  public RawQueryDataSetWithoutValueFilterTest() throws Exception {
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+    originBudgetPerQuery = QueryMemoryManager.getInstance().getBudgetPerQuery();
+    String[] sqls = {
+        "SET STORAGE GROUP TO root.vehicle",
+        "CREATE TIMESERIES root.vehicle.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE",
+        "CREATE TIMESERIES root.vehicle.d0.s1 WITH DATATYPE=TEXT, ENCODING=PLAIN"};
+    for (String sql : sqls) {
+      queryExecutor.processNonQuery(processor.parseSQLToPhysicalPlan(sql));
+    }
+    // each file holds a batch of each series, so that the batches are read ahead
+    for (int i = 0; i < 1000; i++) {
+      queryExecutor.processNonQuery(processor.parseSQLToPhysicalPlan(String.format(
+          "insert into root.vehicle.d0(timestamp,s0,s1) values(%d,%d,'%d')", i, i, i)));
+      if (i % 50 == 49) {
+        StorageEngine.getInstance().syncCloseAllProcessor();
+      }
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    QueryMemoryManager.getInstance().setBudgetPerQuery(originBudgetPerQuery);
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testSpill() throws Exception {
+    // the memory of the unregistered query is not accounted, so nothing is spilled
+    List<String> expected = query(EnvironmentUtils.TEST_QUERY_CONTEXT);
+    assertEquals(1000, expected.size());
+
+    // no batch fits the budget, so all the batches read ahead are spilled
+    QueryMemoryManager.getInstance().setBudgetPerQuery(1);
+    long queryId = QueryResourceManager.getInstance().assignQueryId(true);
+    assertTrue(QueryMemoryManager.getInstance().register(queryId));
+    List<String> actual = query(new QueryContext(queryId));
+    QueryResourceManager.getInstance().endQuery(queryId);
+
+    assertEquals(expected, actual);
+    assertQueryDirEmpty();
+  }
+
+  @Test
+  public void testEndQueryBeforeConsumed() throws Exception {
+    QueryMemoryManager.getInstance().setBudgetPerQuery(1);
+    long queryId = QueryResourceManager.getInstance().assignQueryId(true);
+    assertTrue(QueryMemoryManager.getInstance().register(queryId));
+    QueryPlan queryPlan = (QueryPlan) processor.parseSQLToPhysicalPlan(QUERY);
+    QueryDataSet dataSet = queryExecutor.processQuery(queryPlan, new QueryContext(queryId));
+    assertTrue(dataSet.hasNext());
+    dataSet.next();
+    // the spilled files not read yet are deleted by endQuery()
+    QueryResourceManager.getInstance().endQuery(queryId);
+
+    assertQueryDirEmpty();
+  }
+
+  private List<String> query(QueryContext context) throws Exception {
+    QueryPlan queryPlan = (QueryPlan) processor.parseSQLToPhysicalPlan(QUERY);
+    QueryDataSet dataSet = queryExecutor.processQuery(queryPlan, context);
+    List<String> rows = new ArrayList<>();
+    while (dataSet.hasNext()) {
+      rows.add(dataSet.next().toString());
+    }
+    return rows;
+  }
+
+  /**
+   * The read tasks may still be spilling when the query ends, so wait for them a while.
+   */
+  private void assertQueryDirEmpty() throws InterruptedException {
+    File queryDir = new File(IoTDBDescriptor.getInstance().getConfig().getQueryDir());
+    String[] files = queryDir.list();
+    for (int i = 0; i < 50 && files != null && files.length > 0; i++) {
+      Thread.sleep(100);
+      files = queryDir.list();
+    }
+    assertTrue(files == null || files.length == 0);
+  }
+}
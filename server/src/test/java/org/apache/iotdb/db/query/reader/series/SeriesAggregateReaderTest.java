@@ -33,6 +33,9 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Before;
@@ -127,4 +130,36 @@ public class SeriesAggregateReaderTest {
       fail();
     }
   }
+
+  @Test
+  public void timeOnlyPageTest() throws IOException, QueryProcessException {
+    // the filter cuts pages, so they are aggregated by their data
+    Filter timeFilter = FilterFactory.and(TimeFilter.gtEq(15L), TimeFilter.lt(485L));
+    for (String aggregation : new String[]{"count", "min_time", "max_time"}) {
+      assertEquals(aggregateByPages(aggregation, timeFilter, false).getResult(),
+          aggregateByPages(aggregation, timeFilter, true).getResult());
+    }
+    assertEquals(470L, aggregateByPages("count", timeFilter, true).getResult());
+  }
+
+  private AggregateResult aggregateByPages(String aggregation, Filter timeFilter,
+      boolean timeOnly) throws IOException, QueryProcessException {
+    Path path = new Path(SERIES_READER_TEST_SG + PATH_SEPARATOR + "device0", "sensor0");
+    Set<String> allSensors = new HashSet<>();
+    allSensors.add("sensor0");
+    QueryDataSource queryDataSource = new QueryDataSource(path, seqResources, unseqResources);
+    SeriesAggregateReader seriesReader = new SeriesAggregateReader(path, allSensors,
+        TSDataType.INT32, new QueryContext(), queryDataSource, timeFilter, null, null);
+    AggregateResult aggregateResult = AggregateResultFactory
+        .getAggrResultByName(aggregation, TSDataType.INT32);
+    while (seriesReader.hasNextFile()) {
+      while (seriesReader.hasNextChunk()) {
+        while (seriesReader.hasNextPage()) {
+          BatchData pageData = timeOnly ? seriesReader.nextPageTimes() : seriesReader.nextPage();
+          aggregateResult.updateResultFromPageData(pageData);
+        }
+      }
+    }
+    return aggregateResult;
+  }
 }
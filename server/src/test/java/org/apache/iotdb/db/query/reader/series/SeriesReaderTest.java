@@ -19,6 +19,8 @@
 
 package org.apache.iotdb.db.query.reader.series;
 
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
@@ -68,6 +70,45 @@ public class SeriesReaderTest {
 
   @Test
   public void batchTest() {
+    checkBatches();
+  }
+
+  @Test
+  public void prefetchedBatchTest() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    int prevPrefetchedChunkNum = config.getPrefetchedChunkNumPerSeries();
+    config.setPrefetchedChunkNumPerSeries(3);
+    try {
+      checkBatches();
+
+      // all the chunks of the sequence files are prefetched
+      Set<String> allSensors = new HashSet<>();
+      allSensors.add("sensor0");
+      SeriesReader seriesReader = new SeriesReader(
+          new Path(SERIES_READER_TEST_SG + PATH_SEPARATOR + "device0", "sensor0"), allSensors,
+          TSDataType.INT32, new QueryContext(), seqResources, new ArrayList<>(), null, null);
+      IBatchReader batchReader = new SeriesRawDataBatchReader(seriesReader);
+      long expectedTime = 0;
+      while (batchReader.hasNextBatch()) {
+        BatchData batchData = batchReader.nextBatch();
+        while (batchData.hasCurrent()) {
+          assertEquals(expectedTime, batchData.currentTime());
+          assertEquals(expectedTime, batchData.getInt());
+          expectedTime++;
+          batchData.next();
+        }
+      }
+      batchReader.close();
+      assertEquals(seqResources.size() * 100L, expectedTime);
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } finally {
+      config.setPrefetchedChunkNumPerSeries(prevPrefetchedChunkNum);
+    }
+  }
+
+  private void checkBatches() {
     try {
       Set<String> allSensors = new HashSet<>();
       allSensors.add("sensor0");
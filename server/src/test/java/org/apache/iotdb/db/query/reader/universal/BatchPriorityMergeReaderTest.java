@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.universal;
+
+import java.io.IOException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchPriorityMergeReaderTest {
+
+  @Test
+  public void test() throws IOException {
+    BatchPriorityMergeReader mergeReader = new BatchPriorityMergeReader(TSDataType.INT64);
+    mergeReader.addBatch(createBatch(100, 80, 5, 11), 3, 495);
+    mergeReader.addBatch(createBatch(150, 60, 6, 19), 2, 504);
+    mergeReader.addBatch(createBatch(180, 50, 7, 31), 1, 523);
+    Assert.assertEquals(523, mergeReader.getCurrentLargestEndTime());
+
+    BatchData result = new BatchData(TSDataType.INT64);
+    mergeReader.nextBatch(result, Long.MAX_VALUE, null);
+    Assert.assertFalse(mergeReader.hasNext());
+    checkResult(result);
+    Assert.assertEquals(162, result.length());
+  }
+
+  @Test
+  public void testBoundedBatches() throws IOException {
+    BatchPriorityMergeReader mergeReader = new BatchPriorityMergeReader(TSDataType.INT64);
+    mergeReader.addBatch(createBatch(100, 80, 5, 11), 3, 495);
+    mergeReader.addBatch(createBatch(150, 60, 6, 19), 2, 504);
+
+    // the third source is added in the middle of the merge, as SeriesReader does
+    BatchData result = new BatchData(TSDataType.INT64);
+    mergeReader.nextBatch(result, 179, null);
+    Assert.assertEquals(180, mergeReader.currentTime());
+    mergeReader.addBatch(createBatch(180, 50, 7, 31), 1, 523);
+    while (mergeReader.hasNext()) {
+      mergeReader.nextBatch(result, 7);
+    }
+    checkResult(result);
+    Assert.assertEquals(162, result.length());
+  }
+
+  @Test
+  public void testValueFilter() throws IOException {
+    BatchPriorityMergeReader mergeReader = new BatchPriorityMergeReader(TSDataType.INT64);
+    mergeReader.addBatch(createBatch(100, 80, 5, 11), 3, 495);
+    mergeReader.addBatch(createBatch(150, 60, 6, 19), 2, 504);
+    mergeReader.addBatch(createBatch(180, 50, 7, 31), 1, 523);
+
+    BatchData result = new BatchData(TSDataType.INT64);
+    mergeReader.nextBatch(result, Long.MAX_VALUE, ValueFilter.gtEq(10L));
+    checkResult(result);
+    int cnt = 0;
+    while (result.hasCurrent()) {
+      Assert.assertTrue(result.getLong() >= 10);
+      result.next();
+      cnt++;
+    }
+    Assert.assertTrue(cnt > 0 && cnt < 162);
+  }
+
+  private static BatchData createBatch(long startTime, int size, int interval, int modValue) {
+    BatchData batchData = new BatchData(TSDataType.INT64);
+    for (int i = 0; i < size; i++) {
+      long time = startTime + (long) i * interval;
+      batchData.putLong(time, time % modValue);
+    }
+    return batchData;
+  }
+
+  private static void checkResult(BatchData result) {
+    long lastTime = Long.MIN_VALUE;
+    for (int i = 0; i < result.length(); i++) {
+      long time = result.getTimeByIndex(i);
+      long value = result.getLongByIndex(i);
+      Assert.assertTrue(time > lastTime);
+      lastTime = time;
+      if (time <= 495 && (time - 100) % 5 == 0) {
+        Assert.assertEquals(time % 11, value);
+      } else if (time <= 504 && (time - 150) % 6 == 0) {
+        Assert.assertEquals(time % 19, value);
+      } else {
+        Assert.assertEquals(time % 31, value);
+      }
+    }
+  }
+}
@@ -20,16 +20,21 @@
 package org.apache.iotdb.db.writelog.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan.PhysicalPlanType;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -49,9 +54,12 @@ public class LogWriterReaderTest {
     InsertPlan insertPlan2 = new InsertPlan("d1", 10L, new String[]{"s1", "s2"},
         new String[]{"1", "2"});
     DeletePlan deletePlan = new DeletePlan(10L, new Path("root.d1.s1"));
+    DeletePlan rangeDeletePlan = new DeletePlan(5L, 10L,
+        Collections.singletonList(new Path("root.d1.s2")));
     plans.add(insertPlan1);
     plans.add(insertPlan2);
     plans.add(deletePlan);
+    plans.add(rangeDeletePlan);
     for (PhysicalPlan plan : plans) {
       plan.serializeTo(logsBuffer);
     }
@@ -77,4 +85,31 @@ public class LogWriterReaderTest {
       new File(filePath).delete();
     }
   }
+
+  /**
+   * A DELETE plan written before range deletions are supported: type, delete time and path.
+   */
+  @Test
+  public void testReadOldDeletePlan() throws IOException {
+    ByteBuffer oldLogBuffer = ByteBuffer.allocate(1024);
+    oldLogBuffer.put((byte) PhysicalPlanType.DELETE.ordinal());
+    oldLogBuffer.putLong(10L);
+    ReadWriteIOUtils.write("root.d1.s1", oldLogBuffer);
+
+    LogWriter writer = new LogWriter(filePath);
+    writer.write(oldLogBuffer);
+    try {
+      writer.force();
+      writer.close();
+      SingleFileLogReader reader = new SingleFileLogReader(new File(filePath));
+      assertTrue(reader.hasNext());
+      DeletePlan deletePlan = (DeletePlan) reader.next();
+      assertEquals(new DeletePlan(10L, new Path("root.d1.s1")), deletePlan);
+      assertEquals(Long.MIN_VALUE, deletePlan.getStartTime());
+      assertFalse(reader.hasNext());
+      reader.close();
+    } finally {
+      new File(filePath).delete();
+    }
+  }
 }
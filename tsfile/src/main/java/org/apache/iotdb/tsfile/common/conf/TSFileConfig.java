@@ -56,7 +56,11 @@ public class TSFileConfig implements Serializable {
   public static final Charset STRING_CHARSET = Charset.forName(STRING_ENCODING);
   public static final String CONFIG_FILE_NAME = "iotdb-engine.properties";
   public static final String MAGIC_STRING = "TsFile";
-  public static final String VERSION_NUMBER = "000002";
+  public static final String VERSION_NUMBER = "000003";
+  /**
+   * the MetadataIndexNodes of this version have no entry offsets
+   */
+  public static final String VERSION_NUMBER_V2 = "000002";
   public static final String OLD_MAGIC_STRING = "TsFile";
   public static final String OLD_VERSION = "000001";
 
@@ -94,20 +98,27 @@ public class TSFileConfig implements Serializable {
    * Max length limitation of input string.
    */
   private int maxStringLength = 128;
+  /**
+   * The maximum size of the distinct values of a page encoded with PLAIN_DICTIONARY, the page is
+   * written with PLAIN once its dictionary exceeds it.
+   */
+  private int maxDictionarySizeInByte = 16 * 1024;
   /**
    * Floating-point precision.
    */
   private int floatPrecision = 2;
   /**
-   * Encoder of time column, TsFile supports TS_2DIFF, PLAIN and RLE(run-length
-   * encoding) Default value is TS_2DIFF.
+   * Encoder of time column, TsFile supports TS_2DIFF, PLAIN, RLE(run-length
+   * encoding) and TS_REGULAR, which suits nearly regular timestamps. Default
+   * value is TS_2DIFF. The encoding of the time column is not recorded in the
+   * chunks, so it must not be changed once data is written.
    */
   private String timeEncoding = "TS_2DIFF";
   /**
    * Encoder of value series. default value is PLAIN. For int, long data type,
    * TsFile also supports TS_2DIFF and RLE(run-length encoding). For float, double
-   * data type, TsFile also supports TS_2DIFF, RLE(run-length encoding) and
-   * GORILLA. For text data type, TsFile only supports PLAIN.
+   * data type, TsFile also supports TS_2DIFF, RLE(run-length encoding),
+   * GORILLA, CHIMP and ELF. For text data type, TsFile also supports PLAIN_DICTIONARY.
    */
   private String valueEncoder = "PLAIN";
   /**
@@ -204,6 +215,25 @@ public class TSFileConfig implements Serializable {
    * The amount of data iterate each time
    */
   private int batchSize = 1000;
+  /**
+   * The maximum number of closed TsFiles whose metadata are read through memory mapping, 0 means
+   * metadata are always read into heap buffers
+   */
+  private int maxMappedMetadataNum = 0;
+  /**
+   * Whether to keep sketches of the quantiles and the distinct values of each chunk in its
+   * metadata, so that percentile and approx_count_distinct can be answered without reading pages
+   */
+  private boolean enableSketchStatistics = false;
+  /**
+   * Size of the quantile sketches, the rank error is about 1.7 / size of the count
+   */
+  private int quantileSketchSize = 128;
+  /**
+   * Precision p of the distinct value sketches, which have 2^p bytes and a standard error of about
+   * 1.04 / sqrt(2^p)
+   */
+  private int distinctSketchPrecision = 10;
 
   public TSFileConfig() {
 
@@ -255,6 +285,14 @@ public class TSFileConfig implements Serializable {
     return maxStringLength;
   }
 
+  public int getMaxDictionarySizeInByte() {
+    return maxDictionarySizeInByte;
+  }
+
+  public void setMaxDictionarySizeInByte(int maxDictionarySizeInByte) {
+    this.maxDictionarySizeInByte = maxDictionarySizeInByte;
+  }
+
   // Freq encoder configuration
 
   public void setMaxStringLength(int maxStringLength) {
@@ -385,6 +423,38 @@ public class TSFileConfig implements Serializable {
     this.kerberosPrincipal = kerberosPrincipal;
   }
 
+  public int getMaxMappedMetadataNum() {
+    return maxMappedMetadataNum;
+  }
+
+  public void setMaxMappedMetadataNum(int maxMappedMetadataNum) {
+    this.maxMappedMetadataNum = maxMappedMetadataNum;
+  }
+
+  public boolean isEnableSketchStatistics() {
+    return enableSketchStatistics;
+  }
+
+  public void setEnableSketchStatistics(boolean enableSketchStatistics) {
+    this.enableSketchStatistics = enableSketchStatistics;
+  }
+
+  public int getQuantileSketchSize() {
+    return quantileSketchSize;
+  }
+
+  public void setQuantileSketchSize(int quantileSketchSize) {
+    this.quantileSketchSize = quantileSketchSize;
+  }
+
+  public int getDistinctSketchPrecision() {
+    return distinctSketchPrecision;
+  }
+
+  public void setDistinctSketchPrecision(int distinctSketchPrecision) {
+    this.distinctSketchPrecision = distinctSketchPrecision;
+  }
+
   public double getBloomFilterErrorRate() {
     return bloomFilterErrorRate;
   }
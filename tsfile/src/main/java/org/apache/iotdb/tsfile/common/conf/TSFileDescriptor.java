@@ -125,6 +125,8 @@ public class TSFileDescriptor {
       conf.setTimeSeriesDataType(properties.getProperty("time_series_data_type", conf.getTimeSeriesDataType()));
       conf.setMaxStringLength(
           Integer.parseInt(properties.getProperty("max_string_length", Integer.toString(conf.getMaxStringLength()))));
+      conf.setMaxDictionarySizeInByte(Integer.parseInt(properties.getProperty(
+          "max_dictionary_size_in_byte", Integer.toString(conf.getMaxDictionarySizeInByte()))));
       conf.setFloatPrecision(
           Integer.parseInt(properties.getProperty("float_precision", Integer.toString(conf.getFloatPrecision()))));
       conf.setTimeEncoder(properties.getProperty("time_encoder", conf.getTimeEncoder()));
@@ -132,6 +134,14 @@ public class TSFileDescriptor {
       conf.setCompressor(properties.getProperty("compressor", conf.getCompressor().toString()));
       conf.setBatchSize(Integer.parseInt(properties.getProperty("batch_size",
           Integer.toString(conf.getBatchSize()))));
+      conf.setMaxMappedMetadataNum(Integer.parseInt(properties.getProperty(
+          "max_mapped_metadata_num", Integer.toString(conf.getMaxMappedMetadataNum()))));
+      conf.setEnableSketchStatistics(Boolean.parseBoolean(properties.getProperty(
+          "enable_sketch_statistics", Boolean.toString(conf.isEnableSketchStatistics()))));
+      conf.setQuantileSketchSize(Integer.parseInt(properties.getProperty(
+          "quantile_sketch_size", Integer.toString(conf.getQuantileSketchSize()))));
+      conf.setDistinctSketchPrecision(Integer.parseInt(properties.getProperty(
+          "distinct_sketch_precision", Integer.toString(conf.getDistinctSketchPrecision()))));
     } catch (IOException e) {
       logger.warn("Cannot load config file, use default configuration", e);
     } catch (Exception e) {
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.encoding.encoder.ChimpEncoder;
+import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Decoder for the values written by {@link ChimpEncoder}.
+ */
+public abstract class ChimpDecoder extends Decoder {
+
+  protected static final int[] LEADING_ZEROS = {0, 8, 12, 16, 18, 20, 22, 24};
+  protected static final int SIGNIFICANT_DIGITS_LENGTH = 4;
+
+  protected final boolean eraseTrailingBits;
+
+  // the encoded bits of the current page
+  private ByteBuffer bitBuffer;
+  // the bits not read yet, from the highest bit
+  private long cache;
+  private int cacheSize;
+
+  // the number of values left in the current page
+  private int valueNum;
+  protected boolean isFirstValue;
+  // the number of significant decimal digits of the previous erased value
+  private int significantDigits = -1;
+
+  protected ChimpDecoder(boolean eraseTrailingBits) {
+    super(eraseTrailingBits ? TSEncoding.ELF : TSEncoding.CHIMP);
+    this.eraseTrailingBits = eraseTrailingBits;
+  }
+
+  @Override
+  public boolean hasNext(ByteBuffer buffer) throws IOException {
+    if (valueNum > 0) {
+      return true;
+    }
+    if (!buffer.hasRemaining()) {
+      return false;
+    }
+    readPageHeader(buffer);
+    return valueNum > 0;
+  }
+
+  private void readPageHeader(ByteBuffer buffer) {
+    valueNum = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    int size = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    bitBuffer = buffer.slice();
+    bitBuffer.limit(size);
+    buffer.position(buffer.position() + size);
+    cache = 0;
+    cacheSize = 0;
+    isFirstValue = true;
+    significantDigits = -1;
+  }
+
+  /**
+   * Prepare for reading the next value.
+   */
+  protected void nextValue(ByteBuffer buffer) {
+    if (valueNum == 0) {
+      readPageHeader(buffer);
+    }
+    valueNum--;
+  }
+
+  /**
+   * Read the next len bits as the lowest bits of the result.
+   */
+  protected long readBits(int len) {
+    long result = 0;
+    while (len > 0) {
+      if (cacheSize == 0) {
+        fillCache();
+      }
+      int n = Math.min(len, cacheSize);
+      if (n == Long.SIZE) {
+        result = cache;
+        cache = 0;
+      } else {
+        result = (result << n) | (cache >>> (Long.SIZE - n));
+        cache <<= n;
+      }
+      cacheSize -= n;
+      len -= n;
+    }
+    return result;
+  }
+
+  private void fillCache() {
+    if (bitBuffer.remaining() >= Long.BYTES) {
+      cache = bitBuffer.getLong();
+      cacheSize = Long.SIZE;
+      return;
+    }
+    if (!bitBuffer.hasRemaining()) {
+      throw new TsFileDecodingException("No more bits to read by ChimpDecoder");
+    }
+    while (bitBuffer.hasRemaining()) {
+      cache |= (bitBuffer.get() & 0xFFL) << (Long.SIZE - Byte.SIZE - cacheSize);
+      cacheSize += Byte.SIZE;
+    }
+  }
+
+  /**
+   * @return the number of significant decimal digits of the next value if it is erased, otherwise
+   * -1
+   */
+  protected int readErasingFlag() {
+    if (readBits(1) == 0) {
+      return significantDigits;
+    }
+    if (readBits(1) == 0) {
+      return -1;
+    }
+    significantDigits = (int) readBits(SIGNIFICANT_DIGITS_LENGTH);
+    return significantDigits;
+  }
+
+  @Override
+  public BigDecimal readBigDecimal(ByteBuffer buffer) {
+    throw new TsFileDecodingException("Method readBigDecimal is not supported by ChimpDecoder");
+  }
+
+  @Override
+  public void reset() {
+    valueNum = 0;
+    bitBuffer = null;
+    cache = 0;
+    cacheSize = 0;
+  }
+}
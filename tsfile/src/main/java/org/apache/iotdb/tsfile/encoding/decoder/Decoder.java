@@ -112,6 +112,20 @@ public abstract class Decoder {
           throw new TsFileDecodingException(
               "Decoder not found:" + type + " , DataType is :" + dataType);
       }
+    } else if (type == TSEncoding.CHIMP || type == TSEncoding.ELF) {
+      switch (dataType) {
+        case FLOAT:
+          return new FloatChimpDecoder(type == TSEncoding.ELF);
+        case DOUBLE:
+          return new DoubleChimpDecoder(type == TSEncoding.ELF);
+        default:
+          throw new TsFileDecodingException(
+              "Decoder not found:" + type + " , DataType is :" + dataType);
+      }
+    } else if (type == TSEncoding.TS_REGULAR && dataType == TSDataType.INT64) {
+      return new IntervalDecoder();
+    } else if (type == TSEncoding.PLAIN_DICTIONARY && dataType == TSDataType.TEXT) {
+      return new DictionaryDecoder();
     } else {
       throw new TsFileDecodingException(
           "Decoder not found:" + type + " , DataType is :" + dataType);
@@ -166,7 +166,9 @@ public abstract class DeltaBinaryDecoder extends Decoder {
 
     @Override
     public void reset() {
-      // do nothing
+      // drop the rest of the current pack, the next read loads a new one
+      nextReadIndex = 0;
+      readIntTotalCount = 0;
     }
   }
 
@@ -253,7 +255,9 @@ public abstract class DeltaBinaryDecoder extends Decoder {
 
     @Override
     public void reset() {
-      // do nothing
+      // drop the rest of the current pack, the next read loads a new one
+      nextReadIndex = 0;
+      readIntTotalCount = 0;
     }
 
   }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
+import org.apache.iotdb.tsfile.exception.encoding.TsFileDecodingException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Decoder for the pages written by {@link DictionaryEncoder}. The dictionary of a page is read when
+ * the first value of the page is read, and the values are the shared entries of the dictionary.
+ * Readers may also read the ids of the values and evaluate the entries only once, see {@link
+ * #isDictionaryPage(ByteBuffer)}.
+ */
+public class DictionaryDecoder extends Decoder {
+
+  private static final byte UNKNOWN_PAGE = -1;
+
+  private byte pageType = UNKNOWN_PAGE;
+  private Binary[] dictionary;
+
+  private final IntRleDecoder idDecoder = new IntRleDecoder(EndianType.BIG_ENDIAN);
+  private final PlainDecoder plainDecoder = new PlainDecoder(EndianType.BIG_ENDIAN);
+
+  public DictionaryDecoder() {
+    super(TSEncoding.PLAIN_DICTIONARY);
+  }
+
+  private void readPageType(ByteBuffer buffer) {
+    pageType = buffer.get();
+    if (pageType == DictionaryEncoder.DICTIONARY_PAGE) {
+      dictionary = new Binary[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+      for (int i = 0; i < dictionary.length; i++) {
+        byte[] entry = new byte[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+        buffer.get(entry);
+        dictionary[i] = new Binary(entry);
+      }
+    } else if (pageType != DictionaryEncoder.PLAIN_PAGE) {
+      throw new TsFileDecodingException("Unknown page type of dictionary encoding: " + pageType);
+    }
+  }
+
+  /**
+   * @return true if the current page is encoded with a dictionary, then its values can be read as
+   * ids of the entries of {@link #getDictionary()} through {@link #readId(ByteBuffer)}
+   */
+  public boolean isDictionaryPage(ByteBuffer buffer) {
+    if (pageType == UNKNOWN_PAGE) {
+      if (!buffer.hasRemaining()) {
+        return false;
+      }
+      readPageType(buffer);
+    }
+    return pageType == DictionaryEncoder.DICTIONARY_PAGE;
+  }
+
+  public Binary[] getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Read the id of the next value, only for dictionary pages.
+   */
+  public int readId(ByteBuffer buffer) {
+    return idDecoder.readInt(buffer);
+  }
+
+  @Override
+  public Binary readBinary(ByteBuffer buffer) {
+    if (pageType == UNKNOWN_PAGE) {
+      readPageType(buffer);
+    }
+    if (pageType == DictionaryEncoder.DICTIONARY_PAGE) {
+      return dictionary[idDecoder.readInt(buffer)];
+    }
+    return plainDecoder.readBinary(buffer);
+  }
+
+  @Override
+  public boolean hasNext(ByteBuffer buffer) throws IOException {
+    if (pageType == UNKNOWN_PAGE) {
+      if (!buffer.hasRemaining()) {
+        return false;
+      }
+      readPageType(buffer);
+    }
+    if (pageType == DictionaryEncoder.DICTIONARY_PAGE) {
+      return idDecoder.hasNext(buffer);
+    }
+    return buffer.hasRemaining();
+  }
+
+  @Override
+  public BigDecimal readBigDecimal(ByteBuffer buffer) {
+    throw new TsFileDecodingException("Method readBigDecimal is not supported by DictionaryDecoder");
+  }
+
+  @Override
+  public void reset() {
+    pageType = UNKNOWN_PAGE;
+    dictionary = null;
+    idDecoder.reset();
+  }
+}
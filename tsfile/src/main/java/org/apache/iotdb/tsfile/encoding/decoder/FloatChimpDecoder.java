@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.encoding.encoder.ElfUtils;
+
+/**
+ * Decoder for float value using chimp encoding, and optionally restoring the erased mantissa bits
+ * as in ELF encoding.
+ */
+public class FloatChimpDecoder extends ChimpDecoder {
+
+  private static final int SIGNIFICANT_BITS_LENGTH = 5;
+
+  private int previousValue;
+  private int previousLeadingZeros;
+
+  public FloatChimpDecoder(boolean eraseTrailingBits) {
+    super(eraseTrailingBits);
+  }
+
+  @Override
+  public float readFloat(ByteBuffer buffer) {
+    nextValue(buffer);
+    int significantDigits = eraseTrailingBits ? readErasingFlag() : -1;
+    int bits;
+    if (isFirstValue) {
+      isFirstValue = false;
+      bits = (int) readBits(Integer.SIZE);
+    } else {
+      switch ((int) readBits(2)) {
+        case 0:
+          bits = previousValue;
+          break;
+        case 1:
+          int leadingZeros = LEADING_ZEROS[(int) readBits(3)];
+          int significantBits = (int) readBits(SIGNIFICANT_BITS_LENGTH);
+          int trailingZeros = Integer.SIZE - leadingZeros - significantBits;
+          bits = previousValue ^ ((int) readBits(significantBits) << trailingZeros);
+          break;
+        case 2:
+          bits = previousValue ^ (int) readBits(Integer.SIZE - previousLeadingZeros);
+          break;
+        default:
+          previousLeadingZeros = LEADING_ZEROS[(int) readBits(3)];
+          bits = previousValue ^ (int) readBits(Integer.SIZE - previousLeadingZeros);
+          break;
+      }
+    }
+    previousValue = bits;
+    if (significantDigits >= 0) {
+      bits = ElfUtils.restore(bits, significantDigits);
+    }
+    return Float.intBitsToFloat(bits);
+  }
+}
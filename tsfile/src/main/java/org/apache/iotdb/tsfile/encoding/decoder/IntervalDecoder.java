@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder.LongDeltaDecoder;
+import org.apache.iotdb.tsfile.encoding.encoder.IntervalEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Decoder for the values written by {@link IntervalEncoder}. The values of a regular block are
+ * generated by adding the interval to the previous value, and only the exceptions are read from
+ * the buffer.
+ */
+public class IntervalDecoder extends Decoder {
+
+  private static final byte DELTA_BLOCK = 1;
+
+  // the number of values left in the current block
+  private int remaining;
+  private boolean isDeltaBlock;
+
+  private long previous;
+  private long interval;
+  // the index of the next value in the block
+  private int index;
+  private int nextExceptionIndex;
+  // the number of exceptions left in the block
+  private int exceptionNum;
+
+  private final LongDeltaDecoder deltaDecoder = new LongDeltaDecoder();
+
+  public IntervalDecoder() {
+    super(TSEncoding.TS_REGULAR);
+  }
+
+  @Override
+  public boolean hasNext(ByteBuffer buffer) throws IOException {
+    return remaining > 0 || buffer.hasRemaining();
+  }
+
+  @Override
+  public long readLong(ByteBuffer buffer) {
+    if (remaining == 0) {
+      readBlockHeader(buffer);
+    }
+    remaining--;
+    if (isDeltaBlock) {
+      return deltaDecoder.readLong(buffer);
+    }
+    int i = index++;
+    if (i == 0) {
+      return previous;
+    }
+    previous += interval;
+    if (i == nextExceptionIndex) {
+      previous += ReadWriteForEncodingUtils.readVarLong(buffer);
+      if (--exceptionNum > 0) {
+        nextExceptionIndex += ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      }
+    }
+    return previous;
+  }
+
+  private void readBlockHeader(ByteBuffer buffer) {
+    isDeltaBlock = buffer.get() == DELTA_BLOCK;
+    if (isDeltaBlock) {
+      // the pack of TS_2DIFF starts with the number of deltas
+      remaining = buffer.getInt(buffer.position()) + 1;
+      return;
+    }
+    remaining = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    previous = ReadWriteForEncodingUtils.readVarLong(buffer);
+    interval = ReadWriteForEncodingUtils.readVarLong(buffer);
+    exceptionNum = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    nextExceptionIndex =
+        exceptionNum > 0 ? ReadWriteForEncodingUtils.readUnsignedVarInt(buffer) : -1;
+    index = 0;
+  }
+
+  @Override
+  public void reset() {
+    remaining = 0;
+    isDeltaBlock = false;
+    index = 0;
+    exceptionNum = 0;
+    nextExceptionIndex = -1;
+    deltaDecoder.reset();
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Chimp encoding, a successor of Gorilla encoding. For more information about how it works, please
+ * see https://www.vldb.org/pvldb/vol15/p3058-liakos.pdf
+ *
+ * The XOR of a value and its previous value is written as one of:
+ * <ul>
+ * <li>'00': the XOR is zero.</li>
+ * <li>'01': the XOR has more trailing zeros than a threshold, the bucket of its leading zeros, the
+ * number of its significant bits and the significant bits are written.</li>
+ * <li>'10': the XOR has the same bucket of leading zeros as the previous one, the bits after the
+ * leading zeros are written.</li>
+ * <li>'11': the bucket of the leading zeros and the bits after them are written.</li>
+ * </ul>
+ * The leading zeros are rounded down to one of 8 buckets so that they take only 3 bits.
+ *
+ * With ELF encoding, the trailing bits of the mantissa of a value with few decimal places are
+ * erased before the XOR, which makes '01' more likely, and the value is restored by rounding it
+ * up to its decimal places when decoded, see {@link ElfUtils}. Each value is then prefixed by
+ * '0' if it is erased with the same number of significant decimal digits as the previous erased
+ * one, '10' if it is not erased, or '11' and the 4-bit number of significant decimal digits.
+ *
+ * The encoded bits of a page are buffered and written as [number of values][number of bytes][bits]
+ * when flushed, so that a decoder knows where the page ends without a terminating value.
+ */
+public abstract class ChimpEncoder extends Encoder {
+
+  // the leading zeros of an XOR are rounded down to these
+  static final int[] LEADING_ZEROS = {0, 8, 12, 16, 18, 20, 22, 24};
+  // leading zeros -> index of the bucket
+  static final int[] LEADING_ZERO_BUCKETS = new int[65];
+
+  static {
+    for (int i = 0; i < LEADING_ZERO_BUCKETS.length; i++) {
+      int bucket = 0;
+      while (bucket + 1 < LEADING_ZEROS.length && LEADING_ZEROS[bucket + 1] <= i) {
+        bucket++;
+      }
+      LEADING_ZERO_BUCKETS[i] = bucket;
+    }
+  }
+
+  // the bits of an erased value with unchanged significant decimal digits
+  static final int ERASED_SAME_FLAG = 0;
+  // the bits of a value that is not erased
+  static final int NOT_ERASED_FLAG = 2;
+  // the bits of an erased value with changed significant decimal digits
+  static final int ERASED_FLAG = 3;
+  static final int SIGNIFICANT_DIGITS_LENGTH = 4;
+
+  protected final boolean eraseTrailingBits;
+
+  private final PublicBAOS bitBuffer = new PublicBAOS();
+  // the bits not written into the bit buffer, from the highest bit
+  private long cache;
+  private int cacheSize;
+
+  protected int valueNum;
+  // the number of significant decimal digits of the previous erased value
+  protected int previousSignificantDigits = -1;
+
+  protected ChimpEncoder(boolean eraseTrailingBits) {
+    super(eraseTrailingBits ? TSEncoding.ELF : TSEncoding.CHIMP);
+    this.eraseTrailingBits = eraseTrailingBits;
+  }
+
+  /**
+   * Write the lowest len bits of the value, from the highest one.
+   */
+  protected void writeBits(long value, int len) {
+    if (len == 0) {
+      return;
+    }
+    if (len < Long.SIZE) {
+      value &= (1L << len) - 1;
+    }
+    int free = Long.SIZE - cacheSize;
+    if (len < free) {
+      cache |= value << (free - len);
+      cacheSize += len;
+    } else {
+      int rest = len - free;
+      cache |= value >>> rest;
+      writeCache();
+      if (rest > 0) {
+        cache = value << (Long.SIZE - rest);
+        cacheSize = rest;
+      }
+    }
+  }
+
+  private void writeCache() {
+    for (int i = Long.SIZE - Byte.SIZE; i >= 0; i -= Byte.SIZE) {
+      bitBuffer.write((int) (cache >>> i));
+    }
+    cache = 0;
+    cacheSize = 0;
+  }
+
+  /**
+   * Write the erasing flag and the significant decimal digits of a value.
+   *
+   * @param significantDigits the number of significant decimal digits of an erased value, or -1
+   * if the value is not erased
+   */
+  protected void writeErasingFlag(int significantDigits) {
+    if (significantDigits < 0) {
+      writeBits(NOT_ERASED_FLAG, 2);
+    } else if (significantDigits == previousSignificantDigits) {
+      writeBits(ERASED_SAME_FLAG, 1);
+    } else {
+      writeBits(ERASED_FLAG, 2);
+      writeBits(significantDigits, SIGNIFICANT_DIGITS_LENGTH);
+      previousSignificantDigits = significantDigits;
+    }
+  }
+
+  @Override
+  public void flush(ByteArrayOutputStream out) {
+    if (valueNum == 0) {
+      return;
+    }
+    for (int i = Long.SIZE - Byte.SIZE; cacheSize > 0; i -= Byte.SIZE) {
+      bitBuffer.write((int) (cache >>> i));
+      cacheSize -= Byte.SIZE;
+    }
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(valueNum, out);
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(bitBuffer.size(), out);
+    out.write(bitBuffer.getBuf(), 0, bitBuffer.size());
+    reset();
+  }
+
+  protected void reset() {
+    bitBuffer.reset();
+    cache = 0;
+    cacheSize = 0;
+    valueNum = 0;
+    previousSignificantDigits = -1;
+  }
+
+  @Override
+  public long getMaxByteSize() {
+    // the buffered bytes, the cache and the two var ints
+    return bitBuffer.size() + Long.BYTES + 10L;
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * DictionaryEncoder encodes TEXT values with a dictionary built for each page. A page is written
+ * as [page type][data]. A dictionary page is [number of entries][entries][ids], where each entry is
+ * [length][bytes] and the ids referring to the entries are encoded with RLE. A plain page is the
+ * values as written by {@link PlainEncoder}.
+ *
+ * The values of a page are buffered as ids until the page is flushed. Once the distinct values of
+ * the page take more than max_dictionary_size_in_byte, the buffered values and the following ones
+ * of the page are written as a plain page. A page is also written as a plain one when its
+ * dictionary encoding turns out to be larger.
+ */
+public class DictionaryEncoder extends Encoder {
+
+  public static final byte PLAIN_PAGE = 0;
+  public static final byte DICTIONARY_PAGE = 1;
+
+  private final int maxStringLength;
+  private final int maxDictionarySize;
+
+  private final Map<Binary, Integer> entryIds = new HashMap<>();
+  private final List<Binary> entries = new ArrayList<>();
+  // the serialized size of the entries
+  private int dictionarySize;
+
+  private int[] ids = new int[32];
+  private int idNum;
+  // the size of the buffered values if they were written as a plain page
+  private long plainSize;
+
+  // the current page has exceeded the dictionary size and is written as a plain page
+  private boolean isPlainPage;
+
+  private final PlainEncoder plainEncoder;
+  private final IntRleEncoder idEncoder = new IntRleEncoder(EndianType.BIG_ENDIAN);
+  private final PublicBAOS idBuffer = new PublicBAOS();
+
+  public DictionaryEncoder(int maxStringLength, int maxDictionarySize) {
+    super(TSEncoding.PLAIN_DICTIONARY);
+    this.maxStringLength = maxStringLength;
+    this.maxDictionarySize = maxDictionarySize;
+    this.plainEncoder = new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.TEXT, maxStringLength);
+  }
+
+  @Override
+  public void encode(Binary value, ByteArrayOutputStream out) {
+    if (isPlainPage) {
+      plainEncoder.encode(value, out);
+      return;
+    }
+    Integer id = entryIds.get(value);
+    if (id == null) {
+      int entrySize = getEntrySize(value);
+      if (dictionarySize + entrySize > maxDictionarySize) {
+        fallBackToPlain(out);
+        plainEncoder.encode(value, out);
+        return;
+      }
+      id = entries.size();
+      entries.add(value);
+      entryIds.put(value, id);
+      dictionarySize += entrySize;
+    }
+    if (idNum == ids.length) {
+      ids = Arrays.copyOf(ids, ids.length * 2);
+    }
+    ids[idNum++] = id;
+    plainSize += Integer.BYTES + value.getLength();
+  }
+
+  @Override
+  public void flush(ByteArrayOutputStream out) throws IOException {
+    if (isPlainPage) {
+      // the values have been written
+      isPlainPage = false;
+      return;
+    }
+    if (idNum == 0) {
+      return;
+    }
+    for (int i = 0; i < idNum; i++) {
+      idEncoder.encode(ids[i], idBuffer);
+    }
+    idEncoder.flush(idBuffer);
+    if (getVarIntSize(entries.size()) + dictionarySize + idBuffer.size() < plainSize) {
+      out.write(DICTIONARY_PAGE);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(entries.size(), out);
+      for (Binary entry : entries) {
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(entry.getLength(), out);
+        out.write(entry.getValues());
+      }
+      idBuffer.writeTo(out);
+    } else {
+      writePlainPage(out);
+    }
+    idBuffer.reset();
+    clear();
+  }
+
+  /**
+   * Write the buffered values of the current page as a plain page, the following values of the
+   * page are written directly.
+   */
+  private void fallBackToPlain(ByteArrayOutputStream out) {
+    writePlainPage(out);
+    clear();
+    isPlainPage = true;
+  }
+
+  private void writePlainPage(ByteArrayOutputStream out) {
+    out.write(PLAIN_PAGE);
+    for (int i = 0; i < idNum; i++) {
+      plainEncoder.encode(entries.get(ids[i]), out);
+    }
+  }
+
+  private void clear() {
+    entryIds.clear();
+    entries.clear();
+    dictionarySize = 0;
+    idNum = 0;
+    plainSize = 0;
+  }
+
+  private static int getEntrySize(Binary value) {
+    return getVarIntSize(value.getLength()) + value.getLength();
+  }
+
+  private static int getVarIntSize(int value) {
+    int size = 1;
+    while ((value >>>= 7) != 0) {
+      size++;
+    }
+    return size;
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    // a new entry of the dictionary or a plain value, refer to PlainEncoder
+    return 4 + TSFileConfig.BYTE_SIZE_PER_CHAR * maxStringLength;
+  }
+
+  @Override
+  public long getMaxByteSize() {
+    if (isPlainPage || idNum == 0) {
+      return 0;
+    }
+    // a dictionary page is only written if it is smaller than the plain one
+    return 1 + plainSize;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+/**
+ * Erasing of the trailing mantissa bits of decimal values, as in ELF. For more information about
+ * how it works, please see https://www.vldb.org/pvldb/vol16/p1763-li.pdf
+ *
+ * A value with alpha decimal places stays the same after being rounded up to alpha decimal places,
+ * so the mantissa bits that are less than 10^-alpha can be set to zero and restored by rounding
+ * the erased value up. An erased value is only used if it is actually restored to the original
+ * bits, so the erasing is always lossless.
+ */
+public class ElfUtils {
+
+  // the significant decimal digits are written in 4 bits
+  static final int MAX_SIGNIFICANT_DIGITS = 15;
+
+  // the powers of ten that are exactly represented
+  private static final double[] POWERS_OF_TEN = new double[23];
+  private static final double[] NEGATIVE_POWERS_OF_TEN = new double[23];
+  private static final float[] FLOAT_POWERS_OF_TEN = new float[11];
+  // alpha -> ceil(alpha * log2(10)), the number of mantissa bits needed by alpha decimal places
+  private static final int[] MANTISSA_BITS_OF_DECIMAL_PLACES = new int[23];
+
+  static {
+    double power = 1;
+    for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = power;
+      NEGATIVE_POWERS_OF_TEN[i] = 1 / power;
+      MANTISSA_BITS_OF_DECIMAL_PLACES[i] = (int) Math.ceil(i * Math.log(10) / Math.log(2));
+      if (i < FLOAT_POWERS_OF_TEN.length) {
+        FLOAT_POWERS_OF_TEN[i] = (float) power;
+      }
+      power *= 10;
+    }
+  }
+
+  private static final double MAX_EXACT_DOUBLE_INTEGER = 1L << 53;
+  private static final float MAX_EXACT_FLOAT_INTEGER = 1 << 24;
+
+  private ElfUtils() {
+    throw new IllegalAccessError("Utility class");
+  }
+
+  /**
+   * @param value a positive value
+   * @return floor(log10(value))
+   */
+  static int getDecimalExponent(double value) {
+    if (value >= 1) {
+      for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+        if (value < POWERS_OF_TEN[i]) {
+          return i - 1;
+        }
+      }
+    } else {
+      for (int i = 1; i < NEGATIVE_POWERS_OF_TEN.length; i++) {
+        if (value >= NEGATIVE_POWERS_OF_TEN[i]) {
+          return -i;
+        }
+      }
+    }
+    return (int) Math.floor(Math.log10(value));
+  }
+
+  /**
+   * @return the number of significant decimal digits of the value, or -1 if it is not a finite
+   * non-zero value with at most MAX_SIGNIFICANT_DIGITS significant decimal digits
+   */
+  static int getSignificantDigits(double value) {
+    if (value == 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+      return -1;
+    }
+    double abs = Math.abs(value);
+    int exponent = getDecimalExponent(abs);
+    for (int i = Math.max(0, -exponent);
+        i < POWERS_OF_TEN.length && i + exponent < MAX_SIGNIFICANT_DIGITS; i++) {
+      double scaled = abs * POWERS_OF_TEN[i];
+      if (scaled >= MAX_EXACT_DOUBLE_INTEGER) {
+        break;
+      }
+      if (scaled == Math.rint(scaled)) {
+        return i + exponent + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the number of significant decimal digits of the value, or -1 if it is not a finite
+   * non-zero value with at most MAX_SIGNIFICANT_DIGITS significant decimal digits
+   */
+  static int getSignificantDigits(float value) {
+    if (value == 0 || Float.isNaN(value) || Float.isInfinite(value)) {
+      return -1;
+    }
+    float abs = Math.abs(value);
+    int exponent = getDecimalExponent(abs);
+    for (int i = Math.max(0, -exponent);
+        i < FLOAT_POWERS_OF_TEN.length && i + exponent < MAX_SIGNIFICANT_DIGITS; i++) {
+      float scaled = abs * FLOAT_POWERS_OF_TEN[i];
+      if (scaled >= MAX_EXACT_FLOAT_INTEGER) {
+        break;
+      }
+      if (scaled == Math.rint(scaled)) {
+        return i + exponent + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the bits of the value with its trailing mantissa bits erased, or the bits themselves
+   * if nothing can be erased
+   */
+  static long erase(long bits, int significantDigits) {
+    double abs = Math.abs(Double.longBitsToDouble(bits));
+    int decimalPlaces = significantDigits - getDecimalExponent(abs) - 1;
+    int binaryExponent = (int) ((bits >>> 52) & 0x7ff) - 1023;
+    // the mantissa bits more significant than 10^-decimalPlaces
+    int keptBits = MANTISSA_BITS_OF_DECIMAL_PLACES[decimalPlaces] + binaryExponent;
+    int erasedBits = 52 - keptBits;
+    // erasing a few bits does not pay off the flag
+    if (erasedBits <= 4 || erasedBits > 52) {
+      return bits;
+    }
+    long erased = bits & (-1L << erasedBits);
+    if (erased == bits || restore(erased, significantDigits) != bits) {
+      return bits;
+    }
+    return erased;
+  }
+
+  /**
+   * @return the bits of the value with its trailing mantissa bits erased, or the bits themselves
+   * if nothing can be erased
+   */
+  static int erase(int bits, int significantDigits) {
+    double abs = Math.abs(Float.intBitsToFloat(bits));
+    int decimalPlaces = significantDigits - getDecimalExponent(abs) - 1;
+    int binaryExponent = ((bits >>> 23) & 0xff) - 127;
+    int keptBits = MANTISSA_BITS_OF_DECIMAL_PLACES[decimalPlaces] + binaryExponent;
+    int erasedBits = 23 - keptBits;
+    if (erasedBits <= 3 || erasedBits > 23) {
+      return bits;
+    }
+    int erased = bits & (-1 << erasedBits);
+    if (erased == bits || restore(erased, significantDigits) != bits) {
+      return bits;
+    }
+    return erased;
+  }
+
+  /**
+   * Round the erased value up to its decimal places.
+   */
+  public static long restore(long erasedBits, int significantDigits) {
+    double value = Double.longBitsToDouble(erasedBits);
+    double abs = Math.abs(value);
+    int decimalPlaces = significantDigits - getDecimalExponent(abs) - 1;
+    if (decimalPlaces < 0 || decimalPlaces >= POWERS_OF_TEN.length) {
+      return erasedBits;
+    }
+    double scale = POWERS_OF_TEN[decimalPlaces];
+    double restored = Math.ceil(abs * scale) / scale;
+    return Double.doubleToRawLongBits(value < 0 ? -restored : restored);
+  }
+
+  /**
+   * Round the erased value up to its decimal places.
+   */
+  public static int restore(int erasedBits, int significantDigits) {
+    float value = Float.intBitsToFloat(erasedBits);
+    double abs = Math.abs(value);
+    int decimalPlaces = significantDigits - getDecimalExponent(abs) - 1;
+    if (decimalPlaces < 0 || decimalPlaces >= POWERS_OF_TEN.length) {
+      return erasedBits;
+    }
+    double scale = POWERS_OF_TEN[decimalPlaces];
+    float restored = (float) (Math.ceil(abs * scale) / scale);
+    return Float.floatToRawIntBits(value < 0 ? -restored : restored);
+  }
+}
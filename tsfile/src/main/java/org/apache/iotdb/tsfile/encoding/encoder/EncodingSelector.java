@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.tsfile.exception.encoding.TsFileEncodingException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
+
+/**
+ * EncodingSelector chooses the value encoding of a chunk whose series is created with
+ * {@link TSEncoding#AUTO}. The first points of the chunk are buffered as a sample, encoded with
+ * every lossless candidate encoding of the data type, and the encoding producing the fewest bytes
+ * is chosen. The sampled points are then replayed into the chunk writer, so the chosen encoding is
+ * recorded in the chunk header like any other encoding.
+ *
+ * RLE and TS_2DIFF are not candidates of FLOAT and DOUBLE as they keep only max_point_number
+ * decimal digits, and REGULAR is not a candidate of values as it only suits regular timestamps.
+ * TEXT is not sampled and always uses PLAIN_DICTIONARY, which falls back to PLAIN by itself in the
+ * pages where a dictionary does not pay off.
+ *
+ * The choices of all selectors are counted so that the gain can be observed.
+ */
+public class EncodingSelector {
+
+  public static final int SAMPLE_SIZE = 1024;
+
+  private static final TSEncoding[] BOOLEAN_CANDIDATES = {TSEncoding.RLE, TSEncoding.PLAIN};
+  private static final TSEncoding[] INTEGER_CANDIDATES = {TSEncoding.TS_2DIFF, TSEncoding.RLE,
+      TSEncoding.PLAIN};
+  private static final TSEncoding[] FLOATING_CANDIDATES = {TSEncoding.GORILLA, TSEncoding.CHIMP,
+      TSEncoding.ELF, TSEncoding.PLAIN};
+
+  // chosen encoding -> number of chunks
+  private static final Map<TSEncoding, AtomicLong> selectedChunkNums = new EnumMap<>(
+      TSEncoding.class);
+  // the sizes of all samples encoded with PLAIN and with the chosen encodings
+  private static final AtomicLong sampledPlainSize = new AtomicLong();
+  private static final AtomicLong sampledSelectedSize = new AtomicLong();
+
+  static {
+    for (TSEncoding encoding : TSEncoding.values()) {
+      selectedChunkNums.put(encoding, new AtomicLong());
+    }
+  }
+
+  private final TSDataType dataType;
+  private final Map<String, String> props;
+
+  private final long[] times = new long[SAMPLE_SIZE];
+  // INT32, INT64 and BOOLEAN values as they are, FLOAT and DOUBLE values as their raw bits
+  private final long[] values = new long[SAMPLE_SIZE];
+  private int size;
+
+  public EncodingSelector(TSDataType dataType, Map<String, String> props) {
+    this.dataType = dataType;
+    this.props = props;
+  }
+
+  /**
+   * @return false if the data type has only one candidate, which is chosen without sampling
+   */
+  public boolean needSample() {
+    return dataType != TSDataType.TEXT;
+  }
+
+  public void add(long time, boolean value) {
+    times[size] = time;
+    values[size++] = value ? 1 : 0;
+  }
+
+  public void add(long time, int value) {
+    times[size] = time;
+    values[size++] = value;
+  }
+
+  public void add(long time, long value) {
+    times[size] = time;
+    values[size++] = value;
+  }
+
+  public void add(long time, float value) {
+    times[size] = time;
+    values[size++] = Float.floatToRawIntBits(value);
+  }
+
+  public void add(long time, double value) {
+    times[size] = time;
+    values[size++] = Double.doubleToRawLongBits(value);
+  }
+
+  public boolean isFull() {
+    return size == SAMPLE_SIZE;
+  }
+
+  public int getSampleSize() {
+    return size;
+  }
+
+  /**
+   * @return the memory occupied by the sample
+   */
+  public long estimateMemSize() {
+    return 2L * SAMPLE_SIZE * Long.BYTES;
+  }
+
+  /**
+   * Encode the sample with each candidate and choose the one with the smallest result.
+   *
+   * @return the chosen encoding
+   */
+  public TSEncoding select() {
+    TSEncoding selected =
+        dataType == TSDataType.TEXT ? TSEncoding.PLAIN_DICTIONARY : TSEncoding.PLAIN;
+    if (needSample() && size > 0) {
+      long plainSize = 0;
+      long selectedSize = Long.MAX_VALUE;
+      PublicBAOS out = new PublicBAOS();
+      for (TSEncoding candidate : getCandidates()) {
+        long encodedSize = encodeSample(candidate, out);
+        if (candidate == TSEncoding.PLAIN) {
+          plainSize = encodedSize;
+        }
+        // the former candidates are preferred on ties
+        if (encodedSize < selectedSize) {
+          selected = candidate;
+          selectedSize = encodedSize;
+        }
+      }
+      sampledPlainSize.addAndGet(plainSize);
+      sampledSelectedSize.addAndGet(selectedSize);
+    }
+    selectedChunkNums.get(selected).incrementAndGet();
+    return selected;
+  }
+
+  /**
+   * @return a new value encoder of the given encoding with the properties of the series
+   */
+  public Encoder getEncoder(TSEncoding encoding) {
+    TSEncodingBuilder builder = TSEncodingBuilder.getEncodingBuilder(encoding);
+    builder.initFromProps(props);
+    return builder.getEncoder(dataType);
+  }
+
+  /**
+   * Write the sampled points into the chunk writer and clear the sample.
+   */
+  public void writeSampleTo(IChunkWriter chunkWriter) {
+    for (int i = 0; i < size; i++) {
+      switch (dataType) {
+        case BOOLEAN:
+          chunkWriter.write(times[i], values[i] != 0);
+          break;
+        case INT32:
+          chunkWriter.write(times[i], (int) values[i]);
+          break;
+        case INT64:
+          chunkWriter.write(times[i], values[i]);
+          break;
+        case FLOAT:
+          chunkWriter.write(times[i], Float.intBitsToFloat((int) values[i]));
+          break;
+        case DOUBLE:
+          chunkWriter.write(times[i], Double.longBitsToDouble(values[i]));
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+    size = 0;
+  }
+
+  private TSEncoding[] getCandidates() {
+    switch (dataType) {
+      case BOOLEAN:
+        return BOOLEAN_CANDIDATES;
+      case INT32:
+      case INT64:
+        return INTEGER_CANDIDATES;
+      case FLOAT:
+      case DOUBLE:
+        return FLOATING_CANDIDATES;
+      default:
+        throw new UnsupportedOperationException(dataType.toString());
+    }
+  }
+
+  private long encodeSample(TSEncoding encoding, PublicBAOS out) {
+    Encoder encoder = getEncoder(encoding);
+    out.reset();
+    for (int i = 0; i < size; i++) {
+      switch (dataType) {
+        case BOOLEAN:
+          encoder.encode(values[i] != 0, out);
+          break;
+        case INT32:
+          encoder.encode((int) values[i], out);
+          break;
+        case INT64:
+          encoder.encode(values[i], out);
+          break;
+        case FLOAT:
+          encoder.encode(Float.intBitsToFloat((int) values[i]), out);
+          break;
+        case DOUBLE:
+          encoder.encode(Double.longBitsToDouble(values[i]), out);
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+    try {
+      encoder.flush(out);
+    } catch (IOException e) {
+      throw new TsFileEncodingException(e);
+    }
+    return out.size();
+  }
+
+  /**
+   * @return the number of chunks of each chosen encoding since the process started
+   */
+  public static Map<TSEncoding, Long> getSelectedChunkNums() {
+    Map<TSEncoding, Long> result = new EnumMap<>(TSEncoding.class);
+    for (Entry<TSEncoding, AtomicLong> entry : selectedChunkNums.entrySet()) {
+      if (entry.getValue().get() > 0) {
+        result.put(entry.getKey(), entry.getValue().get());
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * @return the total size of the samples encoded with PLAIN
+   */
+  public static long getSampledPlainSize() {
+    return sampledPlainSize.get();
+  }
+
+  /**
+   * @return the total size of the samples encoded with the chosen encodings
+   */
+  public static long getSampledSelectedSize() {
+    return sampledSelectedSize.get();
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encoder for float value using chimp encoding, and optionally erasing the trailing mantissa bits
+ * as in ELF encoding.
+ */
+public class FloatChimpEncoder extends ChimpEncoder {
+
+  private static final int TRAILING_ZERO_THRESHOLD = 5;
+  private static final int SIGNIFICANT_BITS_LENGTH = 5;
+
+  private int previousValue;
+  private int previousLeadingZeros = Integer.MAX_VALUE;
+
+  public FloatChimpEncoder(boolean eraseTrailingBits) {
+    super(eraseTrailingBits);
+  }
+
+  @Override
+  public void encode(float value, ByteArrayOutputStream out) {
+    int bits = Float.floatToRawIntBits(value);
+    if (eraseTrailingBits) {
+      int significantDigits = ElfUtils.getSignificantDigits(value);
+      int erased = significantDigits < 0 ? bits : ElfUtils.erase(bits, significantDigits);
+      if (erased == bits) {
+        writeErasingFlag(-1);
+      } else {
+        writeErasingFlag(significantDigits);
+        bits = erased;
+      }
+    }
+    if (valueNum++ == 0) {
+      writeBits(bits, Integer.SIZE);
+    } else {
+      int xor = bits ^ previousValue;
+      if (xor == 0) {
+        // case '00'
+        writeBits(0, 2);
+        previousLeadingZeros = Integer.MAX_VALUE;
+      } else {
+        int leadingBucket = LEADING_ZERO_BUCKETS[Integer.numberOfLeadingZeros(xor)];
+        int leadingZeros = LEADING_ZEROS[leadingBucket];
+        int trailingZeros = Integer.numberOfTrailingZeros(xor);
+        if (trailingZeros > TRAILING_ZERO_THRESHOLD) {
+          // case '01', the bucket of leading zeros, the number of significant bits and the
+          // significant bits
+          int significantBits = Integer.SIZE - leadingZeros - trailingZeros;
+          writeBits((1L << (3 + SIGNIFICANT_BITS_LENGTH)) | ((long) leadingBucket
+              << SIGNIFICANT_BITS_LENGTH) | significantBits, 5 + SIGNIFICANT_BITS_LENGTH);
+          writeBits(xor >>> trailingZeros, significantBits);
+          previousLeadingZeros = Integer.MAX_VALUE;
+        } else if (leadingZeros == previousLeadingZeros) {
+          // case '10', the bits after the leading zeros
+          writeBits(2, 2);
+          writeBits(xor, Integer.SIZE - leadingZeros);
+        } else {
+          // case '11', the bucket of leading zeros and the bits after them
+          previousLeadingZeros = leadingZeros;
+          writeBits((3 << 3) | leadingBucket, 5);
+          writeBits(xor, Integer.SIZE - leadingZeros);
+        }
+      }
+    }
+    previousValue = bits;
+  }
+
+  @Override
+  protected void reset() {
+    super.reset();
+    previousLeadingZeros = Integer.MAX_VALUE;
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    // erasing flag 6bit + case '11' 5bit + 32bit
+    return 6;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder.LongDeltaEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * IntervalEncoder is an encoder for nearly regular long values such as the timestamps of a sensor
+ * sampling at a fixed frequency, where a few points are missing or late. Unlike {@link
+ * RegularDataEncoder}, the interval is detected by the encoder and the values do not have to be on
+ * a fixed grid.
+ *
+ * The values are encoded in blocks. The most frequent difference between two adjacent values of a
+ * block is chosen as the interval, and only the differences that deviate from the interval are
+ * written, as exceptions. A regular block is written as:
+ * <pre>
+ * [REGULAR_BLOCK][value num][first value][interval][exception num]([index gap][deviation])*
+ * </pre>
+ * All numbers are var ints, and the index gap is the distance between the index of an exception
+ * and the index of the previous one. So a block without exceptions takes a few bytes whatever its
+ * size. A block with exceptions is also encoded with TS_2DIFF, and if that is smaller, e.g., the
+ * values are not regular at all, the block is written as [DELTA_BLOCK][TS_2DIFF pack].
+ */
+public class IntervalEncoder extends Encoder {
+
+  static final int BLOCK_DEFAULT_SIZE = 1024;
+  static final byte REGULAR_BLOCK = 0;
+  static final byte DELTA_BLOCK = 1;
+
+  private final int blockSize;
+  private long[] values;
+  private long[] sortedDeltas;
+  private int size;
+
+  private final PublicBAOS regularBuffer = new PublicBAOS();
+  private final PublicBAOS deltaBuffer = new PublicBAOS();
+  private LongDeltaEncoder deltaEncoder;
+
+  public IntervalEncoder() {
+    this(BLOCK_DEFAULT_SIZE);
+  }
+
+  /**
+   * @param blockSize the max number of values in a block
+   */
+  public IntervalEncoder(int blockSize) {
+    super(TSEncoding.TS_REGULAR);
+    this.blockSize = blockSize;
+  }
+
+  @Override
+  public void encode(long value, ByteArrayOutputStream out) {
+    if (values == null) {
+      values = new long[blockSize];
+    }
+    values[size++] = value;
+    if (size == blockSize) {
+      flushBlock(out);
+    }
+  }
+
+  @Override
+  public void flush(ByteArrayOutputStream out) {
+    if (size > 0) {
+      flushBlock(out);
+    }
+  }
+
+  private void flushBlock(ByteArrayOutputStream out) {
+    long interval = getInterval();
+    int exceptionNum = 0;
+    for (int i = 1; i < size; i++) {
+      if (values[i] - values[i - 1] != interval) {
+        exceptionNum++;
+      }
+    }
+
+    regularBuffer.reset();
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(size, regularBuffer);
+    ReadWriteForEncodingUtils.writeVarLong(values[0], regularBuffer);
+    ReadWriteForEncodingUtils.writeVarLong(interval, regularBuffer);
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(exceptionNum, regularBuffer);
+    int previousException = 0;
+    for (int i = 1; i < size; i++) {
+      long deviation = values[i] - values[i - 1] - interval;
+      if (deviation != 0) {
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(i - previousException, regularBuffer);
+        ReadWriteForEncodingUtils.writeVarLong(deviation, regularBuffer);
+        previousException = i;
+      }
+    }
+
+    if (exceptionNum > 0 && encodeDeltaBlock() < regularBuffer.size()) {
+      out.write(DELTA_BLOCK);
+      out.write(deltaBuffer.getBuf(), 0, deltaBuffer.size());
+    } else {
+      out.write(REGULAR_BLOCK);
+      out.write(regularBuffer.getBuf(), 0, regularBuffer.size());
+    }
+    size = 0;
+  }
+
+  /**
+   * @return the most frequent difference between two adjacent values of the block
+   */
+  private long getInterval() {
+    if (size < 2) {
+      return 0;
+    }
+    if (sortedDeltas == null) {
+      sortedDeltas = new long[blockSize];
+    }
+    int deltaNum = size - 1;
+    for (int i = 0; i < deltaNum; i++) {
+      sortedDeltas[i] = values[i + 1] - values[i];
+    }
+    Arrays.sort(sortedDeltas, 0, deltaNum);
+    long interval = sortedDeltas[0];
+    int maxCount = 0;
+    int count = 0;
+    for (int i = 0; i < deltaNum; i++) {
+      count = i > 0 && sortedDeltas[i] == sortedDeltas[i - 1] ? count + 1 : 1;
+      if (count > maxCount) {
+        maxCount = count;
+        interval = sortedDeltas[i];
+      }
+    }
+    return interval;
+  }
+
+  /**
+   * @return the size of the block encoded with TS_2DIFF
+   */
+  private int encodeDeltaBlock() {
+    if (deltaEncoder == null) {
+      // a block is always encoded as one pack
+      deltaEncoder = new LongDeltaEncoder(blockSize);
+    }
+    deltaBuffer.reset();
+    for (int i = 0; i < size; i++) {
+      deltaEncoder.encode(values[i], deltaBuffer);
+    }
+    deltaEncoder.flush(deltaBuffer);
+    return deltaBuffer.size();
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    return 8;
+  }
+
+  @Override
+  public long getMaxByteSize() {
+    // the block is at most as large as its TS_2DIFF pack: block type(1)+index(4)+width(4)
+    // +minDeltaBase(8)+firstValue(8)
+    return size == 0 ? 0 : (long) 25 + size * 8L;
+  }
+}
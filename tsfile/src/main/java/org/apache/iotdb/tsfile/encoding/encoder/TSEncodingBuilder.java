@@ -66,6 +66,14 @@ public abstract class TSEncodingBuilder {
         return new GORILLA();
       case REGULAR:
         return new REGULAR();
+      case PLAIN_DICTIONARY:
+        return new PLAIN_DICTIONARY();
+      case CHIMP:
+        return new CHIMP();
+      case ELF:
+        return new ELF();
+      case TS_REGULAR:
+        return new TS_REGULAR();
       default:
         throw new UnsupportedOperationException(type.toString());
     }
@@ -267,4 +275,99 @@ public abstract class TSEncodingBuilder {
       // allowed do nothing
     }
   }
+
+  /**
+   * for FLOAT, DOUBLE
+   */
+  public static class CHIMP extends TSEncodingBuilder {
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      switch (type) {
+        case FLOAT:
+          return new FloatChimpEncoder(false);
+        case DOUBLE:
+          return new DoubleChimpEncoder(false);
+        default:
+          throw new UnSupportedDataTypeException("CHIMP doesn't support data type: " + type);
+      }
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      // allowed do nothing
+    }
+  }
+
+  /**
+   * for FLOAT, DOUBLE
+   */
+  public static class ELF extends TSEncodingBuilder {
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      switch (type) {
+        case FLOAT:
+          return new FloatChimpEncoder(true);
+        case DOUBLE:
+          return new DoubleChimpEncoder(true);
+        default:
+          throw new UnSupportedDataTypeException("ELF doesn't support data type: " + type);
+      }
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      // allowed do nothing
+    }
+  }
+
+  /**
+   * for INT64, especially timestamps
+   */
+  public static class TS_REGULAR extends TSEncodingBuilder {
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      if (type == TSDataType.INT64) {
+        return new IntervalEncoder();
+      }
+      throw new UnSupportedDataTypeException("TS_REGULAR doesn't support data type: " + type);
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      // allowed do nothing
+    }
+  }
+
+  /**
+   * for TEXT
+   */
+  public static class PLAIN_DICTIONARY extends TSEncodingBuilder {
+
+    private int maxStringLength = TSFileDescriptor.getInstance().getConfig().getMaxStringLength();
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      if (type == TSDataType.TEXT) {
+        return new DictionaryEncoder(maxStringLength, conf.getMaxDictionarySizeInByte());
+      }
+      throw new UnSupportedDataTypeException(
+          "PLAIN_DICTIONARY doesn't support data type: " + type);
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      if (props != null && props.containsKey(Encoder.MAX_STRING_LENGTH)) {
+        maxStringLength = Integer.parseInt(props.get(Encoder.MAX_STRING_LENGTH));
+        if (maxStringLength < 0) {
+          maxStringLength = TSFileDescriptor.getInstance().getConfig().getMaxStringLength();
+          logger.warn(
+              "cannot set max string length to negative value, replaced with default value:{}",
+              maxStringLength);
+        }
+      }
+    }
+  }
 }
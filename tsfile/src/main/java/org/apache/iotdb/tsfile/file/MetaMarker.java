@@ -30,6 +30,15 @@ public class MetaMarker {
   public static final byte CHUNK_HEADER = 1;
   public static final byte SEPARATOR = 2;
   public static final byte VERSION = 3;
+  /**
+   * header of a chunk holding only the time column of an aligned chunk group, which is shared by
+   * the value chunks of the chunk group and has no chunk metadata
+   */
+  public static final byte TIME_CHUNK_HEADER = 4;
+  /**
+   * header of a chunk holding only a value column of an aligned chunk group
+   */
+  public static final byte VALUE_CHUNK_HEADER = 5;
 
   private MetaMarker() {
   }
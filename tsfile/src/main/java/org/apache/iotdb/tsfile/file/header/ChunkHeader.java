@@ -39,6 +39,14 @@ public class ChunkHeader {
   private CompressionType compressionType;
   private TSEncoding encodingType;
   private int numOfPages;
+  /**
+   * CHUNK_HEADER, TIME_CHUNK_HEADER or VALUE_CHUNK_HEADER of MetaMarker, serialized as the marker
+   */
+  private byte chunkType;
+  /**
+   * file offset of the time chunk shared by this value chunk, only serialized for value chunks
+   */
+  private long timeChunkOffset = -1;
 
   // this field does not need to be serialized.
   private int serializedSize;
@@ -48,8 +56,24 @@ public class ChunkHeader {
     this(measurementID, dataSize, getSerializedSize(measurementID), dataType, compressionType, encoding, numOfPages);
   }
 
+  /**
+   * constructor of the header of a chunk in an aligned chunk group.
+   *
+   * @param chunkType       TIME_CHUNK_HEADER or VALUE_CHUNK_HEADER of MetaMarker
+   * @param timeChunkOffset file offset of the shared time chunk if this is a value chunk
+   */
+  public ChunkHeader(String measurementID, int dataSize, TSDataType dataType,
+      CompressionType compressionType, TSEncoding encoding, int numOfPages, byte chunkType,
+      long timeChunkOffset) {
+    this(measurementID, dataSize, getSerializedSize(measurementID, chunkType), dataType,
+        compressionType, encoding, numOfPages);
+    this.chunkType = chunkType;
+    this.timeChunkOffset = timeChunkOffset;
+  }
+
   private ChunkHeader(String measurementID, int dataSize, int headerSize, TSDataType dataType,
       CompressionType compressionType, TSEncoding encoding, int numOfPages) {
+    this.chunkType = MetaMarker.CHUNK_HEADER;
     this.measurementID = measurementID;
     this.dataSize = dataSize;
     this.dataType = dataType;
@@ -70,26 +94,55 @@ public class ChunkHeader {
         + Integer.BYTES; // numOfPages
   }
 
+  public static int getSerializedSize(String measurementID, byte chunkType) {
+    int size = getSerializedSize(measurementID);
+    if (chunkType == MetaMarker.VALUE_CHUNK_HEADER) {
+      size += Long.BYTES; // timeChunkOffset
+    }
+    return size;
+  }
+
   /**
    * deserialize from inputStream.
    *
    * @param markerRead Whether the marker of the CHUNK_HEADER has been read
    */
   public static ChunkHeader deserializeFrom(InputStream inputStream, boolean markerRead) throws IOException {
+    byte chunkType = MetaMarker.CHUNK_HEADER;
     if (!markerRead) {
-      byte marker = (byte) inputStream.read();
-      if (marker != MetaMarker.CHUNK_HEADER) {
-        MetaMarker.handleUnexpectedMarker(marker);
+      chunkType = (byte) inputStream.read();
+      if (!isChunkHeaderMarker(chunkType)) {
+        MetaMarker.handleUnexpectedMarker(chunkType);
       }
     }
+    return deserializeFrom(inputStream, chunkType);
+  }
 
+  /**
+   * deserialize from inputStream whose marker has been read.
+   *
+   * @param chunkType the marker that has been read
+   */
+  public static ChunkHeader deserializeFrom(InputStream inputStream, byte chunkType)
+      throws IOException {
     String measurementID = ReadWriteIOUtils.readString(inputStream);
     int dataSize = ReadWriteIOUtils.readInt(inputStream);
     TSDataType dataType = TSDataType.deserialize(ReadWriteIOUtils.readShort(inputStream));
     int numOfPages = ReadWriteIOUtils.readInt(inputStream);
     CompressionType type = ReadWriteIOUtils.readCompressionType(inputStream);
     TSEncoding encoding = ReadWriteIOUtils.readEncoding(inputStream);
-    return new ChunkHeader(measurementID, dataSize, dataType, type, encoding, numOfPages);
+    if (chunkType == MetaMarker.CHUNK_HEADER) {
+      return new ChunkHeader(measurementID, dataSize, dataType, type, encoding, numOfPages);
+    }
+    long timeChunkOffset = chunkType == MetaMarker.VALUE_CHUNK_HEADER
+        ? ReadWriteIOUtils.readLong(inputStream) : -1;
+    return new ChunkHeader(measurementID, dataSize, dataType, type, encoding, numOfPages,
+        chunkType, timeChunkOffset);
+  }
+
+  public static boolean isChunkHeaderMarker(byte marker) {
+    return marker == MetaMarker.CHUNK_HEADER || marker == MetaMarker.TIME_CHUNK_HEADER
+        || marker == MetaMarker.VALUE_CHUNK_HEADER;
   }
 
   /**
@@ -97,23 +150,27 @@ public class ChunkHeader {
    *
    * @param input           TsFileInput
    * @param offset          offset
-   * @param chunkHeaderSize the size of chunk's header
-   * @param markerRead      read marker (boolean type)
+   * @param chunkHeaderSize the size of chunk's header, as if it is not a value chunk
+   * @param markerRead      read marker (boolean type), the chunk is taken as a normal chunk if
+   *                        true
    * @return CHUNK_HEADER object
    * @throws IOException IOException
    */
   public static ChunkHeader deserializeFrom(TsFileInput input, long offset, int chunkHeaderSize, boolean markerRead)
       throws IOException {
-    long offsetVar = offset;
+    // read chunk header from input to buffer, the header of a value chunk ends with an extra long
+    ByteBuffer buffer = ByteBuffer.allocate(chunkHeaderSize + Long.BYTES);
+    input.read(buffer, offset);
+    buffer.flip();
+
+    byte chunkType = MetaMarker.CHUNK_HEADER;
     if (!markerRead) {
-      offsetVar++;
+      chunkType = buffer.get();
+      if (!isChunkHeaderMarker(chunkType)) {
+        MetaMarker.handleUnexpectedMarker(chunkType);
+      }
     }
 
-    // read chunk header from input to buffer
-    ByteBuffer buffer = ByteBuffer.allocate(chunkHeaderSize);
-    input.read(buffer, offsetVar);
-    buffer.flip();
-
     // read measurementID
     int size = buffer.getInt();
     String measurementID = ReadWriteIOUtils.readStringWithLength(buffer, size);
@@ -122,7 +179,14 @@ public class ChunkHeader {
     int numOfPages = ReadWriteIOUtils.readInt(buffer);
     CompressionType type = ReadWriteIOUtils.readCompressionType(buffer);
     TSEncoding encoding = ReadWriteIOUtils.readEncoding(buffer);
-    return new ChunkHeader(measurementID, dataSize, chunkHeaderSize, dataType, type, encoding, numOfPages);
+    if (chunkType == MetaMarker.CHUNK_HEADER) {
+      return new ChunkHeader(measurementID, dataSize, chunkHeaderSize, dataType, type, encoding,
+          numOfPages);
+    }
+    long timeChunkOffset = chunkType == MetaMarker.VALUE_CHUNK_HEADER
+        ? ReadWriteIOUtils.readLong(buffer) : -1;
+    return new ChunkHeader(measurementID, dataSize, dataType, type, encoding, numOfPages,
+        chunkType, timeChunkOffset);
   }
 
   public int getSerializedSize() {
@@ -150,13 +214,16 @@ public class ChunkHeader {
    */
   public int serializeTo(OutputStream outputStream) throws IOException {
     int length = 0;
-    length += ReadWriteIOUtils.write(MetaMarker.CHUNK_HEADER, outputStream);
+    length += ReadWriteIOUtils.write(chunkType, outputStream);
     length += ReadWriteIOUtils.write(measurementID, outputStream);
     length += ReadWriteIOUtils.write(dataSize, outputStream);
     length += ReadWriteIOUtils.write(dataType, outputStream);
     length += ReadWriteIOUtils.write(numOfPages, outputStream);
     length += ReadWriteIOUtils.write(compressionType, outputStream);
     length += ReadWriteIOUtils.write(encodingType, outputStream);
+    if (chunkType == MetaMarker.VALUE_CHUNK_HEADER) {
+      length += ReadWriteIOUtils.write(timeChunkOffset, outputStream);
+    }
     return length;
   }
 
@@ -168,13 +235,16 @@ public class ChunkHeader {
    */
   public int serializeTo(ByteBuffer buffer) {
     int length = 0;
-    length += ReadWriteIOUtils.write(MetaMarker.CHUNK_HEADER, buffer);
+    length += ReadWriteIOUtils.write(chunkType, buffer);
     length += ReadWriteIOUtils.write(measurementID, buffer);
     length += ReadWriteIOUtils.write(dataSize, buffer);
     length += ReadWriteIOUtils.write(dataType, buffer);
     length += ReadWriteIOUtils.write(numOfPages, buffer);
     length += ReadWriteIOUtils.write(compressionType, buffer);
     length += ReadWriteIOUtils.write(encodingType, buffer);
+    if (chunkType == MetaMarker.VALUE_CHUNK_HEADER) {
+      length += ReadWriteIOUtils.write(timeChunkOffset, buffer);
+    }
     return length;
   }
 
@@ -190,10 +260,19 @@ public class ChunkHeader {
     return encodingType;
   }
 
+  public byte getChunkType() {
+    return chunkType;
+  }
+
+  public long getTimeChunkOffset() {
+    return timeChunkOffset;
+  }
+
   @Override
   public String toString() {
     return "CHUNK_HEADER{" + "measurementID='" + measurementID + '\'' + ", dataSize=" + dataSize + ", dataType="
         + dataType + ", compressionType=" + compressionType + ", encodingType=" + encodingType + ", numOfPages="
-        + numOfPages + ", serializedSize=" + serializedSize + '}';
+        + numOfPages + ", chunkType=" + chunkType + ", timeChunkOffset=" + timeChunkOffset
+        + ", serializedSize=" + serializedSize + '}';
   }
 }
@@ -20,12 +20,16 @@ package org.apache.iotdb.tsfile.file.metadata;
 
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -49,9 +53,9 @@ public class ChunkMetadata {
   private long version;
 
   /**
-   * All data with timestamp <= deletedAt are considered deleted.
+   * Sorted and disjoint time ranges of the deleted data in this chunk, null if none is deleted.
    */
-  private long deletedAt = Long.MIN_VALUE;
+  private List<TimeRange> deleteIntervalList;
 
   private boolean modified;
 
@@ -60,7 +64,22 @@ public class ChunkMetadata {
    */
   private IChunkLoader chunkLoader;
 
-  private Statistics statistics;
+  /**
+   * Decoded lazily from statisticsBuffer if the ChunkMetadata is deserialized.
+   */
+  private volatile Statistics statistics;
+
+  /**
+   * Serialized statistics, only the count and the time range are read from it directly until the
+   * values are needed. It is a slice of the buffer of the whole ChunkMetadata list, which is never
+   * modified after being read.
+   */
+  private ByteBuffer statisticsBuffer;
+
+  /**
+   * Serialized sketch following the statistics, null if there is none.
+   */
+  private ByteBuffer sketchBuffer;
 
   private ChunkMetadata() {
   }
@@ -83,12 +102,15 @@ public class ChunkMetadata {
 
   @Override
   public String toString() {
-    return String.format("measurementId: %s, datatype: %s, version: %d, deletedAt: %d, "
-        + "Statistics: %s", measurementUid, tsDataType, version, deletedAt, statistics);
+    return String.format("measurementId: %s, datatype: %s, version: %d, deleteIntervalList: %s, "
+        + "Statistics: %s", measurementUid, tsDataType, version, deleteIntervalList,
+        getStatistics());
   }
 
   public long getNumOfPoints() {
-    return statistics.getCount();
+    Statistics stats = statistics;
+    // the count is the first field of the serialized statistics
+    return stats != null ? stats.getCount() : statisticsBuffer.getLong(0);
   }
 
   /**
@@ -105,15 +127,26 @@ public class ChunkMetadata {
   }
 
   public Statistics getStatistics() {
-    return statistics;
+    Statistics stats = statistics;
+    if (stats == null) {
+      // decoding the same bytes twice in a race is harmless
+      stats = Statistics.deserialize(statisticsBuffer.duplicate(), tsDataType);
+      if (sketchBuffer != null) {
+        stats.readSketch(sketchBuffer.duplicate());
+      }
+      statistics = stats;
+    }
+    return stats;
   }
 
   public long getStartTime() {
-    return statistics.getStartTime();
+    Statistics stats = statistics;
+    return stats != null ? stats.getStartTime() : statisticsBuffer.getLong(Long.BYTES);
   }
 
   public long getEndTime() {
-    return statistics.getEndTime();
+    Statistics stats = statistics;
+    return stats != null ? stats.getEndTime() : statisticsBuffer.getLong(2 * Long.BYTES);
   }
 
   public TSDataType getDataType() {
@@ -132,13 +165,20 @@ public class ChunkMetadata {
 
     byteLen += ReadWriteIOUtils.write(measurementUid, outputStream);
     byteLen += ReadWriteIOUtils.write(offsetOfChunkHeader, outputStream);
-    byteLen += ReadWriteIOUtils.write(tsDataType, outputStream);
-    byteLen += statistics.serialize(outputStream);
+    Statistics stats = getStatistics();
+    byteLen += ReadWriteIOUtils
+        .write(ValueSketch.serializeDataType(tsDataType, stats.hasSketch()), outputStream);
+    byteLen += stats.serialize(outputStream);
+    if (stats.hasSketch()) {
+      byteLen += stats.serializeSketch(outputStream);
+    }
     return byteLen;
   }
 
   /**
-   * deserialize from ByteBuffer.
+   * deserialize from ByteBuffer. The statistics are not decoded but kept as a slice of the buffer
+   * and decoded on the first access of the values, so the content of the buffer must not be
+   * modified afterwards.
    *
    * @param buffer ByteBuffer
    * @return ChunkMetaData object
@@ -148,9 +188,18 @@ public class ChunkMetadata {
 
     chunkMetaData.measurementUid = ReadWriteIOUtils.readString(buffer);
     chunkMetaData.offsetOfChunkHeader = ReadWriteIOUtils.readLong(buffer);
-    chunkMetaData.tsDataType = ReadWriteIOUtils.readDataType(buffer);
-
-    chunkMetaData.statistics = Statistics.deserialize(buffer, chunkMetaData.tsDataType);
+    short serializedDataType = ReadWriteIOUtils.readShort(buffer);
+    chunkMetaData.tsDataType = ValueSketch.deserializeDataType(serializedDataType);
+
+    int statisticsStart = buffer.position();
+    Statistics.skip(buffer, chunkMetaData.tsDataType);
+    ByteBuffer statisticsBuffer = buffer.duplicate();
+    statisticsBuffer.position(statisticsStart);
+    statisticsBuffer.limit(buffer.position());
+    chunkMetaData.statisticsBuffer = statisticsBuffer.slice();
+    if (ValueSketch.hasSketch(serializedDataType)) {
+      chunkMetaData.sketchBuffer = ValueSketch.slice(buffer);
+    }
 
     return chunkMetaData;
   }
@@ -163,12 +212,36 @@ public class ChunkMetadata {
     this.version = version;
   }
 
-  public long getDeletedAt() {
-    return deletedAt;
+  public List<TimeRange> getDeleteIntervalList() {
+    return deleteIntervalList;
+  }
+
+  public void setDeleteIntervalList(List<TimeRange> deleteIntervalList) {
+    this.deleteIntervalList = deleteIntervalList;
   }
 
-  public void setDeletedAt(long deletedAt) {
-    this.deletedAt = deletedAt;
+  /**
+   * Add a deleted time range [startTime, endTime], merging it with the overlapping or adjacent
+   * ranges so that the list stays sorted and disjoint.
+   */
+  public void insertIntoSortedDeletions(long startTime, long endTime) {
+    List<TimeRange> resultInterval = new ArrayList<>();
+    if (deleteIntervalList != null) {
+      for (TimeRange interval : deleteIntervalList) {
+        if (interval.getMax() < startTime - 1 && startTime != Long.MIN_VALUE) {
+          resultInterval.add(interval);
+        } else if (interval.getMin() > endTime + 1 && endTime != Long.MAX_VALUE) {
+          resultInterval.add(new TimeRange(startTime, endTime));
+          startTime = interval.getMin();
+          endTime = interval.getMax();
+        } else {
+          startTime = Math.min(startTime, interval.getMin());
+          endTime = Math.max(endTime, interval.getMax());
+        }
+      }
+    }
+    resultInterval.add(new TimeRange(startTime, endTime));
+    deleteIntervalList = resultInterval;
   }
 
   public IChunkLoader getChunkLoader() {
@@ -190,15 +263,15 @@ public class ChunkMetadata {
     ChunkMetadata that = (ChunkMetadata) o;
     return offsetOfChunkHeader == that.offsetOfChunkHeader &&
         version == that.version &&
-        deletedAt == that.deletedAt &&
+        Objects.equals(deleteIntervalList, that.deleteIntervalList) &&
         Objects.equals(measurementUid, that.measurementUid) &&
         tsDataType == that.tsDataType &&
-        Objects.equals(statistics, that.statistics);
+        Objects.equals(getStatistics(), that.getStatistics());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(measurementUid, deletedAt, tsDataType, statistics,
+    return Objects.hash(measurementUid, deleteIntervalList, tsDataType, getStatistics(),
         version, offsetOfChunkHeader);
   }
 
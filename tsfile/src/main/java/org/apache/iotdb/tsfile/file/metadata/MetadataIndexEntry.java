@@ -54,6 +54,10 @@ public class MetadataIndexEntry {
     return "<" + name + "," + offset + ">";
   }
 
+  public int getSerializedSize() {
+    return Integer.BYTES + name.getBytes().length + Long.BYTES;
+  }
+
   public int serializeTo(OutputStream outputStream) throws IOException {
     int byteLen = 0;
     byteLen += ReadWriteIOUtils.write(name, outputStream);
@@ -85,9 +85,19 @@ public class MetadataIndexNode {
     return children.get(0);
   }
 
+  /**
+   * Serialize the node with the offsets of its entries: [size, entry offsets, entries, endOffset,
+   * nodeType]. The offset of an entry is relative to the first entry, so that the entries can be
+   * binary searched in the serialized node without deserializing them.
+   */
   public int serializeTo(OutputStream outputStream) throws IOException {
     int byteLen = 0;
     byteLen += ReadWriteIOUtils.write(children.size(), outputStream);
+    int entryOffset = 0;
+    for (MetadataIndexEntry metadataIndexEntry : children) {
+      byteLen += ReadWriteIOUtils.write(entryOffset, outputStream);
+      entryOffset += metadataIndexEntry.getSerializedSize();
+    }
     for (MetadataIndexEntry metadataIndexEntry : children) {
       byteLen += metadataIndexEntry.serializeTo(outputStream);
     }
@@ -97,8 +107,19 @@ public class MetadataIndexNode {
   }
 
   public static MetadataIndexNode deserializeFrom(ByteBuffer buffer) {
+    return deserializeFrom(buffer, true);
+  }
+
+  /**
+   * @param withEntryOffsets false if the node is in the layout of TsFile version 000002, which has
+   * no entry offsets
+   */
+  public static MetadataIndexNode deserializeFrom(ByteBuffer buffer, boolean withEntryOffsets) {
     List<MetadataIndexEntry> children = new ArrayList<>();
     int size = ReadWriteIOUtils.readInt(buffer);
+    if (withEntryOffsets) {
+      buffer.position(buffer.position() + size * Integer.BYTES);
+    }
     for (int i = 0; i < size; i++) {
       children.add(MetadataIndexEntry.deserializeFrom(buffer));
     }
@@ -107,6 +128,103 @@ public class MetadataIndexNode {
     return new MetadataIndexNode(children, offset, nodeType);
   }
 
+  /**
+   * Same as {@link #getChildIndexEntry(String)}, but search in a node serialized with entry offsets
+   * from the current position of the buffer. The names of the entries are compared as raw bytes
+   * and only the found entry is deserialized. The position of the buffer is not changed.
+   *
+   * @param key the name to search, encoded as by {@link String#getBytes()}
+   */
+  public static Pair<MetadataIndexEntry, Long> getChildIndexEntry(ByteBuffer buffer, byte[] key) {
+    int start = buffer.position();
+    int size = buffer.getInt(start);
+    int entriesStart = start + Integer.BYTES * (size + 1);
+    int low = 0;
+    int high = size - 1;
+    int index = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = compareName(buffer, entriesStart + buffer.getInt(start + Integer.BYTES * (mid + 1)),
+          key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        index = mid;
+        break;
+      }
+    }
+    if (index < 0) {
+      index = low == 0 ? low : low - 1;
+    }
+
+    ByteBuffer entryBuffer = buffer.duplicate();
+    entryBuffer.position(entriesStart + buffer.getInt(start + Integer.BYTES * (index + 1)));
+    MetadataIndexEntry entry = MetadataIndexEntry.deserializeFrom(entryBuffer);
+    long childEndOffset;
+    if (index != size - 1) {
+      // the offset of the next entry, which follows its name
+      int nextPosition = entriesStart + buffer.getInt(start + Integer.BYTES * (index + 2));
+      childEndOffset = buffer.getLong(nextPosition + Integer.BYTES + buffer.getInt(nextPosition));
+    } else {
+      childEndOffset = getEndOffset(buffer);
+    }
+    return new Pair<>(entry, childEndOffset);
+  }
+
+  /**
+   * @return the endOffset of a node serialized with entry offsets at the current position of the
+   * buffer
+   */
+  public static long getEndOffset(ByteBuffer buffer) {
+    return buffer.getLong(getEntriesEnd(buffer));
+  }
+
+  /**
+   * @return the type of a node serialized with entry offsets at the current position of the buffer
+   */
+  public static MetadataIndexNodeType getNodeType(ByteBuffer buffer) {
+    return MetadataIndexNodeType.deserialize(buffer.get(getEntriesEnd(buffer) + Long.BYTES));
+  }
+
+  private static int getEntriesEnd(ByteBuffer buffer) {
+    int start = buffer.position();
+    int size = buffer.getInt(start);
+    int entriesStart = start + Integer.BYTES * (size + 1);
+    if (size == 0) {
+      return entriesStart;
+    }
+    int lastEntryPosition = entriesStart + buffer.getInt(start + Integer.BYTES * size);
+    // name length, name, offset
+    return lastEntryPosition + Integer.BYTES + buffer.getInt(lastEntryPosition) + Long.BYTES;
+  }
+
+  /**
+   * Compare the serialized name at the position with the key like {@link String#compareTo}. Bytes
+   * are compared directly while both are ASCII, otherwise the name is decoded, as the order of
+   * UTF-8 bytes differs from that of Java strings for some characters.
+   */
+  private static int compareName(ByteBuffer buffer, int position, byte[] key) {
+    int length = buffer.getInt(position);
+    int namePosition = position + Integer.BYTES;
+    int minLength = Math.min(length, key.length);
+    for (int i = 0; i < minLength; i++) {
+      byte b = buffer.get(namePosition + i);
+      if (b != key[i]) {
+        if (b >= 0 && key[i] >= 0) {
+          return b - key[i];
+        }
+        byte[] nameBytes = new byte[length];
+        for (int j = 0; j < length; j++) {
+          nameBytes[j] = buffer.get(namePosition + j);
+        }
+        return new String(nameBytes).compareTo(new String(key));
+      }
+    }
+    return length - key.length;
+  }
+
   public Pair<MetadataIndexEntry, Long> getChildIndexEntry(String key) {
     int index = binarySearchInChildren(key);
     long childEndOffset;
@@ -23,8 +23,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Set;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
 import org.apache.iotdb.tsfile.read.controller.IChunkMetadataLoader;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
@@ -46,13 +48,75 @@ public class TimeseriesMetadata {
   public static TimeseriesMetadata deserializeFrom(ByteBuffer buffer) {
     TimeseriesMetadata timeseriesMetaData = new TimeseriesMetadata();
     timeseriesMetaData.setMeasurementId(ReadWriteIOUtils.readString(buffer));
-    timeseriesMetaData.setTSDataType(ReadWriteIOUtils.readDataType(buffer));
+    short serializedDataType = ReadWriteIOUtils.readShort(buffer);
+    timeseriesMetaData.setTSDataType(ValueSketch.deserializeDataType(serializedDataType));
     timeseriesMetaData.setOffsetOfChunkMetaDataList(ReadWriteIOUtils.readLong(buffer));
     timeseriesMetaData.setDataSizeOfChunkMetaDataList(ReadWriteIOUtils.readInt(buffer));
     timeseriesMetaData.statistics = Statistics.deserialize(buffer, timeseriesMetaData.tsDataType);
+    if (ValueSketch.hasSketch(serializedDataType)) {
+      timeseriesMetaData.statistics.readSketch(buffer);
+    }
     return timeseriesMetaData;
   }
 
+  /**
+   * Find the TimeseriesMetadata of a measurement in a buffer of serialized TimeseriesMetadatas,
+   * e.g., a LEAF_MEASUREMENT node. The measurement ids of the others are compared as raw bytes and
+   * their statistics are skipped, so only the found one is deserialized.
+   *
+   * @return the TimeseriesMetadata, or null if the measurement is not in the buffer
+   */
+  public static TimeseriesMetadata deserializeFrom(ByteBuffer buffer, String measurementId) {
+    byte[] idBytes = measurementId.getBytes();
+    while (buffer.hasRemaining()) {
+      int start = buffer.position();
+      int idLength = ReadWriteIOUtils.readInt(buffer);
+      if (idLength == idBytes.length && bytesEqual(buffer, buffer.position(), idBytes)) {
+        buffer.position(start);
+        return deserializeFrom(buffer);
+      }
+      buffer.position(buffer.position() + idLength);
+      skipAfterMeasurementId(buffer);
+    }
+    return null;
+  }
+
+  /**
+   * Deserialize the next TimeseriesMetadata in the buffer if its measurement is one of the given
+   * measurements, or skip it without decoding its statistics otherwise.
+   *
+   * @return the TimeseriesMetadata, or null if it is skipped
+   */
+  public static TimeseriesMetadata deserializeFrom(ByteBuffer buffer, Set<String> measurements) {
+    int start = buffer.position();
+    String measurementId = ReadWriteIOUtils.readString(buffer);
+    if (measurements.contains(measurementId)) {
+      buffer.position(start);
+      return deserializeFrom(buffer);
+    }
+    skipAfterMeasurementId(buffer);
+    return null;
+  }
+
+  private static void skipAfterMeasurementId(ByteBuffer buffer) {
+    short serializedDataType = ReadWriteIOUtils.readShort(buffer);
+    // startOffsetOfChunkMetaDataList and chunkMetaDataListDataSize
+    buffer.position(buffer.position() + Long.BYTES + Integer.BYTES);
+    Statistics.skip(buffer, ValueSketch.deserializeDataType(serializedDataType));
+    if (ValueSketch.hasSketch(serializedDataType)) {
+      ValueSketch.skip(buffer);
+    }
+  }
+
+  private static boolean bytesEqual(ByteBuffer buffer, int position, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(position + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * serialize to outputStream.
    *
@@ -63,10 +127,14 @@ public class TimeseriesMetadata {
   public int serializeTo(OutputStream outputStream) throws IOException {
     int byteLen = 0;
     byteLen += ReadWriteIOUtils.write(measurementId, outputStream);
-    byteLen += ReadWriteIOUtils.write(tsDataType, outputStream);
+    byteLen += ReadWriteIOUtils
+        .write(ValueSketch.serializeDataType(tsDataType, statistics.hasSketch()), outputStream);
     byteLen += ReadWriteIOUtils.write(startOffsetOfChunkMetaDataList, outputStream);
     byteLen += ReadWriteIOUtils.write(chunkMetaDataListDataSize, outputStream);
     byteLen += statistics.serialize(outputStream);
+    if (statistics.hasSketch()) {
+      byteLen += statistics.serializeSketch(outputStream);
+    }
     return byteLen;
   }
 
@@ -62,10 +62,22 @@ public class TsFileMetadata {
    * @return -a instance of TsFileMetaData
    */
   public static TsFileMetadata deserializeFrom(ByteBuffer buffer) {
+    return deserializeFrom(buffer, true);
+  }
+
+  /**
+   * deserialize data from the buffer.
+   *
+   * @param buffer -buffer use to deserialize
+   * @param withEntryOffsets -whether the MetadataIndexNodes have entry offsets, false for TsFile
+   * version 000002
+   * @return -a instance of TsFileMetaData
+   */
+  public static TsFileMetadata deserializeFrom(ByteBuffer buffer, boolean withEntryOffsets) {
     TsFileMetadata fileMetaData = new TsFileMetadata();
 
     // metadataIndex
-    fileMetaData.metadataIndex = MetadataIndexNode.deserializeFrom(buffer);
+    fileMetaData.metadataIndex = MetadataIndexNode.deserializeFrom(buffer, withEntryOffsets);
     fileMetaData.totalChunkNum = ReadWriteIOUtils.readInt(buffer);
     fileMetaData.invalidChunkNum = ReadWriteIOUtils.readInt(buffer);
 
@@ -156,7 +168,7 @@ public class TsFileMetadata {
    *
    * @return bloom filter
    */
-  private BloomFilter buildBloomFilter(Set<Path> paths) {
+  public static BloomFilter buildBloomFilter(Set<Path> paths) {
     BloomFilter filter = BloomFilter
         .getEmptyBloomFilter(TSFileDescriptor.getInstance().getConfig().getBloomFilterErrorRate(),
             paths.size());
@@ -20,7 +20,7 @@ package org.apache.iotdb.tsfile.file.metadata.enums;
 
 public enum TSEncoding {
 
-  PLAIN, PLAIN_DICTIONARY, RLE, DIFF, TS_2DIFF, BITMAP, GORILLA, REGULAR;
+  PLAIN, PLAIN_DICTIONARY, RLE, DIFF, TS_2DIFF, BITMAP, GORILLA, REGULAR, AUTO, CHIMP, ELF, TS_REGULAR;
 
   /**
    * judge the encoding deserialize type.
@@ -46,6 +46,14 @@ public enum TSEncoding {
         return GORILLA;
       case 7:
         return REGULAR;
+      case 8:
+        return AUTO;
+      case 9:
+        return CHIMP;
+      case 10:
+        return ELF;
+      case 11:
+        return TS_REGULAR;
       default:
         return PLAIN;
     }
@@ -78,6 +86,14 @@ public enum TSEncoding {
         return 6;
       case REGULAR:
         return 7;
+      case AUTO:
+        return 8;
+      case CHIMP:
+        return 9;
+      case ELF:
+        return 10;
+      case TS_REGULAR:
+        return 11;
       default:
         return 0;
     }
@@ -54,6 +54,13 @@ public abstract class Statistics<T> {
   private long startTime = Long.MAX_VALUE;
   private long endTime = Long.MIN_VALUE;
 
+  /**
+   * the optional sketch of the values, which is only serialized in ChunkMetadata and
+   * TimeseriesMetadata. The sketch read from a file is kept in sketchBuffer until it is used.
+   */
+  private ValueSketch sketch;
+  private ByteBuffer sketchBuffer;
+
   /**
    * static method providing statistic instance for respective data type.
    *
@@ -152,6 +159,7 @@ public abstract class Statistics<T> {
       if (stats.endTime > this.endTime) {
         this.endTime = stats.endTime;
       }
+      mergeSketch(stats);
       // must be sure no overlap between two statistics
       this.count += stats.count;
       mergeStatisticsValue(stats);
@@ -165,6 +173,25 @@ public abstract class Statistics<T> {
     }
   }
 
+  /**
+   * The merged sketch is kept only if all the merged statistics have sketches, as a sketch missing
+   * some of the values would give wrong answers.
+   */
+  private void mergeSketch(Statistics stats) {
+    ValueSketch otherSketch = stats.getSketch();
+    if (count == 0) {
+      sketch = otherSketch == null ? null : otherSketch.copy();
+    } else {
+      ValueSketch thisSketch = getSketch();
+      if (thisSketch != null && otherSketch != null) {
+        thisSketch.merge(otherSketch);
+      } else {
+        sketch = null;
+      }
+    }
+    sketchBuffer = null;
+  }
+
   public void update(long time, boolean value) {
     if (time < this.startTime) {
       startTime = time;
@@ -387,6 +414,87 @@ public abstract class Statistics<T> {
     return statistics;
   }
 
+  /**
+   * Skip the serialized statistics of the given data type in the buffer without decoding it.
+   */
+  public static void skip(ByteBuffer buffer, TSDataType dataType) {
+    // count, startTime, endTime
+    buffer.position(buffer.position() + 24);
+    switch (dataType) {
+      case BOOLEAN:
+        buffer.position(buffer.position() + 2);
+        break;
+      case INT32:
+      case FLOAT:
+        buffer.position(buffer.position() + 24);
+        break;
+      case INT64:
+      case DOUBLE:
+        buffer.position(buffer.position() + 40);
+        break;
+      case TEXT:
+        // the first and the last value
+        for (int i = 0; i < 2; i++) {
+          int length = ReadWriteIOUtils.readInt(buffer);
+          buffer.position(buffer.position() + length);
+        }
+        break;
+      default:
+        throw new UnknownColumnTypeException(dataType.toString());
+    }
+  }
+
+  public boolean hasSketch() {
+    return sketch != null || sketchBuffer != null;
+  }
+
+  /**
+   * @return null if the statistics have no sketch
+   */
+  public ValueSketch getSketch() {
+    // the locals keep the lazy decoding safe for statistics shared by queries
+    ValueSketch decoded = sketch;
+    ByteBuffer buffer = sketchBuffer;
+    if (decoded == null && buffer != null) {
+      decoded = ValueSketch.deserialize(buffer.duplicate());
+      sketch = decoded;
+    }
+    return decoded;
+  }
+
+  public void setSketch(ValueSketch sketch) {
+    this.sketch = sketch;
+    this.sketchBuffer = null;
+  }
+
+  /**
+   * Keep the serialized sketch at the position of the buffer, which is moved after it.
+   */
+  public void readSketch(ByteBuffer buffer) {
+    this.sketch = null;
+    this.sketchBuffer = ValueSketch.slice(buffer);
+  }
+
+  /**
+   * Serialize the sketch after the statistics, a sketch not decoded yet is copied as it is.
+   */
+  public int serializeSketch(OutputStream outputStream) throws IOException {
+    ByteBuffer buffer = sketchBuffer;
+    if (sketch == null && buffer != null) {
+      ByteBuffer bytes = buffer.duplicate();
+      int length = bytes.remaining();
+      if (bytes.hasArray()) {
+        outputStream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), length);
+      } else {
+        byte[] array = new byte[length];
+        bytes.get(array);
+        outputStream.write(array);
+      }
+      return length;
+    }
+    return sketch.serialize(outputStream);
+  }
+
   public long getStartTime() {
     return startTime;
   }
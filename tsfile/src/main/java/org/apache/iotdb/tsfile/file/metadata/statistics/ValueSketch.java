@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.file.metadata.statistics;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.HyperLogLog;
+import org.apache.iotdb.tsfile.utils.KllSketch;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable sketches of the values of a chunk or a series in a file: a KLL sketch of the quantiles
+ * (not kept for BOOLEAN and TEXT) and a HyperLogLog of the distinct values. They are optional
+ * parts of the statistics of ChunkMetadata and TimeseriesMetadata, page headers never have them.
+ */
+public class ValueSketch {
+
+  /**
+   * Set in the serialized data type of a ChunkMetadata or a TimeseriesMetadata if its statistics
+   * are followed by a sketch, so that the metadata without sketches are read as before.
+   */
+  private static final short SKETCH_FLAG = 0x100;
+
+  private static final byte NO_QUANTILES = 0;
+  private static final byte HAS_QUANTILES = 1;
+
+  private final KllSketch quantileSketch;
+  private final HyperLogLog distinctSketch;
+
+  private ValueSketch(KllSketch quantileSketch, HyperLogLog distinctSketch) {
+    this.quantileSketch = quantileSketch;
+    this.distinctSketch = distinctSketch;
+  }
+
+  /**
+   * @return an empty sketch sized by the config, or null if the sketches are disabled
+   */
+  public static ValueSketch create(TSDataType dataType) {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    if (!config.isEnableSketchStatistics()) {
+      return null;
+    }
+    return create(dataType, config.getQuantileSketchSize(), config.getDistinctSketchPrecision());
+  }
+
+  public static ValueSketch create(TSDataType dataType, int quantileSketchSize,
+      int distinctSketchPrecision) {
+    KllSketch quantileSketch =
+        dataType == TSDataType.BOOLEAN || dataType == TSDataType.TEXT ? null
+            : new KllSketch(quantileSketchSize);
+    return new ValueSketch(quantileSketch, new HyperLogLog(distinctSketchPrecision));
+  }
+
+  public void update(boolean value) {
+    distinctSketch.offer(HyperLogLog.hash(value ? 1 : 0));
+  }
+
+  public void update(int value) {
+    quantileSketch.update(value);
+    distinctSketch.offer(HyperLogLog.hash(value));
+  }
+
+  public void update(long value) {
+    quantileSketch.update(value);
+    distinctSketch.offer(HyperLogLog.hash(value));
+  }
+
+  public void update(float value) {
+    quantileSketch.update(value);
+    // -0.0 and 0.0 are the same value
+    distinctSketch.offer(HyperLogLog.hash(Float.floatToIntBits(value == 0 ? 0 : value)));
+  }
+
+  public void update(double value) {
+    quantileSketch.update(value);
+    distinctSketch.offer(HyperLogLog.hash(Double.doubleToLongBits(value == 0 ? 0 : value)));
+  }
+
+  public void update(Binary value) {
+    distinctSketch.offer(HyperLogLog.hash(value.getValues()));
+  }
+
+  /**
+   * Merge another sketch of the same data type into this one, the other sketch is not changed.
+   */
+  public void merge(ValueSketch other) {
+    if (quantileSketch != null && other.quantileSketch != null) {
+      quantileSketch.merge(other.quantileSketch);
+    }
+    distinctSketch.merge(other.distinctSketch);
+  }
+
+  public ValueSketch copy() {
+    return new ValueSketch(quantileSketch == null ? null : quantileSketch.copy(),
+        distinctSketch.copy());
+  }
+
+  public boolean hasQuantiles() {
+    return quantileSketch != null;
+  }
+
+  /**
+   * @param rank in [0, 1]
+   */
+  public double getQuantile(double rank) {
+    if (quantileSketch == null) {
+      throw new UnsupportedOperationException("No quantile sketch for BOOLEAN or TEXT values");
+    }
+    return quantileSketch.getQuantile(rank);
+  }
+
+  public long getDistinctCount() {
+    return distinctSketch.getCardinality();
+  }
+
+  /**
+   * The sketch is serialized after its length, so that it can be skipped or kept as bytes.
+   */
+  public int serialize(OutputStream outputStream) throws IOException {
+    PublicBAOS byteStream = new PublicBAOS();
+    if (quantileSketch == null) {
+      ReadWriteIOUtils.write(NO_QUANTILES, byteStream);
+    } else {
+      ReadWriteIOUtils.write(HAS_QUANTILES, byteStream);
+      quantileSketch.serialize(byteStream);
+    }
+    distinctSketch.serialize(byteStream);
+    int byteLen = ReadWriteIOUtils.write(byteStream.size(), outputStream);
+    outputStream.write(byteStream.getBuf(), 0, byteStream.size());
+    return byteLen + byteStream.size();
+  }
+
+  public static ValueSketch deserialize(ByteBuffer buffer) {
+    // length
+    ReadWriteIOUtils.readInt(buffer);
+    KllSketch quantileSketch = null;
+    if (ReadWriteIOUtils.readByte(buffer) == HAS_QUANTILES) {
+      quantileSketch = KllSketch.deserialize(buffer);
+    }
+    return new ValueSketch(quantileSketch, HyperLogLog.deserialize(buffer));
+  }
+
+  /**
+   * @return a slice of the serialized sketch at the position of the buffer, which is moved after it
+   */
+  public static ByteBuffer slice(ByteBuffer buffer) {
+    int length = buffer.getInt(buffer.position()) + Integer.BYTES;
+    ByteBuffer slice = buffer.slice();
+    slice.limit(length);
+    buffer.position(buffer.position() + length);
+    return slice;
+  }
+
+  public static void skip(ByteBuffer buffer) {
+    int length = ReadWriteIOUtils.readInt(buffer);
+    buffer.position(buffer.position() + length);
+  }
+
+  public static short serializeDataType(TSDataType dataType, boolean withSketch) {
+    short serialized = dataType.serialize();
+    return withSketch ? (short) (serialized | SKETCH_FLAG) : serialized;
+  }
+
+  public static TSDataType deserializeDataType(short serialized) {
+    return TSDataType.deserialize((short) (serialized & ~SKETCH_FLAG));
+  }
+
+  public static boolean hasSketch(short serializedDataType) {
+    return (serializedDataType & SKETCH_FLAG) != 0;
+  }
+}
@@ -21,9 +21,11 @@ package org.apache.iotdb.tsfile.read;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -31,6 +33,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
@@ -55,12 +58,14 @@ import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.read.reader.LocalTsFileInput;
 import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.utils.VersionUtils;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,11 +81,33 @@ public class TsFileSequenceReader implements AutoCloseable {
   private ByteBuffer markerBuffer = ByteBuffer.allocate(Byte.BYTES);
   private int totalChunkNum;
   private TsFileMetadata tsFileMetaData;
+  // false if the file is of version 000002, whose MetadataIndexNodes have no entry offsets
+  private boolean metadataIndexWithEntryOffsets = true;
   private EndianType endianType = EndianType.BIG_ENDIAN;
   // device -> measurement -> TimeseriesMetadata
   private Map<String, Map<String, TimeseriesMetadata>> cachedDeviceMetadata = new ConcurrentHashMap<>();
   private static final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
   private boolean cacheDeviceMetadata;
+  // number of readers whose metadata are memory mapped, bounded by maxMappedMetadataNum
+  private static final AtomicInteger mappedMetadataNum = new AtomicInteger();
+  /**
+   * read-only mapping of the metadata section [metaOffset, file size) of a complete TsFile, null if
+   * metadata are read into heap buffers
+   */
+  private volatile ByteBuffer mappedMetadata;
+  private long mappedMetadataOffset;
+
+  // the value chunks of an aligned chunk group are usually read one after another, so the recently
+  // read time chunks are kept to share their reads and decoded timestamps
+  private static final int TIME_CHUNK_CACHE_SIZE = 8;
+  // file offset of the chunk header -> time chunk, in access order
+  private final Map<Long, Chunk> timeChunkCache = new LinkedHashMap<Long, Chunk>(
+      TIME_CHUNK_CACHE_SIZE, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Entry<Long, Chunk> eldest) {
+      return size() > TIME_CHUNK_CACHE_SIZE;
+    }
+  };
 
   /**
    * Create a file reader of the given file. The reader will read the tail of the file to get the
@@ -245,7 +272,9 @@ public class TsFileSequenceReader implements AutoCloseable {
    */
   public TsFileMetadata readFileMetadata() throws IOException {
     if (tsFileMetaData == null) {
-      tsFileMetaData = TsFileMetadata.deserializeFrom(readData(fileMetadataPos, fileMetadataSize));
+      metadataIndexWithEntryOffsets = !TSFileConfig.VERSION_NUMBER_V2.equals(readVersionNumber());
+      tsFileMetaData = TsFileMetadata.deserializeFrom(readData(fileMetadataPos, fileMetadataSize),
+          metadataIndexWithEntryOffsets);
     }
     return tsFileMetaData;
   }
@@ -312,21 +341,13 @@ public class TsFileSequenceReader implements AutoCloseable {
     Pair<MetadataIndexEntry, Long> metadataIndexPair = getMetadataAndEndOffset(
         deviceMetadataIndexNode, path.getDevice(), MetadataIndexNodeType.INTERNAL_DEVICE);
     ByteBuffer buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
-    MetadataIndexNode metadataIndexNode = deviceMetadataIndexNode;
-    if (!metadataIndexNode.getNodeType().equals(MetadataIndexNodeType.LEAF_MEASUREMENT)) {
-      metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer);
-      metadataIndexPair = getMetadataAndEndOffset(metadataIndexNode,
-          path.getMeasurement(), MetadataIndexNodeType.INTERNAL_MEASUREMENT);
+    if (!deviceMetadataIndexNode.getNodeType().equals(MetadataIndexNodeType.LEAF_MEASUREMENT)) {
+      metadataIndexPair = getMetadataAndEndOffset(buffer, path.getMeasurement(),
+          MetadataIndexNodeType.INTERNAL_MEASUREMENT);
     }
-    List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
     buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
-    while (buffer.hasRemaining()) {
-      timeseriesMetadataList.add(TimeseriesMetadata.deserializeFrom(buffer));
-    }
     // return null if path does not exist in the TsFile
-    int searchResult = binarySearchInTimeseriesMetadataList(timeseriesMetadataList,
-        path.getMeasurement());
-    return searchResult >= 0 ? timeseriesMetadataList.get(searchResult) : null;
+    return TimeseriesMetadata.deserializeFrom(buffer, path.getMeasurement());
   }
 
   public List<TimeseriesMetadata> readTimeseriesMetadata(String device, Set<String> measurements)
@@ -345,22 +366,16 @@ public class TsFileSequenceReader implements AutoCloseable {
     for (String measurement : measurements) {
       ByteBuffer buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
       Pair<MetadataIndexEntry, Long> measurementMetadataIndexPair = metadataIndexPair;
-      List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
-      MetadataIndexNode metadataIndexNode = deviceMetadataIndexNode;
-      if (!metadataIndexNode.getNodeType().equals(MetadataIndexNodeType.LEAF_MEASUREMENT)) {
-        metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer);
-        measurementMetadataIndexPair = getMetadataAndEndOffset(metadataIndexNode,
-            measurement, MetadataIndexNodeType.INTERNAL_MEASUREMENT);
+      if (!deviceMetadataIndexNode.getNodeType().equals(MetadataIndexNodeType.LEAF_MEASUREMENT)) {
+        measurementMetadataIndexPair = getMetadataAndEndOffset(buffer, measurement,
+            MetadataIndexNodeType.INTERNAL_MEASUREMENT);
       }
       buffer = readData(measurementMetadataIndexPair.left.getOffset(),
           measurementMetadataIndexPair.right);
-      while (buffer.hasRemaining()) {
-        timeseriesMetadataList.add(TimeseriesMetadata.deserializeFrom(buffer));
-      }
-      int searchResult = binarySearchInTimeseriesMetadataList(timeseriesMetadataList,
+      TimeseriesMetadata timeseriesMetadata = TimeseriesMetadata.deserializeFrom(buffer,
           measurement);
-      if (searchResult >= 0) {
-        resultTimeseriesMetadataList.add(timeseriesMetadataList.get(searchResult));
+      if (timeseriesMetadata != null) {
+        resultTimeseriesMetadataList.add(timeseriesMetadata);
       }
     }
     return resultTimeseriesMetadataList;
@@ -374,7 +389,8 @@ public class TsFileSequenceReader implements AutoCloseable {
     switch (type) {
       case LEAF_DEVICE:
       case INTERNAL_MEASUREMENT:
-        MetadataIndexNode metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer);
+        MetadataIndexNode metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer,
+            metadataIndexWithEntryOffsets);
         int metadataIndexListSize = metadataIndexNode.getChildren().size();
         for (int i = 0; i < metadataIndexListSize; i++) {
           long endOffset = metadataIndexNode.getEndOffset();
@@ -388,8 +404,9 @@ public class TsFileSequenceReader implements AutoCloseable {
         break;
       case LEAF_MEASUREMENT:
         while (buffer.hasRemaining()) {
-          TimeseriesMetadata timeseriesMetadata = TimeseriesMetadata.deserializeFrom(buffer);
-          if (measurements.contains(timeseriesMetadata.getMeasurementId())) {
+          TimeseriesMetadata timeseriesMetadata = TimeseriesMetadata.deserializeFrom(buffer,
+              measurements);
+          if (timeseriesMetadata != null) {
             timeseriesMetadataList.add(timeseriesMetadata);
           }
         }
@@ -400,27 +417,6 @@ public class TsFileSequenceReader implements AutoCloseable {
     }
   }
 
-  private int binarySearchInTimeseriesMetadataList(List<TimeseriesMetadata> timeseriesMetadataList,
-      String key) {
-    int low = 0;
-    int high = timeseriesMetadataList.size() - 1;
-
-    while (low <= high) {
-      int mid = (low + high) >>> 1;
-      TimeseriesMetadata midVal = timeseriesMetadataList.get(mid);
-      int cmp = midVal.getMeasurementId().compareTo(key);
-
-      if (cmp < 0) {
-        low = mid + 1;
-      } else if (cmp > 0) {
-        high = mid - 1;
-      } else {
-        return mid; // key found
-      }
-    }
-    return -1;  // key not found
-  }
-
   public List<String> getAllDevices() throws IOException {
     if (tsFileMetaData == null) {
       readFileMetadata();
@@ -447,7 +443,8 @@ public class TsFileSequenceReader implements AutoCloseable {
             endOffset = metadataIndexNode.getChildren().get(i + 1).getOffset();
           }
           ByteBuffer buffer = readData(metadataIndex.getOffset(), endOffset);
-          MetadataIndexNode node = MetadataIndexNode.deserializeFrom(buffer);
+          MetadataIndexNode node = MetadataIndexNode.deserializeFrom(buffer,
+              metadataIndexWithEntryOffsets);
           deviceSet.addAll(getAllDevices(node));
           break;
       }
@@ -527,7 +524,8 @@ public class TsFileSequenceReader implements AutoCloseable {
       case LEAF_DEVICE:
       case INTERNAL_MEASUREMENT:
         deviceId = metadataIndex.getName();
-        MetadataIndexNode metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer);
+        MetadataIndexNode metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer,
+            metadataIndexWithEntryOffsets);
         int metadataIndexListSize = metadataIndexNode.getChildren().size();
         for (int i = 0; i < metadataIndexListSize; i++) {
           long endOffset = metadataIndexNode.getEndOffset();
@@ -605,7 +603,28 @@ public class TsFileSequenceReader implements AutoCloseable {
       return childIndexEntry;
     }
     ByteBuffer buffer = readData(childIndexEntry.left.getOffset(), childIndexEntry.right);
-    return getMetadataAndEndOffset(MetadataIndexNode.deserializeFrom(buffer), name, type);
+    return getMetadataAndEndOffset(buffer, name, type);
+  }
+
+  /**
+   * The same as {@link #getMetadataAndEndOffset(MetadataIndexNode, String, MetadataIndexNodeType)}
+   * except that the node is serialized in the buffer. A node with entry offsets is binary searched
+   * in the buffer directly, without deserializing its entries.
+   */
+  private Pair<MetadataIndexEntry, Long> getMetadataAndEndOffset(ByteBuffer buffer, String name,
+      MetadataIndexNodeType type) throws IOException {
+    if (!metadataIndexWithEntryOffsets) {
+      return getMetadataAndEndOffset(MetadataIndexNode.deserializeFrom(buffer, false), name, type);
+    }
+    byte[] key = name.getBytes();
+    while (true) {
+      Pair<MetadataIndexEntry, Long> childIndexEntry = MetadataIndexNode
+          .getChildIndexEntry(buffer, key);
+      if (!MetadataIndexNode.getNodeType(buffer).equals(type)) {
+        return childIndexEntry;
+      }
+      buffer = readData(childIndexEntry.left.getOffset(), childIndexEntry.right);
+    }
   }
 
   /**
@@ -652,6 +671,16 @@ public class TsFileSequenceReader implements AutoCloseable {
     return ChunkHeader.deserializeFrom(tsFileInput.wrapAsInputStream(), true);
   }
 
+  /**
+   * read data from current position of the input, and deserialize it to a chunk header whose
+   * marker has been read. <br> This method is not threadsafe.
+   *
+   * @param chunkType the marker that has been read
+   */
+  public ChunkHeader readChunkHeader(byte chunkType) throws IOException {
+    return ChunkHeader.deserializeFrom(tsFileInput.wrapAsInputStream(), chunkType);
+  }
+
   /**
    * read the chunk's header.
    *
@@ -659,7 +688,7 @@ public class TsFileSequenceReader implements AutoCloseable {
    * @param chunkHeaderSize the size of chunk's header
    * @param markerRead true if the offset does not contains the marker , otherwise false
    */
-  private ChunkHeader readChunkHeader(long position, int chunkHeaderSize, boolean markerRead)
+  public ChunkHeader readChunkHeader(long position, int chunkHeaderSize, boolean markerRead)
       throws IOException {
     return ChunkHeader.deserializeFrom(tsFileInput, position, chunkHeaderSize, markerRead);
   }
@@ -686,7 +715,80 @@ public class TsFileSequenceReader implements AutoCloseable {
     ChunkHeader header = readChunkHeader(metaData.getOffsetOfChunkHeader(), chunkHeadSize, false);
     ByteBuffer buffer = readChunk(metaData.getOffsetOfChunkHeader() + header.getSerializedSize(),
         header.getDataSize());
-    return new Chunk(header, buffer, metaData.getDeletedAt(), endianType);
+    Chunk chunk = new Chunk(header, buffer, metaData.getDeleteIntervalList(), endianType);
+    if (header.getChunkType() == MetaMarker.VALUE_CHUNK_HEADER) {
+      chunk.setTimeChunk(readTimeChunk(header.getTimeChunkOffset()));
+    }
+    return chunk;
+  }
+
+  /**
+   * read the time chunk shared by the value chunks of an aligned chunk group, the chunks recently
+   * read are cached.
+   *
+   * @param offset file offset of the header of the time chunk
+   */
+  public Chunk readTimeChunk(long offset) throws IOException {
+    synchronized (timeChunkCache) {
+      Chunk timeChunk = timeChunkCache.get(offset);
+      if (timeChunk != null) {
+        return timeChunk;
+      }
+    }
+    ChunkHeader header = readChunkHeader(offset, ChunkHeader.getSerializedSize(""), false);
+    if (header.getChunkType() != MetaMarker.TIME_CHUNK_HEADER) {
+      MetaMarker.handleUnexpectedMarker(header.getChunkType());
+    }
+    ByteBuffer buffer = readChunk(offset + header.getSerializedSize(), header.getDataSize());
+    Chunk timeChunk = new Chunk(header, buffer, null, endianType);
+    synchronized (timeChunkCache) {
+      Chunk existing = timeChunkCache.putIfAbsent(offset, timeChunk);
+      return existing != null ? existing : timeChunk;
+    }
+  }
+
+  /**
+   * copy the whole chunk, header and pages, to the output byte by byte without reading it into
+   * memory.
+   *
+   * @param metaData -given chunk meta data
+   * @param output the output to copy to
+   * @return the header of the chunk
+   */
+  public ChunkHeader transferChunk(ChunkMetadata metaData, TsFileOutput output)
+      throws IOException {
+    int chunkHeadSize = ChunkHeader.getSerializedSize(metaData.getMeasurementUid());
+    ChunkHeader header = readChunkHeader(metaData.getOffsetOfChunkHeader(), chunkHeadSize, false);
+    output.transferFrom(tsFileInput, metaData.getOffsetOfChunkHeader(),
+        (long) header.getSerializedSize() + header.getDataSize());
+    return header;
+  }
+
+  /**
+   * transfer the time chunk of an aligned chunk group to the output byte by byte.
+   *
+   * @param offset file offset of the header of the time chunk
+   * @return the header of the time chunk
+   */
+  public ChunkHeader transferTimeChunk(long offset, TsFileOutput output) throws IOException {
+    ChunkHeader header = readChunkHeader(offset, ChunkHeader.getSerializedSize(""), false);
+    if (header.getChunkType() != MetaMarker.TIME_CHUNK_HEADER) {
+      MetaMarker.handleUnexpectedMarker(header.getChunkType());
+    }
+    output.transferFrom(tsFileInput, offset,
+        (long) header.getSerializedSize() + header.getDataSize());
+    return header;
+  }
+
+  /**
+   * transfer the pages of a chunk to the output byte by byte, without its header.
+   *
+   * @param header header of the chunk
+   * @param offset file offset of the header of the chunk
+   */
+  public void transferChunkData(ChunkHeader header, long offset, TsFileOutput output)
+      throws IOException {
+    output.transferFrom(tsFileInput, offset + header.getSerializedSize(), header.getDataSize());
   }
 
   /**
@@ -744,9 +846,56 @@ public class TsFileSequenceReader implements AutoCloseable {
     if (resourceLogger.isDebugEnabled()) {
       resourceLogger.debug("{} reader is closed.", file);
     }
+    if (mappedMetadata != null) {
+      mappedMetadata = null;
+      mappedMetadataNum.decrementAndGet();
+    }
     this.tsFileInput.close();
   }
 
+  /**
+   * Map the metadata section of this complete and immutable TsFile into memory, so that the
+   * metadata index nodes, TimeseriesMetadata and ChunkMetadata are decoded from the mapping without
+   * being copied into heap buffers, and the OS page cache acts as their second-level cache.
+   *
+   * <p>The mapping is not unmapped explicitly when the reader is closed but released by GC, so that
+   * a thread still decoding from it never touches unmapped memory.
+   *
+   * @return false if the file is not a complete local TsFile or maxMappedMetadataNum mappings
+   * exist, then metadata are still read into heap buffers
+   */
+  public boolean mapMetadata() throws IOException {
+    if (mappedMetadata != null) {
+      return true;
+    }
+    if (!(tsFileInput instanceof LocalTsFileInput) || fileMetadataSize <= 0
+        || !readTailMagic().equals(TSFileConfig.MAGIC_STRING)) {
+      return false;
+    }
+    if (mappedMetadataNum.incrementAndGet() > config.getMaxMappedMetadataNum()) {
+      mappedMetadataNum.decrementAndGet();
+      return false;
+    }
+    try {
+      long metaOffset = readFileMetadata().getMetaOffset();
+      long size = tsFileInput.size() - metaOffset;
+      if (size > Integer.MAX_VALUE) {
+        mappedMetadataNum.decrementAndGet();
+        return false;
+      }
+      mappedMetadataOffset = metaOffset;
+      mappedMetadata = tsFileInput.wrapAsFileChannel().map(MapMode.READ_ONLY, metaOffset, size);
+      return true;
+    } catch (IOException e) {
+      mappedMetadataNum.decrementAndGet();
+      throw e;
+    }
+  }
+
+  public boolean isMetadataMapped() {
+    return mappedMetadata != null;
+  }
+
   public String getFileName() {
     return this.file;
   }
@@ -767,6 +916,15 @@ public class TsFileSequenceReader implements AutoCloseable {
    * @return data that been read.
    */
   private ByteBuffer readData(long position, int size) throws IOException {
+    ByteBuffer mapped = mappedMetadata;
+    if (mapped != null && position >= mappedMetadataOffset
+        && position + size <= mappedMetadataOffset + mapped.capacity()) {
+      // decode straight from the mapping, duplicate it as the mapping is shared by threads
+      ByteBuffer region = mapped.duplicate();
+      region.position((int) (position - mappedMetadataOffset));
+      region.limit(region.position() + size);
+      return region.slice();
+    }
     ByteBuffer buffer = ByteBuffer.allocate(size);
     if (position < 0) {
       if (ReadWriteIOUtils.readAsPossible(tsFileInput, buffer) != size) {
@@ -861,7 +1019,19 @@ public class TsFileSequenceReader implements AutoCloseable {
     try {
       while ((marker = this.readMarker()) != MetaMarker.SEPARATOR) {
         switch (marker) {
+          case MetaMarker.TIME_CHUNK_HEADER:
+            // the time chunk of an aligned chunk group has no chunk metadata
+            if (newChunkGroup) {
+              newChunkGroup = false;
+              chunkMetadataList = new ArrayList<>();
+            }
+            ChunkHeader timeChunkHeader = this.readChunkHeader(marker);
+            for (int j = 0; j < timeChunkHeader.getNumOfPages(); j++) {
+              this.skipPageData(this.readPageHeader(timeChunkHeader.getDataType()));
+            }
+            break;
           case MetaMarker.CHUNK_HEADER:
+          case MetaMarker.VALUE_CHUNK_HEADER:
             // this is the first chunk of a new ChunkGroup.
             if (newChunkGroup) {
               newChunkGroup = false;
@@ -871,7 +1041,7 @@ public class TsFileSequenceReader implements AutoCloseable {
             // if there is something wrong with a chunk, we will drop the whole ChunkGroup
             // as different chunks may be created by the same insertions(sqls), and partial
             // insertion is not tolerable
-            ChunkHeader chunkHeader = this.readChunkHeader();
+            ChunkHeader chunkHeader = this.readChunkHeader(marker);
             measurementID = chunkHeader.getMeasurementID();
             MeasurementSchema measurementSchema = new MeasurementSchema(measurementID,
                 chunkHeader.getDataType(),
@@ -882,7 +1052,10 @@ public class TsFileSequenceReader implements AutoCloseable {
             for (int j = 0; j < chunkHeader.getNumOfPages(); j++) {
               // a new Page
               PageHeader pageHeader = this.readPageHeader(chunkHeader.getDataType());
-              chunkStatistics.mergeStatistics(pageHeader.getStatistics());
+              // a page of a value chunk may have only nulls
+              if (pageHeader.getStatistics().getCount() > 0) {
+                chunkStatistics.mergeStatistics(pageHeader.getStatistics());
+              }
               this.skipPageData(pageHeader);
             }
             currentChunk = new ChunkMetadata(measurementID, dataType, fileOffsetOfChunk,
@@ -418,6 +418,35 @@ public class BatchData implements Serializable {
     count++;
   }
 
+  /**
+   * put a timestamp without value, for the aggregations that only use the timestamps, such as
+   * count, min_time and max_time. Only the timestamps of a BatchData filled by this method can be
+   * read, and it must not be mixed with the other put methods.
+   *
+   * @param t timestamp
+   */
+  public void putTime(long t) {
+    if (writeCurArrayIndex == capacity) {
+      if (capacity >= capacityThreshold) {
+        timeRet.add(new long[capacity]);
+        writeCurListIndex++;
+        writeCurArrayIndex = 0;
+      } else {
+        int newCapacity = capacity << 1;
+
+        long[] newTimeData = new long[newCapacity];
+        System.arraycopy(timeRet.get(0), 0, newTimeData, 0, capacity);
+        timeRet.set(0, newTimeData);
+
+        capacity = newCapacity;
+      }
+    }
+    timeRet.get(writeCurListIndex)[writeCurArrayIndex] = t;
+
+    writeCurArrayIndex++;
+    count++;
+  }
+
 
   public boolean getBoolean() {
     return this.booleanRet.get(readCurListIndex)[readCurArrayIndex];
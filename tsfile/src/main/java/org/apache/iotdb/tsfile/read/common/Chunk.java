@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.read.common;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
@@ -31,15 +32,24 @@ public class Chunk {
   private ChunkHeader chunkHeader;
   private ByteBuffer chunkData;
   /**
-   * All data with timestamp <= deletedAt are considered deleted.
+   * Sorted and disjoint time ranges of the deleted data, null if none is deleted.
    */
-  private long deletedAt;
+  private List<TimeRange> deleteIntervalList;
   private EndianType endianType;
+  /**
+   * the shared time chunk if this is a value chunk of an aligned chunk group, otherwise null
+   */
+  private Chunk timeChunk;
+  /**
+   * timestamps of each page, decoded once and shared by the value chunks if this is a time chunk
+   */
+  private volatile long[][] pageTimes;
 
-  public Chunk(ChunkHeader header, ByteBuffer buffer, long deletedAt, EndianType endianType) {
+  public Chunk(ChunkHeader header, ByteBuffer buffer, List<TimeRange> deleteIntervalList,
+      EndianType endianType) {
     this.chunkHeader = header;
     this.chunkData = buffer;
-    this.deletedAt = deletedAt;
+    this.deleteIntervalList = deleteIntervalList;
     this.endianType = endianType;
   }
 
@@ -51,15 +61,41 @@ public class Chunk {
     return chunkData;
   }
 
-  public long getDeletedAt() {
-    return deletedAt;
+  public List<TimeRange> getDeleteIntervalList() {
+    return deleteIntervalList;
   }
 
   public EndianType getEndianType() {
     return endianType;
   }
 
-  public void setDeletedAt(long deletedAt) {
-    this.deletedAt = deletedAt;
+  public void setDeleteIntervalList(List<TimeRange> deleteIntervalList) {
+    this.deleteIntervalList = deleteIntervalList;
+  }
+
+  public Chunk getTimeChunk() {
+    return timeChunk;
+  }
+
+  public void setTimeChunk(Chunk timeChunk) {
+    this.timeChunk = timeChunk;
+  }
+
+  public long[][] getPageTimes() {
+    return pageTimes;
+  }
+
+  public void setPageTimes(long[][] pageTimes) {
+    this.pageTimes = pageTimes;
+  }
+
+  /**
+   * @return a chunk sharing the header, data and time chunk of this one but with an independent
+   * position of the data
+   */
+  public Chunk duplicate() {
+    Chunk chunk = new Chunk(chunkHeader, chunkData.duplicate(), deleteIntervalList, endianType);
+    chunk.timeChunk = timeChunk;
+    return chunk;
   }
 }
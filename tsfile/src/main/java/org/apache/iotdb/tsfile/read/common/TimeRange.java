@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.BinaryExpression;
@@ -187,6 +188,24 @@ public class TimeRange implements Comparable<TimeRange> {
     return res.toString();
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TimeRange that = (TimeRange) o;
+    return min == that.min && max == that.max && leftClose == that.leftClose
+        && rightClose == that.rightClose;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(min, max, leftClose, rightClose);
+  }
+
   // NOTE the primitive timeRange is always a closed interval [min,max] and
   // only in getRemains functions are leftClose and rightClose considered.
   private boolean leftClose = true; // default true
@@ -122,4 +122,8 @@ public class In<T extends Comparable<T>> implements Filter {
   public Set<T> getValues() {
     return values;
   }
+
+  public FilterType getFilterType() {
+    return filterType;
+  }
 }
@@ -28,6 +28,17 @@ public interface IPageReader {
 
   BatchData getAllSatisfiedPageData() throws IOException;
 
+  /**
+   * Read only the timestamps of the satisfied points, without decoding the values. The filter
+   * must not have value conditions, and only the timestamps of the returned BatchData can be read,
+   * see {@link BatchData#putTime(long)}.
+   *
+   * @return the returned BatchData may be empty, but never be null
+   */
+  default BatchData getAllSatisfiedPageTimes() throws IOException {
+    return getAllSatisfiedPageData();
+  }
+
   Statistics getStatistics();
 
   void setFilter(Filter filter);
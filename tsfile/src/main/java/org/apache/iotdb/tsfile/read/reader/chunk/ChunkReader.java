@@ -29,10 +29,12 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.reader.IPageReader;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.IChunkReader;
 import org.apache.iotdb.tsfile.read.reader.page.PageReader;
+import org.apache.iotdb.tsfile.read.reader.page.ValuePageReader;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -54,9 +56,16 @@ public class ChunkReader implements IChunkReader {
   private List<IPageReader> pageReaderList = new LinkedList<>();
 
   /**
-   * Data whose timestamp <= deletedAt should be considered deleted(not be returned).
+   * timestamps of each page of the shared time chunk if this is a value chunk of an aligned chunk
+   * group, otherwise null
    */
-  protected long deletedAt;
+  private long[][] pageTimes;
+
+  /**
+   * Sorted and disjoint time ranges of the deleted data, which should not be returned. Null if
+   * none is deleted.
+   */
+  protected List<TimeRange> deleteIntervalList;
 
   /**
    * constructor of ChunkReader.
@@ -67,27 +76,71 @@ public class ChunkReader implements IChunkReader {
   public ChunkReader(Chunk chunk, Filter filter) throws IOException {
     this.filter = filter;
     this.chunkDataBuffer = chunk.getData();
-    this.deletedAt = chunk.getDeletedAt();
+    this.deleteIntervalList = chunk.getDeleteIntervalList();
     endianType = chunk.getEndianType();
     chunkHeader = chunk.getHeader();
     this.unCompressor = IUnCompressor.getUnCompressor(chunkHeader.getCompressionType());
-
+    if (chunk.getTimeChunk() != null) {
+      pageTimes = decodePageTimes(chunk.getTimeChunk());
+    }
 
     initAllPageReaders();
   }
 
 
   private void initAllPageReaders() throws IOException {
+    int pageIndex = 0;
     // construct next satisfied page header
     while (chunkDataBuffer.remaining() > 0) {
       // deserialize a PageHeader from chunkDataBuffer
       PageHeader pageHeader = PageHeader.deserializeFrom(chunkDataBuffer, chunkHeader.getDataType());
+      // a page of a value chunk with only nulls is skipped
+      boolean emptyPage = pageTimes != null && pageHeader.getStatistics().getCount() == 0;
       // if the current page satisfies
-      if (pageSatisfied(pageHeader)) {
-        pageReaderList.add(constructPageReaderForNextPage(pageHeader));
+      if (!emptyPage && pageSatisfied(pageHeader)) {
+        pageReaderList.add(pageTimes == null ? constructPageReaderForNextPage(pageHeader)
+            : constructValuePageReaderForNextPage(pageHeader, pageTimes[pageIndex]));
       } else {
         skipBytesInStreamByLength(pageHeader.getCompressedSize());
       }
+      pageIndex++;
+    }
+  }
+
+  /**
+   * decode the timestamps of each page of a time chunk, which are decoded only once and shared by
+   * all the value chunks of the aligned chunk group.
+   */
+  private static long[][] decodePageTimes(Chunk timeChunk) throws IOException {
+    long[][] pageTimes = timeChunk.getPageTimes();
+    if (pageTimes != null) {
+      return pageTimes;
+    }
+    synchronized (timeChunk) {
+      pageTimes = timeChunk.getPageTimes();
+      if (pageTimes != null) {
+        return pageTimes;
+      }
+      ChunkHeader header = timeChunk.getHeader();
+      ByteBuffer buffer = timeChunk.getData().duplicate();
+      IUnCompressor timeUnCompressor = IUnCompressor.getUnCompressor(header.getCompressionType());
+      Decoder decoder = Decoder.getDecoderByType(header.getEncodingType(), TSDataType.INT64);
+      decoder.setEndianType(timeChunk.getEndianType());
+      pageTimes = new long[header.getNumOfPages()][];
+      for (int i = 0; i < pageTimes.length; i++) {
+        PageHeader pageHeader = PageHeader.deserializeFrom(buffer, TSDataType.INT64);
+        byte[] compressedPageBody = new byte[pageHeader.getCompressedSize()];
+        buffer.get(compressedPageBody);
+        ByteBuffer pageData = ByteBuffer.wrap(timeUnCompressor.uncompress(compressedPageBody));
+        long[] times = new long[(int) pageHeader.getNumOfValues()];
+        for (int j = 0; j < times.length; j++) {
+          times[j] = decoder.readLong(pageData);
+        }
+        decoder.reset();
+        pageTimes[i] = times;
+      }
+      timeChunk.setPageTimes(pageTimes);
+      return pageTimes;
     }
   }
 
@@ -118,14 +171,33 @@ public class ChunkReader implements IChunkReader {
   }
 
   public boolean pageSatisfied(PageHeader pageHeader) {
-    if (pageHeader.getEndTime() <= deletedAt) {
+    if (pageDeleted(pageHeader)) {
       return false;
-    } else if (pageHeader.getStartTime() <= deletedAt) {
-      pageHeader.setModified(true);
     }
     return filter == null || filter.satisfy(pageHeader.getStatistics());
   }
 
+  /**
+   * @return true if all data of the page are deleted, and mark the page as modified if some of its
+   * data are deleted
+   */
+  protected boolean pageDeleted(PageHeader pageHeader) {
+    if (deleteIntervalList == null) {
+      return false;
+    }
+    long startTime = pageHeader.getStartTime();
+    long endTime = pageHeader.getEndTime();
+    for (TimeRange range : deleteIntervalList) {
+      if (range.contains(startTime, endTime)) {
+        return true;
+      }
+      if (range.getMin() <= endTime && range.getMax() >= startTime) {
+        pageHeader.setModified(true);
+      }
+    }
+    return false;
+  }
+
   private PageReader constructPageReaderForNextPage(PageHeader pageHeader)
       throws IOException {
     int compressedPageBodyLength = pageHeader.getCompressedSize();
@@ -144,7 +216,26 @@ public class ChunkReader implements IChunkReader {
     ByteBuffer pageData = ByteBuffer.wrap(unCompressor.uncompress(compressedPageBody));
     PageReader reader = new PageReader(pageHeader, pageData, chunkHeader.getDataType(),
         valueDecoder, timeDecoder, filter);
-    reader.setDeletedAt(deletedAt);
+    reader.setDeleteIntervalList(deleteIntervalList);
+    return reader;
+  }
+
+  private ValuePageReader constructValuePageReaderForNextPage(PageHeader pageHeader, long[] times)
+      throws IOException {
+    int compressedPageBodyLength = pageHeader.getCompressedSize();
+    if (compressedPageBodyLength > chunkDataBuffer.remaining()) {
+      throw new IOException("do not has a complete page body. Expected:" + compressedPageBodyLength
+          + ". Actual:" + chunkDataBuffer.remaining());
+    }
+    byte[] compressedPageBody = new byte[compressedPageBodyLength];
+    chunkDataBuffer.get(compressedPageBody);
+    Decoder valueDecoder = Decoder
+        .getDecoderByType(chunkHeader.getEncodingType(), chunkHeader.getDataType());
+    valueDecoder.setEndianType(endianType);
+    ByteBuffer pageData = ByteBuffer.wrap(unCompressor.uncompress(compressedPageBody));
+    ValuePageReader reader = new ValuePageReader(pageHeader, times, pageData,
+        chunkHeader.getDataType(), valueDecoder, filter);
+    reader.setDeleteIntervalList(deleteIntervalList);
     return reader;
   }
 
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader.page;
+
+import org.apache.iotdb.tsfile.read.filter.ValueFilter.ValueNotFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterType;
+import org.apache.iotdb.tsfile.read.filter.operator.In;
+import org.apache.iotdb.tsfile.read.filter.operator.NotFilter;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * DictionaryFilter evaluates a filter on the points of a page encoded with PLAIN_DICTIONARY by the
+ * ids of their values. If the filter only involves values, its result on an entry of the
+ * dictionary is computed once and reused by all points of the entry, otherwise the filter is
+ * evaluated on each point.
+ */
+class DictionaryFilter {
+
+  private static final byte UNKNOWN = 0;
+  private static final byte SATISFIED = 1;
+  private static final byte UNSATISFIED = 2;
+
+  private final Filter filter;
+  private final Binary[] dictionary;
+  // the results of the entries, null if the filter involves time
+  private final byte[] entryResults;
+
+  DictionaryFilter(Filter filter, Binary[] dictionary) {
+    this.filter = filter;
+    this.dictionary = dictionary;
+    this.entryResults = isValueFilter(filter) ? new byte[dictionary.length] : null;
+  }
+
+  boolean satisfy(long time, int id) {
+    if (entryResults == null) {
+      return filter.satisfy(time, dictionary[id]);
+    }
+    byte result = entryResults[id];
+    if (result == UNKNOWN) {
+      result = filter.satisfy(time, dictionary[id]) ? SATISFIED : UNSATISFIED;
+      entryResults[id] = result;
+    }
+    return result == SATISFIED;
+  }
+
+  private static boolean isValueFilter(Filter filter) {
+    if (filter instanceof UnaryFilter) {
+      return ((UnaryFilter<?>) filter).getFilterType() == FilterType.VALUE_FILTER;
+    } else if (filter instanceof In) {
+      return ((In<?>) filter).getFilterType() == FilterType.VALUE_FILTER;
+    } else if (filter instanceof BinaryFilter) {
+      return isValueFilter(((BinaryFilter) filter).getLeft())
+          && isValueFilter(((BinaryFilter) filter).getRight());
+    } else if (filter instanceof ValueNotFilter) {
+      return true;
+    } else if (filter instanceof NotFilter) {
+      return isValueFilter(((NotFilter) filter).getFilter());
+    }
+    return false;
+  }
+}
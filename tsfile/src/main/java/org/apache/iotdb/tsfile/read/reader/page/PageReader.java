@@ -19,11 +19,13 @@
 package org.apache.iotdb.tsfile.read.reader.page;
 
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DictionaryDecoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.reader.IPageReader;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -31,6 +33,7 @@ import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 
 public class PageReader implements IPageReader {
 
@@ -61,9 +64,16 @@ public class PageReader implements IPageReader {
   private Filter filter;
 
   /**
-   * Data whose timestamp <= deletedAt should be considered deleted(not be returned).
+   * Sorted and disjoint time ranges of the deleted data, which should not be returned. Null if
+   * none is deleted.
    */
-  private long deletedAt = Long.MIN_VALUE;
+  private List<TimeRange> deleteIntervalList;
+
+  /**
+   * index of the first deleted range that may contain the next timestamp, as timestamps in a page
+   * are increasing
+   */
+  private int deleteCursor = 0;
 
   public PageReader(ByteBuffer pageData, TSDataType dataType, Decoder valueDecoder,
       Decoder timeDecoder, Filter filter) {
@@ -102,43 +112,50 @@ public class PageReader implements IPageReader {
   public BatchData getAllSatisfiedPageData() throws IOException {
 
     BatchData pageData = new BatchData(dataType);
+    deleteCursor = 0;
+
+    if (valueDecoder instanceof DictionaryDecoder
+        && ((DictionaryDecoder) valueDecoder).isDictionaryPage(valueBuffer)) {
+      readDictionaryPage(pageData, (DictionaryDecoder) valueDecoder);
+      return pageData;
+    }
 
     while (timeDecoder.hasNext(timeBuffer)) {
       long timestamp = timeDecoder.readLong(timeBuffer);
       switch (dataType) {
         case BOOLEAN:
           boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aBoolean))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBoolean))) {
             pageData.putBoolean(timestamp, aBoolean);
           }
           break;
         case INT32:
           int anInt = valueDecoder.readInt(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, anInt))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, anInt))) {
             pageData.putInt(timestamp, anInt);
           }
           break;
         case INT64:
           long aLong = valueDecoder.readLong(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aLong))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aLong))) {
             pageData.putLong(timestamp, aLong);
           }
           break;
         case FLOAT:
           float aFloat = valueDecoder.readFloat(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aFloat))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aFloat))) {
             pageData.putFloat(timestamp, aFloat);
           }
           break;
         case DOUBLE:
           double aDouble = valueDecoder.readDouble(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aDouble))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aDouble))) {
             pageData.putDouble(timestamp, aDouble);
           }
           break;
         case TEXT:
           Binary aBinary = valueDecoder.readBinary(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aBinary))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBinary))) {
             pageData.putBinary(timestamp, aBinary);
           }
           break;
@@ -149,6 +166,41 @@ public class PageReader implements IPageReader {
     return pageData;
   }
 
+  /**
+   * The value column is not decoded at all, as the time column is encoded separately.
+   */
+  @Override
+  public BatchData getAllSatisfiedPageTimes() throws IOException {
+    BatchData pageData = new BatchData(dataType);
+    deleteCursor = 0;
+    while (timeDecoder.hasNext(timeBuffer)) {
+      long timestamp = timeDecoder.readLong(timeBuffer);
+      if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, null))) {
+        pageData.putTime(timestamp);
+      }
+    }
+    return pageData;
+  }
+
+  /**
+   * The values of a dictionary page are read as ids, so they are neither decoded nor compared
+   * again for each point.
+   */
+  private void readDictionaryPage(BatchData pageData, DictionaryDecoder dictionaryDecoder)
+      throws IOException {
+    Binary[] dictionary = dictionaryDecoder.getDictionary();
+    DictionaryFilter dictionaryFilter =
+        filter == null ? null : new DictionaryFilter(filter, dictionary);
+    while (timeDecoder.hasNext(timeBuffer)) {
+      long timestamp = timeDecoder.readLong(timeBuffer);
+      int id = dictionaryDecoder.readId(valueBuffer);
+      if (!isDeleted(timestamp) && (dictionaryFilter == null || dictionaryFilter
+          .satisfy(timestamp, id))) {
+        pageData.putBinary(timestamp, dictionary[id]);
+      }
+    }
+  }
+
   @Override
   public Statistics getStatistics() {
     return pageHeader.getStatistics();
@@ -159,8 +211,23 @@ public class PageReader implements IPageReader {
     this.filter = filter;
   }
 
-  public void setDeletedAt(long deletedAt) {
-    this.deletedAt = deletedAt;
+  public void setDeleteIntervalList(List<TimeRange> deleteIntervalList) {
+    this.deleteIntervalList = deleteIntervalList;
+  }
+
+  private boolean isDeleted(long timestamp) {
+    if (deleteIntervalList == null) {
+      return false;
+    }
+    while (deleteCursor < deleteIntervalList.size()) {
+      TimeRange range = deleteIntervalList.get(deleteCursor);
+      if (range.getMax() < timestamp) {
+        deleteCursor++;
+      } else {
+        return range.getMin() <= timestamp;
+      }
+    }
+    return false;
   }
 
   @Override
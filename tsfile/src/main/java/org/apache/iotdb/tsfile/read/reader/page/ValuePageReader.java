@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader.page;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DictionaryDecoder;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.reader.IPageReader;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * Reader of a page of a value chunk in an aligned chunk group. The timestamps come from the
+ * corresponding page of the shared time chunk, and the page holds a bitmap marking the non-null
+ * rows followed by the encoded non-null values.
+ */
+public class ValuePageReader implements IPageReader {
+
+  private PageHeader pageHeader;
+
+  private TSDataType dataType;
+
+  private Decoder valueDecoder;
+
+  /**
+   * timestamps of all rows of the page, including the null ones
+   */
+  private long[] times;
+
+  /**
+   * bit i is set if row i is not null
+   */
+  private byte[] bitmap;
+
+  private ByteBuffer valueBuffer;
+
+  private Filter filter;
+
+  /**
+   * Sorted and disjoint time ranges of the deleted data, which should not be returned. Null if
+   * none is deleted.
+   */
+  private List<TimeRange> deleteIntervalList;
+
+  private int deleteCursor = 0;
+
+  public ValuePageReader(PageHeader pageHeader, long[] times, ByteBuffer pageData,
+      TSDataType dataType, Decoder valueDecoder, Filter filter) {
+    this.pageHeader = pageHeader;
+    this.times = times;
+    this.dataType = dataType;
+    this.valueDecoder = valueDecoder;
+    this.filter = filter;
+    this.bitmap = new byte[(times.length + 7) / 8];
+    pageData.get(bitmap);
+    this.valueBuffer = pageData.slice();
+  }
+
+  public static boolean isNull(byte[] bitmap, int row) {
+    return (bitmap[row >>> 3] & (1 << (row & 7))) == 0;
+  }
+
+  /**
+   * @return the returned BatchData may be empty, but never be null
+   */
+  @Override
+  public BatchData getAllSatisfiedPageData() throws IOException {
+    BatchData pageData = new BatchData(dataType);
+    deleteCursor = 0;
+
+    if (valueDecoder instanceof DictionaryDecoder
+        && ((DictionaryDecoder) valueDecoder).isDictionaryPage(valueBuffer)) {
+      readDictionaryPage(pageData, (DictionaryDecoder) valueDecoder);
+      return pageData;
+    }
+
+    for (int i = 0; i < times.length; i++) {
+      if (isNull(bitmap, i)) {
+        continue;
+      }
+      long timestamp = times[i];
+      switch (dataType) {
+        case BOOLEAN:
+          boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBoolean))) {
+            pageData.putBoolean(timestamp, aBoolean);
+          }
+          break;
+        case INT32:
+          int anInt = valueDecoder.readInt(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, anInt))) {
+            pageData.putInt(timestamp, anInt);
+          }
+          break;
+        case INT64:
+          long aLong = valueDecoder.readLong(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aLong))) {
+            pageData.putLong(timestamp, aLong);
+          }
+          break;
+        case FLOAT:
+          float aFloat = valueDecoder.readFloat(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aFloat))) {
+            pageData.putFloat(timestamp, aFloat);
+          }
+          break;
+        case DOUBLE:
+          double aDouble = valueDecoder.readDouble(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aDouble))) {
+            pageData.putDouble(timestamp, aDouble);
+          }
+          break;
+        case TEXT:
+          Binary aBinary = valueDecoder.readBinary(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBinary))) {
+            pageData.putBinary(timestamp, aBinary);
+          }
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      }
+    }
+    return pageData;
+  }
+
+  /**
+   * Only the bitmap is read to skip the null rows, the values are not decoded.
+   */
+  @Override
+  public BatchData getAllSatisfiedPageTimes() {
+    BatchData pageData = new BatchData(dataType);
+    deleteCursor = 0;
+    for (int i = 0; i < times.length; i++) {
+      long timestamp = times[i];
+      if (!isNull(bitmap, i) && !isDeleted(timestamp)
+          && (filter == null || filter.satisfy(timestamp, null))) {
+        pageData.putTime(timestamp);
+      }
+    }
+    return pageData;
+  }
+
+  /**
+   * The values of a dictionary page are read as ids, see {@link PageReader}.
+   */
+  private void readDictionaryPage(BatchData pageData, DictionaryDecoder dictionaryDecoder) {
+    Binary[] dictionary = dictionaryDecoder.getDictionary();
+    DictionaryFilter dictionaryFilter =
+        filter == null ? null : new DictionaryFilter(filter, dictionary);
+    for (int i = 0; i < times.length; i++) {
+      if (isNull(bitmap, i)) {
+        continue;
+      }
+      long timestamp = times[i];
+      int id = dictionaryDecoder.readId(valueBuffer);
+      if (!isDeleted(timestamp) && (dictionaryFilter == null || dictionaryFilter
+          .satisfy(timestamp, id))) {
+        pageData.putBinary(timestamp, dictionary[id]);
+      }
+    }
+  }
+
+  @Override
+  public Statistics getStatistics() {
+    return pageHeader.getStatistics();
+  }
+
+  @Override
+  public void setFilter(Filter filter) {
+    this.filter = filter;
+  }
+
+  public void setDeleteIntervalList(List<TimeRange> deleteIntervalList) {
+    this.deleteIntervalList = deleteIntervalList;
+  }
+
+  private boolean isDeleted(long timestamp) {
+    if (deleteIntervalList == null) {
+      return false;
+    }
+    while (deleteCursor < deleteIntervalList.size()) {
+      TimeRange range = deleteIntervalList.get(deleteCursor);
+      if (range.getMax() < timestamp) {
+        deleteCursor++;
+      } else {
+        return range.getMin() <= timestamp;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isModified() {
+    return pageHeader.isModified();
+  }
+}
@@ -114,6 +114,32 @@ public class BloomFilter {
     return ret;
   }
 
+  /**
+   * Hash the value by all hash functions in advance. The hashes do not depend on the size of a
+   * filter, so a value checked against many filters only needs to be hashed once.
+   *
+   * @return the hashes to be checked by {@link #contains(int[])}
+   */
+  public static int[] hash(String value) {
+    int[] hashes = new int[MAXIMAL_HASH_FUNCTION_SIZE];
+    for (int i = 0; i < MAXIMAL_HASH_FUNCTION_SIZE; i++) {
+      hashes[i] = Math.abs(Murmur128Hash.hash(value, SEEDS[i]));
+    }
+    return hashes;
+  }
+
+  /**
+   * @param hashes the hashes of a value returned by {@link #hash(String)}
+   */
+  public boolean contains(int[] hashes) {
+    for (int i = 0; i < hashFunctionSize; i++) {
+      if (!bits.get(hashes[i] % size)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public int getBitCount() {
     int res = 0;
     for (int i = 0; i < size; i++) {
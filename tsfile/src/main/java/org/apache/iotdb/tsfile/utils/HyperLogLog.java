@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A mergeable sketch of the number of distinct values (Flajolet et al., "HyperLogLog: the analysis
+ * of a near-optimal cardinality estimation algorithm"). A sketch of precision p has 2^p registers
+ * of one byte and a standard error of about 1.04 / sqrt(2^p). Sketches of different precisions can
+ * be merged, the result having the lower precision.
+ */
+public class HyperLogLog {
+
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 16;
+
+  private static final byte DENSE = 0;
+  private static final byte SPARSE = 1;
+
+  private int precision;
+  private byte[] registers;
+
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException(String.format(
+          "The precision of a HyperLogLog should be in [%d, %d], but was %d", MIN_PRECISION,
+          MAX_PRECISION, precision));
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * Mix the bits of a value (the finalizer of MurmurHash3), so that the hashes of close values are
+   * uniformly distributed.
+   */
+  public static long hash(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  public static long hash(byte[] bytes) {
+    // FNV-1a
+    long value = 0xcbf29ce484222325L;
+    for (byte b : bytes) {
+      value ^= b & 0xff;
+      value *= 0x100000001b3L;
+    }
+    return hash(value);
+  }
+
+  /**
+   * @param hash a uniformly distributed hash of the value, see {@link #hash(long)}
+   */
+  public void offer(long hash) {
+    int index = (int) (hash >>> (Long.SIZE - precision));
+    byte rank = rank(hash << precision, Long.SIZE - precision);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * @return the position of the first 1 bit in the highest {@code width} bits, or width + 1 if
+   * they are all 0
+   */
+  private static byte rank(long bits, int width) {
+    return (byte) Math.min(Long.numberOfLeadingZeros(bits) + 1, width + 1);
+  }
+
+  /**
+   * Merge the registers of another sketch into this one, the other sketch is not changed.
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision < precision) {
+      fold(other.precision);
+    }
+    int shift = other.precision - precision;
+    for (int i = 0; i < other.registers.length; i++) {
+      if (other.registers[i] == 0) {
+        continue;
+      }
+      byte rank = foldedRank(i, other.registers[i], shift);
+      int index = i >>> shift;
+      if (rank > registers[index]) {
+        registers[index] = rank;
+      }
+    }
+  }
+
+  /**
+   * Lower the precision of this sketch, as if the values were offered to a sketch of the given
+   * precision.
+   */
+  private void fold(int newPrecision) {
+    int shift = precision - newPrecision;
+    byte[] newRegisters = new byte[1 << newPrecision];
+    for (int i = 0; i < registers.length; i++) {
+      if (registers[i] == 0) {
+        continue;
+      }
+      byte rank = foldedRank(i, registers[i], shift);
+      int index = i >>> shift;
+      if (rank > newRegisters[index]) {
+        newRegisters[index] = rank;
+      }
+    }
+    precision = newPrecision;
+    registers = newRegisters;
+  }
+
+  /**
+   * The lowest {@code shift} bits of the index are part of the hash bits ranked by the lower
+   * precision.
+   */
+  private static byte foldedRank(int index, byte rank, int shift) {
+    if (shift == 0) {
+      return rank;
+    }
+    int droppedBits = index & ((1 << shift) - 1);
+    if (droppedBits != 0) {
+      return (byte) (Integer.numberOfLeadingZeros(droppedBits) - (Integer.SIZE - shift) + 1);
+    }
+    return (byte) (shift + rank);
+  }
+
+  public HyperLogLog copy() {
+    HyperLogLog copy = new HyperLogLog(precision);
+    System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+    return copy;
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  public long getCardinality() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha;
+    switch (m) {
+      case 16:
+        alpha = 0.673;
+        break;
+      case 32:
+        alpha = 0.697;
+        break;
+      case 64:
+        alpha = 0.709;
+        break;
+      default:
+        alpha = 0.7213 / (1 + 1.079 / m);
+    }
+    double estimate = alpha * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      // linear counting is more accurate for small cardinalities
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * A sketch of few values is serialized as the (index, register) pairs of its non-zero registers.
+   */
+  public int serialize(OutputStream outputStream) throws IOException {
+    int nonZero = 0;
+    for (byte register : registers) {
+      if (register != 0) {
+        nonZero++;
+      }
+    }
+    int byteLen = 0;
+    byteLen += ReadWriteIOUtils.write((byte) precision, outputStream);
+    if (nonZero * 3 < registers.length) {
+      byteLen += ReadWriteIOUtils.write(SPARSE, outputStream);
+      byteLen += ReadWriteIOUtils.write(nonZero, outputStream);
+      for (int i = 0; i < registers.length; i++) {
+        if (registers[i] != 0) {
+          byteLen += ReadWriteIOUtils.write((short) i, outputStream);
+          byteLen += ReadWriteIOUtils.write(registers[i], outputStream);
+        }
+      }
+    } else {
+      byteLen += ReadWriteIOUtils.write(DENSE, outputStream);
+      outputStream.write(registers);
+      byteLen += registers.length;
+    }
+    return byteLen;
+  }
+
+  public static HyperLogLog deserialize(ByteBuffer buffer) {
+    HyperLogLog sketch = new HyperLogLog(ReadWriteIOUtils.readByte(buffer));
+    if (ReadWriteIOUtils.readByte(buffer) == SPARSE) {
+      int nonZero = ReadWriteIOUtils.readInt(buffer);
+      for (int i = 0; i < nonZero; i++) {
+        int index = ReadWriteIOUtils.readShort(buffer) & 0xffff;
+        sketch.registers[index] = ReadWriteIOUtils.readByte(buffer);
+      }
+    } else {
+      buffer.get(sketch.registers);
+    }
+    return sketch;
+  }
+}
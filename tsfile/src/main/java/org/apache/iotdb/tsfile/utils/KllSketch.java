@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A mergeable sketch of the quantiles of double values (Karnin, Lang and Liberty, "Optimal Quantile
+ * Approximation in Streams"). The values are kept in levels of compactors, a value in level h
+ * standing for 2^h inserted values. When the sketch is full, the lowest full level is sorted and
+ * every other value of it is promoted to the next level, so that a sketch keeps O(k) values and its
+ * rank error is about 1.7 / k of the count. The quantiles are exact as long as at most k values
+ * are inserted.
+ */
+public class KllSketch {
+
+  private static final double CAPACITY_DECAY = 2.0 / 3;
+  private static final int MIN_LEVEL_CAPACITY = 2;
+
+  private final int k;
+  private long count;
+  private double minValue = Double.MAX_VALUE;
+  private double maxValue = -Double.MAX_VALUE;
+
+  // levels[h] holds levelSizes[h] values, each of them standing for 2^h values
+  private double[][] levels;
+  private int[] levelSizes;
+  private int levelNum;
+  private int size;
+
+  // alternates the values promoted by a compaction, which avoids a bias to either side
+  private boolean compactOdd;
+
+  public KllSketch(int k) {
+    if (k < MIN_LEVEL_CAPACITY) {
+      throw new IllegalArgumentException("The size of a KLL sketch should be at least "
+          + MIN_LEVEL_CAPACITY + ", but was " + k);
+    }
+    this.k = k;
+    this.levels = new double[][]{new double[k]};
+    this.levelSizes = new int[1];
+    this.levelNum = 1;
+  }
+
+  public void update(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    append(0, value);
+    count++;
+    if (value < minValue) {
+      minValue = value;
+    }
+    if (value > maxValue) {
+      maxValue = value;
+    }
+    if (size > totalCapacity()) {
+      compress();
+    }
+  }
+
+  /**
+   * Merge the values of another sketch into this one, the other sketch is not changed.
+   */
+  public void merge(KllSketch other) {
+    if (other.count == 0) {
+      return;
+    }
+    while (levelNum < other.levelNum) {
+      addLevel();
+    }
+    for (int h = 0; h < other.levelNum; h++) {
+      for (int i = 0; i < other.levelSizes[h]; i++) {
+        append(h, other.levels[h][i]);
+      }
+    }
+    count += other.count;
+    minValue = Math.min(minValue, other.minValue);
+    maxValue = Math.max(maxValue, other.maxValue);
+    compress();
+  }
+
+  public KllSketch copy() {
+    KllSketch copy = new KllSketch(k);
+    copy.count = count;
+    copy.minValue = minValue;
+    copy.maxValue = maxValue;
+    copy.levels = new double[levels.length][];
+    for (int h = 0; h < levelNum; h++) {
+      copy.levels[h] = Arrays.copyOf(levels[h], levels[h].length);
+    }
+    copy.levelSizes = Arrays.copyOf(levelSizes, levelSizes.length);
+    copy.levelNum = levelNum;
+    copy.size = size;
+    copy.compactOdd = compactOdd;
+    return copy;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the value whose rank is the closest to {@code rank * count}, the minimum and the maximum
+   * are always exact.
+   *
+   * @param rank in [0, 1]
+   * @return NaN if the sketch is empty
+   */
+  public double getQuantile(double rank) {
+    if (count == 0) {
+      return Double.NaN;
+    }
+    if (rank <= 0) {
+      return minValue;
+    }
+    if (rank >= 1) {
+      return maxValue;
+    }
+    // the levels are copied instead of sorted in place, as the sketch may be shared by queries
+    double[][] sorted = new double[levelNum][];
+    for (int h = 0; h < levelNum; h++) {
+      sorted[h] = Arrays.copyOf(levels[h], levelSizes[h]);
+      Arrays.sort(sorted[h]);
+    }
+    int[] positions = new int[levelNum];
+    double target = rank * count;
+    long weight = 0;
+    double value = maxValue;
+    while (weight < target) {
+      int next = -1;
+      for (int h = 0; h < levelNum; h++) {
+        if (positions[h] < sorted[h].length
+            && (next == -1 || sorted[h][positions[h]] < sorted[next][positions[next]])) {
+          next = h;
+        }
+      }
+      if (next == -1) {
+        break;
+      }
+      value = sorted[next][positions[next]++];
+      weight += 1L << next;
+    }
+    return value;
+  }
+
+  private void append(int level, double value) {
+    double[] values = levels[level];
+    if (levelSizes[level] == values.length) {
+      values = Arrays.copyOf(values, Math.max(MIN_LEVEL_CAPACITY, values.length * 2));
+      levels[level] = values;
+    }
+    values[levelSizes[level]++] = value;
+    size++;
+  }
+
+  private int levelCapacity(int level) {
+    int depth = levelNum - 1 - level;
+    return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+  }
+
+  private int totalCapacity() {
+    int capacity = 0;
+    for (int h = 0; h < levelNum; h++) {
+      capacity += levelCapacity(h);
+    }
+    return capacity;
+  }
+
+  private void addLevel() {
+    if (levelNum == levels.length) {
+      levels = Arrays.copyOf(levels, levelNum + 1);
+      levelSizes = Arrays.copyOf(levelSizes, levelNum + 1);
+    }
+    levels[levelNum] = new double[MIN_LEVEL_CAPACITY];
+    levelSizes[levelNum] = 0;
+    levelNum++;
+  }
+
+  private void compress() {
+    while (size > totalCapacity()) {
+      int level = 0;
+      while (levelSizes[level] < levelCapacity(level)) {
+        level++;
+      }
+      if (level == levelNum - 1) {
+        addLevel();
+      }
+      compact(level);
+    }
+  }
+
+  /**
+   * Halve the given level into the next one. If the level has an odd number of values, one of
+   * them stays so that the total weight is unchanged.
+   */
+  private void compact(int level) {
+    double[] values = levels[level];
+    int levelSize = levelSizes[level];
+    Arrays.sort(values, 0, levelSize);
+    int start = levelSize % 2;
+    for (int i = start + (compactOdd ? 1 : 0); i < levelSize; i += 2) {
+      append(level + 1, values[i]);
+    }
+    compactOdd = !compactOdd;
+    levelSizes[level] = start;
+    size -= levelSize - start;
+  }
+
+  public int serialize(OutputStream outputStream) throws IOException {
+    int byteLen = 0;
+    byteLen += ReadWriteIOUtils.write(k, outputStream);
+    byteLen += ReadWriteIOUtils.write(count, outputStream);
+    byteLen += ReadWriteIOUtils.write(minValue, outputStream);
+    byteLen += ReadWriteIOUtils.write(maxValue, outputStream);
+    byteLen += ReadWriteIOUtils.write(levelNum, outputStream);
+    for (int h = 0; h < levelNum; h++) {
+      byteLen += ReadWriteIOUtils.write(levelSizes[h], outputStream);
+      for (int i = 0; i < levelSizes[h]; i++) {
+        byteLen += ReadWriteIOUtils.write(levels[h][i], outputStream);
+      }
+    }
+    return byteLen;
+  }
+
+  public static KllSketch deserialize(ByteBuffer buffer) {
+    KllSketch sketch = new KllSketch(ReadWriteIOUtils.readInt(buffer));
+    sketch.count = ReadWriteIOUtils.readLong(buffer);
+    sketch.minValue = ReadWriteIOUtils.readDouble(buffer);
+    sketch.maxValue = ReadWriteIOUtils.readDouble(buffer);
+    int levelNum = ReadWriteIOUtils.readInt(buffer);
+    sketch.levels = new double[levelNum][];
+    sketch.levelSizes = new int[levelNum];
+    sketch.levelNum = levelNum;
+    for (int h = 0; h < levelNum; h++) {
+      int levelSize = ReadWriteIOUtils.readInt(buffer);
+      double[] values = new double[Math.max(MIN_LEVEL_CAPACITY, levelSize)];
+      for (int i = 0; i < levelSize; i++) {
+        values[i] = ReadWriteIOUtils.readDouble(buffer);
+      }
+      sketch.levels[h] = values;
+      sketch.levelSizes[h] = levelSize;
+      sketch.size += levelSize;
+    }
+    return sketch;
+  }
+}
@@ -18,14 +18,20 @@
  */
 package org.apache.iotdb.tsfile.utils;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * A subclass extending <code>ByteArrayOutputStream</code>. It's used to return
  * the byte array directly. Note that the size of byte array is large than
  * actual size of valid contents, thus it's used cooperating with
  * <code>size()</code> or <code>capacity = size</code>
+ *
+ * Unlike <code>ByteArrayOutputStream</code>, the methods are not synchronized, as a PublicBAOS is
+ * always written by one thread, e.g., by the encoders of a page writer, and the lock on every
+ * written byte costs a lot when flushing or merging.
  */
 public class PublicBAOS extends ByteArrayOutputStream {
 
@@ -33,6 +39,10 @@ public class PublicBAOS extends ByteArrayOutputStream {
     super();
   }
 
+  public PublicBAOS(int size) {
+    super(size);
+  }
+
   /**
    * get current all bytes data
    *
@@ -43,4 +53,71 @@ public class PublicBAOS extends ByteArrayOutputStream {
     return this.buf;
   }
 
+  @Override
+  public void write(int b) {
+    if (count == buf.length) {
+      ensureCapacity(count + 1);
+    }
+    buf[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    if (off < 0 || len < 0 || off > b.length - len) {
+      throw new IndexOutOfBoundsException();
+    }
+    ensureCapacity(count + len);
+    System.arraycopy(b, off, buf, count, len);
+    count += len;
+  }
+
+  /**
+   * Write the valid contents of another PublicBAOS.
+   */
+  public void write(PublicBAOS other) {
+    write(other.buf, 0, other.count);
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity < 0) {
+      throw new OutOfMemoryError();
+    }
+    if (minCapacity > buf.length) {
+      int newCapacity = buf.length << 1;
+      if (newCapacity < minCapacity) {
+        newCapacity = minCapacity;
+      }
+      if (newCapacity < 0) {
+        newCapacity = Integer.MAX_VALUE - 8;
+      }
+      buf = Arrays.copyOf(buf, newCapacity);
+    }
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(buf, 0, count);
+  }
+
+  @Override
+  public void reset() {
+    count = 0;
+  }
+
+  @Override
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buf, count);
+  }
+
+  @Override
+  public int size() {
+    return count;
+  }
+
+  /**
+   * @return the size of the byte array, which may be larger than the valid contents
+   */
+  public int capacity() {
+    return buf.length;
+  }
 }
@@ -167,6 +167,40 @@ public class ReadWriteForEncodingUtils {
     return position;
   }
 
+  /**
+   * write a signed long value to stream. The value is zigzag encoded so that a value with a small
+   * absolute value takes few bytes, and then written in the unsigned var int format.
+   *
+   * @param value value to write into stream
+   * @param out   output stream
+   */
+  public static void writeVarLong(long value, ByteArrayOutputStream out) {
+    long unsigned = (value << 1) ^ (value >> 63);
+    while ((unsigned & 0xFFFFFFFFFFFFFF80L) != 0L) {
+      out.write((int) ((unsigned & 0x7F) | 0x80));
+      unsigned >>>= 7;
+    }
+    out.write((int) (unsigned & 0x7F));
+  }
+
+  /**
+   * read a signed long value written by {@link #writeVarLong(long, ByteArrayOutputStream)}.
+   *
+   * @param buffer stream to read
+   * @return long value
+   */
+  public static long readVarLong(ByteBuffer buffer) {
+    long unsigned = 0;
+    int i = 0;
+    long b;
+    while (((b = buffer.get()) & 0x80) != 0) {
+      unsigned |= (b & 0x7F) << i;
+      i += 7;
+    }
+    unsigned |= b << i;
+    return (unsigned >>> 1) ^ -(unsigned & 1);
+  }
+
   /**
    * write integer value using special bit to output stream.
    *
@@ -23,6 +23,7 @@ import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.write.NoMeasurementException;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.chunk.AlignedChunkGroupWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.ChunkGroupWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkGroupWriter;
 import org.apache.iotdb.tsfile.write.record.Tablet;
@@ -38,7 +39,9 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * TsFileWriter is the entrance for writing processing. It receives a record and send it to
@@ -64,6 +67,11 @@ public class TsFileWriter implements AutoCloseable {
 
   private Map<String, IChunkGroupWriter> groupWriters = new HashMap<>();
 
+  /**
+   * devices whose measurements share one time column
+   */
+  private Set<String> alignedDevices = new HashSet<>();
+
   /**
    * min value of threshold of data points num check.
    **/
@@ -160,6 +168,14 @@ public class TsFileWriter implements AutoCloseable {
     schema.registerDevice(deviceId, templateName);
   }
 
+  /**
+   * write the measurements of the device with one shared time column, the measurements missing in
+   * a record are taken as nulls. It takes effect on the chunk groups not started yet.
+   */
+  public void registerAlignedDevice(String deviceId) {
+    alignedDevices.add(deviceId);
+  }
+
   public void registerTimeseries(Path path, MeasurementSchema measurementSchema)
       throws WriteProcessException {
     if (schema.containsTimeseries(path)) {
@@ -178,7 +194,9 @@ public class TsFileWriter implements AutoCloseable {
   private boolean checkIsTimeSeriesExist(TSRecord record) throws WriteProcessException {
     IChunkGroupWriter groupWriter;
     if (!groupWriters.containsKey(record.deviceId)) {
-      groupWriter = new ChunkGroupWriterImpl(record.deviceId);
+      groupWriter = alignedDevices.contains(record.deviceId)
+          ? new AlignedChunkGroupWriterImpl(record.deviceId)
+          : new ChunkGroupWriterImpl(record.deviceId);
       groupWriters.put(record.deviceId, groupWriter);
     } else {
       groupWriter = groupWriters.get(record.deviceId);
@@ -215,7 +233,9 @@ public class TsFileWriter implements AutoCloseable {
   private void checkIsTimeSeriesExist(Tablet tablet) throws WriteProcessException {
     IChunkGroupWriter groupWriter;
     if (!groupWriters.containsKey(tablet.deviceId)) {
-      groupWriter = new ChunkGroupWriterImpl(tablet.deviceId);
+      groupWriter = tablet.isAligned() || alignedDevices.contains(tablet.deviceId)
+          ? new AlignedChunkGroupWriterImpl(tablet.deviceId)
+          : new ChunkGroupWriterImpl(tablet.deviceId);
       groupWriters.put(tablet.deviceId, groupWriter);
     } else {
       groupWriter = groupWriters.get(tablet.deviceId);
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.exception.write.NoMeasurementException;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * a implementation of IChunkGroupWriter for an aligned device, whose series share one time chunk.
+ * The measurements missing in a record are written as nulls.
+ */
+public class AlignedChunkGroupWriterImpl implements IChunkGroupWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AlignedChunkGroupWriterImpl.class);
+
+  private final String deviceId;
+
+  private final AlignedChunkWriterImpl chunkWriter = new AlignedChunkWriterImpl(
+      Collections.emptyList());
+
+  /**
+   * Map(measurementID, column index in the chunk writer).
+   */
+  private Map<String, Integer> columnIndexes = new HashMap<>();
+
+  public AlignedChunkGroupWriterImpl(String deviceId) {
+    this.deviceId = deviceId;
+  }
+
+  @Override
+  public void tryToAddSeriesWriter(MeasurementSchema schema, int pageSizeThreshold) {
+    if (!columnIndexes.containsKey(schema.getMeasurementId())) {
+      columnIndexes.put(schema.getMeasurementId(), chunkWriter.addValueColumn(schema));
+    }
+  }
+
+  @Override
+  public void write(long time, List<DataPoint> data) throws WriteProcessException, IOException {
+    for (DataPoint point : data) {
+      Integer column = columnIndexes.get(point.getMeasurementId());
+      if (column == null) {
+        throw new NoMeasurementException(
+            "time " + time + ", measurement id " + point.getMeasurementId() + " not found!");
+      }
+      writeByDataType(column, time, point.getType(), point.getValue());
+    }
+    chunkWriter.write(time);
+  }
+
+  private void writeByDataType(int column, long time, TSDataType dataType, Object value) {
+    switch (dataType) {
+      case INT32:
+        chunkWriter.write(column, time, (int) value);
+        break;
+      case INT64:
+        chunkWriter.write(column, time, (long) value);
+        break;
+      case FLOAT:
+        chunkWriter.write(column, time, (float) value);
+        break;
+      case DOUBLE:
+        chunkWriter.write(column, time, (double) value);
+        break;
+      case BOOLEAN:
+        chunkWriter.write(column, time, (boolean) value);
+        break;
+      case TEXT:
+        chunkWriter.write(column, time, (Binary) value);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+  }
+
+  @Override
+  public void write(Tablet tablet) throws WriteProcessException, IOException {
+    List<MeasurementSchema> timeseries = tablet.getSchemas();
+    int[] columns = new int[timeseries.size()];
+    for (int i = 0; i < timeseries.size(); i++) {
+      Integer column = columnIndexes.get(timeseries.get(i).getMeasurementId());
+      if (column == null) {
+        throw new NoMeasurementException(
+            "measurement id" + timeseries.get(i).getMeasurementId() + " not found!");
+      }
+      columns[i] = column;
+    }
+    for (int row = 0; row < tablet.rowSize; row++) {
+      long time = tablet.timestamps[row];
+      for (int i = 0; i < columns.length; i++) {
+        writeByDataType(tablet, columns[i], time, timeseries.get(i).getType(), i, row);
+      }
+      chunkWriter.write(time);
+    }
+  }
+
+  private void writeByDataType(Tablet tablet, int column, long time, TSDataType dataType,
+      int index, int row) {
+    switch (dataType) {
+      case INT32:
+        chunkWriter.write(column, time, ((int[]) tablet.values[index])[row]);
+        break;
+      case INT64:
+        chunkWriter.write(column, time, ((long[]) tablet.values[index])[row]);
+        break;
+      case FLOAT:
+        chunkWriter.write(column, time, ((float[]) tablet.values[index])[row]);
+        break;
+      case DOUBLE:
+        chunkWriter.write(column, time, ((double[]) tablet.values[index])[row]);
+        break;
+      case BOOLEAN:
+        chunkWriter.write(column, time, ((boolean[]) tablet.values[index])[row]);
+        break;
+      case TEXT:
+        chunkWriter.write(column, time, ((Binary[]) tablet.values[index])[row]);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+  }
+
+  @Override
+  public long flushToFileWriter(TsFileIOWriter fileWriter) throws IOException {
+    LOG.debug("start flush aligned device id:{}", deviceId);
+    // make sure all the pages have been compressed into buffers, so that we can get correct
+    // groupWriter.getCurrentChunkGroupSize().
+    chunkWriter.sealCurrentPage();
+    long currentChunkGroupSize = getCurrentChunkGroupSize();
+    chunkWriter.writeToFileWriter(fileWriter);
+    return currentChunkGroupSize;
+  }
+
+  @Override
+  public long updateMaxGroupMemSize() {
+    return chunkWriter.estimateMaxMemSize();
+  }
+
+  @Override
+  public long getCurrentChunkGroupSize() {
+    return chunkWriter.getCurrentChunkSize();
+  }
+
+  @Override
+  public int getSeriesNumber() {
+    return columnIndexes.size();
+  }
+}
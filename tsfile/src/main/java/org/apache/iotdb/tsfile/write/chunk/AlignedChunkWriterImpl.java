@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.MetaMarker;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.page.TimePageWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AlignedChunkWriterImpl writes the series of an aligned device, which share one time column. The
+ * timestamps are written only once into a time chunk, and each series is written into a value
+ * chunk referring to the time chunk, with the nulls of the series marked by bitmaps. The pages of
+ * all the chunks are sealed together, so that the i-th page of a value chunk holds the values of
+ * the rows in the i-th page of the time chunk.
+ *
+ * A row is written by writing or nulling the value of each column and then ending it by
+ * {@link #write(long)}, the columns not written in a row are null.
+ */
+public class AlignedChunkWriterImpl {
+
+  private static final Logger logger = LoggerFactory.getLogger(AlignedChunkWriterImpl.class);
+
+  // initial value for rowCountInOnePageForNextCheck
+  private static final int MINIMUM_RECORD_COUNT_FOR_CHECK = 1500;
+
+  private final TSEncoding timeEncoding;
+
+  private final CompressionType timeCompression;
+
+  private TimePageWriter timePageWriter;
+
+  /**
+   * all pages of the time chunk.
+   */
+  private PublicBAOS timePageBuffer = new PublicBAOS();
+
+  private int numOfTimePages;
+
+  private List<ValueChunkWriter> valueChunkWriters = new ArrayList<>();
+
+  /**
+   * row numbers of the sealed pages of the current chunk, used to fill the pages of a column added
+   * later with nulls.
+   */
+  private List<Integer> pageRowNums = new ArrayList<>();
+
+  /**
+   * number of columns written in the current row
+   */
+  private int writtenColumnNum;
+
+  private boolean[] columnWritten = new boolean[0];
+
+  private final long pageSizeThreshold;
+
+  private final int maxNumberOfPointsInPage;
+
+  private int rowCountInOnePageForNextCheck = MINIMUM_RECORD_COUNT_FOR_CHECK;
+
+  public AlignedChunkWriterImpl(List<MeasurementSchema> schemas) {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    this.timeEncoding = TSEncoding.valueOf(config.getTimeEncoder());
+    this.timeCompression = config.getCompressor();
+    this.timePageWriter = new TimePageWriter(
+        TSEncodingBuilder.getEncodingBuilder(timeEncoding).getEncoder(TSDataType.INT64),
+        timeCompression);
+    this.pageSizeThreshold = config.getPageSizeInByte();
+    this.maxNumberOfPointsInPage = config.getMaxNumberOfPointsInPage();
+    for (MeasurementSchema schema : schemas) {
+      addValueColumn(schema);
+    }
+  }
+
+  /**
+   * add a value column, whose values of the rows written before are null.
+   *
+   * @return index of the column
+   */
+  public int addValueColumn(MeasurementSchema schema) {
+    ValueChunkWriter valueChunkWriter = new ValueChunkWriter(schema);
+    try {
+      for (int pageRowNum : pageRowNums) {
+        for (int i = 0; i < pageRowNum; i++) {
+          valueChunkWriter.writeNull();
+        }
+        valueChunkWriter.sealCurrentPage();
+      }
+    } catch (IOException e) {
+      // pages are sealed into memory buffers
+      throw new IllegalStateException(e);
+    }
+    for (long i = 0; i < timePageWriter.getPointNumber(); i++) {
+      valueChunkWriter.writeNull();
+    }
+    valueChunkWriters.add(valueChunkWriter);
+    boolean[] newColumnWritten = new boolean[valueChunkWriters.size()];
+    System.arraycopy(columnWritten, 0, newColumnWritten, 0, columnWritten.length);
+    columnWritten = newColumnWritten;
+    return valueChunkWriters.size() - 1;
+  }
+
+  public void write(int column, long time, boolean value) {
+    markWritten(column).write(time, value);
+  }
+
+  public void write(int column, long time, int value) {
+    markWritten(column).write(time, value);
+  }
+
+  public void write(int column, long time, long value) {
+    markWritten(column).write(time, value);
+  }
+
+  public void write(int column, long time, float value) {
+    markWritten(column).write(time, value);
+  }
+
+  public void write(int column, long time, double value) {
+    markWritten(column).write(time, value);
+  }
+
+  public void write(int column, long time, Binary value) {
+    markWritten(column).write(time, value);
+  }
+
+  /**
+   * write a null into the column of the current row
+   */
+  public void writeNull(int column) {
+    markWritten(column).writeNull();
+  }
+
+  private ValueChunkWriter markWritten(int column) {
+    if (!columnWritten[column]) {
+      columnWritten[column] = true;
+      writtenColumnNum++;
+    }
+    return valueChunkWriters.get(column);
+  }
+
+  /**
+   * end the current row, whose columns not written are null.
+   *
+   * @param time timestamp of the row
+   */
+  public void write(long time) throws IOException {
+    if (writtenColumnNum < valueChunkWriters.size()) {
+      for (int i = 0; i < columnWritten.length; i++) {
+        if (!columnWritten[i]) {
+          valueChunkWriters.get(i).writeNull();
+        }
+      }
+    }
+    for (int i = 0; i < columnWritten.length; i++) {
+      columnWritten[i] = false;
+    }
+    writtenColumnNum = 0;
+    timePageWriter.write(time);
+    checkPageSizeAndMayOpenANewPage();
+  }
+
+  /**
+   * check occupied memory size of the largest page, if it exceeds the PageSize threshold, seal the
+   * pages of all the columns
+   */
+  private void checkPageSizeAndMayOpenANewPage() throws IOException {
+    long rowCount = timePageWriter.getPointNumber();
+    if (rowCount == maxNumberOfPointsInPage) {
+      logger.debug("current line count reaches the upper bound, write aligned pages");
+      sealCurrentPage();
+    } else if (rowCount >= rowCountInOnePageForNextCheck) {
+      long currentPageSize = timePageWriter.estimateMaxMemSize();
+      for (ValueChunkWriter valueChunkWriter : valueChunkWriters) {
+        currentPageSize = Math.max(currentPageSize, valueChunkWriter.estimateMaxPageMemSize());
+      }
+      if (currentPageSize > pageSizeThreshold) {
+        logger.debug("enough size, write aligned pages, pageSizeThreshold:{}, currentPageSize:{}, "
+            + "rowCountInOnePage:{}", pageSizeThreshold, currentPageSize, rowCount);
+        sealCurrentPage();
+        rowCountInOnePageForNextCheck = MINIMUM_RECORD_COUNT_FOR_CHECK;
+      } else {
+        rowCountInOnePageForNextCheck = (int) (((float) pageSizeThreshold / currentPageSize)
+            * rowCount);
+      }
+    }
+  }
+
+  /**
+   * seal the current pages of all the columns if there is any row in them.
+   */
+  public void sealCurrentPage() throws IOException {
+    long rowCount = timePageWriter.getPointNumber();
+    if (rowCount == 0) {
+      return;
+    }
+    timePageWriter.writePageHeaderAndDataIntoBuff(timePageBuffer);
+    numOfTimePages++;
+    timePageWriter.reset();
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriters) {
+      valueChunkWriter.sealCurrentPage();
+    }
+    pageRowNums.add((int) rowCount);
+  }
+
+  /**
+   * write the time chunk and the value chunks into the file writer, the time chunk is not written
+   * if all the values are null.
+   */
+  public void writeToFileWriter(TsFileIOWriter tsfileWriter) throws IOException {
+    sealCurrentPage();
+    long timeChunkOffset = -1;
+    if (getCurrentChunkSize() > 0) {
+      timeChunkOffset = tsfileWriter.writeTimeChunk(timeCompression, timeEncoding,
+          timePageBuffer, numOfTimePages);
+    }
+    // the value chunks with only nulls are not written
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriters) {
+      valueChunkWriter.writeToFileWriter(tsfileWriter, timeChunkOffset);
+    }
+
+    // reinit this chunk writer
+    timePageBuffer.reset();
+    numOfTimePages = 0;
+    pageRowNums.clear();
+  }
+
+  /**
+   * @return the max possible allocated size currently
+   */
+  public long estimateMaxMemSize() {
+    long size = timePageWriter.estimateMaxMemSize() + timePageBuffer.size()
+        + PageHeader.calculatePageHeaderSizeWithoutStatistics()
+        + timePageWriter.getStatistics().getSerializedSize();
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriters) {
+      size += valueChunkWriter.estimateMaxMemSize();
+    }
+    return size;
+  }
+
+  /**
+   * @return the serialized size of the sealed pages of the time chunk and the value chunks with
+   * their headers
+   */
+  public long getCurrentChunkSize() {
+    long valueChunkSize = 0;
+    for (ValueChunkWriter valueChunkWriter : valueChunkWriters) {
+      valueChunkSize += valueChunkWriter.getCurrentChunkSize();
+    }
+    if (valueChunkSize == 0) {
+      return 0;
+    }
+    return ChunkHeader.getSerializedSize("", MetaMarker.TIME_CHUNK_HEADER)
+        + (long) timePageBuffer.size() + valueChunkSize;
+  }
+
+  public int getValueColumnNum() {
+    return valueChunkWriters.size();
+  }
+
+  public MeasurementSchema getValueSchema(int column) {
+    return valueChunkWriters.get(column).getMeasurementSchema();
+  }
+}
@@ -24,11 +24,14 @@ import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.encoding.encoder.EncodingSelector;
 import org.apache.iotdb.tsfile.exception.write.PageException;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
@@ -77,6 +80,24 @@ public class ChunkWriterImpl implements IChunkWriter {
    */
   private Statistics<?> statistics;
 
+  /**
+   * sketch of the values of this chunk, which is attached to its statistics when the chunk is
+   * written, null if the sketches are disabled or the chunk is rewritten from pages.
+   */
+  private ValueSketch sketch;
+
+  /**
+   * value encoding of the current chunk, which differs from the encoding of the schema if the
+   * latter is AUTO.
+   */
+  private TSEncoding valueEncoding;
+
+  /**
+   * samples the first points of each chunk to choose its value encoding if the encoding of the
+   * schema is AUTO, null if the encoding of the current chunk has been chosen.
+   */
+  private EncodingSelector encodingSelector;
+
   /**
    * @param schema schema of this measurement
    */
@@ -93,81 +114,221 @@ public class ChunkWriterImpl implements IChunkWriter {
 
     // init statistics for this chunk and page
     this.statistics = Statistics.getStatsByType(measurementSchema.getType());
+    this.sketch = ValueSketch.create(measurementSchema.getType());
 
     this.pageWriter = new PageWriter(measurementSchema);
     this.pageWriter.setTimeEncoder(measurementSchema.getTimeEncoder());
-    this.pageWriter.setValueEncoder(measurementSchema.getValueEncoder());
+    if (measurementSchema.getEncodingType() == TSEncoding.AUTO) {
+      startSampling();
+    } else {
+      this.valueEncoding = measurementSchema.getEncodingType();
+      this.pageWriter.setValueEncoder(measurementSchema.getValueEncoder());
+    }
+  }
+
+  private void startSampling() {
+    encodingSelector = new EncodingSelector(measurementSchema.getType(),
+        measurementSchema.getProps());
+    if (!encodingSelector.needSample()) {
+      selectValueEncoding();
+    }
+  }
+
+  /**
+   * choose the value encoding by the sampled points and write them into the page writer.
+   */
+  private void selectValueEncoding() {
+    EncodingSelector selector = encodingSelector;
+    encodingSelector = null;
+    valueEncoding = selector.select();
+    pageWriter.setValueEncoder(selector.getEncoder(valueEncoding));
+    logger.debug("choose {} for the chunk of {} by {} sampled points", valueEncoding,
+        measurementSchema.getMeasurementId(), selector.getSampleSize());
+    selector.writeSampleTo(this);
   }
 
   @Override
   public void write(long time, long value) {
+    if (encodingSelector != null) {
+      encodingSelector.add(time, value);
+      if (encodingSelector.isFull()) {
+        selectValueEncoding();
+      }
+      return;
+    }
     pageWriter.write(time, value);
+    if (sketch != null) {
+      sketch.update(value);
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long time, int value) {
+    if (encodingSelector != null) {
+      encodingSelector.add(time, value);
+      if (encodingSelector.isFull()) {
+        selectValueEncoding();
+      }
+      return;
+    }
     pageWriter.write(time, value);
+    if (sketch != null) {
+      sketch.update(value);
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long time, boolean value) {
+    if (encodingSelector != null) {
+      encodingSelector.add(time, value);
+      if (encodingSelector.isFull()) {
+        selectValueEncoding();
+      }
+      return;
+    }
     pageWriter.write(time, value);
+    if (sketch != null) {
+      sketch.update(value);
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long time, float value) {
+    if (encodingSelector != null) {
+      encodingSelector.add(time, value);
+      if (encodingSelector.isFull()) {
+        selectValueEncoding();
+      }
+      return;
+    }
     pageWriter.write(time, value);
+    if (sketch != null) {
+      sketch.update(value);
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long time, double value) {
+    if (encodingSelector != null) {
+      encodingSelector.add(time, value);
+      if (encodingSelector.isFull()) {
+        selectValueEncoding();
+      }
+      return;
+    }
     pageWriter.write(time, value);
+    if (sketch != null) {
+      sketch.update(value);
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long time, Binary value) {
     pageWriter.write(time, value);
+    if (sketch != null) {
+      sketch.update(value);
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, int[] values, int batchSize) {
+    if (encodingSelector != null) {
+      for (int i = 0; i < batchSize; i++) {
+        write(timestamps[i], values[i]);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
+    if (sketch != null) {
+      for (int i = 0; i < batchSize; i++) {
+        sketch.update(values[i]);
+      }
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, long[] values, int batchSize) {
+    if (encodingSelector != null) {
+      for (int i = 0; i < batchSize; i++) {
+        write(timestamps[i], values[i]);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
+    if (sketch != null) {
+      for (int i = 0; i < batchSize; i++) {
+        sketch.update(values[i]);
+      }
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, boolean[] values, int batchSize) {
+    if (encodingSelector != null) {
+      for (int i = 0; i < batchSize; i++) {
+        write(timestamps[i], values[i]);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
+    if (sketch != null) {
+      for (int i = 0; i < batchSize; i++) {
+        sketch.update(values[i]);
+      }
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, float[] values, int batchSize) {
+    if (encodingSelector != null) {
+      for (int i = 0; i < batchSize; i++) {
+        write(timestamps[i], values[i]);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
+    if (sketch != null) {
+      for (int i = 0; i < batchSize; i++) {
+        sketch.update(values[i]);
+      }
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, double[] values, int batchSize) {
+    if (encodingSelector != null) {
+      for (int i = 0; i < batchSize; i++) {
+        write(timestamps[i], values[i]);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
+    if (sketch != null) {
+      for (int i = 0; i < batchSize; i++) {
+        sketch.update(values[i]);
+      }
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, Binary[] values, int batchSize) {
     pageWriter.write(timestamps, values, batchSize);
+    if (sketch != null) {
+      for (int i = 0; i < batchSize; i++) {
+        sketch.update(values[i]);
+      }
+    }
     checkPageSizeAndMayOpenANewPage();
   }
 
@@ -217,15 +378,26 @@ public class ChunkWriterImpl implements IChunkWriter {
   @Override
   public void writeToFileWriter(TsFileIOWriter tsfileWriter) throws IOException {
     sealCurrentPage();
+    if (sketch != null) {
+      statistics.setSketch(sketch);
+    }
     writeAllPagesOfChunkToTsFile(tsfileWriter, statistics);
 
     // reinit this chunk writer
     pageBuffer.reset();
     this.statistics = Statistics.getStatsByType(measurementSchema.getType());
+    this.sketch = ValueSketch.create(measurementSchema.getType());
+    if (measurementSchema.getEncodingType() == TSEncoding.AUTO) {
+      // the next chunk, e.g., a chunk rewritten by merge, chooses its own encoding
+      startSampling();
+    }
   }
 
   @Override
   public long estimateMaxSeriesMemSize() {
+    if (encodingSelector != null) {
+      return encodingSelector.estimateMemSize() + this.estimateMaxPageMemSize();
+    }
     return pageWriter.estimateMaxMemSize() + this.estimateMaxPageMemSize();
   }
 
@@ -240,6 +412,9 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public void sealCurrentPage() {
+    if (encodingSelector != null && encodingSelector.getSampleSize() > 0) {
+      selectValueEncoding();
+    }
     if (pageWriter.getPointNumber() > 0) {
       writePageToPageBuffer();
     }
@@ -263,6 +438,8 @@ public class ChunkWriterImpl implements IChunkWriter {
   public void writePageHeaderAndDataIntoBuff(ByteBuffer data, PageHeader header)
       throws PageException {
     numOfPages++;
+    // only the statistics of the pages are known
+    sketch = null;
 
     // write the page header to pageBuffer
     try {
@@ -301,7 +478,7 @@ public class ChunkWriterImpl implements IChunkWriter {
 
     // start to write this column chunk
     writer.startFlushChunk(measurementSchema, compressor.getType(), measurementSchema.getType(),
-        measurementSchema.getEncodingType(), statistics, pageBuffer.size(), numOfPages);
+        valueEncoding, statistics, pageBuffer.size(), numOfPages);
 
     long dataOffset = writer.getPos();
 
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.chunk;
+
+import java.io.IOException;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.MetaMarker;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.page.ValuePageWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+
+/**
+ * writes a value column of an aligned chunk group into a value chunk, whose pages are sealed
+ * together with the pages of the time chunk by {@link AlignedChunkWriterImpl}.
+ */
+class ValueChunkWriter {
+
+  private MeasurementSchema measurementSchema;
+
+  /**
+   * AUTO is not supported in value chunks as the samples of the columns would not be aligned, so
+   * PLAIN is used instead.
+   */
+  private TSEncoding valueEncoding;
+
+  /**
+   * all pages of this chunk.
+   */
+  private PublicBAOS pageBuffer = new PublicBAOS();
+
+  private int numOfPages;
+
+  private ValuePageWriter pageWriter;
+
+  /**
+   * statistic of the non-null values of this chunk.
+   */
+  private Statistics<?> statistics;
+
+  ValueChunkWriter(MeasurementSchema schema) {
+    this.measurementSchema = schema;
+    if (schema.getEncodingType() == TSEncoding.AUTO) {
+      this.valueEncoding = TSEncoding.PLAIN;
+      this.pageWriter = new ValuePageWriter(schema.getType(),
+          TSEncodingBuilder.getEncodingBuilder(valueEncoding).getEncoder(schema.getType()),
+          schema.getCompressor());
+    } else {
+      this.valueEncoding = schema.getEncodingType();
+      this.pageWriter = new ValuePageWriter(schema.getType(), schema.getValueEncoder(),
+          schema.getCompressor());
+    }
+    this.statistics = Statistics.getStatsByType(schema.getType());
+  }
+
+  void write(long time, boolean value) {
+    pageWriter.write(time, value);
+  }
+
+  void write(long time, int value) {
+    pageWriter.write(time, value);
+  }
+
+  void write(long time, long value) {
+    pageWriter.write(time, value);
+  }
+
+  void write(long time, float value) {
+    pageWriter.write(time, value);
+  }
+
+  void write(long time, double value) {
+    pageWriter.write(time, value);
+  }
+
+  void write(long time, Binary value) {
+    pageWriter.write(time, value);
+  }
+
+  void writeNull() {
+    pageWriter.writeNull();
+  }
+
+  void sealCurrentPage() throws IOException {
+    pageWriter.writePageHeaderAndDataIntoBuff(pageBuffer);
+    numOfPages++;
+    // the statistics of a page with only nulls are empty
+    if (pageWriter.getStatistics().getCount() > 0) {
+      statistics.mergeStatistics(pageWriter.getStatistics());
+    }
+    pageWriter.reset();
+  }
+
+  long estimateMaxMemSize() {
+    return pageWriter.estimateMaxMemSize() + pageBuffer.size()
+        + PageHeader.calculatePageHeaderSizeWithoutStatistics()
+        + pageWriter.getStatistics().getSerializedSize();
+  }
+
+  long estimateMaxPageMemSize() {
+    return pageWriter.estimateMaxMemSize();
+  }
+
+  /**
+   * @return the size of the chunk to be written, 0 if all of its values are null
+   */
+  long getCurrentChunkSize() {
+    if (statistics.getCount() == 0) {
+      return 0;
+    }
+    return ChunkHeader.getSerializedSize(measurementSchema.getMeasurementId(),
+        MetaMarker.VALUE_CHUNK_HEADER) + (long) pageBuffer.size();
+  }
+
+  /**
+   * write the sealed pages into the file writer, nothing is written if all of the values are
+   * null.
+   */
+  void writeToFileWriter(TsFileIOWriter writer, long timeChunkOffset) throws IOException {
+    if (statistics.getCount() > 0) {
+      writer.startFlushValueChunk(measurementSchema, measurementSchema.getCompressor(),
+          measurementSchema.getType(), valueEncoding, statistics, pageBuffer.size(), numOfPages,
+          timeChunkOffset);
+      long dataOffset = writer.getPos();
+      writer.writeBytesToStream(pageBuffer);
+      long dataSize = writer.getPos() - dataOffset;
+      if (dataSize != pageBuffer.size()) {
+        throw new IOException(
+            "Bytes written is inconsistent with the size of data: " + dataSize + " !="
+                + " " + pageBuffer.size());
+      }
+      writer.endCurrentChunk();
+    }
+
+    pageBuffer.reset();
+    numOfPages = 0;
+    statistics = Statistics.getStatsByType(measurementSchema.getType());
+  }
+
+  MeasurementSchema getMeasurementSchema() {
+    return measurementSchema;
+  }
+}
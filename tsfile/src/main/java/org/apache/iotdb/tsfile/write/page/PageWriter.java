@@ -20,17 +20,17 @@ package org.apache.iotdb.tsfile.write.page;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.WritableByteChannel;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.compress.ICompressor;
 import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
@@ -45,6 +45,14 @@ public class PageWriter {
 
   private static final Logger logger = LoggerFactory.getLogger(PageWriter.class);
 
+  // the buffers of a thread to assemble and compress the sealed pages, larger ones are not reused
+  private static final int MAX_REUSED_BUFFER_SIZE =
+      2 * TSFileDescriptor.getInstance().getConfig().getPageSizeInByte();
+  private static final ThreadLocal<PublicBAOS> pageDataBuffer = ThreadLocal
+      .withInitial(PublicBAOS::new);
+  private static final ThreadLocal<byte[]> compressedBuffer = ThreadLocal
+      .withInitial(() -> new byte[0]);
+
   private ICompressor compressor;
 
   // time
@@ -65,7 +73,10 @@ public class PageWriter {
   }
 
   public PageWriter(MeasurementSchema measurementSchema) {
-    this(measurementSchema.getTimeEncoder(), measurementSchema.getValueEncoder());
+    // the value encoder of AUTO is set once it is chosen by the chunk writer
+    this(measurementSchema.getTimeEncoder(),
+        measurementSchema.getEncodingType() == TSEncoding.AUTO ? null
+            : measurementSchema.getValueEncoder());
     this.statistics = Statistics.getStatsByType(measurementSchema.getType());
     this.compressor = ICompressor.getCompressor(measurementSchema.getCompressor());
   }
@@ -238,19 +249,52 @@ public class PageWriter {
       return;
     }
 
-    ByteBuffer pageData = getUncompressedBytes();
-    int uncompressedSize = pageData.remaining();
+    prepareEndWriteOnePage();
+    PublicBAOS pageData = getPageDataBuffer();
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(timeOut.size(), pageData);
+    pageData.write(timeOut);
+    pageData.write(valueOut);
+    writePageIntoBuff(pageData, statistics, compressor, pageBuffer);
+  }
+
+  /**
+   * @return an empty buffer of the current thread to assemble the data of a page
+   */
+  static PublicBAOS getPageDataBuffer() {
+    PublicBAOS buffer = pageDataBuffer.get();
+    // do not hold the memory of a huge page
+    if (buffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+      buffer = new PublicBAOS();
+      pageDataBuffer.set(buffer);
+    }
+    buffer.reset();
+    return buffer;
+  }
+
+  private static byte[] getCompressedBuffer(int size) {
+    byte[] buffer = compressedBuffer.get();
+    if (buffer.length < size || buffer.length > MAX_REUSED_BUFFER_SIZE) {
+      buffer = new byte[size];
+      compressedBuffer.set(buffer);
+    }
+    return buffer;
+  }
+
+  /**
+   * compress the page data and write it into the output stream with its page header. The page
+   * data is compressed straight from its buffer into a buffer reused by the current thread.
+   */
+  static void writePageIntoBuff(PublicBAOS pageData, Statistics<?> statistics,
+      ICompressor compressor, PublicBAOS pageBuffer) throws IOException {
+    int uncompressedSize = pageData.size();
     int compressedSize;
-    int compressedPosition = 0;
     byte[] compressedBytes = null;
 
     if (compressor.getType().equals(CompressionType.UNCOMPRESSED)) {
-      compressedSize = pageData.remaining();
+      compressedSize = uncompressedSize;
     } else {
-      compressedBytes = new byte[compressor.getMaxBytesForCompression(uncompressedSize)];
-      compressedPosition = 0;
-      // data is never a directByteBuffer now, so we can use data.array()
-      compressedSize = compressor.compress(pageData.array(), pageData.position(), uncompressedSize, compressedBytes);
+      compressedBytes = getCompressedBuffer(compressor.getMaxBytesForCompression(uncompressedSize));
+      compressedSize = compressor.compress(pageData.getBuf(), 0, uncompressedSize, compressedBytes);
     }
 
     // write the page header to IOWriter
@@ -260,11 +304,9 @@ public class PageWriter {
     // write page content to temp PBAOS
     logger.debug("start to flush a page data into buffer, buffer position {} ", pageBuffer.size());
     if (compressor.getType().equals(CompressionType.UNCOMPRESSED)) {
-      try (WritableByteChannel channel = Channels.newChannel(pageBuffer)) {
-        channel.write(pageData);
-      }
+      pageBuffer.write(pageData);
     } else {
-      pageBuffer.write(compressedBytes, compressedPosition, compressedSize);
+      pageBuffer.write(compressedBytes, 0, compressedSize);
     }
     logger.debug("start to flush a page data into buffer, buffer position {} ", pageBuffer.size());
   }
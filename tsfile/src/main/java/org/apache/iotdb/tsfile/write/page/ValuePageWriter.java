@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.page;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+
+/**
+ * This writer is used to write a value column of an aligned chunk group into a page. A page holds
+ * a bitmap marking the non-null rows followed by the encoded non-null values, and its timestamps
+ * are in the corresponding page of the time chunk.
+ */
+public class ValuePageWriter {
+
+  private static final int INITIAL_BITMAP_SIZE = 32;
+
+  private ICompressor compressor;
+
+  private TSDataType dataType;
+
+  private Encoder valueEncoder;
+  private PublicBAOS valueOut;
+
+  /**
+   * bit i is set if row i is not null
+   */
+  private byte[] bitmap = new byte[INITIAL_BITMAP_SIZE];
+
+  /**
+   * number of rows including the null ones
+   */
+  private int rowCount;
+
+  /**
+   * statistic of the non-null values of current page.
+   */
+  private Statistics<?> statistics;
+
+  public ValuePageWriter(TSDataType dataType, Encoder valueEncoder,
+      CompressionType compressionType) {
+    this.dataType = dataType;
+    this.valueOut = new PublicBAOS();
+    this.valueEncoder = valueEncoder;
+    this.compressor = ICompressor.getCompressor(compressionType);
+    this.statistics = Statistics.getStatsByType(dataType);
+  }
+
+  public void write(long time, boolean value) {
+    valueEncoder.encode(value, valueOut);
+    statistics.update(time, value);
+    markNotNull();
+  }
+
+  public void write(long time, int value) {
+    valueEncoder.encode(value, valueOut);
+    statistics.update(time, value);
+    markNotNull();
+  }
+
+  public void write(long time, long value) {
+    valueEncoder.encode(value, valueOut);
+    statistics.update(time, value);
+    markNotNull();
+  }
+
+  public void write(long time, float value) {
+    valueEncoder.encode(value, valueOut);
+    statistics.update(time, value);
+    markNotNull();
+  }
+
+  public void write(long time, double value) {
+    valueEncoder.encode(value, valueOut);
+    statistics.update(time, value);
+    markNotNull();
+  }
+
+  public void write(long time, Binary value) {
+    valueEncoder.encode(value, valueOut);
+    statistics.update(time, value);
+    markNotNull();
+  }
+
+  /**
+   * write a null of the current row
+   */
+  public void writeNull() {
+    ensureBitmapCapacity();
+    rowCount++;
+  }
+
+  private void markNotNull() {
+    ensureBitmapCapacity();
+    bitmap[rowCount >>> 3] |= 1 << (rowCount & 7);
+    rowCount++;
+  }
+
+  private void ensureBitmapCapacity() {
+    if ((rowCount >>> 3) >= bitmap.length) {
+      bitmap = Arrays.copyOf(bitmap, bitmap.length * 2);
+    }
+  }
+
+  /**
+   * write the page header and data into the PageWriter's output stream. Unlike PageWriter, a page
+   * is written even if all of its rows are null, so that the pages of the value chunk correspond
+   * to the pages of the time chunk one by one.
+   */
+  public void writePageHeaderAndDataIntoBuff(PublicBAOS pageBuffer) throws IOException {
+    valueEncoder.flush(valueOut);
+    int bitmapSize = getBitmapSize();
+    PublicBAOS pageData = PageWriter.getPageDataBuffer();
+    pageData.write(bitmap, 0, bitmapSize);
+    pageData.write(valueOut);
+    PageWriter.writePageIntoBuff(pageData, statistics, compressor, pageBuffer);
+  }
+
+  private int getBitmapSize() {
+    return (rowCount + 7) >>> 3;
+  }
+
+  /**
+   * @return allocated size in bitmap and value outputStream
+   */
+  public long estimateMaxMemSize() {
+    return getBitmapSize() + valueOut.size() + valueEncoder.getMaxByteSize();
+  }
+
+  /**
+   * reset this page
+   */
+  public void reset() {
+    valueOut.reset();
+    Arrays.fill(bitmap, 0, getBitmapSize(), (byte) 0);
+    rowCount = 0;
+    statistics = Statistics.getStatsByType(dataType);
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public Statistics<?> getStatistics() {
+    return statistics;
+  }
+}
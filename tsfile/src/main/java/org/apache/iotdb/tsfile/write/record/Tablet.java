@@ -68,6 +68,11 @@ public class Tablet {
    * the maximum number of rows for this tablet
    */
   private int maxRowNumber;
+  /**
+   * whether the measurements of the device are aligned, i.e., they share one time column in
+   * TsFile
+   */
+  private boolean aligned;
 
   /**
    * Return a tablet with default specified row number. This is the standard
@@ -104,6 +109,14 @@ public class Tablet {
     return schemas;
   }
 
+  public boolean isAligned() {
+    return aligned;
+  }
+
+  public void setAligned(boolean aligned) {
+    this.aligned = aligned;
+  }
+
   /**
    * Return the maximum number of rows for this tablet
    */
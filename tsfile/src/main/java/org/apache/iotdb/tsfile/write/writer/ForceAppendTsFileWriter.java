@@ -20,6 +20,10 @@ package org.apache.iotdb.tsfile.write.writer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.exception.write.TsFileNotCompleteException;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
@@ -33,6 +37,7 @@ import org.slf4j.LoggerFactory;
 public class ForceAppendTsFileWriter extends TsFileIOWriter {
 
   private long truncatePosition;
+  private String versionNumber;
   private static Logger logger = LoggerFactory.getLogger(ForceAppendTsFileWriter.class);
 
   public ForceAppendTsFileWriter(File file) throws IOException {
@@ -54,14 +59,27 @@ public class ForceAppendTsFileWriter extends TsFileIOWriter {
         throw new TsFileNotCompleteException(
             "File " + file.getPath() + " is not a complete TsFile");
       }
+      versionNumber = reader.readVersionNumber();
       TsFileMetadata tsFileMetadata = reader.readFileMetadata();
       // truncate metadata and marker
       truncatePosition = tsFileMetadata.getMetaOffset();
+      // keep the existing chunks so that they are indexed again when the file is ended
+      for (String device : reader.getAllDevices()) {
+        List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+        for (List<ChunkMetadata> seriesChunks : reader.readChunkMetadataInDevice(device).values()) {
+          chunkMetadataList.addAll(seriesChunks);
+        }
+        chunkGroupMetadataList.add(new ChunkGroupMetadata(device, chunkMetadataList));
+      }
+      versionInfo = new ArrayList<>(tsFileMetadata.getVersionInfo());
+      totalChunkNum = tsFileMetadata.getTotalChunkNum();
+      invalidChunkNum = tsFileMetadata.getInvalidChunkNum();
     }
   }
 
   public void doTruncate() throws IOException {
     out.truncate(truncatePosition);
+    updateVersionNumber(file, versionNumber);
   }
 
   public long getTruncatePosition() {
@@ -25,6 +25,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.apache.iotdb.tsfile.read.reader.LocalTsFileInput;
+import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 
 /**
  * a TsFileOutput implementation with FileOutputStream. If the file is not
@@ -83,4 +86,27 @@ public class LocalTsFileOutput implements TsFileOutput {
     outputStream.getChannel().truncate(position);
   }
 
+  /**
+   * Copy between local files by {@link FileChannel#transferTo}, so that the bytes need not be
+   * copied into the JVM.
+   */
+  @Override
+  public void transferFrom(TsFileInput input, long position, long count) throws IOException {
+    if (!(input instanceof LocalTsFileInput)) {
+      TsFileOutput.super.transferFrom(input, position, count);
+      return;
+    }
+    bufferedStream.flush();
+    FileChannel source = input.wrapAsFileChannel();
+    FileChannel target = outputStream.getChannel();
+    while (count > 0) {
+      long transferred = source.transferTo(position, count, target);
+      if (transferred <= 0) {
+        throw new IOException("Unexpected end of input at " + position);
+      }
+      position += transferred;
+      count -= transferred;
+    }
+  }
+
 }
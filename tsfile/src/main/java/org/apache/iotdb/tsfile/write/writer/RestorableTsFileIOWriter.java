@@ -105,6 +105,7 @@ public class RestorableTsFileIOWriter extends TsFileIOWriter {
           // remove broken data
           out.truncate(truncatedPosition);
         }
+        updateVersionNumber(file, reader.readVersionNumber());
       }
     }
   }
@@ -20,12 +20,15 @@ package org.apache.iotdb.tsfile.write.writer;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
@@ -43,8 +46,10 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
@@ -88,6 +93,14 @@ public class TsFileIOWriter {
   private long currentChunkGroupStartOffset;
   protected List<Pair<Long, Long>> versionInfo = new ArrayList<>();
 
+  /**
+   * time chunks of aligned chunk groups copied into the current chunk group, so that they are
+   * copied only once for their value chunks. The key is the {@link Chunk} written by
+   * writeChunk(), or the pair of source file and offset copied by copyChunk(), and the value is
+   * the offset of the copy in this file.
+   */
+  private Map<Object, Long> copiedTimeChunkOffsets = new HashMap<>();
+
   /**
    * empty construct function.
    */
@@ -120,6 +133,22 @@ public class TsFileIOWriter {
     startFile();
   }
 
+  /**
+   * When a truncated file of version 000002 is continued, its chunks are kept but its metadata will
+   * be written in the current layout, so the version number in its head is updated as well.
+   *
+   * @param versionNumber the version number read from the head of the file
+   */
+  protected static void updateVersionNumber(File file, String versionNumber) throws IOException {
+    if (!TSFileConfig.VERSION_NUMBER_V2.equals(versionNumber)) {
+      return;
+    }
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.seek(magicStringBytes.length);
+      randomAccessFile.write(versionNumberBytes);
+    }
+  }
+
   /**
    * Writes given bytes to output stream. This method is called when total memory size exceeds the
    * chunk group size threshold.
@@ -143,6 +172,7 @@ public class TsFileIOWriter {
       logger.debug("start chunk group:{}, file position {}", deviceId, out.getPosition());
     }
     chunkMetadataList = new ArrayList<>();
+    copiedTimeChunkOffsets.clear();
   }
 
   /**
@@ -188,11 +218,61 @@ public class TsFileIOWriter {
 
   }
 
+  /**
+   * start a {@linkplain ChunkMetadata ChunkMetaData} of a value chunk of an aligned chunk group.
+   *
+   * @param timeChunkOffset - offset of the time chunk shared by the chunk group
+   */
+  public void startFlushValueChunk(MeasurementSchema measurementSchema,
+      CompressionType compressionCodecName, TSDataType tsDataType, TSEncoding encodingType,
+      Statistics<?> statistics, int dataSize, int numOfPages, long timeChunkOffset)
+      throws IOException {
+
+    currentChunkMetadata = new ChunkMetadata(measurementSchema.getMeasurementId(), tsDataType,
+        out.getPosition(), statistics);
+
+    ChunkHeader header = new ChunkHeader(measurementSchema.getMeasurementId(), dataSize,
+        tsDataType, compressionCodecName, encodingType, numOfPages,
+        MetaMarker.VALUE_CHUNK_HEADER, timeChunkOffset);
+    header.serializeTo(out.wrapAsStream());
+  }
+
+  /**
+   * write the time chunk of an aligned chunk group, which has no chunk metadata.
+   *
+   * @param pageBuffer - all pages of the time chunk
+   * @return the offset of the time chunk
+   */
+  public long writeTimeChunk(CompressionType compressionCodecName, TSEncoding encodingType,
+      PublicBAOS pageBuffer, int numOfPages) throws IOException {
+    long offset = out.getPosition();
+    ChunkHeader header = new ChunkHeader("", pageBuffer.size(), TSDataType.INT64,
+        compressionCodecName, encodingType, numOfPages, MetaMarker.TIME_CHUNK_HEADER, -1);
+    header.serializeTo(out.wrapAsStream());
+    writeBytesToStream(pageBuffer);
+    return offset;
+  }
+
   /**
    * Write a whole chunk in another file into this file. Providing fast merge for IoTDB.
    */
   public void writeChunk(Chunk chunk, ChunkMetadata chunkMetadata) throws IOException {
     ChunkHeader chunkHeader = chunk.getHeader();
+    Chunk timeChunk = chunk.getTimeChunk();
+    if (timeChunk != null) {
+      // copy the time chunk first, and make the value chunk refer to the copy
+      Long timeChunkOffset = copiedTimeChunkOffsets.get(timeChunk);
+      if (timeChunkOffset == null) {
+        timeChunkOffset = out.getPosition();
+        timeChunk.getHeader().serializeTo(out.wrapAsStream());
+        out.write(timeChunk.getData().duplicate());
+        copiedTimeChunkOffsets.put(timeChunk, timeChunkOffset);
+      }
+      chunkHeader = new ChunkHeader(chunkHeader.getMeasurementID(), chunkHeader.getDataSize(),
+          chunkHeader.getDataType(), chunkHeader.getCompressionType(),
+          chunkHeader.getEncodingType(), chunkHeader.getNumOfPages(),
+          MetaMarker.VALUE_CHUNK_HEADER, timeChunkOffset);
+    }
     currentChunkMetadata = new ChunkMetadata(chunkHeader.getMeasurementID(),
         chunkHeader.getDataType(),
         out.getPosition(), chunkMetadata.getStatistics());
@@ -205,6 +285,45 @@ public class TsFileIOWriter {
     }
   }
 
+  /**
+   * Copy a whole chunk in another file into this file byte by byte, without decoding it or even
+   * loading it into memory. Providing fast merge for IoTDB.
+   *
+   * @return the size of the chunk in bytes
+   */
+  public long copyChunk(TsFileSequenceReader reader, ChunkMetadata chunkMetadata)
+      throws IOException {
+    long startPos = out.getPosition();
+    ChunkHeader chunkHeader = reader.readChunkHeader(chunkMetadata.getOffsetOfChunkHeader(),
+        ChunkHeader.getSerializedSize(chunkMetadata.getMeasurementUid()), false);
+    if (chunkHeader.getChunkType() != MetaMarker.VALUE_CHUNK_HEADER) {
+      reader.transferChunk(chunkMetadata, out);
+      currentChunkMetadata = new ChunkMetadata(chunkHeader.getMeasurementID(),
+          chunkHeader.getDataType(), startPos, chunkMetadata.getStatistics());
+      endCurrentChunk();
+      return out.getPosition() - startPos;
+    }
+
+    // copy the time chunk first, and make the value chunk refer to the copy
+    Pair<String, Long> source = new Pair<>(reader.getFileName(),
+        chunkHeader.getTimeChunkOffset());
+    Long timeChunkOffset = copiedTimeChunkOffsets.get(source);
+    if (timeChunkOffset == null) {
+      timeChunkOffset = out.getPosition();
+      reader.transferTimeChunk(chunkHeader.getTimeChunkOffset(), out);
+      copiedTimeChunkOffsets.put(source, timeChunkOffset);
+    }
+    currentChunkMetadata = new ChunkMetadata(chunkHeader.getMeasurementID(),
+        chunkHeader.getDataType(), out.getPosition(), chunkMetadata.getStatistics());
+    new ChunkHeader(chunkHeader.getMeasurementID(), chunkHeader.getDataSize(),
+        chunkHeader.getDataType(), chunkHeader.getCompressionType(),
+        chunkHeader.getEncodingType(), chunkHeader.getNumOfPages(),
+        MetaMarker.VALUE_CHUNK_HEADER, timeChunkOffset).serializeTo(out.wrapAsStream());
+    reader.transferChunkData(chunkHeader, chunkMetadata.getOffsetOfChunkHeader(), out);
+    endCurrentChunk();
+    return out.getPosition() - startPos;
+  }
+
   /**
    * end chunk and write some log.
    */
@@ -334,6 +453,20 @@ public class TsFileIOWriter {
     return deviceChunkMetadataMap;
   }
 
+  /**
+   * Build a bloom filter of all series written by this writer in the same way as the one in the
+   * file tail, so that the filter can be kept outside the file without reading it back.
+   */
+  public BloomFilter buildBloomFilter() {
+    Set<Path> paths = new HashSet<>();
+    for (ChunkGroupMetadata chunkGroupMetadata : chunkGroupMetadataList) {
+      for (ChunkMetadata chunkMetadata : chunkGroupMetadata.getChunkMetadataList()) {
+        paths.add(new Path(chunkGroupMetadata.getDevice(), chunkMetadata.getMeasurementUid()));
+      }
+    }
+    return TsFileMetadata.buildBloomFilter(paths);
+  }
+
   public boolean canWrite() {
     return canWrite;
   }
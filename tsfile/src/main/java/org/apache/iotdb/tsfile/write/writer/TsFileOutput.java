@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.write.writer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 
 public interface TsFileOutput {
 
@@ -82,4 +83,29 @@ public interface TsFileOutput {
    */
   void truncate(long position) throws IOException;
 
+  /**
+   * Writes <code>count</code> bytes of the input starting from <code>position</code> to this
+   * output at the current position. The position of the input is not changed.
+   *
+   * @param input the input to copy from
+   * @param position the position of the first byte in the input
+   * @param count the number of bytes to copy
+   * @throws IOException if an I/O error occurs or the input ends before count bytes are read.
+   */
+  default void transferFrom(TsFileInput input, long position, long count) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, 64 * 1024));
+    OutputStream outputStream = wrapAsStream();
+    while (count > 0) {
+      buffer.clear();
+      buffer.limit((int) Math.min(count, buffer.capacity()));
+      int readSize = input.read(buffer, position);
+      if (readSize <= 0) {
+        throw new IOException("Unexpected end of input at " + position);
+      }
+      outputStream.write(buffer.array(), 0, readSize);
+      position += readSize;
+      count -= readSize;
+    }
+  }
+
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.encoder.DoubleChimpEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.FloatChimpEncoder;
+import org.junit.Test;
+
+public class ChimpDecoderTest {
+
+  private static final int ROW_NUM = 3000;
+
+  private static final double[] SPECIAL_DOUBLES = {0.0, -0.0, 1.0, -1.0, 0.1, -7.101,
+      Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE,
+      Double.MAX_VALUE, Double.MIN_NORMAL, 123456789.123, 1e-10, 1e20, 3.0, 3.0, 3.0};
+
+  private static final float[] SPECIAL_FLOATS = {0.0f, -0.0f, 1.0f, -1.0f, 0.1f, -7.101f,
+      Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.MIN_VALUE,
+      Float.MAX_VALUE, Float.MIN_NORMAL, 12345.678f, 1e-10f, 1e20f, 3.0f, 3.0f, 3.0f};
+
+  @Test
+  public void testSpecialDouble() throws IOException {
+    for (boolean erase : new boolean[]{false, true}) {
+      testDouble(SPECIAL_DOUBLES, erase);
+    }
+  }
+
+  @Test
+  public void testSpecialFloat() throws IOException {
+    for (boolean erase : new boolean[]{false, true}) {
+      testFloat(SPECIAL_FLOATS, erase);
+    }
+  }
+
+  @Test
+  public void testRandomWalk() throws IOException {
+    Random random = new Random(1);
+    double[] doubles = new double[ROW_NUM];
+    float[] floats = new float[ROW_NUM];
+    double value = 0;
+    for (int i = 0; i < ROW_NUM; i++) {
+      value += random.nextGaussian();
+      doubles[i] = value;
+      floats[i] = (float) value;
+    }
+    for (boolean erase : new boolean[]{false, true}) {
+      testDouble(doubles, erase);
+      testFloat(floats, erase);
+    }
+  }
+
+  @Test
+  public void testDecimal() throws IOException {
+    Random random = new Random(2);
+    double[] doubles = new double[ROW_NUM];
+    float[] floats = new float[ROW_NUM];
+    long value = 0;
+    for (int i = 0; i < ROW_NUM; i++) {
+      value += random.nextInt(201) - 100;
+      // values with 2 decimal places
+      doubles[i] = value / 100.0;
+      floats[i] = value / 100.0f;
+    }
+    for (boolean erase : new boolean[]{false, true}) {
+      testDouble(doubles, erase);
+      testFloat(floats, erase);
+    }
+    // erasing the trailing bits pays off for decimal values
+    assertTrue(encodeDouble(doubles, true).length < encodeDouble(doubles, false).length);
+    assertTrue(encodeFloat(floats, true).length < encodeFloat(floats, false).length);
+  }
+
+  @Test
+  public void testEmptyFlush() throws IOException {
+    Encoder encoder = new DoubleChimpEncoder(true);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.flush(baos);
+    assertEquals(0, baos.size());
+    assertFalse(new DoubleChimpDecoder(true).hasNext(ByteBuffer.wrap(baos.toByteArray())));
+  }
+
+  private void testDouble(double[] values, boolean erase) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(encodeDouble(values, erase));
+    Decoder decoder = new DoubleChimpDecoder(erase);
+    // the pages written by multiple flushes are read by one decoder
+    for (int page = 0; page < 3; page++) {
+      for (double value : values) {
+        assertTrue(decoder.hasNext(buffer));
+        assertEquals(Double.doubleToRawLongBits(value),
+            Double.doubleToRawLongBits(decoder.readDouble(buffer)));
+      }
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  private void testFloat(float[] values, boolean erase) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(encodeFloat(values, erase));
+    Decoder decoder = new FloatChimpDecoder(erase);
+    for (int page = 0; page < 3; page++) {
+      for (float value : values) {
+        assertTrue(decoder.hasNext(buffer));
+        assertEquals(Float.floatToRawIntBits(value),
+            Float.floatToRawIntBits(decoder.readFloat(buffer)));
+      }
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+
+  private byte[] encodeDouble(double[] values, boolean erase) throws IOException {
+    Encoder encoder = new DoubleChimpEncoder(erase);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    for (int page = 0; page < 3; page++) {
+      for (double value : values) {
+        encoder.encode(value, baos);
+      }
+      encoder.flush(baos);
+    }
+    return baos.toByteArray();
+  }
+
+  private byte[] encodeFloat(float[] values, boolean erase) throws IOException {
+    Encoder encoder = new FloatChimpEncoder(erase);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    for (int page = 0; page < 3; page++) {
+      for (float value : values) {
+        encoder.encode(value, baos);
+      }
+      encoder.flush(baos);
+    }
+    return baos.toByteArray();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+public class DictionaryDecoderTest {
+
+  private static final int MAX_DICTIONARY_SIZE = 1024;
+
+  @Test
+  public void testRepeatedValues() throws IOException {
+    String[] values = new String[10000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = "firmware-v" + i % 7;
+    }
+    ByteBuffer buffer = encode(values);
+    assertEquals(DictionaryEncoder.DICTIONARY_PAGE, buffer.get(0));
+    assertTrue(buffer.remaining() < plainSize(values) / 10);
+    checkDecode(values, buffer);
+  }
+
+  @Test
+  public void testDictionaryOverflow() throws IOException {
+    // the distinct values exceed the dictionary size after about 70 values
+    String[] values = new String[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i % 2 == 0 ? "status" : "unique-" + i;
+    }
+    ByteBuffer buffer = encode(values);
+    assertEquals(DictionaryEncoder.PLAIN_PAGE, buffer.get(0));
+    assertEquals(plainSize(values) + 1, buffer.remaining());
+    checkDecode(values, buffer);
+  }
+
+  @Test
+  public void testSingleValue() throws IOException {
+    // the dictionary does not overflow but is not smaller than the plain value
+    String[] values = new String[]{"v"};
+    ByteBuffer buffer = encode(values);
+    assertEquals(DictionaryEncoder.PLAIN_PAGE, buffer.get(0));
+    checkDecode(values, buffer);
+  }
+
+  @Test
+  public void testMultiplePages() throws IOException {
+    Encoder encoder = new DictionaryEncoder(128, MAX_DICTIONARY_SIZE);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    String[][] pages = new String[3][];
+    for (int i = 0; i < pages.length; i++) {
+      pages[i] = new String[300];
+      for (int j = 0; j < pages[i].length; j++) {
+        pages[i][j] = i == 1 ? "unique-" + j : "page" + i + "-" + j % 3;
+      }
+    }
+    int[] pageSizes = new int[pages.length];
+    for (int i = 0; i < pages.length; i++) {
+      int start = out.size();
+      for (String value : pages[i]) {
+        encoder.encode(new Binary(value), out);
+      }
+      encoder.flush(out);
+      pageSizes[i] = out.size() - start;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    Decoder decoder = new DictionaryDecoder();
+    for (int i = 0; i < pages.length; i++) {
+      ByteBuffer page = buffer.slice();
+      page.limit(pageSizes[i]);
+      checkDecode(pages[i], page, decoder);
+      decoder.reset();
+      buffer.position(buffer.position() + pageSizes[i]);
+    }
+  }
+
+  @Test
+  public void testEmptyPage() throws IOException {
+    ByteBuffer buffer = encode(new String[0]);
+    assertEquals(0, buffer.remaining());
+    assertFalse(new DictionaryDecoder().hasNext(buffer));
+  }
+
+  private ByteBuffer encode(String[] values) throws IOException {
+    Encoder encoder = new DictionaryEncoder(128, MAX_DICTIONARY_SIZE);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (String value : values) {
+      encoder.encode(new Binary(value), out);
+    }
+    encoder.flush(out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  private int plainSize(String[] values) throws IOException {
+    Encoder encoder = new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.TEXT, 128);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (String value : values) {
+      encoder.encode(new Binary(value), out);
+    }
+    return out.size();
+  }
+
+  private void checkDecode(String[] values, ByteBuffer buffer) throws IOException {
+    checkDecode(values, buffer, new DictionaryDecoder());
+  }
+
+  private void checkDecode(String[] values, ByteBuffer buffer, Decoder decoder)
+      throws IOException {
+    for (String value : values) {
+      assertTrue(decoder.hasNext(buffer));
+      assertEquals(value, decoder.readBinary(buffer).getStringValue());
+    }
+    assertFalse(decoder.hasNext(buffer));
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder.LongDeltaEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.IntervalEncoder;
+import org.junit.Test;
+
+public class IntervalDecoderTest {
+
+  private static final int ROW_NUM = 10000;
+
+  @Test
+  public void testRegular() throws IOException {
+    long[] times = new long[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      times[i] = 1600000000000L + i * 1000L;
+    }
+    byte[] encoded = testRoundTrip(times);
+    // a few bytes for each block of 1024 points in each of the 3 pages
+    assertTrue(encoded.length < 3 * 10 * 20);
+  }
+
+  @Test
+  public void testMissingAndLatePoints() throws IOException {
+    Random random = new Random(1);
+    long[] times = new long[ROW_NUM];
+    long time = 1600000000000L;
+    for (int i = 0; i < ROW_NUM; i++) {
+      time += random.nextInt(100) == 0 ? 2000 : 1000;
+      // a late point does not delay the following ones
+      times[i] = random.nextInt(100) == 0 ? time + random.nextInt(50) : time;
+    }
+    byte[] encoded = testRoundTrip(times);
+    assertTrue(encoded.length < encodeWithTs2Diff(times).length / 4);
+  }
+
+  @Test
+  public void testIrregular() throws IOException {
+    Random random = new Random(2);
+    long[] times = new long[ROW_NUM];
+    long time = 0;
+    for (int i = 0; i < ROW_NUM; i++) {
+      time += random.nextInt(1000);
+      times[i] = time;
+    }
+    byte[] encoded = testRoundTrip(times);
+    // the blocks fall back to TS_2DIFF, with a byte for the block type
+    assertTrue(encoded.length <= encodeWithTs2Diff(times).length + ROW_NUM / 128);
+  }
+
+  @Test
+  public void testExtremeValues() throws IOException {
+    testRoundTrip(new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0, -1, Long.MAX_VALUE,
+        Long.MIN_VALUE, Long.MIN_VALUE});
+    testRoundTrip(new long[]{100, 90, 80, 70, 60, 75, 40});
+    testRoundTrip(new long[]{7});
+  }
+
+  @Test
+  public void testEmptyFlush() throws IOException {
+    Encoder encoder = new IntervalEncoder();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.flush(baos);
+    assertEquals(0, baos.size());
+    assertEquals(0, encoder.getMaxByteSize());
+  }
+
+  @Test
+  public void testResetInDeltaBlock() throws IOException {
+    Random random = new Random(3);
+    long[] oldValues = new long[ROW_NUM];
+    long[] newValues = new long[ROW_NUM];
+    for (int i = 1; i < ROW_NUM; i++) {
+      oldValues[i] = oldValues[i - 1] + random.nextInt(1000);
+      newValues[i] = newValues[i - 1] + 1000000 + random.nextInt(1000);
+    }
+    ByteBuffer oldBuffer = ByteBuffer.wrap(encode(oldValues));
+    ByteBuffer newBuffer = ByteBuffer.wrap(encode(newValues));
+
+    Decoder decoder = new IntervalDecoder();
+    // stop in the middle of the first pack of a delta block
+    for (int i = 0; i < 10; i++) {
+      assertEquals(oldValues[i], decoder.readLong(oldBuffer));
+    }
+    decoder.reset();
+    for (long value : newValues) {
+      assertTrue(decoder.hasNext(newBuffer));
+      assertEquals(value, decoder.readLong(newBuffer));
+    }
+    assertFalse(decoder.hasNext(newBuffer));
+  }
+
+  /**
+   * Encode the values into 3 pages and read them with one decoder.
+   *
+   * @return the encoded pages
+   */
+  private byte[] testRoundTrip(long[] values) throws IOException {
+    Encoder encoder = new IntervalEncoder();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    for (int page = 0; page < 3; page++) {
+      for (long value : values) {
+        encoder.encode(value, baos);
+      }
+      encoder.flush(baos);
+    }
+    byte[] encoded = baos.toByteArray();
+
+    ByteBuffer buffer = ByteBuffer.wrap(encoded);
+    Decoder decoder = new IntervalDecoder();
+    for (int page = 0; page < 3; page++) {
+      for (long value : values) {
+        assertTrue(decoder.hasNext(buffer));
+        assertEquals(value, decoder.readLong(buffer));
+      }
+    }
+    assertFalse(decoder.hasNext(buffer));
+    return encoded;
+  }
+
+  private byte[] encode(long[] values) throws IOException {
+    Encoder encoder = new IntervalEncoder();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    for (long value : values) {
+      encoder.encode(value, baos);
+    }
+    encoder.flush(baos);
+    return baos.toByteArray();
+  }
+
+  private byte[] encodeWithTs2Diff(long[] values) throws IOException {
+    Encoder encoder = new LongDeltaEncoder();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    for (int page = 0; page < 3; page++) {
+      for (long value : values) {
+        encoder.encode(value, baos);
+      }
+      encoder.flush(baos);
+    }
+    return baos.toByteArray();
+  }
+}
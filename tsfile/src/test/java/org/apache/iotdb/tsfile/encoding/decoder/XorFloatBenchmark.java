@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+/**
+ * XOR based float encoding benchmark. Compare the compression ratio and the encoding and decoding
+ * throughput of GORILLA, CHIMP and ELF on a random walk of doubles and on decimal values with 2
+ * decimal places, which are typical of sensor data.
+ */
+public class XorFloatBenchmark {
+
+  private static int numOfPoint = 1000000;
+  private static int pagePointNum = 10000;
+  private static int round = 10;
+
+  private static final TSEncoding[] ENCODINGS = {TSEncoding.GORILLA, TSEncoding.CHIMP,
+      TSEncoding.ELF};
+
+  public static void main(String[] args) throws IOException {
+    Random random = new Random(1);
+    double[] randomWalk = new double[numOfPoint];
+    double[] decimals = new double[numOfPoint];
+    double walk = 0;
+    long decimal = 2000;
+    for (int i = 0; i < numOfPoint; i++) {
+      walk += random.nextGaussian();
+      randomWalk[i] = walk;
+      decimal += random.nextInt(21) - 10;
+      decimals[i] = decimal / 100.0;
+    }
+    run("random walk", randomWalk);
+    run("2 decimal places", decimals);
+  }
+
+  private static void run(String dataName, double[] values) throws IOException {
+    for (TSEncoding encoding : ENCODINGS) {
+      byte[] encoded = null;
+      long encodeTime = 0;
+      long decodeTime = 0;
+      double checksum = 0;
+      for (int r = 0; r <= round; r++) {
+        long startTime = System.nanoTime();
+        encoded = encode(encoding, values);
+        long encodeEndTime = System.nanoTime();
+        checksum += decode(encoding, encoded);
+        long decodeEndTime = System.nanoTime();
+        // the first round warms up
+        if (r > 0) {
+          encodeTime += encodeEndTime - startTime;
+          decodeTime += decodeEndTime - encodeEndTime;
+        }
+      }
+      System.out.println(String.format(
+          "Data: %s, encoding: %s, ratio: %.2f, encode: %.1f ns/point, decode: %.1f ns/point "
+              + "(checksum %.1f)",
+          dataName, encoding, (double) values.length * Double.BYTES / encoded.length,
+          (double) encodeTime / round / values.length, (double) decodeTime / round / values.length,
+          checksum));
+    }
+  }
+
+  private static byte[] encode(TSEncoding encoding, double[] values) throws IOException {
+    Encoder encoder = TSEncodingBuilder.getEncodingBuilder(encoding).getEncoder(TSDataType.DOUBLE);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // numOfPoint is a multiple of pagePointNum
+    for (int i = 0; i < values.length; i++) {
+      encoder.encode(values[i], out);
+      if ((i + 1) % pagePointNum == 0) {
+        encoder.flush(out);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static double decode(TSEncoding encoding, byte[] encoded) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(encoded);
+    double sum = 0;
+    // a decoder of each page, as a page reader does
+    while (buffer.hasRemaining()) {
+      Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.DOUBLE);
+      for (int i = 0; i < pagePointNum; i++) {
+        sum += decoder.readDouble(buffer);
+      }
+    }
+    return sum;
+  }
+}
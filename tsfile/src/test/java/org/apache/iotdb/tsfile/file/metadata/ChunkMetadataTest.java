@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.file.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+public class ChunkMetadataTest {
+
+  @Test
+  public void testLazyStatistics() throws IOException {
+    List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    for (TSDataType dataType : TSDataType.values()) {
+      Statistics statistics = Statistics.getStatsByType(dataType);
+      for (long time = 10; time < 20; time++) {
+        switch (dataType) {
+          case BOOLEAN:
+            statistics.update(time, time % 2 == 0);
+            break;
+          case INT32:
+            statistics.update(time, (int) time);
+            break;
+          case INT64:
+            statistics.update(time, time);
+            break;
+          case FLOAT:
+            statistics.update(time, (float) time);
+            break;
+          case DOUBLE:
+            statistics.update(time, (double) time);
+            break;
+          case TEXT:
+            statistics.update(time, new Binary("v" + time));
+            break;
+          default:
+            break;
+        }
+      }
+      ChunkMetadata chunkMetadata = new ChunkMetadata("s" + dataType.ordinal(), dataType,
+          dataType.ordinal() * 100L, statistics);
+      chunkMetadata.serializeTo(outputStream);
+      chunkMetadataList.add(chunkMetadata);
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+    for (ChunkMetadata expected : chunkMetadataList) {
+      ChunkMetadata chunkMetadata = ChunkMetadata.deserializeFrom(buffer);
+      assertEquals(expected.getMeasurementUid(), chunkMetadata.getMeasurementUid());
+      assertEquals(expected.getOffsetOfChunkHeader(), chunkMetadata.getOffsetOfChunkHeader());
+      // read from the serialized statistics
+      assertEquals(10, chunkMetadata.getStartTime());
+      assertEquals(19, chunkMetadata.getEndTime());
+      assertEquals(10, chunkMetadata.getNumOfPoints());
+      assertEquals(expected.getStatistics(), chunkMetadata.getStatistics());
+      assertEquals(expected.getStatistics().getFirstValue(),
+          chunkMetadata.getStatistics().getFirstValue());
+      assertEquals(expected.getStatistics().getLastValue(),
+          chunkMetadata.getStatistics().getLastValue());
+    }
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testSketch() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    Statistics seriesStatistics = Statistics.getStatsByType(TSDataType.INT64);
+    for (int chunk = 0; chunk < 3; chunk++) {
+      Statistics statistics = Statistics.getStatsByType(TSDataType.INT64);
+      ValueSketch sketch = ValueSketch.create(TSDataType.INT64, 128, 10);
+      for (long time = chunk * 100; time < chunk * 100 + 100; time++) {
+        statistics.update(time, time % 150);
+        sketch.update(time % 150);
+      }
+      statistics.setSketch(sketch);
+      seriesStatistics.mergeStatistics(statistics);
+      new ChunkMetadata("s1", TSDataType.INT64, chunk * 1000L, statistics)
+          .serializeTo(outputStream);
+    }
+    // a chunk without sketch
+    Statistics statistics = Statistics.getStatsByType(TSDataType.INT64);
+    statistics.update(300, 1L);
+    new ChunkMetadata("s1", TSDataType.INT64, 3000L, statistics).serializeTo(outputStream);
+
+    assertTrue(seriesStatistics.hasSketch());
+    assertEquals(75, seriesStatistics.getSketch().getQuantile(0.5), 10);
+    assertEquals(150, seriesStatistics.getSketch().getDistinctCount(), 5);
+
+    ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+    Statistics mergedStatistics = Statistics.getStatsByType(TSDataType.INT64);
+    for (int chunk = 0; chunk < 3; chunk++) {
+      ChunkMetadata chunkMetadata = ChunkMetadata.deserializeFrom(buffer);
+      assertEquals(TSDataType.INT64, chunkMetadata.getDataType());
+      assertEquals(chunk * 1000L, chunkMetadata.getOffsetOfChunkHeader());
+      assertTrue(chunkMetadata.getStatistics().hasSketch());
+      assertEquals(100, chunkMetadata.getStatistics().getSketch().getDistinctCount(), 5);
+      mergedStatistics.mergeStatistics(chunkMetadata.getStatistics());
+    }
+    assertEquals(seriesStatistics.getSketch().getQuantile(0.5),
+        mergedStatistics.getSketch().getQuantile(0.5), 0);
+    ChunkMetadata chunkMetadata = ChunkMetadata.deserializeFrom(buffer);
+    assertFalse(chunkMetadata.getStatistics().hasSketch());
+    assertFalse(buffer.hasRemaining());
+
+    // the sketch of a series is dropped if one of its chunks has none
+    mergedStatistics.mergeStatistics(chunkMetadata.getStatistics());
+    assertFalse(mergedStatistics.hasSketch());
+  }
+}
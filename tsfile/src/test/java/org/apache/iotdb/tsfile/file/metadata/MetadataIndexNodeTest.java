@@ -19,9 +19,15 @@
 
 package org.apache.iotdb.tsfile.file.metadata;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import org.apache.iotdb.tsfile.file.metadata.enums.MetadataIndexNodeType;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -43,4 +49,59 @@ public class MetadataIndexNodeTest {
     Assert.assertEquals(2, metadataIndexNode.binarySearchInChildren("s13"));
     Assert.assertEquals(4, metadataIndexNode.binarySearchInChildren("s23"));
   }
+
+  @Test
+  public void testSearchInBuffer() throws IOException {
+    List<MetadataIndexEntry> list = new ArrayList<>();
+    String[] names = {"s0", "s10", "s15", "s20", "s5"};
+    for (int i = 0; i < names.length; i++) {
+      list.add(new MetadataIndexEntry(names[i], i * 100L));
+    }
+    list.sort(Comparator.comparing(MetadataIndexEntry::getName));
+    MetadataIndexNode metadataIndexNode = new MetadataIndexNode(list, 1000L,
+        MetadataIndexNodeType.INTERNAL_MEASUREMENT);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    // a prefix to check that the node is read from the position of the buffer
+    outputStream.write(new byte[]{1, 2, 3});
+    metadataIndexNode.serializeTo(outputStream);
+    ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+    buffer.position(3);
+
+    Assert.assertEquals(MetadataIndexNodeType.INTERNAL_MEASUREMENT,
+        MetadataIndexNode.getNodeType(buffer));
+    Assert.assertEquals(1000L, MetadataIndexNode.getEndOffset(buffer));
+    String[] keys = {"a", "s0", "s1", "s10", "s13", "s5", "s6", "z"};
+    for (String key : keys) {
+      Pair<MetadataIndexEntry, Long> expected = metadataIndexNode.getChildIndexEntry(key);
+      Pair<MetadataIndexEntry, Long> actual = MetadataIndexNode
+          .getChildIndexEntry(buffer, key.getBytes());
+      Assert.assertEquals(key, expected.left.getName(), actual.left.getName());
+      Assert.assertEquals(key, expected.left.getOffset(), actual.left.getOffset());
+      Assert.assertEquals(key, expected.right, actual.right);
+    }
+    Assert.assertEquals(3, buffer.position());
+
+    MetadataIndexNode deserialized = MetadataIndexNode.deserializeFrom(buffer);
+    Assert.assertEquals(list.size(), deserialized.getChildren().size());
+    Assert.assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testDeserializeWithoutEntryOffsets() throws IOException {
+    // the layout of TsFile version 000002
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ReadWriteIOUtils.write(2, outputStream);
+    new MetadataIndexEntry("d1", 10L).serializeTo(outputStream);
+    new MetadataIndexEntry("d2", 20L).serializeTo(outputStream);
+    ReadWriteIOUtils.write(30L, outputStream);
+    ReadWriteIOUtils.write(MetadataIndexNodeType.LEAF_DEVICE.serialize(), outputStream);
+
+    ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+    MetadataIndexNode metadataIndexNode = MetadataIndexNode.deserializeFrom(buffer, false);
+    Assert.assertFalse(buffer.hasRemaining());
+    Assert.assertEquals(MetadataIndexNodeType.LEAF_DEVICE, metadataIndexNode.getNodeType());
+    Assert.assertEquals(30L, metadataIndexNode.getEndOffset());
+    Assert.assertEquals("d2", metadataIndexNode.getChildren().get(1).getName());
+    Assert.assertEquals(20L, (long) metadataIndexNode.getChildIndexEntry("d1").right);
+  }
 }
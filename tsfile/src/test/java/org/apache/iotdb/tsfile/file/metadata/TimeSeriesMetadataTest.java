@@ -18,16 +18,24 @@
  */
 package org.apache.iotdb.tsfile.file.metadata;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.iotdb.tsfile.constant.TestConstant;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
 import org.apache.iotdb.tsfile.file.metadata.utils.TestHelper;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -58,6 +66,47 @@ public class TimeSeriesMetadataTest {
     serialized(readMetadata);
   }
 
+  @Test
+  public void testFindInBuffer() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    for (int i = 0; i < 10; i++) {
+      TimeseriesMetadata timeseriesMetadata = TestHelper.createSimpleTimseriesMetaData("s" + i);
+      if (i % 2 == 0) {
+        // the sketches are skipped as well
+        ValueSketch sketch = ValueSketch.create(timeseriesMetadata.getTSDataType(), 128, 10);
+        sketch.update(i);
+        timeseriesMetadata.getStatistics().setSketch(sketch);
+      }
+      timeseriesMetadata.serializeTo(outputStream);
+    }
+    byte[] bytes = outputStream.toByteArray();
+
+    TimeseriesMetadata found = TimeseriesMetadata.deserializeFrom(ByteBuffer.wrap(bytes), "s5");
+    Assert.assertNotNull(found);
+    Assert.assertEquals("s5", found.getMeasurementId());
+    Assert.assertNotNull(found.getStatistics());
+    Assert.assertNull(TimeseriesMetadata.deserializeFrom(ByteBuffer.wrap(bytes), "s"));
+    Assert.assertNull(TimeseriesMetadata.deserializeFrom(ByteBuffer.wrap(bytes), "s10"));
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    Set<String> measurements = new HashSet<>(Arrays.asList("s1", "s9", "s11"));
+    List<String> foundMeasurements = new ArrayList<>();
+    while (buffer.hasRemaining()) {
+      TimeseriesMetadata timeseriesMetadata = TimeseriesMetadata.deserializeFrom(buffer,
+          measurements);
+      if (timeseriesMetadata != null) {
+        foundMeasurements.add(timeseriesMetadata.getMeasurementId());
+      }
+    }
+    Assert.assertEquals(Arrays.asList("s1", "s9"), foundMeasurements);
+
+    found = TimeseriesMetadata.deserializeFrom(ByteBuffer.wrap(bytes), "s8");
+    Assert.assertNotNull(found);
+    Assert.assertEquals(TestHelper.createSimpleTimseriesMetaData("s8").getTSDataType(),
+        found.getTSDataType());
+    Assert.assertEquals(1, found.getStatistics().getSketch().getDistinctCount());
+  }
+
   private TimeseriesMetadata deSerialized() {
     FileInputStream fis = null;
     TimeseriesMetadata metaData = null;
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.constant.TestConstant;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * Metadata lookup benchmark. Compare the latency of looking up the TimeseriesMetadata of every
+ * series through heap buffers and through a memory mapped metadata section, both for the first
+ * lookup of a new reader (cold) and for repeated lookups (warm). The OS page cache is not dropped,
+ * so a cold lookup here only measures a reader without any cached metadata.
+ */
+public class MetadataReadBenchmark {
+
+  private static int numOfDevice = 100;
+  private static int numOfMeasurement = 1000;
+  private static int numOfPoint = 10;
+  private static int warmRound = 10;
+
+  public static void main(String[] args) throws IOException, WriteProcessException {
+    File file = new File(TestConstant.BASE_OUTPUT_PATH.concat("metadataBenchmark.tsfile"));
+    List<Path> paths = writeFile(file);
+    TSFileDescriptor.getInstance().getConfig().setMaxMappedMetadataNum(1);
+    try {
+      for (boolean mapped : new boolean[]{false, true}) {
+        try (TsFileSequenceReader reader = new TsFileSequenceReader(file.getPath())) {
+          if (mapped) {
+            reader.mapMetadata();
+          }
+          long startTime = System.nanoTime();
+          lookUp(reader, paths);
+          long coldTime = System.nanoTime() - startTime;
+          startTime = System.nanoTime();
+          for (int i = 0; i < warmRound; i++) {
+            lookUp(reader, paths);
+          }
+          long warmTime = (System.nanoTime() - startTime) / warmRound;
+          System.out.println(String.format(
+              "Mapped: %s, num of series: %d, cold lookup: %d ns/series, warm lookup: %d ns/series",
+              mapped, paths.size(), coldTime / paths.size(), warmTime / paths.size()));
+        }
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static void lookUp(TsFileSequenceReader reader, List<Path> paths) throws IOException {
+    for (Path path : paths) {
+      if (reader.readTimeseriesMetadata(path) == null) {
+        throw new IOException("Cannot find " + path);
+      }
+    }
+  }
+
+  private static List<Path> writeFile(File file) throws IOException, WriteProcessException {
+    if (file.exists()) {
+      file.delete();
+    }
+    List<Path> paths = new ArrayList<>();
+    TsFileWriter writer = new TsFileWriter(file);
+    for (int i = 0; i < numOfDevice; i++) {
+      for (int j = 0; j < numOfMeasurement; j++) {
+        Path path = new Path("d" + i, "s" + j);
+        writer.registerTimeseries(path,
+            new MeasurementSchema("s" + j, TSDataType.INT64, TSEncoding.RLE));
+        paths.add(path);
+      }
+    }
+    for (int i = 0; i < numOfDevice; i++) {
+      for (long time = 0; time < numOfPoint; time++) {
+        TSRecord record = new TSRecord(time, "d" + i);
+        for (int j = 0; j < numOfMeasurement; j++) {
+          record.addTuple(new LongDataPoint("s" + j, time));
+        }
+        writer.write(record);
+      }
+    }
+    writer.close();
+    return paths;
+  }
+}
@@ -19,20 +19,28 @@
 
 package org.apache.iotdb.tsfile.read;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.file.MetaMarker;
 import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.FileGenerator;
 import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -108,4 +116,79 @@ public class TsFileSequenceReaderTest {
      */
     reader.close();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCopyChunk() throws IOException {
+    File copiedFile = new File(FILE_PATH + ".copy");
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(FILE_PATH)) {
+      TsFileIOWriter writer = new TsFileIOWriter(copiedFile);
+      for (String device : reader.getAllDevices()) {
+        writer.startChunkGroup(device);
+        for (List<ChunkMetadata> chunkMetadataList : reader.readChunkMetadataInDevice(device)
+            .values()) {
+          for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+            writer.copyChunk(reader, chunkMetadata);
+          }
+        }
+        writer.endChunkGroup();
+      }
+      writer.endFile();
+
+      try (TsFileSequenceReader copiedReader = new TsFileSequenceReader(copiedFile.getPath())) {
+        List<Path> paths = reader.getAllPaths();
+        Assert.assertEquals(paths.size(), copiedReader.getAllPaths().size());
+        for (Path path : paths) {
+          List<ChunkMetadata> chunkMetadataList = reader.getChunkMetadataList(path);
+          List<ChunkMetadata> copiedMetadataList = copiedReader.getChunkMetadataList(path);
+          Assert.assertEquals(chunkMetadataList.size(), copiedMetadataList.size());
+          for (int i = 0; i < chunkMetadataList.size(); i++) {
+            Chunk chunk = reader.readMemChunk(chunkMetadataList.get(i));
+            Chunk copiedChunk = copiedReader.readMemChunk(copiedMetadataList.get(i));
+            Assert.assertEquals(chunk.getHeader().getNumOfPages(),
+                copiedChunk.getHeader().getNumOfPages());
+            Assert.assertEquals(chunk.getData(), copiedChunk.getData());
+          }
+        }
+      }
+    } finally {
+      copiedFile.delete();
+    }
+  }
+
+  @Test
+  public void testMapMetadata() throws IOException {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    int prevMaxMappedMetadataNum = config.getMaxMappedMetadataNum();
+    config.setMaxMappedMetadataNum(1);
+    try (TsFileSequenceReader plainReader = new TsFileSequenceReader(FILE_PATH)) {
+      TsFileSequenceReader mappedReader = new TsFileSequenceReader(FILE_PATH);
+      Assert.assertTrue(mappedReader.mapMetadata());
+      Assert.assertTrue(mappedReader.isMetadataMapped());
+
+      List<Path> paths = plainReader.getAllPaths();
+      Assert.assertEquals(paths, mappedReader.getAllPaths());
+      for (Path path : paths) {
+        TimeseriesMetadata expected = plainReader.readTimeseriesMetadata(path);
+        TimeseriesMetadata actual = mappedReader.readTimeseriesMetadata(path);
+        Assert.assertEquals(expected.getOffsetOfChunkMetaDataList(),
+            actual.getOffsetOfChunkMetaDataList());
+        Assert.assertEquals(expected.getStatistics(), actual.getStatistics());
+        List<ChunkMetadata> chunkMetadataList = mappedReader.getChunkMetadataList(path);
+        Assert.assertEquals(plainReader.getChunkMetadataList(path), chunkMetadataList);
+        for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+          Chunk chunk = mappedReader.readMemChunk(chunkMetadata);
+          Assert.assertEquals(chunkMetadata.getNumOfPoints() > 0, chunk.getData().remaining() > 0);
+        }
+      }
+
+      // the limit of mapped readers is reached
+      TsFileSequenceReader anotherReader = new TsFileSequenceReader(FILE_PATH);
+      Assert.assertFalse(anotherReader.mapMetadata());
+      mappedReader.close();
+      Assert.assertTrue(anotherReader.mapMetadata());
+      anotherReader.close();
+    } finally {
+      config.setMaxMappedMetadataNum(prevMaxMappedMetadataNum);
+    }
+  }
+}
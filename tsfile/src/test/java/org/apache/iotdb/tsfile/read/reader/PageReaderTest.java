@@ -23,20 +23,27 @@ import java.nio.ByteBuffer;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DictionaryDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DoublePrecisionDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.IntRleDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.LongRleDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.SinglePrecisionDecoder;
 import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
 import org.apache.iotdb.tsfile.encoding.encoder.IntRleEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.LongRleEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoder;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
@@ -142,6 +149,117 @@ public class PageReaderTest {
     test.test(TSDataType.TEXT);
   }
 
+  @Test
+  public void testDictionaryBinary() {
+    LoopWriteReadTest test = new LoopWriteReadTest("Test Dictionary",
+        new DictionaryEncoder(1000, 16 * 1024), new DictionaryDecoder(), TSDataType.TEXT,
+        POINTS_COUNT_IN_ONE_PAGE) {
+      @Override
+      public Object generateValueByIndex(int i) {
+        return new Binary("STATE " + i % 10);
+      }
+    };
+    test.test(TSDataType.TEXT);
+  }
+
+  @Test
+  public void testDictionaryFilter() throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new DictionaryEncoder(1000, 16 * 1024));
+    pageWriter.initStatistics(TSDataType.TEXT);
+    for (long i = 0; i < 100; i++) {
+      pageWriter.write(i, new Binary("STATE " + i % 10));
+    }
+    byte[] page = pageWriter.getUncompressedBytes().array();
+
+    Filter valueFilter = ValueFilter.eq(new Binary("STATE 3"));
+    BatchData data = new PageReader(ByteBuffer.wrap(page), TSDataType.TEXT,
+        new DictionaryDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder(), valueFilter)
+        .getAllSatisfiedPageData();
+    int count = 0;
+    while (data.hasCurrent()) {
+      Assert.assertEquals(3, data.currentTime() % 10);
+      Assert.assertEquals(new Binary("STATE 3"), data.currentValue());
+      data.next();
+      count++;
+    }
+    Assert.assertEquals(10, count);
+
+    Filter mixedFilter = FilterFactory
+        .and(TimeFilter.gtEq(50L), ValueFilter.notEq(new Binary("STATE 3")));
+    data = new PageReader(ByteBuffer.wrap(page), TSDataType.TEXT, new DictionaryDecoder(),
+        new DeltaBinaryDecoder.LongDeltaDecoder(), mixedFilter).getAllSatisfiedPageData();
+    count = 0;
+    while (data.hasCurrent()) {
+      Assert.assertTrue(data.currentTime() >= 50 && data.currentTime() % 10 != 3);
+      data.next();
+      count++;
+    }
+    Assert.assertEquals(45, count);
+  }
+
+  @Test
+  public void testDeleteIntervals() throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new LongRleEncoder(EndianType.BIG_ENDIAN));
+    pageWriter.initStatistics(TSDataType.INT64);
+    for (long i = 0; i < 100; i++) {
+      pageWriter.write(i, i);
+    }
+    ByteBuffer page = ByteBuffer.wrap(pageWriter.getUncompressedBytes().array());
+    PageReader pageReader = new PageReader(page, TSDataType.INT64,
+        new LongRleDecoder(EndianType.BIG_ENDIAN), new DeltaBinaryDecoder.LongDeltaDecoder(), null);
+
+    ChunkMetadata chunkMetadata = new ChunkMetadata("s1", TSDataType.INT64, 0, null);
+    chunkMetadata.insertIntoSortedDeletions(50, 59);
+    chunkMetadata.insertIntoSortedDeletions(Long.MIN_VALUE, 9);
+    chunkMetadata.insertIntoSortedDeletions(60, 69);
+    chunkMetadata.insertIntoSortedDeletions(90, 200);
+    Assert.assertEquals(3, chunkMetadata.getDeleteIntervalList().size());
+    pageReader.setDeleteIntervalList(chunkMetadata.getDeleteIntervalList());
+
+    BatchData data = pageReader.getAllSatisfiedPageData();
+    int count = 0;
+    while (data.hasCurrent()) {
+      long time = data.currentTime();
+      Assert.assertTrue(time >= 10 && time < 50 || time >= 70 && time < 90);
+      data.next();
+      count++;
+    }
+    Assert.assertEquals(60, count);
+  }
+
+  @Test
+  public void testTimesOnly() throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(new DoublePrecisionEncoder());
+    pageWriter.initStatistics(TSDataType.DOUBLE);
+    for (long i = 0; i < 100; i++) {
+      pageWriter.write(i, i / 10.0);
+    }
+    ByteBuffer page = ByteBuffer.wrap(pageWriter.getUncompressedBytes().array());
+    PageReader pageReader = new PageReader(page, TSDataType.DOUBLE, new DoublePrecisionDecoder(),
+        new DeltaBinaryDecoder.LongDeltaDecoder(), TimeFilter.gtEq(30L));
+
+    ChunkMetadata chunkMetadata = new ChunkMetadata("s1", TSDataType.DOUBLE, 0, null);
+    chunkMetadata.insertIntoSortedDeletions(50, 59);
+    pageReader.setDeleteIntervalList(chunkMetadata.getDeleteIntervalList());
+
+    BatchData data = pageReader.getAllSatisfiedPageTimes();
+    Assert.assertEquals(60, data.length());
+    Assert.assertEquals(99, data.getMaxTimestamp());
+    long expected = 30;
+    while (data.hasCurrent()) {
+      Assert.assertEquals(expected, data.currentTime());
+      data.next();
+      expected = expected == 49 ? 60 : expected + 1;
+    }
+    Assert.assertEquals(100, expected);
+  }
+
   private abstract static class LoopWriteReadTest {
 
     private Encoder encoder;
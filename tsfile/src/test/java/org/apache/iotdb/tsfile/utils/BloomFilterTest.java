@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.utils;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -64,4 +65,20 @@ public class BloomFilterTest {
     assertTrue(filter1.contains(value2));
     assertTrue(filter1.contains(value3));
   }
+
+  @Test
+  public void testPrecomputedHash() {
+    BloomFilter small = BloomFilter.getEmptyBloomFilter(0.05, 3);
+    BloomFilter large = BloomFilter.getEmptyBloomFilter(0.01, 1000);
+    for (int i = 0; i < 3; i++) {
+      small.add("device1.s" + i);
+      large.add("device1.s" + i);
+    }
+    for (int i = 0; i < 100; i++) {
+      String value = "device1.s" + i;
+      int[] hashes = BloomFilter.hash(value);
+      assertEquals(small.contains(value), small.contains(hashes));
+      assertEquals(large.contains(value), large.contains(hashes));
+    }
+  }
 }
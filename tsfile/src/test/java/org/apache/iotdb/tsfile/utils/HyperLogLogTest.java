@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+  @Test
+  public void testCardinality() throws IOException {
+    HyperLogLog sketch = new HyperLogLog(10);
+    for (int i = 0; i < 100; i++) {
+      // duplicates are not counted
+      sketch.offer(HyperLogLog.hash(i % 50));
+    }
+    assertEquals(50, sketch.getCardinality(), 3);
+
+    for (long i = 0; i < 100000; i++) {
+      sketch.offer(HyperLogLog.hash(i));
+    }
+    assertEquals(100000, sketch.getCardinality(), 100000 * 0.1);
+
+    PublicBAOS outputStream = new PublicBAOS();
+    sketch.serialize(outputStream);
+    HyperLogLog deserialized = HyperLogLog
+        .deserialize(ByteBuffer.wrap(outputStream.getBuf(), 0, outputStream.size()));
+    assertEquals(sketch.getCardinality(), deserialized.getCardinality());
+  }
+
+  @Test
+  public void testMergeDifferentPrecisions() throws IOException {
+    HyperLogLog low = new HyperLogLog(8);
+    HyperLogLog high = new HyperLogLog(12);
+    HyperLogLog expected = new HyperLogLog(8);
+    for (int i = 0; i < 20000; i++) {
+      byte[] value = ("v" + i).getBytes();
+      if (i % 2 == 0) {
+        low.offer(HyperLogLog.hash(value));
+      } else {
+        high.offer(HyperLogLog.hash(value));
+      }
+      expected.offer(HyperLogLog.hash(value));
+    }
+    HyperLogLog merged = high.copy();
+    merged.merge(low);
+    low.merge(high);
+    // folding a sketch gives the same registers as offering the values to the lower precision
+    assertEquals(8, merged.getPrecision());
+    assertEquals(expected.getCardinality(), merged.getCardinality());
+    assertEquals(expected.getCardinality(), low.getCardinality());
+
+    PublicBAOS outputStream = new PublicBAOS();
+    new HyperLogLog(12).serialize(outputStream);
+    // an empty sketch is serialized sparsely
+    assertEquals(6, outputStream.size());
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+
+public class KllSketchTest {
+
+  @Test
+  public void testExact() {
+    KllSketch sketch = new KllSketch(128);
+    for (int i = 100; i > 0; i--) {
+      sketch.update(i);
+    }
+    assertEquals(100, sketch.getCount());
+    assertEquals(1, sketch.getQuantile(0), 0);
+    assertEquals(50, sketch.getQuantile(0.5), 0);
+    assertEquals(90, sketch.getQuantile(0.9), 0);
+    assertEquals(100, sketch.getQuantile(1), 0);
+    assertTrue(Double.isNaN(new KllSketch(128).getQuantile(0.5)));
+  }
+
+  @Test
+  public void testMergeAndSerialize() throws IOException {
+    int n = 100000;
+    Random random = new Random(1);
+    KllSketch sketch = new KllSketch(128);
+    KllSketch other = new KllSketch(128);
+    for (int i = 0; i < n; i++) {
+      // a shuffled permutation of [0, n)
+      int value = (int) ((i * 7919L) % n);
+      if (random.nextBoolean()) {
+        sketch.update(value);
+      } else {
+        other.update(value);
+      }
+    }
+    sketch.merge(other);
+    assertEquals(n, sketch.getCount());
+
+    PublicBAOS outputStream = new PublicBAOS();
+    sketch.serialize(outputStream);
+    KllSketch deserialized = KllSketch
+        .deserialize(ByteBuffer.wrap(outputStream.getBuf(), 0, outputStream.size()));
+    for (double rank = 0.1; rank < 1; rank += 0.1) {
+      assertEquals(rank * n, sketch.getQuantile(rank), 0.02 * n);
+      assertEquals(sketch.getQuantile(rank), deserialized.getQuantile(rank), 0);
+    }
+    assertEquals(0, deserialized.getQuantile(0), 0);
+    assertEquals(n - 1, deserialized.getQuantile(1), 0);
+    // the sketch keeps O(k) values
+    assertTrue(outputStream.size() < 1000 * Double.BYTES);
+  }
+}
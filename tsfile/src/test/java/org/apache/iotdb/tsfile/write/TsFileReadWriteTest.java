@@ -19,33 +19,48 @@
 package org.apache.iotdb.tsfile.write;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.file.metadata.statistics.ValueSketch;
 import org.apache.iotdb.tsfile.read.ReadOnlyTsFile;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.BooleanDataPoint;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
 import org.apache.iotdb.tsfile.write.record.datapoint.DoubleDataPoint;
 import org.apache.iotdb.tsfile.write.record.datapoint.FloatDataPoint;
 import org.apache.iotdb.tsfile.write.record.datapoint.IntDataPoint;
 import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.record.datapoint.StringDataPoint;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.constant.TestConstant;
 
@@ -96,6 +111,64 @@ public class TsFileReadWriteTest {
     readData((i, field, delta) -> assertEquals(i, field.getDoubleV(), delta));
   }
 
+  @Test
+  public void regularTimeEncodingTest() throws IOException, WriteProcessException {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    String timeEncoder = config.getTimeEncoder();
+    config.setTimeEncoder(TSEncoding.TS_REGULAR.name());
+    try {
+      writeDataByTSRecord(TSDataType.INT64, (i) -> new LongDataPoint("sensor_1", i),
+          TSEncoding.TS_REGULAR);
+      readData((i, field, delta) -> assertEquals(i, field.getLongV()));
+    } finally {
+      config.setTimeEncoder(timeEncoder);
+    }
+  }
+
+  @Test
+  public void sketchStatisticsTest() throws IOException, WriteProcessException {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    config.setEnableSketchStatistics(true);
+    int pointNum = 10000;
+    try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_1"),
+          new MeasurementSchema("sensor_1", TSDataType.INT64, TSEncoding.RLE));
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_2"),
+          new MeasurementSchema("sensor_2", TSDataType.TEXT, TSEncoding.PLAIN));
+      for (long i = 1; i <= pointNum; i++) {
+        TSRecord tsRecord = new TSRecord(i, "device_1");
+        tsRecord.addTuple(new LongDataPoint("sensor_1", i % 1000));
+        tsRecord.addTuple(new StringDataPoint("sensor_2", new Binary("v" + i % 100)));
+        tsFileWriter.write(tsRecord);
+      }
+    } finally {
+      config.setEnableSketchStatistics(false);
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      ValueSketch sketch = reader.readTimeseriesMetadata(new Path("device_1", "sensor_1"))
+          .getStatistics().getSketch();
+      assertEquals(500, sketch.getQuantile(0.5), 1000 * 0.05);
+      assertEquals(1000, sketch.getDistinctCount(), 1000 * 0.1);
+      for (ChunkMetadata chunkMetadata : reader
+          .getChunkMetadataList(new Path("device_1", "sensor_2"))) {
+        assertTrue(chunkMetadata.getStatistics().hasSketch());
+      }
+      sketch = reader.readTimeseriesMetadata(new Path("device_1", "sensor_2"))
+          .getStatistics().getSketch();
+      assertFalse(sketch.hasQuantiles());
+      assertEquals(100, sketch.getDistinctCount(), 100 * 0.1);
+    }
+    readData((i, field, delta) -> assertEquals(i % 1000, field.getLongV()));
+  }
+
+  @Test
+  public void elfTest() throws IOException, WriteProcessException {
+    writeDataByTSRecord(TSDataType.DOUBLE, (i) -> new DoubleDataPoint("sensor_1", i / 100.0),
+        TSEncoding.ELF);
+    readData((i, field, delta) -> assertEquals(i / 100.0, field.getDoubleV(), 0));
+  }
+
   // If no dataPoint in "device_1.sensor_2", it will throws a nomeasurement
   // exception,
   // cause no schema in tsfilemetadata anymore.
@@ -140,6 +213,198 @@ public class TsFileReadWriteTest {
     TSFileDescriptor.getInstance().getConfig().setTimeEncoder("TS_2DIFF");
   }
 
+  @Test
+  public void autoEncodingTest() throws IOException, WriteProcessException {
+    int pointNum = 3000;
+    Random random = new Random(0);
+    try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_1"),
+          new MeasurementSchema("sensor_1", TSDataType.INT64, TSEncoding.AUTO));
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_2"),
+          new MeasurementSchema("sensor_2", TSDataType.DOUBLE, TSEncoding.AUTO));
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_3"),
+          new MeasurementSchema("sensor_3", TSDataType.BOOLEAN, TSEncoding.AUTO));
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_4"),
+          new MeasurementSchema("sensor_4", TSDataType.INT32, TSEncoding.AUTO));
+      for (long i = 1; i <= pointNum; i++) {
+        TSRecord tsRecord = new TSRecord(i, "device_1");
+        tsRecord.addTuple(new LongDataPoint("sensor_1", i * 10));
+        tsRecord.addTuple(new DoubleDataPoint("sensor_2", 1.5));
+        tsRecord.addTuple(new BooleanDataPoint("sensor_3", true));
+        tsRecord.addTuple(new IntDataPoint("sensor_4", random.nextInt()));
+        tsFileWriter.write(tsRecord);
+      }
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      TSEncoding[] expected = {TSEncoding.TS_2DIFF, TSEncoding.GORILLA, TSEncoding.RLE,
+          TSEncoding.PLAIN};
+      for (int i = 0; i < expected.length; i++) {
+        for (ChunkMetadata chunkMetadata : reader
+            .getChunkMetadataList(new Path("device_1", "sensor_" + (i + 1)))) {
+          assertEquals(expected[i],
+              reader.readMemChunk(chunkMetadata).getHeader().getEncodingType());
+        }
+      }
+
+      ArrayList<Path> paths = new ArrayList<>();
+      for (int i = 1; i <= expected.length; i++) {
+        paths.add(new Path("device_1", "sensor_" + i));
+      }
+      QueryDataSet queryDataSet = new ReadOnlyTsFile(reader)
+          .query(QueryExpression.create(paths, null));
+      random = new Random(0);
+      long i = 1;
+      while (queryDataSet.hasNext()) {
+        RowRecord r = queryDataSet.next();
+        assertEquals(i, r.getTimestamp());
+        assertEquals(i * 10, r.getFields().get(0).getLongV());
+        assertEquals(1.5, r.getFields().get(1).getDoubleV(), delta);
+        assertTrue(r.getFields().get(2).getBoolV());
+        assertEquals(random.nextInt(), r.getFields().get(3).getIntV());
+        i++;
+      }
+      assertEquals(pointNum + 1, i);
+    }
+  }
+
+  @Test
+  public void alignedDeviceTest() throws IOException, WriteProcessException {
+    int maxNumberOfPointsInPage = TSFileDescriptor.getInstance().getConfig()
+        .getMaxNumberOfPointsInPage();
+    TSFileDescriptor.getInstance().getConfig().setMaxNumberOfPointsInPage(100);
+    int rowNum = 1000;
+    try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
+      tsFileWriter.registerAlignedDevice("device_1");
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_1"),
+          new MeasurementSchema("sensor_1", TSDataType.INT64, TSEncoding.TS_2DIFF));
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_2"),
+          new MeasurementSchema("sensor_2", TSDataType.DOUBLE, TSEncoding.GORILLA));
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_3"),
+          new MeasurementSchema("sensor_3", TSDataType.TEXT, TSEncoding.PLAIN));
+      for (long i = 1; i <= rowNum; i++) {
+        TSRecord tsRecord = new TSRecord(i, "device_1");
+        tsRecord.addTuple(new LongDataPoint("sensor_1", i));
+        // sensor_2 is null in odd rows, and sensor_3 is null in all but the first two pages
+        if (i % 2 == 0) {
+          tsRecord.addTuple(new DoubleDataPoint("sensor_2", i * 1.5));
+        }
+        if (i < 150) {
+          tsRecord.addTuple(new StringDataPoint("sensor_3", new Binary("v" + i)));
+        }
+        tsFileWriter.write(tsRecord);
+        if (i == rowNum / 2) {
+          tsFileWriter.flushAllChunkGroups();
+        }
+      }
+    } finally {
+      TSFileDescriptor.getInstance().getConfig()
+          .setMaxNumberOfPointsInPage(maxNumberOfPointsInPage);
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      ReadOnlyTsFile readOnlyTsFile = new ReadOnlyTsFile(reader);
+      QueryDataSet dataSet = readOnlyTsFile.query(QueryExpression
+          .create(Collections.singletonList(new Path("device_1", "sensor_2")), null));
+      long i = 2;
+      while (dataSet.hasNext()) {
+        RowRecord r = dataSet.next();
+        assertEquals(i, r.getTimestamp());
+        assertEquals(i * 1.5, r.getFields().get(0).getDoubleV(), delta);
+        i += 2;
+      }
+      assertEquals(rowNum + 2, i);
+
+      dataSet = readOnlyTsFile.query(QueryExpression.create(
+          Collections.singletonList(new Path("device_1", "sensor_3")), null));
+      i = 1;
+      while (dataSet.hasNext()) {
+        RowRecord r = dataSet.next();
+        assertEquals(i, r.getTimestamp());
+        assertEquals("v" + i, r.getFields().get(0).getStringValue());
+        i++;
+      }
+      assertEquals(150, i);
+
+      // the values are filtered with the timestamps of the time chunk
+      dataSet = readOnlyTsFile.query(QueryExpression.create(
+          Collections.singletonList(new Path("device_1", "sensor_2")),
+          new SingleSeriesExpression(new Path("device_1", "sensor_2"),
+              ValueFilter.gt(1200.0))));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        assertTrue(dataSet.next().getTimestamp() > 800);
+        count++;
+      }
+      assertEquals(100, count);
+
+      // sensor_3 of the second chunk group is all null
+      List<ChunkGroupMetadata> chunkGroupMetadataList = new ArrayList<>();
+      reader.selfCheck(new HashMap<>(), chunkGroupMetadataList, new ArrayList<>(), false);
+      assertEquals(2, chunkGroupMetadataList.size());
+      assertEquals(3, chunkGroupMetadataList.get(0).getChunkMetadataList().size());
+      assertEquals(2, chunkGroupMetadataList.get(1).getChunkMetadataList().size());
+      for (ChunkMetadata chunkMetadata : chunkGroupMetadataList.get(0).getChunkMetadataList()) {
+        if (chunkMetadata.getMeasurementUid().equals("sensor_2")) {
+          assertEquals(250, chunkMetadata.getStatistics().getCount());
+          assertEquals(3.0, (double) chunkMetadata.getStatistics().getMinValue(), delta);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void dictionaryEncodingTest() throws IOException, WriteProcessException {
+    int pointNum = 10000;
+    try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_1"),
+          new MeasurementSchema("sensor_1", TSDataType.TEXT, TSEncoding.PLAIN_DICTIONARY));
+      tsFileWriter.registerTimeseries(new Path("device_1", "sensor_2"),
+          new MeasurementSchema("sensor_2", TSDataType.TEXT, TSEncoding.AUTO));
+      for (long i = 1; i <= pointNum; i++) {
+        TSRecord tsRecord = new TSRecord(i, "device_1");
+        tsRecord.addTuple(new StringDataPoint("sensor_1", new Binary("state" + i % 5)));
+        tsRecord.addTuple(new StringDataPoint("sensor_2", new Binary("value" + i)));
+        tsFileWriter.write(tsRecord);
+      }
+    }
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+      for (int i = 1; i <= 2; i++) {
+        for (ChunkMetadata chunkMetadata : reader
+            .getChunkMetadataList(new Path("device_1", "sensor_" + i))) {
+          assertEquals(TSEncoding.PLAIN_DICTIONARY,
+              reader.readMemChunk(chunkMetadata).getHeader().getEncodingType());
+        }
+      }
+
+      ReadOnlyTsFile readOnlyTsFile = new ReadOnlyTsFile(reader);
+      QueryDataSet dataSet = readOnlyTsFile.query(QueryExpression.create(
+          Arrays.asList(new Path("device_1", "sensor_1"), new Path("device_1", "sensor_2")),
+          null));
+      long i = 1;
+      while (dataSet.hasNext()) {
+        RowRecord r = dataSet.next();
+        assertEquals(i, r.getTimestamp());
+        assertEquals("state" + i % 5, r.getFields().get(0).getStringValue());
+        assertEquals("value" + i, r.getFields().get(1).getStringValue());
+        i++;
+      }
+      assertEquals(pointNum + 1, i);
+
+      dataSet = readOnlyTsFile.query(QueryExpression.create(
+          Collections.singletonList(new Path("device_1", "sensor_1")),
+          new SingleSeriesExpression(new Path("device_1", "sensor_1"),
+              ValueFilter.eq(new Binary("state2")))));
+      int count = 0;
+      while (dataSet.hasNext()) {
+        assertEquals(2, dataSet.next().getTimestamp() % 5);
+        count++;
+      }
+      assertEquals(pointNum / 5, count);
+    }
+  }
+
   private void writeDataByTSRecord(TSDataType dataType, DataPointProxy proxy, TSEncoding encodingType)
       throws IOException, WriteProcessException {
     int floatCount = 1024 * 1024 * 13 + 1023;
@@ -27,6 +27,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.write.TsFileWriter;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
@@ -56,6 +57,15 @@ public class ForceAppendTsFileWriterTest {
     writer.close();
     ForceAppendTsFileWriter fwriter = new ForceAppendTsFileWriter(file);
     assertEquals(firstMetadataPosition, fwriter.getTruncatePosition());
+
+    // the chunks before the truncate position are kept after the file is ended again
+    fwriter.doTruncate();
+    fwriter.endFile();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(file.getPath())) {
+      assertEquals(1, reader.getChunkMetadataList(new Path("d1.s1")).size());
+      assertEquals(1, reader.getChunkMetadataList(new Path("d1.s2")).size());
+    }
+    file.delete();
   }
 
 }
@@ -20,11 +20,18 @@ package org.apache.iotdb.tsfile.write.writer;
 
 import org.apache.iotdb.tsfile.constant.TestConstant;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
 import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -34,6 +41,8 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Test;
 
@@ -218,4 +227,43 @@ public class PageWriterTest {
       fail();
     }
   }
+
+  @Test
+  public void testWriteCompressedPages() throws IOException {
+    PageWriter writer = new PageWriter(
+        new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.TS_2DIFF, CompressionType.SNAPPY));
+    PublicBAOS pageBuffer = new PublicBAOS();
+    // the second page is smaller than the first one, so that the reused buffers hold stale bytes
+    int[] pointNums = {10000, 10};
+    for (int pointNum : pointNums) {
+      for (int i = 0; i < pointNum; i++) {
+        writer.write(i, (long) pointNum - i);
+      }
+      writer.writePageHeaderAndDataIntoBuff(pageBuffer);
+      writer.reset(new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.TS_2DIFF));
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(pageBuffer.getBuf(), 0, pageBuffer.size());
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(CompressionType.SNAPPY);
+    for (int pointNum : pointNums) {
+      PageHeader header = PageHeader.deserializeFrom(buffer, TSDataType.INT64);
+      assertEquals((long) pointNum, header.getNumOfValues());
+      byte[] uncompressed = new byte[header.getUncompressedSize()];
+      unCompressor.uncompress(buffer.array(), buffer.position(), header.getCompressedSize(),
+          uncompressed, 0);
+      buffer.position(buffer.position() + header.getCompressedSize());
+
+      BatchData data = new PageReader(ByteBuffer.wrap(uncompressed), TSDataType.INT64,
+          new DeltaBinaryDecoder.LongDeltaDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder(),
+          null).getAllSatisfiedPageData();
+      for (int i = 0; i < pointNum; i++) {
+        assertTrue(data.hasCurrent());
+        assertEquals(i, data.currentTime());
+        assertEquals((long) pointNum - i, data.getLong());
+        data.next();
+      }
+      assertFalse(data.hasCurrent());
+    }
+    assertFalse(buffer.hasRemaining());
+  }
 }